@@ -12,6 +12,8 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     // Table associant sa multiplicité à chaque élément de l'ensemble.
     // Invariant : toutes les multiplicités sont strictement positives (> 0).
     private final SortedMap<E, Integer> elements;
+    // Nombre d'éléments (calculé une seule fois, le multiensemble étant immuable).
+    private final int size;
 
     /**
      * Crée un multiensemble vide.
@@ -89,6 +91,9 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     private SortedBag(SortedMap<E, Integer> elements) {
         assert elements.values().stream().allMatch(n -> n > 0);
         this.elements = Collections.unmodifiableSortedMap(elements);
+        var size = 0;
+        for (var n : elements.values()) size += n;
+        this.size = size;
     }
 
     /**
@@ -106,9 +111,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return le nombre d'éléments dans le multiensemble.
      */
     public int size() {
-        return elements.values().stream()
-                .mapToInt(Integer::intValue)
-                .sum();
+        return size;
     }
 
     /**
@@ -188,6 +191,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
 
     /**
      * Retourne tous les sous-ensembles du multiensemble ayant une taille donnée.
+     * L'ensemble retourné les contient dans l'ordre de <code>subsetsOfSizeIterator</code>.
      *
      * @param size la taille des sous-ensembles à retourner
      * @return l'ensemble des sous-ensembles de <code>this</code> de taille <code>size</code>
@@ -196,18 +200,26 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      *                                  la taille du multiensemble
      */
     public Set<SortedBag<E>> subsetsOfSize(int size) {
+        var result = new LinkedHashSet<SortedBag<E>>();
+        subsetsOfSizeIterator(size).forEachRemaining(result::add);
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Retourne un itérateur sur les sous-ensembles du multiensemble ayant une taille donnée, qui les calcule au fur
+     * et à mesure (sans récursion, ni doublons, ni multiensembles intermédiaires). Les sous-ensembles sont énumérés
+     * dans l'ordre lexicographique de leurs multiplicités : d'abord ceux contenant le moins d'occurrences du plus
+     * petit élément, etc.
+     *
+     * @param size la taille des sous-ensembles à énumérer
+     * @return un itérateur sur les sous-ensembles de <code>this</code> de taille <code>size</code>
+     *
+     * @throws IllegalArgumentException si <code>size</code> n'est pas comprise entre 0 et
+     *                                  la taille du multiensemble
+     */
+    public Iterator<SortedBag<E>> subsetsOfSizeIterator(int size) {
         Preconditions.checkArgument(0 <= size && size <= size());
-        if (size == 0)
-            return Set.of(SortedBag.of());
-
-        var result = new HashSet<SortedBag<E>>();
-        for (var e1 : elements.keySet()) {
-            var s1 = SortedBag.of(e1);
-            this.difference(s1)
-                    .subsetsOfSize(size - 1)
-                    .forEach(e -> result.add(s1.union(e)));
-        }
-        return result;
+        return new SubsetsIterator<>(this, size);
     }
 
     /**
@@ -298,6 +310,66 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
         return j.toString();
     }
 
+    // Itérateur sur les sous-ensembles de taille donnée d'un multiensemble, qui énumère les vecteurs de multiplicités
+    // (x0, ..., xk-1) tels que 0 <= xi <= ni et x0 + ... + xk-1 = size, par ordre lexicographique croissant.
+    private static final class SubsetsIterator<E extends Comparable<E>> implements Iterator<SortedBag<E>> {
+        private final List<E> keys;
+        private final int[] counts;       // multiplicités ni des éléments du multiensemble
+        private final int[] suffixCounts; // suffixCounts[i] = ni + ... + nk-1
+        private final int[] subset;       // multiplicités xi du prochain sous-ensemble
+        private boolean hasNext = true;
+
+        private SubsetsIterator(SortedBag<E> bag, int size) {
+            keys = new ArrayList<>(bag.elements.keySet());
+            var k = keys.size();
+            counts = new int[k];
+            suffixCounts = new int[k + 1];
+            subset = new int[k];
+            for (var i = 0; i < k; i++) counts[i] = bag.elements.get(keys.get(i));
+            for (var i = k - 1; i >= 0; i--) suffixCounts[i] = suffixCounts[i + 1] + counts[i];
+            fillFrom(0, size);
+        }
+
+        // Donne aux multiplicités à partir de from les plus petites valeurs (lexicographiquement) dont la somme est
+        // remaining, i.e. chacune prend ce que les suivantes ne peuvent pas prendre.
+        private void fillFrom(int from, int remaining) {
+            for (var i = from; i < subset.length; i++) {
+                subset[i] = Math.max(0, remaining - suffixCounts[i + 1]);
+                remaining -= subset[i];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public SortedBag<E> next() {
+            if (!hasNext) throw new NoSuchElementException();
+
+            var elements = new TreeMap<E, Integer>();
+            for (var i = 0; i < subset.length; i++) {
+                if (subset[i] > 0) elements.put(keys.get(i), subset[i]);
+            }
+
+            // Le suivant est obtenu en augmentant la multiplicité la plus à droite possible, en prenant une
+            // occurrence aux multiplicités qui la suivent, puis en donnant à celles-ci les plus petites valeurs.
+            hasNext = false;
+            var suffixSum = 0;
+            for (var i = subset.length - 1; i >= 0; i--) {
+                if (suffixSum > 0 && subset[i] < counts[i]) {
+                    subset[i] += 1;
+                    fillFrom(i + 1, suffixSum - 1);
+                    hasNext = true;
+                    break;
+                }
+                suffixSum += subset[i];
+            }
+            return new SortedBag<>(elements);
+        }
+    }
+
     /**
      * Bâtisseur de multiensemble.
      *
@@ -9,16 +9,18 @@ import static ch.epfl.tchu.game.Constants.*;
 
 /**
  * The purpose of this class is to represent the visible and the hidden informations on wagon/locomotive cards
- * that are not in the player's hands
+ * that are not in the player's hands.
+ * A new state shares the decks of the original one (see <code>Deck</code>) and the discards are packed
+ * (see <code>PackedCards</code>), hence deriving a state does not depend on the number of cards.
  * @author Mehdi Bouguerra Ezzina (314857)
  */
 public final class CardState extends PublicCardState {
 
     private final Deck<Card> drawDeck;
-    private final SortedBag<Card> discardDeck;
+    private final long discardDeck; //see PackedCards
 
-    private CardState(List<Card> faceUpCards, Deck<Card> drawDeck, SortedBag<Card> discardDeck) {
-        super(faceUpCards, drawDeck.size(), discardDeck.size());
+    private CardState(List<Card> faceUpCards, Deck<Card> drawDeck, long discardDeck) {
+        super(faceUpCards, drawDeck.size(), PackedCards.size(discardDeck));
         this.drawDeck = drawDeck;
         this.discardDeck = discardDeck;
     }
@@ -37,7 +39,36 @@ public final class CardState extends PublicCardState {
 
         List<Card> faceUpCards = deck.topCards(FACE_UP_CARDS_COUNT).toList();
         Deck<Card> drawDeck = deck.withoutTopCards(FACE_UP_CARDS_COUNT);
-        return new CardState(faceUpCards, drawDeck, SortedBag.of());
+        return new CardState(faceUpCards, drawDeck, PackedCards.EMPTY);
+    }
+
+    /**
+     * Gives the CardState made of the given face up cards, draw deck and discard deck (used by the players which
+     * simulate games from guesses of the cards they do not know)
+     * @param faceUpCards the five face up cards
+     * @param drawDeck    the draw deck
+     * @param discardDeck the cards of the discard deck
+     * @return the CardState made of the given cards
+     * @throws IllegalArgumentException if there are not exactly 5 face up cards
+     */
+    static CardState of(List<Card> faceUpCards, Deck<Card> drawDeck, SortedBag<Card> discardDeck) {
+        return new CardState(faceUpCards, drawDeck, PackedCards.pack(discardDeck));
+    }
+
+    /**
+     * Gives the draw deck (used to save the state, see <code>GameSnapshot</code>)
+     * @return the draw deck
+     */
+    Deck<Card> drawDeck() {
+        return drawDeck;
+    }
+
+    /**
+     * Gives the discard deck (used to save the state, see <code>GameSnapshot</code>)
+     * @return the cards of the discard deck, packed (see <code>PackedCards</code>)
+     */
+    long packedDiscards() {
+        return discardDeck;
     }
 
     /**
@@ -54,10 +85,10 @@ public final class CardState extends PublicCardState {
         Objects.checkIndex(slot, FACE_UP_CARDS_COUNT);
         Preconditions.checkArgument(!isDeckEmpty());
 
-        List<Card> newFaceUpCards = new ArrayList<>(faceUpCards());
-        newFaceUpCards.set(slot, drawDeck.topCard());
+        Card[] newFaceUpCards = faceUpCards().toArray(new Card[FACE_UP_CARDS_COUNT]);
+        newFaceUpCards[slot] = drawDeck.topCard();
 
-        return new CardState(newFaceUpCards, drawDeck.withoutTopCard(), discardDeck);
+        return new CardState(List.of(newFaceUpCards), drawDeck.withoutTopCard(), discardDeck);
     }
 
     /**
@@ -91,7 +122,7 @@ public final class CardState extends PublicCardState {
      */
     public CardState withDeckRecreatedFromDiscards(Random rng) {
         Preconditions.checkArgument(isDeckEmpty());
-        return new CardState(faceUpCards(), Deck.of(discardDeck, rng), SortedBag.of());
+        return new CardState(faceUpCards(), Deck.of(PackedCards.unpack(discardDeck), rng), PackedCards.EMPTY);
     }
 
     /**
@@ -100,6 +131,7 @@ public final class CardState extends PublicCardState {
      * @return a CardState identical to the original, but with additional cards added to the discard deck
      */
     public CardState withMoreDiscardedCards(SortedBag<Card> additionalDiscards) {
-        return new CardState(faceUpCards(), drawDeck, discardDeck.union(additionalDiscards));
+        return new CardState(faceUpCards(), drawDeck,
+                             PackedCards.union(discardDeck, PackedCards.pack(additionalDiscards)));
     }
 }
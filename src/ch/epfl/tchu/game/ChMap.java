@@ -21,6 +21,10 @@ public final class ChMap {
         return ALL_TICKETS;
     }
 
+    public static ClaimIndex claimIndex() {
+        return CLAIM_INDEX;
+    }
+
     // Stations - cities
     private static final Station BAD = new Station(0, "Baden");
     private static final Station BAL = new Station(1, "Bâle");
@@ -184,6 +188,8 @@ public final class ChMap {
     private static final Ticket itToNeighbors = ticketToNeighbors(IT, 13, 6, 0, 11);
     private static final Ticket frToNeighbors = ticketToNeighbors(FR, 5, 14, 11, 0);
 
+    private static final ClaimIndex CLAIM_INDEX = new ClaimIndex(ALL_ROUTES);
+
     private static final List<Ticket> ALL_TICKETS = List.of(
             // City-to-city tickets
             new Ticket(BAL, BER, 5),
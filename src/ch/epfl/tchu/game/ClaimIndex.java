@@ -0,0 +1,119 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.util.*;
+
+import static ch.epfl.tchu.game.Card.CARS;
+import static ch.epfl.tchu.game.Card.LOCOMOTIVE;
+import static ch.epfl.tchu.game.Route.Level.UNDERGROUND;
+
+/**
+ * Immutable index of a list of routes, giving the routes a player can attempt to claim with its cards without
+ * looking at the combinations of cards of each route. The routes are grouped by color (neutral ones apart) and by
+ * level, and sorted by length in each group: the claimable routes of a group are then the ones shorter than the number
+ * of cards of the color of the group (plus the number of locomotives for tunnels), i.e. a prefix of the group.
+ * <p>
+ * The claimable routes are given either as a list, or as a mask of their indices filled without allocating anything
+ * (for the simulations of <code>MctsPlayer</code>).
+ *
+ * @author Noah Munz (310779)
+ */
+public final class ClaimIndex {
+
+    //values() gives a new array at each call
+    private final static Route.Level[] LEVELS = Route.Level.values();
+
+    private final List<Route> routes;
+    //indices (in routes) of the routes of each group, sorted by length: group of color c and level l at
+    //groups[c.ordinal() * 2 + l.ordinal()] (c being LOCOMOTIVE for the neutral routes)
+    private final int[][] groups;
+    private final int[] lengths;
+
+    /**
+     * Builds the index of the given routes
+     * @param routes the routes to index
+     */
+    public ClaimIndex(List<Route> routes) {
+        this.routes = List.copyOf(routes);
+        this.lengths = routes.stream().mapToInt(Route::length).toArray();
+
+        List<List<Integer>> groupsLists = new ArrayList<>();
+        for (int g = 0; g < Card.COUNT * LEVELS.length; g++) groupsLists.add(new ArrayList<>());
+        for (int i = 0; i < routes.size(); i++) groupsLists.get(group(routes.get(i))).add(i);
+
+        groups = new int[groupsLists.size()][];
+        for (int g = 0; g < groups.length; g++) {
+            groups[g] = groupsLists.get(g).stream()
+                                   .sorted(Comparator.comparingInt(i -> lengths[i]))
+                                   .mapToInt(Integer::intValue)
+                                   .toArray();
+        }
+    }
+
+    /**
+     * Gives the routes (of this index) the given player can attempt to claim, i.e. the ones for which it has enough
+     * cars and one of the combinations of <code>Route.possibleClaimCards</code>
+     * @param playerState the state of the player
+     * @return the claimable routes, in the order of the list given to the constructor (including those already claimed)
+     */
+    public List<Route> claimableRoutes(PlayerState playerState) {
+        long[] claimable = new long[maskLength()];
+        claimableRoutes(playerState, claimable);
+
+        List<Route> claimableRoutes = new ArrayList<>();
+        for (int i = 0; i < routes.size(); i++) {
+            if ((claimable[i / Long.SIZE] & 1L << i) != 0) claimableRoutes.add(routes.get(i));
+        }
+        return claimableRoutes;
+    }
+
+    /**
+     * Gives the routes (of this index) the given player can attempt to claim, as <code>claimableRoutes</code> does,
+     * in the given mask: the route at index i of the list given to the constructor is claimable if and only if the
+     * bit <code>i % 64</code> of <code>claimable[i / 64]</code> is set
+     * @param playerState the state of the player
+     * @param claimable   the mask to fill, of <code>maskLength()</code> longs (whose previous bits are cleared)
+     * @throws IllegalArgumentException if the mask is too short
+     */
+    public void claimableRoutes(PlayerState playerState, long[] claimable) {
+        Preconditions.checkArgument(claimable.length >= maskLength());
+        Arrays.fill(claimable, 0);
+        long cards = playerState.packedCards();
+        int locomotives = PackedCards.countOf(cards, LOCOMOTIVE), maxCars = 0;
+
+        for (Card car : CARS) {
+            int count = PackedCards.countOf(cards, car);
+            maxCars = Math.max(maxCars, count);
+            mark(car, count, locomotives, playerState.carCount(), claimable);
+        }
+        mark(LOCOMOTIVE, maxCars, locomotives, playerState.carCount(), claimable);
+    }
+
+    /**
+     * Gives the number of longs of a mask of the routes of this index
+     * @return the length of the masks given to <code>claimableRoutes</code>
+     */
+    public int maskLength() {
+        return (routes.size() + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Marks the routes of the groups of the given card which are not longer than the given number of cards
+     * (plus the number of locomotives for tunnels) nor than the given number of cars
+     */
+    private void mark(Card card, int count, int locomotives, int carCount, long[] claimable) {
+        for (Route.Level level : LEVELS) {
+            int maxLength = Math.min(carCount, level == UNDERGROUND ? count + locomotives : count);
+            for (int i : groups[card.ordinal() * 2 + level.ordinal()]) {
+                if (lengths[i] > maxLength) break;
+                claimable[i / Long.SIZE] |= 1L << i;
+            }
+        }
+    }
+
+    private static int group(Route route) {
+        Card card = route.color() == null ? LOCOMOTIVE : Card.of(route.color());
+        return card.ordinal() * 2 + route.level().ordinal();
+    }
+}
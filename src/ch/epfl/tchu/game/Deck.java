@@ -4,21 +4,24 @@ import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * The purpose of this class is to represent a pile of cards from the game
- * (therefore we are not talking only about the cards represented by the class Card)
+ * (therefore we are not talking only about the cards represented by the class Card).
+ * The decks obtained by removing cards from the top of a deck share its (immutable) list of cards: they only keep the
+ * index of their top card in it, hence removing cards does not copy the remaining ones.
  * @author Mehdi Bouguerra Ezzina (314857)
  */
 public final class Deck<C extends Comparable<C>> {
 
-    private final List<C> cards;
+    private final List<C> cards; //shared between the decks obtained from the same shuffled deck
+    private final int top; //index of the top card in cards
     private final int size;
 
-    private Deck(List<C> cards) {
-        this.cards = List.copyOf(cards);
-        this.size = cards.size();
+    private Deck(List<C> cards, int top) {
+        this.cards = cards;
+        this.top = top;
+        this.size = cards.size() - top;
     }
 
     /**
@@ -30,7 +33,24 @@ public final class Deck<C extends Comparable<C>> {
     public static <C extends Comparable<C>> Deck<C> of(SortedBag<C> cards, Random rng) {
         List<C> newCards = cards.toList();
         Collections.shuffle(newCards, rng);
-        return new Deck<>(newCards);
+        return new Deck<>(List.copyOf(newCards), 0);
+    }
+
+    /**
+     * Gives the deck made of the given cards, in the given order (used to restore a deck, see <code>GameSnapshot</code>)
+     * @param cards the cards of the deck, from the top one to the bottom one
+     * @return the deck made of the given cards, not shuffled
+     */
+    static <C extends Comparable<C>> Deck<C> ofOrdered(List<C> cards) {
+        return new Deck<>(List.copyOf(cards), 0);
+    }
+
+    /**
+     * Gives the cards of the deck, in order
+     * @return the cards of the deck, from the top one to the bottom one
+     */
+    List<C> toList() {
+        return cards.subList(top, cards.size());
     }
 
     /**
@@ -46,7 +66,7 @@ public final class Deck<C extends Comparable<C>> {
      * @return true if the Deck is empty or false if not
      */
     public boolean isEmpty() {
-        return cards.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -57,7 +77,7 @@ public final class Deck<C extends Comparable<C>> {
      */
     public C topCard() {
         Preconditions.checkArgument(!isEmpty());
-        return cards.get(0);
+        return cards.get(top);
     }
 
     /**
@@ -82,9 +102,7 @@ public final class Deck<C extends Comparable<C>> {
         Preconditions.checkArgument(0 <= count && count <= size);
 
         SortedBag.Builder<C> sortedBag = new SortedBag.Builder<>();
-        cards.stream()
-             .limit(count)
-             .forEach(sortedBag::add);
+        for (C card : cards.subList(top, top + count)) sortedBag.add(card);
 
         return sortedBag.build();
     }
@@ -99,8 +117,6 @@ public final class Deck<C extends Comparable<C>> {
     public Deck<C> withoutTopCards(int count) {
         Preconditions.checkArgument(0 <= count && count <= size);
 
-        List<C> newCards = cards.subList(count, size);
-
-        return new Deck<>(newCards);
+        return count == 0 ? this : new Deck<>(cards, top + count);
     }
 }
@@ -2,8 +2,8 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
-import ch.epfl.tchu.gui.Info;
 
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -13,24 +13,69 @@ import static ch.epfl.tchu.game.Constants.*;
 import static ch.epfl.tchu.game.PlayerId.*;
 
 /**
- * Represent a game of tCHu
+ * Represent a game of tCHu (i.e. one table). Each instance holds its own state so that several games can be played
+ * concurrently, e.g. by submitting them to the same thread pool.
  * @author Noah Munz (310779)
  * @author Mehdi Bouguerra Ezzina (314857)
  */
-public final class Game {
+public final class Game implements Runnable {
+
+    private final Map<PlayerId, Player> players;
+    private final Map<PlayerId, String> playerNames;
+    private final SortedBag<Ticket> tickets;
+    private final Random rng;
+    private final GameJournal journal;
+
+    //store the snapshots of the game are saved to every snapshotInterval turns, null if there is none
+    private GameSnapshotStore snapshotStore;
+    private String tableId;
+    private int snapshotInterval;
+    private GameSnapshot resumedSnapshot; //snapshot the first game resumes from, null if it starts from the beginning
+
+    private Map<PlayerId, GameEvent.Factory> infos;
+    private final Map<PlayerId, SortedBag<Ticket>> initialTickets = new EnumMap<>(PlayerId.class);
+    private GameState gameState;
+    private ResumableRandom random; //random generator of the current game
+    private int turnCount;
+    private GameResult result;
+
+    private Player currentPlayer;
+    private PlayerState currentPlayerState;
 
-    private static Map<PlayerId, Player> players;
-    private static Map<PlayerId, Info> infos;
-    private static GameState gameState;
+    /**
+     * Creates a new game (table) that will be played when <code>run</code> is called
+     * @param playersMap  Map containing the two players, associated to their IDs
+     * @param playerNames Map containing the name of the two players, associated to their IDs
+     * @param tickets     SortedBag of the tickets for this game
+     * @param rng         Random generator used for the game (it must not be shared with another game)
+     * @param journal     journal recording the games of this table (see <code>GameJournal</code>), may be null
+     *
+     * @throws IllegalArgumentException if one of the two maps does not contain exactly two pairs key/value
+     */
+    public Game(Map<PlayerId, Player> playersMap, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, Random rng,
+                GameJournal journal) {
+        //check that the 2 maps rightfully have 2 pairs key/value
+        Preconditions.checkArgument(playersMap.size() == PlayerId.COUNT && playerNames.size() == PlayerId.COUNT);
 
-    private static Player currentPlayer;
-    private static PlayerState currentPlayerState;
+        //EnumMaps so that the players are always iterated in the same order (PLAYER_1 then PLAYER_2)
+        this.players = new EnumMap<>(playersMap);
+        this.playerNames = new EnumMap<>(playerNames);
+        this.tickets = tickets;
+        this.rng = rng;
+        this.journal = journal;
+    }
 
     /**
-     * private constructor to remove the default one and make Game not instantiable
+     * Creates a new game (table), without journal, that will be played when <code>run</code> is called
+     * @param playersMap  Map containing the two players, associated to their IDs
+     * @param playerNames Map containing the name of the two players, associated to their IDs
+     * @param tickets     SortedBag of the tickets for this game
+     * @param rng         Random generator used for the game (it must not be shared with another game)
+     *
+     * @throws IllegalArgumentException if one of the two maps does not contain exactly two pairs key/value
      */
-    private Game() {
-        throw new UnsupportedOperationException();
+    public Game(Map<PlayerId, Player> playersMap, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, Random rng) {
+        this(playersMap, playerNames, tickets, rng, null);
     }
 
     /**
@@ -41,30 +86,85 @@ public final class Game {
      * @param rng         Random generator used for the game
      */
     public static void play(Map<PlayerId, Player> playersMap, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, Random rng) {
+        new Game(playersMap, playerNames, tickets, rng).run();
+    }
+
+    /**
+     * Creates a game (table) resuming, when <code>run</code> is called, the game of the given snapshot (taken by
+     * another instance, e.g. before the server crashed)
+     * @param playersMap  Map containing the two players, associated to their IDs
+     * @param playerNames Map containing the name of the two players, associated to their IDs
+     * @param tickets     SortedBag of the tickets for this game (the ones of the game of the snapshot)
+     * @param snapshot    the snapshot of the game to resume
+     * @return the game resuming the one of the snapshot (then playing the rematches with new random generators)
+     *
+     * @throws IllegalArgumentException if one of the two maps does not contain exactly two pairs key/value
+     */
+    public static Game resume(Map<PlayerId, Player> playersMap, Map<PlayerId, String> playerNames,
+                              SortedBag<Ticket> tickets, GameSnapshot snapshot) {
+        Game game = new Game(playersMap, playerNames, tickets, new Random());
+        game.resumedSnapshot = snapshot;
+        return game;
+    }
+
+    /**
+     * Makes this game save a snapshot of its state in the given store every given number of turns (the snapshot is
+     * deleted once the game is over), so that it can be resumed if the program is stopped
+     * @param store    the store of the snapshots
+     * @param tableId  the identifier of this table in the store
+     * @param interval the number of turns between two snapshots
+     *
+     * @throws IllegalArgumentException if the interval is not strictly positive
+     */
+    public void saveSnapshots(GameSnapshotStore store, String tableId, int interval) {
+        Preconditions.checkArgument(interval > 0);
+        this.snapshotStore = store;
+        this.tableId = tableId;
+        this.snapshotInterval = interval;
+    }
+
+    /**
+     * Gives the result of the last game played by <code>run</code>
+     * @return the result of the last game played (the last rematch if there were some), or null if none was played
+     */
+    public GameResult result() {
+        return result;
+    }
+
+    /**
+     * makes the players of this game play (as many rematches as they ask for). Each game is played with its own
+     * Random generator, seeded with the next long of the one of the table, so that it can be replayed from its seed.
+     */
+    @Override
+    public void run() {
         boolean rematch = false;
-        Random random = rng;
         do {
-            //initialize Game
-            initGame(playersMap, playerNames, tickets, random, rematch);
-
-            //handle mid-Game actions :
-            boolean isGameFinished = false, isLastTurnTriggered = false;
+            if (resumedSnapshot != null) {
+                random = resumedSnapshot.random();
+                restoreGame(resumedSnapshot);
+                resumedSnapshot = null;
+            }
+            else {
+                long seed = rng.nextLong();
+                random = new ResumableRandom(seed);
+                if (journal != null) journal.gameStarted(seed);
 
-            while (!isGameFinished) {
-                isGameFinished = isLastTurnTriggered;
-                isLastTurnTriggered = playATurn(rng) || playATurn(rng);
-                //play player1's turn and then player2's turn and register if any of it triggers the last turn
+                //initialize Game
+                initGame(random, rematch);
             }
 
+            //handle mid-Game actions: the game ends after the turn of the last player
+            boolean isGameFinished = false;
+            while (!isGameFinished) isGameFinished = playATurn(random);
+
             //handle endGame Actions:
-            endGame(playerNames);
+            endGame();
+            if (snapshotStore != null) snapshotStore.delete(tableId);
 
             //ask for a rematch
-            playersMap.forEach((id, player) -> player.askForRematch());
+            players.forEach((id, player) -> player.askForRematch());
 
-            if(rematch = (playersMap.get(PLAYER_1).rematchResponse() && playersMap.get(PLAYER_2).rematchResponse())) {
-                random = new Random();
-            }
+            rematch = players.get(PLAYER_1).rematchResponse() && players.get(PLAYER_2).rematchResponse();
 
         } while (rematch);
     }
@@ -77,26 +177,20 @@ public final class Game {
 
     /**
      * "Constructs" an initial state of the Game
-     * @param playersMap  map of couples [PlayerId, Player]
-     * @param playerNames map of couples [PlayerId, PlayerName (as a String)]
-     * @param tickets     SortedBag of tickets
-     * @param rng         Random generator
+     * @param rng     Random generator
+     * @param rematch whether this game is a rematch
      */
-    private static void initGame(Map<PlayerId, Player> playersMap, Map<PlayerId, String> playerNames,
-                                 SortedBag<Ticket> tickets, Random rng, Boolean rematch) {
-
-        //check that the 2 maps rightfully have 2 pairs key/value
-        Preconditions.checkArgument(playersMap.size() == PlayerId.COUNT && playerNames.size() == PlayerId.COUNT);
+    private void initGame(Random rng, Boolean rematch) {
 
         //communicate the ids to both players
-        playersMap.forEach((playerId, player) -> player.initPlayers(playerId, playerNames, rematch));
+        players.forEach((playerId, player) -> player.initPlayers(playerId, playerNames, rematch));
 
         //create the initial state of the game
         gameState = GameState.initial(tickets, rng);
-        players = playersMap;
-        infos = playerNames.entrySet()
-                           .stream()
-                           .collect(Collectors.toMap((Map.Entry::getKey), (set -> new Info(set.getValue()))));
+        turnCount = 0;
+        infos = players.keySet()
+                       .stream()
+                       .collect(Collectors.toMap(id -> id, id -> new GameEvent.Factory(id, playerNames)));
 
         //communicate the id of the player that will player 1st
         informAll(infos.get(gameState.currentPlayerId()).willPlayFirst());
@@ -106,7 +200,8 @@ public final class Game {
 
         //communicate to both players the tickets they initially drawn et takes them out of the tickets deck
         players.forEach((id, player) -> {
-            player.setInitialTicketChoice(gameState.topTickets(INITIAL_TICKETS_COUNT));
+            initialTickets.put(id, gameState.topTickets(INITIAL_TICKETS_COUNT));
+            player.setInitialTicketChoice(initialTickets.get(id));
             gameState = gameState.withoutTopTickets(INITIAL_TICKETS_COUNT);
         });
 
@@ -119,30 +214,50 @@ public final class Game {
         informAll(infos.get(PLAYER_2).keptTickets(keptTickets2));
     }
 
-    private static int selectInitialTickets(PlayerId id, Player player) {
+    private int selectInitialTickets(PlayerId id, Player player) {
         //adds the tickets he has chosen to his hand
         informAll(infos.get(id).drewTickets(INITIAL_TICKETS_COUNT));
         updateAllStates(gameState);
         SortedBag<Ticket> keptTickets = player.chooseInitialTickets();
+        if (journal != null) journal.initialTicketsChosen(id, initialTickets.get(id), keptTickets);
         gameState = gameState.withInitiallyChosenTickets(id, keptTickets);
 
         return keptTickets.size();
     }
 
+    /**
+     * Restores the game of the given snapshot: the players are initialized again (they may be new instances, e.g.
+     * after their clients reconnected) and receive the restored state
+     * @param snapshot the snapshot of the game
+     */
+    private void restoreGame(GameSnapshot snapshot) {
+        players.forEach((playerId, player) -> player.initPlayers(playerId, playerNames, false));
+
+        gameState = snapshot.state();
+        turnCount = snapshot.turnCount();
+        infos = players.keySet()
+                       .stream()
+                       .collect(Collectors.toMap(id -> id, id -> new GameEvent.Factory(id, playerNames)));
+
+        updateAllStates(gameState);
+        currentPlayer = players.get(gameState.currentPlayerId());
+        currentPlayerState = gameState.currentPlayerState();
+    }
+
     /*
     ===============================================
     Group of methods concerning the end of the game
     ===============================================
      */
 
-    private static void endGame(Map<PlayerId, String> playerNames) {
+    private void endGame() {
         updateAllStates(gameState);
 
         int finalPoints1 = gameState.playerState(PLAYER_1).finalPoints();
-        Trail longest1 = Trail.longest(gameState.playerState(PLAYER_1).routes());
+        Trail longest1 = gameState.playerState(PLAYER_1).longestTrail();
 
         int finalPoints2 = gameState.playerState(PLAYER_2).finalPoints();
-        Trail longest2 = Trail.longest(gameState.playerState(PLAYER_2).routes());
+        Trail longest2 = gameState.playerState(PLAYER_2).longestTrail();
 
         //attribute the bonus of the longest trail if one of the two players has it
         if (longest1.length() > longest2.length()) {
@@ -162,16 +277,16 @@ public final class Game {
         }
 
         //announce the winner of the game or a draw
-        winnerOrDraw(finalPoints1, finalPoints2, playerNames);
+        winnerOrDraw(finalPoints1, finalPoints2);
+        result = new GameResult(gameState, finalPoints1, finalPoints2, turnCount);
+        if (journal != null) journal.gameEnded();
     }
 
-    private static void winnerOrDraw(int finalPoints1, int finalPoints2, Map<PlayerId, String> playerNames) {
+    private void winnerOrDraw(int finalPoints1, int finalPoints2) {
         if (finalPoints1 > finalPoints2) informAll(infos.get(PLAYER_1).won(finalPoints1, finalPoints2));
 
         else if (finalPoints2 > finalPoints1) informAll(infos.get(PLAYER_2).won(finalPoints2, finalPoints1));
-        else informAll(
-                    Info.draw(List.copyOf(playerNames.values()),
-                              finalPoints1));
+        else informAll(GameEvent.draw(playerNames, finalPoints1));
     }
 
     /*
@@ -184,30 +299,31 @@ public final class Game {
      * Make a turn unfold by asking the current player what does he wants to do, then do it, then end the turn and
      * begin a new one.
      * @param rng Random
-     * @return whether or not last Turn begins
+     * @return whether the game is over, i.e. whether this turn was the one of the last player
      */
-    private static boolean playATurn(Random rng) {
+    private boolean playATurn(Random rng) {
+        ++turnCount;
         informAll(info().canPlay());
 
         //ask the currentPlayer what does he want to do and based on it, play his turn
         chooseWhatToDo(rng);
 
-        boolean lastTurnBegins = gameState.lastTurnBegins();
-        if (lastTurnBegins) {
+        boolean isGameOver = gameState.currentPlayerId() == gameState.lastPlayer();
+        if (gameState.lastTurnBegins()) {
             currentPlayerState = gameState.currentPlayerState();
             informAll(info().lastTurnBegins(currentPlayerState.carCount()));
         }
 
         //triggers next turn and communicate infos
         newTurn();
-        return lastTurnBegins;
+        return isGameOver;
     }
 
     /**
      * Based on the action that the current Player chose => proceed to 1 out of 3 "Actions"
      * @param rng Random
      */
-    private static void chooseWhatToDo(Random rng) {
+    private void chooseWhatToDo(Random rng) {
         updateAllStates(gameState);
         switch (currentPlayer.nextTurn()) {
             case DRAW_TICKETS:
@@ -227,8 +343,12 @@ public final class Game {
     /**
      * Ends turn, inform players about the current state of the game and tells the next player that he can play
      */
-    private static void newTurn() {
+    private void newTurn() {
         gameState = gameState.forNextTurn();
+        if (journal != null) journal.turnEnded();
+        if (snapshotStore != null && turnCount % snapshotInterval == 0) {
+            snapshotStore.save(tableId, new GameSnapshot(gameState, random.state(), turnCount));
+        }
         updateAllStates(gameState);
         currentPlayerState = gameState.currentPlayerState();
         currentPlayer = players.get(gameState.currentPlayerId());
@@ -238,9 +358,10 @@ public final class Game {
      * Action corresponding to the TurnKind Draw Tickets
      * Handles the scenario where a player wants to draw tickets
      */
-    private static void drawTicketsAction() {
+    private void drawTicketsAction() {
         SortedBag<Ticket> ticketsDrawn = gameState.topTickets(IN_GAME_TICKETS_COUNT);
         SortedBag<Ticket> ticketsKept = currentPlayer.chooseTickets(ticketsDrawn);
+        if (journal != null) journal.ticketsChosen(ticketsDrawn, ticketsKept);
 
         gameState = gameState.withChosenAdditionalTickets(ticketsDrawn, ticketsKept);
         informAll(info().drewTickets(IN_GAME_TICKETS_COUNT));
@@ -252,21 +373,22 @@ public final class Game {
      * Handles the scenario where a player wants to draw cards be it from the face up cards or from the draw deck
      * @param rng Random
      */
-    private static void drawCardsAction(Random rng) {
+    private void drawCardsAction(Random rng) {
         for (int i = 0; i < 2; i++) {
             int slot = currentPlayer.drawSlot();
+            if (journal != null) journal.cardDrawn(slot);
             if (slot == DECK_SLOT) drawDeck(rng);
             else drawSlot(rng, slot);
         }
     }
 
-    private static void drawDeck(Random rng) {
+    private void drawDeck(Random rng) {
         gameState = gameState.withCardsDeckRecreatedIfNeeded(rng).withBlindlyDrawnCard();
         updateAllStates(gameState);
         informAll(info().drewBlindCard());
     }
 
-    private static void drawSlot(Random rng, int slot) {
+    private void drawSlot(Random rng, int slot) {
         informAll(info().drewVisibleCard(gameState.cardState().faceUpCard(slot)));
         gameState = checkAndDrawSlot(rng, slot);
         updateAllStates(gameState);
@@ -280,7 +402,7 @@ public final class Game {
      *             !! does not check any condition on slot
      * @return new GameState with the draw deck potentially refilled, and
      */
-    private static GameState checkAndDrawSlot(Random rng, int slot) {
+    private GameState checkAndDrawSlot(Random rng, int slot) {
         return gameState.withCardsDeckRecreatedIfNeeded(rng).withDrawnFaceUpCard(slot);
     }
 
@@ -289,10 +411,11 @@ public final class Game {
      * Handles the scenario where a player wants to take over a Route be it a tunnel or not
      * @param rng Random (for drawing additional cards when attempting to take over a tunnel)
      */
-    private static void claimRouteAction(Random rng) {
+    private void claimRouteAction(Random rng) {
         Route claimedRoute = currentPlayer.claimedRoute();
 
         SortedBag<Card> initialClaimCards = currentPlayer.initialClaimCards();
+        if (journal != null) journal.routeClaimed(claimedRoute, initialClaimCards);
 
         switch (claimedRoute.level()) {
             case OVERGROUND: //if card is not a tunnel => just take the route
@@ -312,7 +435,7 @@ public final class Game {
     /**
      * Attempt to claim a tunnel. See the documentation of the methods called within this one
      */
-    private static void attemptTunnelClaim(Route claimedTunnel, SortedBag<Card> initialClaimCards, Random rng) {
+    private void attemptTunnelClaim(Route claimedTunnel, SortedBag<Card> initialClaimCards, Random rng) {
         informAll(info().attemptsTunnelClaim(claimedTunnel, initialClaimCards));
 
         //draw the 3 necessary cards
@@ -328,7 +451,7 @@ public final class Game {
     /**
      * Handles the part player has to add additional cards in order to take the tunnel, or back down from claiming it
      */
-    private static void handleAdditionalCost(int additionalCount, Route claimedTunnel, SortedBag<Card> initialClaimCards) {
+    private void handleAdditionalCost(int additionalCount, Route claimedTunnel, SortedBag<Card> initialClaimCards) {
         //if they imply an additional cost of at least 1
         if (additionalCount > 0) {
             List<SortedBag<Card>> options = currentPlayerState.possibleAdditionalCards(additionalCount, initialClaimCards);
@@ -347,8 +470,9 @@ public final class Game {
     /**
      * Handles part where player has to choose the additional cards he wants to use in order to claim (or not) the tunnel.
      */
-    private static void chooseAdditionalCards(List<SortedBag<Card>> options, Route claimedTunnel, SortedBag<Card> initialClaimCards) {
+    private void chooseAdditionalCards(List<SortedBag<Card>> options, Route claimedTunnel, SortedBag<Card> initialClaimCards) {
         SortedBag<Card> finalAdditionalCardsUsed = currentPlayer.chooseAdditionalCards(options);
+        if (journal != null) journal.additionalCardsChosen(finalAdditionalCardsUsed);
 
         if (finalAdditionalCardsUsed.isEmpty()) informAll(info().didNotClaimRoute(claimedTunnel));
         else {
@@ -362,7 +486,7 @@ public final class Game {
      * @param rng random
      * @return the sortedBag of the 3 cards
      */
-    private static SortedBag<Card> drawAdditionalCards(Random rng) {
+    private SortedBag<Card> drawAdditionalCards(Random rng) {
         SortedBag.Builder<Card> sbBld = new SortedBag.Builder<>();
         for (int i = 0; i < ADDITIONAL_TUNNEL_CARDS; i++) {
             sbBld.add(gameState.withCardsDeckRecreatedIfNeeded(rng).topCard());
@@ -371,7 +495,7 @@ public final class Game {
         return sbBld.build();
     }
 
-    private static void claimRouteAndInform(Route route, SortedBag<Card> claimCards) {
+    private void claimRouteAndInform(Route route, SortedBag<Card> claimCards) {
         informAll(info().claimedRoute(route, claimCards));
         gameState = gameState.withClaimedRoute(route, claimCards);
     }
@@ -383,18 +507,18 @@ public final class Game {
      */
 
     /**
-     * @return current Info i.e. infos.get(currentGameState.currentPlayerId())
+     * @return current event factory i.e. infos.get(currentGameState.currentPlayerId())
      */
-    private static Info info() {
+    private GameEvent.Factory info() {
         return infos.get(gameState.currentPlayerId());
     }
 
     /**
-     * Transmits <code>info</code> to all Players
-     * @param info info to transmit
+     * Transmits <code>event</code> to all Players (its text is only generated if one of them wants it)
+     * @param event event to transmit
      */
-    private static void informAll(String info) {
-        players.forEach((playerId, player) -> player.receiveInfo(info));
+    private void informAll(GameEvent event) {
+        players.forEach((playerId, player) -> player.receiveEvent(event));
     }
 
     /**
@@ -402,7 +526,7 @@ public final class Game {
      * @param newGameState GameState to replace the old one with <br/>
      *                     (Note: PlayerState is computed from the given GameState)
      */
-    private static void updateAllStates(GameState newGameState) {
+    private void updateAllStates(GameState newGameState) {
         players.forEach((playerId, player) -> player.updateState(newGameState, newGameState.playerState(playerId)));
     }
 
@@ -0,0 +1,328 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.gui.Info;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable event of a game (a route claimed, a card drawn, a tunnel attempt...), sent to the players instead of the
+ * text describing it. The text is only generated (by <code>Info</code>) when <code>text</code> is called, i.e. when
+ * a player wants it, hence the players which only look at the kind and the data of the events (or ignore them) do not
+ * pay for its formatting.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class GameEvent {
+
+    /**
+     * The kinds of events, corresponding to the messages of <code>Info</code>
+     */
+    public enum Kind {
+        WILL_PLAY_FIRST,
+        KEPT_TICKETS,
+        CAN_PLAY,
+        DREW_TICKETS,
+        DREW_BLIND_CARD,
+        DREW_VISIBLE_CARD,
+        CLAIMED_ROUTE,
+        ATTEMPTS_TUNNEL_CLAIM,
+        DREW_ADDITIONAL_CARDS,
+        DID_NOT_CLAIM_ROUTE,
+        LAST_TURN_BEGINS,
+        GETS_LONGEST_TRAIL_BONUS,
+        WON,
+        DRAW;
+
+        /**
+         * Returns an immutable list containing the constants of this enum type, in the order they're declared
+         */
+        public final static List<Kind> ALL = List.of(values());
+    }
+
+    private final Kind kind;
+    private final PlayerId playerId;
+    private final Map<PlayerId, String> playerNames;
+
+    private final int count, otherCount;
+    private final Card card;
+    private final Route route;
+    private final SortedBag<Card> cards;
+    private final Trail trail;
+
+    private String text; //generated the first time it is asked for
+
+    private GameEvent(Kind kind, PlayerId playerId, Map<PlayerId, String> playerNames, int count, int otherCount,
+                      Card card, Route route, SortedBag<Card> cards, Trail trail) {
+        this.kind = kind;
+        this.playerId = playerId;
+        this.playerNames = playerNames;
+        this.count = count;
+        this.otherCount = otherCount;
+        this.card = card;
+        this.route = route;
+        this.cards = cards;
+        this.trail = trail;
+    }
+
+    /**
+     * Gives the event of a draw
+     * @param playerNames the names of the players
+     * @param points      the points obtained by both players
+     * @return the event stating that the game ends in a draw
+     */
+    public static GameEvent draw(Map<PlayerId, String> playerNames, int points) {
+        return new GameEvent(Kind.DRAW, null, Map.copyOf(playerNames), points, points, null, null, null, null);
+    }
+
+    /**
+     * Gives the kind of this event
+     * @return the kind of the event
+     */
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Gives the player this event is about
+     * @return the identity of the player, null for a draw
+     */
+    public PlayerId playerId() {
+        return playerId;
+    }
+
+    /**
+     * Gives the number associated with this event: the number of tickets (KEPT_TICKETS, DREW_TICKETS), of cars
+     * (LAST_TURN_BEGINS), of additional cards (DREW_ADDITIONAL_CARDS) or of points of the player (WON, DRAW)
+     * @return the number associated with the event, 0 if there is none
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Gives the points of the opponent of the winner (WON, DRAW)
+     * @return the points of the loser, 0 for the other kinds of events
+     */
+    public int loserPoints() {
+        return otherCount;
+    }
+
+    /**
+     * Gives the card drawn (DREW_VISIBLE_CARD)
+     * @return the card of the event, null if there is none
+     */
+    public Card card() {
+        return card;
+    }
+
+    /**
+     * Gives the route (CLAIMED_ROUTE, ATTEMPTS_TUNNEL_CLAIM, DID_NOT_CLAIM_ROUTE)
+     * @return the route of the event, null if there is none
+     */
+    public Route route() {
+        return route;
+    }
+
+    /**
+     * Gives the cards used (CLAIMED_ROUTE, ATTEMPTS_TUNNEL_CLAIM) or drawn (DREW_ADDITIONAL_CARDS)
+     * @return the cards of the event, null if there are none
+     */
+    public SortedBag<Card> cards() {
+        return cards;
+    }
+
+    /**
+     * Gives the longest trail of the player (GETS_LONGEST_TRAIL_BONUS)
+     * @return the trail of the event, null if there is none
+     */
+    public Trail trail() {
+        return trail;
+    }
+
+    /**
+     * Gives the text describing this event, as generated by <code>Info</code>
+     * @return the text of the event
+     */
+    public String text() {
+        if (text == null) text = generateText();
+        return text;
+    }
+
+    private String generateText() {
+        if (kind == Kind.DRAW) return Info.draw(List.of(playerNames.get(PlayerId.PLAYER_1),
+                                                        playerNames.get(PlayerId.PLAYER_2)), count);
+
+        Info info = new Info(playerNames.get(playerId));
+        switch (kind) {
+            case WILL_PLAY_FIRST:
+                return info.willPlayFirst();
+            case KEPT_TICKETS:
+                return info.keptTickets(count);
+            case CAN_PLAY:
+                return info.canPlay();
+            case DREW_TICKETS:
+                return info.drewTickets(count);
+            case DREW_BLIND_CARD:
+                return info.drewBlindCard();
+            case DREW_VISIBLE_CARD:
+                return info.drewVisibleCard(card);
+            case CLAIMED_ROUTE:
+                return info.claimedRoute(route, cards);
+            case ATTEMPTS_TUNNEL_CLAIM:
+                return info.attemptsTunnelClaim(route, cards);
+            case DREW_ADDITIONAL_CARDS:
+                return info.drewAdditionalCards(cards, count);
+            case DID_NOT_CLAIM_ROUTE:
+                return info.didNotClaimRoute(route);
+            case LAST_TURN_BEGINS:
+                return info.lastTurnBegins(count);
+            case GETS_LONGEST_TRAIL_BONUS:
+                return info.getsLongestTrailBonus(trail);
+            case WON:
+                return info.won(count, otherCount);
+            default:
+                throw new Error();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return kind + "(" + Objects.toString(playerId, "") + ")";
+    }
+
+    /**
+     * Creates the events of a given player, its methods being the same as the ones of <code>Info</code>
+     * (and taking the same arguments)
+     * @author Noah Munz (310779)
+     */
+    public static final class Factory {
+
+        private final PlayerId playerId;
+        private final Map<PlayerId, String> playerNames;
+
+        /**
+         * Constructs a factory of the events of the given player
+         * @param playerId    the identity of the player
+         * @param playerNames the names of the players (used to generate the texts of the events)
+         */
+        public Factory(PlayerId playerId, Map<PlayerId, String> playerNames) {
+            this.playerId = Objects.requireNonNull(playerId);
+            this.playerNames = Map.copyOf(playerNames);
+        }
+
+        /**
+         * @return the event stating that the player will play first
+         */
+        public GameEvent willPlayFirst() {
+            return of(Kind.WILL_PLAY_FIRST, 0, 0, null, null, null, null);
+        }
+
+        /**
+         * @param count the number of tickets kept by the player
+         * @return the event stating that the player has kept the given number of tickets
+         */
+        public GameEvent keptTickets(int count) {
+            return of(Kind.KEPT_TICKETS, count, 0, null, null, null, null);
+        }
+
+        /**
+         * @return the event stating that the player can play
+         */
+        public GameEvent canPlay() {
+            return of(Kind.CAN_PLAY, 0, 0, null, null, null, null);
+        }
+
+        /**
+         * @param count the number of tickets drawn by the player
+         * @return the event stating that the player has drawn the given number of tickets
+         */
+        public GameEvent drewTickets(int count) {
+            return of(Kind.DREW_TICKETS, count, 0, null, null, null, null);
+        }
+
+        /**
+         * @return the event stating that the player has drawn a card from the draw deck
+         */
+        public GameEvent drewBlindCard() {
+            return of(Kind.DREW_BLIND_CARD, 0, 0, null, null, null, null);
+        }
+
+        /**
+         * @param card the face up card drawn by the player
+         * @return the event stating that the player has drawn the given face up card
+         */
+        public GameEvent drewVisibleCard(Card card) {
+            return of(Kind.DREW_VISIBLE_CARD, 0, 0, card, null, null, null);
+        }
+
+        /**
+         * @param route the route the player has taken
+         * @param cards the cards used by the player to take over the route
+         * @return the event stating that the player has taken the given route using the given cards
+         */
+        public GameEvent claimedRoute(Route route, SortedBag<Card> cards) {
+            return of(Kind.CLAIMED_ROUTE, 0, 0, null, route, cards, null);
+        }
+
+        /**
+         * @param route        the underground route the player want to take
+         * @param initialCards the cards the player intends to use
+         * @return the event stating that the player wishes to take the given underground route using the given cards
+         */
+        public GameEvent attemptsTunnelClaim(Route route, SortedBag<Card> initialCards) {
+            return of(Kind.ATTEMPTS_TUNNEL_CLAIM, 0, 0, null, route, initialCards, null);
+        }
+
+        /**
+         * @param drawnCards     the drawn cards
+         * @param additionalCost the number of additional cards to use
+         * @return the event stating that the player has drawn the three additional cards, and the number of
+         *         additional cards they involve
+         */
+        public GameEvent drewAdditionalCards(SortedBag<Card> drawnCards, int additionalCost) {
+            return of(Kind.DREW_ADDITIONAL_CARDS, additionalCost, 0, null, null, drawnCards, null);
+        }
+
+        /**
+         * @param route the underground route the player could not (or did not want to) take
+         * @return the event stating that the player could not (or did not want to) take the given route
+         */
+        public GameEvent didNotClaimRoute(Route route) {
+            return of(Kind.DID_NOT_CLAIM_ROUTE, 0, 0, null, route, null, null);
+        }
+
+        /**
+         * @param carCount the number of cars of the player (two or less)
+         * @return the event stating that the player has only the given number of cars left, and that the last turn
+         *         is starting
+         */
+        public GameEvent lastTurnBegins(int carCount) {
+            return of(Kind.LAST_TURN_BEGINS, carCount, 0, null, null, null, null);
+        }
+
+        /**
+         * @param longestTrail the longest trail
+         * @return the event stating that the player gets the bonus of the longest trail
+         */
+        public GameEvent getsLongestTrailBonus(Trail longestTrail) {
+            return of(Kind.GETS_LONGEST_TRAIL_BONUS, 0, 0, null, null, null, longestTrail);
+        }
+
+        /**
+         * @param points      the number of point of the player
+         * @param loserPoints the number of point of his opponent
+         * @return the event stating that the player wins the game with the given number of points
+         */
+        public GameEvent won(int points, int loserPoints) {
+            return of(Kind.WON, points, loserPoints, null, null, null, null);
+        }
+
+        private GameEvent of(Kind kind, int count, int otherCount, Card card, Route route, SortedBag<Card> cards,
+                             Trail trail) {
+            return new GameEvent(kind, playerId, playerNames, count, otherCount, card, route, cards, trail);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Append-only binary journal of the games played by a <code>Game</code> (a table): the seed of each game and every
+ * choice of the players, from which <code>GameReplayer</code> rebuilds all the states of the games. Each record is a
+ * byte giving its type followed by its (fixed size) data:
+ * <ul>
+ *     <li><code>GAME_STARTED</code>: the seed of the game (8 bytes),</li>
+ *     <li><code>INITIAL_TICKETS</code>: the player (1 byte) and the tickets it kept (1 byte, see below),</li>
+ *     <li><code>TICKETS</code>: the tickets kept among the ones drawn (1 byte),</li>
+ *     <li><code>CARD_DRAWN</code>: the slot the card was drawn from (1 byte, <code>DECK_SLOT</code> for the deck),</li>
+ *     <li><code>ROUTE_CLAIMED</code>: the index of the route in <code>ChMap.routes()</code> (1 byte) and the initial
+ *     claim cards (8 bytes, see <code>PackedCards</code>),</li>
+ *     <li><code>ADDITIONAL_CARDS</code>: the additional cards used for a tunnel (8 bytes, none if the player gave up),</li>
+ *     <li><code>TURN_ENDED</code> and <code>GAME_ENDED</code>: nothing.</li>
+ * </ul>
+ * The tickets kept are given by a mask of their positions in the sorted list of the tickets offered to the player.
+ * <p>
+ * The records are buffered and written to the file at the end of each turn and of each game (hence a crash of the
+ * program loses at most the turn being played), and the file is only forced to the disk every
+ * <code>syncInterval</code> turns, or at the end of a turn or game if it was not forced for a second (so that a
+ * crash of the system loses at most that), since syncing is by far the most expensive operation. A journal must only
+ * be used by one game.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class GameJournal implements Closeable {
+
+    static final byte GAME_STARTED = 0, INITIAL_TICKETS = 1, TICKETS = 2, CARD_DRAWN = 3, ROUTE_CLAIMED = 4,
+            ADDITIONAL_CARDS = 5, TURN_ENDED = 6, GAME_ENDED = 7;
+
+    private final static int BUFFER_SIZE = 1 << 12;
+    private final static int DEFAULT_SYNC_INTERVAL = 64;
+    private final static long MAX_SYNC_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final int syncInterval;
+    private int unsyncedTurns;
+    private long lastSyncNanos = System.nanoTime();
+
+    /**
+     * Opens the journal stored in the given file, the records being appended to the ones it already contains
+     * @param file         the file of the journal (created if it does not exist)
+     * @param syncInterval the number of turns after which the file is forced to the disk
+     * @throws IllegalArgumentException if the sync interval is not positive
+     * @throws UncheckedIOException     if the file cannot be opened
+     */
+    public GameJournal(Path file, int syncInterval) {
+        Preconditions.checkArgument(syncInterval > 0);
+        this.syncInterval = syncInterval;
+        try {
+            this.channel = FileChannel.open(file, CREATE, WRITE, APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens the journal stored in the given file, forcing it to the disk every 64 turns
+     * @param file the file of the journal (created if it does not exist)
+     */
+    public GameJournal(Path file) {
+        this(file, DEFAULT_SYNC_INTERVAL);
+    }
+
+    void gameStarted(long seed) {
+        record(GAME_STARTED).putLong(seed);
+    }
+
+    void initialTicketsChosen(PlayerId playerId, SortedBag<Ticket> options, SortedBag<Ticket> kept) {
+        record(INITIAL_TICKETS).put((byte) playerId.ordinal()).put(ticketsMask(options, kept));
+    }
+
+    void ticketsChosen(SortedBag<Ticket> options, SortedBag<Ticket> kept) {
+        record(TICKETS).put(ticketsMask(options, kept));
+    }
+
+    void cardDrawn(int slot) {
+        record(CARD_DRAWN).put((byte) slot);
+    }
+
+    void routeClaimed(Route route, SortedBag<Card> initialClaimCards) {
+        record(ROUTE_CLAIMED).put((byte) ChMap.routes().indexOf(route)).putLong(PackedCards.pack(initialClaimCards));
+    }
+
+    void additionalCardsChosen(SortedBag<Card> additionalCards) {
+        record(ADDITIONAL_CARDS).putLong(PackedCards.pack(additionalCards));
+    }
+
+    void turnEnded() {
+        record(TURN_ENDED);
+        write();
+        ++unsyncedTurns;
+        syncIfDue();
+    }
+
+    void gameEnded() {
+        record(GAME_ENDED);
+        write();
+        syncIfDue();
+    }
+
+    /**
+     * Writes the buffered records and forces the file to the disk, then closes it
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    @Override
+    public void close() {
+        write();
+        sync();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gives the mask of the positions (in the sorted list of the options) of the tickets kept
+     */
+    static byte ticketsMask(SortedBag<Ticket> options, SortedBag<Ticket> kept) {
+        List<Ticket> optionsList = options.toList();
+        int mask = 0;
+        for (int i = 0; i < optionsList.size(); i++) {
+            Ticket ticket = optionsList.get(i);
+            //the first occurrences of each ticket are the ones kept
+            if (optionsList.subList(0, i).stream().filter(ticket::equals).count() < kept.countOf(ticket)) {
+                mask |= 1 << i;
+            }
+        }
+        return (byte) mask;
+    }
+
+    /**
+     * Gives the tickets (among the options) of the given mask
+     */
+    static SortedBag<Ticket> keptTickets(SortedBag<Ticket> options, byte mask) {
+        List<Ticket> optionsList = options.toList();
+        SortedBag.Builder<Ticket> kept = new SortedBag.Builder<>();
+        for (int i = 0; i < optionsList.size(); i++) {
+            if ((mask & 1 << i) != 0) kept.add(optionsList.get(i));
+        }
+        return kept.build();
+    }
+
+    /**
+     * Starts a record of the given type, writing the buffer first if the record may not fit in it
+     */
+    private ByteBuffer record(byte type) {
+        if (buffer.remaining() < 1 + 2 * Long.BYTES) write();
+        return buffer.put(type);
+    }
+
+    private void write() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Forces the file to the disk if enough turns were written, or enough time elapsed, since it last was
+     */
+    private void syncIfDue() {
+        if (unsyncedTurns >= syncInterval || System.nanoTime() - lastSyncNanos >= MAX_SYNC_DELAY_NANOS) sync();
+    }
+
+    private void sync() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        unsyncedTurns = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+}
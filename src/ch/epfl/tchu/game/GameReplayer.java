@@ -0,0 +1,260 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.game.Constants.*;
+import static ch.epfl.tchu.game.GameJournal.*;
+
+/**
+ * Rebuilds the states of the games recorded in a journal (see <code>GameJournal</code>) by applying again, from the
+ * seed of each game, the choices of the players, exactly as <code>Game</code> applied them. The journal is read record
+ * by record, through a window of a few kilobytes moving along the file (so that journals of any size can be
+ * replayed): after each call to <code>step</code>, <code>state</code> gives the state of the game once the choice of
+ * the record has been applied.
+ * <p>
+ * A journal whose last record was not completely written (e.g. after a crash) is read up to its last complete record.
+ * The file stays open until the replayer is closed.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class GameReplayer implements Closeable {
+
+    //size of the data of the records, by type
+    private final static int[] DATA_SIZES = {Long.BYTES, 2, 1, 1, 1 + Long.BYTES, Long.BYTES, 0, 0};
+    private final static int WINDOW_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    //part of the journal read and not replayed yet
+    private final ByteBuffer journal = ByteBuffer.allocate(WINDOW_SIZE).flip();
+    private final SortedBag<Ticket> tickets;
+
+    private Random rng;
+    private GameState state;
+    private final Map<PlayerId, SortedBag<Ticket>> initialTickets = new EnumMap<>(PlayerId.class);
+    private int turnCount;
+    private boolean gameOver;
+
+    //tunnel whose additional cost the player has still to pay (or not), null if there is none
+    private Route pendingTunnel;
+    private SortedBag<Card> pendingClaimCards;
+
+    /**
+     * Constructor of GameReplayer, opening the journal
+     * @param journal the file of the journal
+     * @param tickets the tickets the games were played with
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public GameReplayer(Path journal, SortedBag<Ticket> tickets) {
+        try {
+            this.channel = FileChannel.open(journal);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.tickets = tickets;
+    }
+
+    /**
+     * Moves to the beginning of the next game of the journal (skipping what remains of the current one)
+     * @return true if there is one, in which case <code>state</code> is its state once the initial tickets have been
+     * offered to the players, false otherwise
+     */
+    public boolean nextGame() {
+        while (hasRecord()) {
+            if (nextType() == GAME_STARTED) {
+                apply();
+                return true;
+            }
+            journal.position(journal.position() + 1 + DATA_SIZES[nextType()]);
+        }
+        return false;
+    }
+
+    /**
+     * Applies the next record of the current game
+     * @return true if there was one, false if the game is over or if the journal ends here
+     * @throws IllegalStateException if no game was started (see <code>nextGame</code>) or if the journal is invalid
+     */
+    public boolean step() {
+        if (state == null) throw new IllegalStateException("no game started");
+        if (gameOver || !hasRecord() || nextType() == GAME_STARTED) return false;
+        apply();
+        return true;
+    }
+
+    /**
+     * Reads the next record and applies it
+     */
+    private void apply() {
+        byte type = journal.get();
+        switch (type) {
+            case GAME_STARTED:
+                start(journal.getLong());
+                break;
+            case INITIAL_TICKETS:
+                PlayerId playerId = PlayerId.ALL.get(journal.get());
+                state = state.withInitiallyChosenTickets(playerId, keptTickets(initialTickets.get(playerId),
+                                                                               journal.get()));
+                break;
+            case TICKETS:
+                SortedBag<Ticket> drawnTickets = state.topTickets(IN_GAME_TICKETS_COUNT);
+                state = state.withChosenAdditionalTickets(drawnTickets, keptTickets(drawnTickets, journal.get()));
+                break;
+            case CARD_DRAWN:
+                int slot = journal.get();
+                state = state.withCardsDeckRecreatedIfNeeded(rng);
+                state = slot == DECK_SLOT ? state.withBlindlyDrawnCard() : state.withDrawnFaceUpCard(slot);
+                break;
+            case ROUTE_CLAIMED:
+                Route route = ChMap.routes().get(journal.get());
+                claim(route, PackedCards.unpack(journal.getLong()));
+                break;
+            case ADDITIONAL_CARDS:
+                SortedBag<Card> additionalCards = PackedCards.unpack(journal.getLong());
+                if (!additionalCards.isEmpty()) {
+                    state = state.withClaimedRoute(pendingTunnel, pendingClaimCards.union(additionalCards));
+                }
+                pendingTunnel = null;
+                break;
+            case TURN_ENDED:
+                state = state.forNextTurn();
+                pendingTunnel = null;
+                ++turnCount;
+                break;
+            case GAME_ENDED:
+                gameOver = true;
+                break;
+            default:
+                throw new IllegalStateException("invalid record type: " + type);
+        }
+    }
+
+    /**
+     * Applies the records of the current game up to the end of the current turn
+     * @return true if the turn was complete, false if the game is over or if the journal ends before
+     */
+    public boolean nextTurn() {
+        int turn = turnCount;
+        while (turnCount == turn) {
+            if (!step()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gives the state of the current game once the last record read was applied
+     * @return the current state, null if no game was started
+     */
+    public GameState state() {
+        return state;
+    }
+
+    /**
+     * Gives the number of turns of the current game that have been replayed
+     * @return the number of turns replayed
+     */
+    public int turnCount() {
+        return turnCount;
+    }
+
+    /**
+     * Tells whether the end of the current game was read
+     * @return true if and only if the whole game was replayed
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Starts a game the same way <code>Game</code> does: the initial state, then the initial tickets offered to each
+     * player
+     */
+    private void start(long seed) {
+        rng = new Random(seed);
+        state = GameState.initial(tickets, rng);
+        for (PlayerId id : PlayerId.ALL) {
+            initialTickets.put(id, state.topTickets(INITIAL_TICKETS_COUNT));
+            state = state.withoutTopTickets(INITIAL_TICKETS_COUNT);
+        }
+        turnCount = 0;
+        gameOver = false;
+        pendingTunnel = null;
+    }
+
+    /**
+     * Claims the given route the same way <code>Game</code> does (drawing the additional cards for a tunnel, the
+     * choice of the player, if any, being given by the next record)
+     */
+    private void claim(Route route, SortedBag<Card> claimCards) {
+        if (route.level() == Route.Level.OVERGROUND) {
+            state = state.withClaimedRoute(route, claimCards);
+            return;
+        }
+
+        SortedBag.Builder<Card> drawnCards = new SortedBag.Builder<>();
+        for (int i = 0; i < ADDITIONAL_TUNNEL_CARDS; i++) {
+            drawnCards.add(state.withCardsDeckRecreatedIfNeeded(rng).topCard());
+            state = state.withCardsDeckRecreatedIfNeeded(rng).withoutTopCard();
+        }
+        SortedBag<Card> drawn = drawnCards.build();
+        state = state.withMoreDiscardedCards(drawn);
+
+        if (route.additionalClaimCardsCount(claimCards, drawn) == 0) state = state.withClaimedRoute(route, claimCards);
+        else {
+            pendingTunnel = route;
+            pendingClaimCards = claimCards;
+        }
+    }
+
+    /**
+     * Closes the file of the journal
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Tells whether the next record is complete, reading the following part of the file if it is not in the window
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    private boolean hasRecord() {
+        return available(1) && available(1 + DATA_SIZES[nextType()]);
+    }
+
+    /**
+     * Tells whether the given number of bytes can be read, moving the window along the file if needed
+     */
+    private boolean available(int bytes) {
+        if (journal.remaining() >= bytes) return true;
+        journal.compact();
+        try {
+            while (journal.hasRemaining() && channel.read(journal) > 0) ;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            journal.flip();
+        }
+        return journal.remaining() >= bytes;
+    }
+
+    private byte nextType() {
+        byte type = journal.get(journal.position());
+        if (type < 0 || type >= DATA_SIZES.length) throw new IllegalStateException("invalid record type: " + type);
+        return type;
+    }
+}
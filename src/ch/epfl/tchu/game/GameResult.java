@@ -0,0 +1,72 @@
+package ch.epfl.tchu.game;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable result of a game of tCHu: the final points of the players (bonus of the longest trail included), their
+ * routes and the number of turns played
+ *
+ * @author Noah Munz (310779)
+ */
+public final class GameResult {
+
+    private final int[] finalPoints; //indexed by the ordinal of the identities of the players
+    private final List<List<Route>> routes; //same
+    private final int turnCount;
+
+    /**
+     * Constructor of GameResult
+     * @param finalState   the state of the game when it ended
+     * @param finalPoints1 the final points of PLAYER_1
+     * @param finalPoints2 the final points of PLAYER_2
+     * @param turnCount    the number of turns played
+     */
+    public GameResult(PublicGameState finalState, int finalPoints1, int finalPoints2, int turnCount) {
+        this.finalPoints = new int[]{finalPoints1, finalPoints2};
+        this.routes = List.of(finalState.playerState(PlayerId.PLAYER_1).routes(),
+                              finalState.playerState(PlayerId.PLAYER_2).routes());
+        this.turnCount = turnCount;
+    }
+
+    /**
+     * Gives the final points of the given player
+     * @param playerId the identity of the player
+     * @return its final points, bonus of the longest trail included
+     */
+    public int finalPoints(PlayerId playerId) {
+        return finalPoints[playerId.ordinal()];
+    }
+
+    /**
+     * Gives the routes claimed by the given player
+     * @param playerId the identity of the player
+     * @return the routes it owned at the end of the game
+     */
+    public List<Route> routes(PlayerId playerId) {
+        return routes.get(playerId.ordinal());
+    }
+
+    /**
+     * Gives the winner of the game
+     * @return the identity of the player with the most points, or null if it is a draw
+     */
+    public PlayerId winner() {
+        int comparison = Integer.compare(finalPoints[0], finalPoints[1]);
+        return comparison == 0 ? null : comparison > 0 ? PlayerId.PLAYER_1 : PlayerId.PLAYER_2;
+    }
+
+    /**
+     * Gives the number of turns played during the game
+     * @return the number of turns played by both players
+     */
+    public int turnCount() {
+        return turnCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %d-%d in %d turns", Objects.toString(winner(), "draw"), finalPoints[0], finalPoints[1],
+                             turnCount);
+    }
+}
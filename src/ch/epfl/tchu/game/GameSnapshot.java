@@ -0,0 +1,157 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a game taken between two turns, from which it can be resumed (see <code>Game.resume</code>):
+ * the complete state of the game (decks in order, discards, states of both players, current and last player), the
+ * state of its random generator and the number of turns played.
+ * <p>
+ * Its binary form is compact (about 200 bytes) and fast to write: a version byte, the state of the generator
+ * (8 bytes), the number of turns (4 bytes), the current and last players (1 byte each, -1 for none), the tickets
+ * deck (1 byte for its size, then 1 byte per ticket), the face up cards and the draw deck (1 byte per card, preceded
+ * by the size of the deck), the discards (8 bytes, see <code>PackedCards</code>) and, for each player, its tickets,
+ * its cards (8 bytes) and its routes. The tickets are given by their index in the list of the tickets of the game, the
+ * routes by their index in <code>ChMap.routes()</code>.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class GameSnapshot {
+
+    private final static byte VERSION = 1;
+    private final static byte NO_PLAYER = -1;
+    private final static int MAX_TICKETS = (1 << Byte.SIZE) - 1;
+
+    private final GameState state;
+    private final long rngState;
+    private final int turnCount;
+
+    GameSnapshot(GameState state, long rngState, int turnCount) {
+        this.state = state;
+        this.rngState = rngState;
+        this.turnCount = turnCount;
+    }
+
+    /**
+     * Gives the state of the game
+     * @return the state of the game at the beginning of the turn following the snapshot
+     */
+    public GameState state() {
+        return state;
+    }
+
+    /**
+     * Gives the number of turns played
+     * @return the number of turns played before the snapshot
+     */
+    public int turnCount() {
+        return turnCount;
+    }
+
+    /**
+     * Gives a random generator in the state of the one of the game when the snapshot was taken
+     * @return a new generator, giving the numbers the one of the game would have given
+     */
+    ResumableRandom random() {
+        return ResumableRandom.ofState(rngState);
+    }
+
+    /**
+     * Gives the binary form of this snapshot
+     * @param tickets the tickets the game is played with
+     * @return the bytes of the snapshot
+     * @throws IllegalArgumentException if there are more than 255 tickets
+     */
+    public byte[] toBytes(SortedBag<Ticket> tickets) {
+        Preconditions.checkArgument(tickets.size() <= MAX_TICKETS);
+        List<Ticket> ticketsList = tickets.toList();
+        CardState cardState = state.completeCardState();
+        List<Ticket> ticketsDeck = state.ticketsDeck().toList();
+        List<Card> drawDeck = cardState.drawDeck().toList();
+
+        ByteBuffer buffer = ByteBuffer.allocate(Byte.BYTES * 5 + Long.BYTES * 2 + Integer.BYTES
+                                                + ticketsList.size() + Constants.TOTAL_CARDS_COUNT
+                                                + PlayerId.COUNT * (Long.BYTES + 2 + ChMap.routes().size()));
+        buffer.put(VERSION).putLong(rngState).putInt(turnCount)
+              .put((byte) state.currentPlayerId().ordinal())
+              .put(state.lastPlayer() == null ? NO_PLAYER : (byte) state.lastPlayer().ordinal());
+
+        putTickets(buffer, ticketsDeck, ticketsList);
+        for (Card card : cardState.faceUpCards()) buffer.put((byte) card.ordinal());
+        buffer.put((byte) drawDeck.size());
+        for (Card card : drawDeck) buffer.put((byte) card.ordinal());
+        buffer.putLong(cardState.packedDiscards());
+
+        for (PlayerId id : PlayerId.ALL) {
+            PlayerState playerState = state.playerState(id);
+            putTickets(buffer, playerState.tickets().toList(), ticketsList);
+            buffer.putLong(playerState.packedCards());
+            buffer.put((byte) playerState.routes().size());
+            for (Route route : playerState.routes()) buffer.put((byte) ChMap.routes().indexOf(route));
+        }
+
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Gives the snapshot of the given binary form
+     * @param bytes   the bytes of the snapshot, given by <code>toBytes</code>
+     * @param tickets the tickets the game is played with (the same as the ones given to <code>toBytes</code>)
+     * @return the snapshot
+     * @throws IllegalArgumentException if the bytes are not a valid snapshot
+     */
+    public static GameSnapshot ofBytes(byte[] bytes, SortedBag<Ticket> tickets) {
+        List<Ticket> ticketsList = tickets.toList();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            Preconditions.checkArgument(buffer.get() == VERSION);
+            long rngState = buffer.getLong();
+            int turnCount = buffer.getInt();
+            PlayerId currentPlayer = PlayerId.ALL.get(buffer.get());
+            byte lastPlayer = buffer.get();
+
+            Deck<Ticket> ticketsDeck = Deck.ofOrdered(getTickets(buffer, ticketsList));
+            List<Card> faceUpCards = new ArrayList<>(Constants.FACE_UP_CARDS_COUNT);
+            for (int i = 0; i < Constants.FACE_UP_CARDS_COUNT; i++) faceUpCards.add(Card.ALL.get(buffer.get()));
+            List<Card> drawDeck = new ArrayList<>();
+            for (int i = buffer.get() & 0xFF; i > 0; i--) drawDeck.add(Card.ALL.get(buffer.get()));
+            CardState cardState = CardState.of(faceUpCards, Deck.ofOrdered(drawDeck),
+                                               PackedCards.unpack(buffer.getLong()));
+
+            PlayerState[] playerStates = new PlayerState[PlayerId.COUNT];
+            for (PlayerId id : PlayerId.ALL) {
+                SortedBag<Ticket> playerTickets = SortedBag.of(getTickets(buffer, ticketsList));
+                SortedBag<Card> cards = PackedCards.unpack(buffer.getLong());
+                List<Route> routes = new ArrayList<>();
+                for (int i = buffer.get(); i > 0; i--) routes.add(ChMap.routes().get(buffer.get()));
+                playerStates[id.ordinal()] = new PlayerState(playerTickets, cards, routes);
+            }
+            Preconditions.checkArgument(!buffer.hasRemaining());
+
+            GameState state = GameState.of(ticketsDeck, cardState, currentPlayer, playerStates,
+                                           lastPlayer == NO_PLAYER ? null : PlayerId.ALL.get(lastPlayer));
+            return new GameSnapshot(state, rngState, turnCount);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("invalid snapshot", e);
+        }
+    }
+
+    private static void putTickets(ByteBuffer buffer, List<Ticket> tickets, List<Ticket> ticketsList) {
+        buffer.put((byte) tickets.size());
+        for (Ticket ticket : tickets) buffer.put((byte) ticketsList.indexOf(ticket));
+    }
+
+    private static List<Ticket> getTickets(ByteBuffer buffer, List<Ticket> ticketsList) {
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = buffer.get() & 0xFF; i > 0; i--) tickets.add(ticketsList.get(buffer.get() & 0xFF));
+        return tickets;
+    }
+}
@@ -0,0 +1,117 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Local store of the snapshots of the games in progress (see <code>GameSnapshot</code>), one file per table in a
+ * directory. A snapshot is first written to a temporary file, then moved over the previous one, so that a crash while
+ * saving it leaves the previous one intact. The files are not forced to the disk (which would be much slower than
+ * writing them): the snapshots survive a crash of the program, not necessarily one of the system.
+ * <p>
+ * The store can be shared by the games played at the same time, as long as they have different identifiers.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class GameSnapshotStore {
+
+    private final static String EXTENSION = ".snapshot", TEMPORARY_EXTENSION = ".tmp";
+    private final static Pattern TABLE_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final Path directory;
+    private final SortedBag<Ticket> tickets;
+
+    /**
+     * Constructor of GameSnapshotStore
+     * @param directory the directory of the store (created if it does not exist)
+     * @param tickets   the tickets the games are played with
+     * @throws UncheckedIOException if the directory cannot be created
+     */
+    public GameSnapshotStore(Path directory, SortedBag<Ticket> tickets) {
+        this.directory = directory;
+        this.tickets = tickets;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Saves the snapshot of the given table, replacing the previous one
+     * @param tableId  the identifier of the table (made of letters, digits, '-' and '_' only)
+     * @param snapshot the snapshot of its game
+     * @throws IllegalArgumentException if the identifier is invalid
+     * @throws UncheckedIOException if the snapshot cannot be written
+     */
+    public void save(String tableId, GameSnapshot snapshot) {
+        Path file = file(tableId), temporaryFile = directory.resolve(tableId + TEMPORARY_EXTENSION);
+        try {
+            Files.write(temporaryFile, snapshot.toBytes(tickets));
+            Files.move(temporaryFile, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gives the last snapshot of the given table
+     * @param tableId the identifier of the table
+     * @return its last snapshot, null if there is none
+     * @throws UncheckedIOException if the snapshot cannot be read
+     */
+    public GameSnapshot load(String tableId) {
+        try {
+            return GameSnapshot.ofBytes(Files.readAllBytes(file(tableId)), tickets);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the snapshot of the given table (e.g. because its game is over)
+     * @param tableId the identifier of the table
+     * @throws UncheckedIOException if the snapshot cannot be deleted
+     */
+    public void delete(String tableId) {
+        try {
+            Files.deleteIfExists(file(tableId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gives the identifiers of the tables having a snapshot, i.e. of the games that can be resumed
+     * @return the identifiers of the tables of the store
+     * @throws UncheckedIOException if the directory cannot be read
+     */
+    public Set<String> tableIds() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                        .filter(name -> name.endsWith(EXTENSION))
+                        .map(name -> name.substring(0, name.length() - EXTENSION.length()))
+                        .collect(Collectors.toUnmodifiableSet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path file(String tableId) {
+        Preconditions.checkArgument(TABLE_ID.matcher(tableId).matches());
+        return directory.resolve(tableId + EXTENSION);
+    }
+}
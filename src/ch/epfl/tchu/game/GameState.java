@@ -4,30 +4,30 @@ import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import static ch.epfl.tchu.game.Constants.*;
 import static ch.epfl.tchu.game.PlayerId.*;
 
 /**
- * This class completely represents the state of a game
+ * This class completely represents the state of a game.
+ * A state derived from another one shares everything that did not change with it: the decks (see <code>Deck</code>),
+ * the card state and the array of the states of the players, which is only copied (two slots) when one of them changes.
  * @author Mehdi Bouguerra Ezzina (314857)
  */
 public final class GameState extends PublicGameState {
 
     private final Deck<Ticket> ticketsDeck;
     private final CardState cardState;
-    private final Map<PlayerId, PlayerState> playerState;
+    private final PlayerState[] playerState; //indexed by the ordinal of the identities of the players, never modified
 
-    private GameState(Deck<Ticket> ticketsDeck, CardState cardState, PlayerId currentPlayerId, Map<PlayerId, PlayerState> playerState,
+    private GameState(Deck<Ticket> ticketsDeck, CardState cardState, PlayerId currentPlayerId, PlayerState[] playerState,
                       PlayerId lastPlayer) {
-        super(ticketsDeck.size(), cardState, currentPlayerId, Map.copyOf(playerState), lastPlayer);
+        super(playerState, ticketsDeck.size(), cardState, currentPlayerId, lastPlayer);
 
         this.ticketsDeck = ticketsDeck;
         this.cardState = cardState;
 
-        this.playerState = new HashMap<>(playerState);
+        this.playerState = playerState;
     }
 
     /**
@@ -48,23 +48,66 @@ public final class GameState extends PublicGameState {
         return new GameState(Deck.of(tickets, rng), CardState.of(drawDeck), initPlayer, initPlayerStates(initCards), null);
     }
 
-    private static Map<PlayerId, PlayerState> initPlayerStates(List<Card> initCard) {
-        Function<Integer, SortedBag<Card>> sortedBagProvider = playerNb ->
-                SortedBag.of(initCard.subList(INITIAL_CARDS_COUNT * playerNb, INITIAL_CARDS_COUNT * (playerNb + 1)));
+    /**
+     * Gives the state of a game made of the given parts (used by the players which simulate games, e.g. to build a
+     * state from the public state of the game and guesses of the information they do not know)
+     * @param ticketsDeck     the tickets deck
+     * @param cardState       the state of the cards
+     * @param currentPlayerId the identity of the current player
+     * @param playerStates    the states of the players, indexed by the ordinal of their identities
+     * @param lastPlayer      the identity of the last player, null if the last turn has not begun
+     * @return the state of the game made of the given parts
+     * @throws IllegalArgumentException if there is not exactly one state per player
+     */
+    static GameState of(Deck<Ticket> ticketsDeck, CardState cardState, PlayerId currentPlayerId,
+                        PlayerState[] playerStates, PlayerId lastPlayer) {
+        Preconditions.checkArgument(playerStates.length == COUNT);
+        return new GameState(ticketsDeck, cardState, currentPlayerId, playerStates.clone(), lastPlayer);
+    }
+
+    private static PlayerState[] initPlayerStates(List<Card> initCard) {
+        PlayerState[] playerStates = new PlayerState[COUNT];
+        for (PlayerId id : ALL) {
+            int playerNb = id.ordinal();
+            playerStates[playerNb] = PlayerState.initial(
+                    SortedBag.of(initCard.subList(INITIAL_CARDS_COUNT * playerNb, INITIAL_CARDS_COUNT * (playerNb + 1))));
+        }
+        return playerStates;
+    }
 
-        return ALL.stream()
-                           .collect(Collectors.toMap(id -> id,
-                                                     id -> PlayerState.initial(sortedBagProvider.apply(id.ordinal()))));
+    /**
+     * Gives a copy of the array of the states of the players in which the state of the given player is replaced
+     */
+    private PlayerState[] withPlayerState(PlayerId playerId, PlayerState newPlayerState) {
+        PlayerState[] newPlayerStates = playerState.clone();
+        newPlayerStates[playerId.ordinal()] = newPlayerState;
+        return newPlayerStates;
+    }
+
+    /**
+     * Gives the tickets deck (used to save the state, see <code>GameSnapshot</code>)
+     * @return the tickets deck
+     */
+    Deck<Ticket> ticketsDeck() {
+        return ticketsDeck;
+    }
+
+    /**
+     * Gives the complete state of the cards (used to save the state, see <code>GameSnapshot</code>)
+     * @return the state of the cards, draw deck and discards included
+     */
+    CardState completeCardState() {
+        return cardState;
     }
 
     @Override
     public PlayerState playerState(PlayerId playerId) {
-        return playerState.get(playerId);
+        return playerState[playerId.ordinal()];
     }
 
     @Override
     public PlayerState currentPlayerState() {
-        return playerState.get(currentPlayerId());
+        return playerState[currentPlayerId().ordinal()];
     }
 
     /*
@@ -159,10 +202,9 @@ public final class GameState extends PublicGameState {
     public GameState withInitiallyChosenTickets(PlayerId playerId, SortedBag<Ticket> chosenTickets) {
         Preconditions.checkArgument(playerState(playerId).ticketCount() == 0);
 
-        Map<PlayerId, PlayerState> newMap = new HashMap<>(playerState);
-        newMap.replace(playerId, playerState(playerId).withAddedTickets(chosenTickets));
+        PlayerState[] newPlayerStates = withPlayerState(playerId, playerState(playerId).withAddedTickets(chosenTickets));
 
-        return new GameState(ticketsDeck, cardState, currentPlayerId(), newMap, lastPlayer());
+        return new GameState(ticketsDeck, cardState, currentPlayerId(), newPlayerStates, lastPlayer());
     }
 
     /**
@@ -178,10 +220,10 @@ public final class GameState extends PublicGameState {
     public GameState withChosenAdditionalTickets(SortedBag<Ticket> drawnTickets, SortedBag<Ticket> chosenTickets) {
         Preconditions.checkArgument(drawnTickets.contains(chosenTickets));
 
-        Map<PlayerId, PlayerState> newMap = new HashMap<>(playerState);
-        newMap.replace(currentPlayerId(), currentPlayerState().withAddedTickets(chosenTickets));
+        PlayerState[] newPlayerStates = withPlayerState(currentPlayerId(),
+                                                        currentPlayerState().withAddedTickets(chosenTickets));
 
-        return new GameState(ticketsDeck.withoutTopCards(drawnTickets.size()), cardState, currentPlayerId(), newMap, lastPlayer());
+        return new GameState(ticketsDeck.withoutTopCards(drawnTickets.size()), cardState, currentPlayerId(), newPlayerStates, lastPlayer());
     }
 
     /**
@@ -195,10 +237,10 @@ public final class GameState extends PublicGameState {
      */
     public GameState withDrawnFaceUpCard(int slot) {
 
-        Map<PlayerId, PlayerState> newMap = new HashMap<>(playerState);
-        newMap.replace(currentPlayerId(), currentPlayerState().withAddedCard(cardState.faceUpCard(slot)));
+        PlayerState[] newPlayerStates = withPlayerState(currentPlayerId(),
+                                                        currentPlayerState().withAddedCard(cardState.faceUpCard(slot)));
 
-        return new GameState(ticketsDeck, cardState.withDrawnFaceUpCard(slot), currentPlayerId(), newMap, lastPlayer());
+        return new GameState(ticketsDeck, cardState.withDrawnFaceUpCard(slot), currentPlayerId(), newPlayerStates, lastPlayer());
     }
 
     /**
@@ -209,10 +251,9 @@ public final class GameState extends PublicGameState {
      */
     public GameState withBlindlyDrawnCard() {
 
-        Map<PlayerId, PlayerState> newMap = new HashMap<>(playerState);
-        newMap.replace(currentPlayerId(), currentPlayerState().withAddedCard(topCard()));
+        PlayerState[] newPlayerStates = withPlayerState(currentPlayerId(), currentPlayerState().withAddedCard(topCard()));
 
-        return new GameState(ticketsDeck, cardState.withoutTopDeckCard(), currentPlayerId(), newMap, lastPlayer());
+        return new GameState(ticketsDeck, cardState.withoutTopDeckCard(), currentPlayerId(), newPlayerStates, lastPlayer());
     }
 
     /**
@@ -222,10 +263,9 @@ public final class GameState extends PublicGameState {
      * @return a state identical to the original one but in which the current player has taken over the given roads by means of the given cards
      */
     public GameState withClaimedRoute(Route route, SortedBag<Card> cards) {
-        Map<PlayerId, PlayerState> newMap = new HashMap<>(playerState);
-        newMap.replace(currentPlayerId(), currentPlayerState().withClaimedRoute(route, cards));
+        PlayerState[] newPlayerStates = withPlayerState(currentPlayerId(), currentPlayerState().withClaimedRoute(route, cards));
 
-        return new GameState(ticketsDeck, cardState.withMoreDiscardedCards(cards), currentPlayerId(), newMap, lastPlayer());
+        return new GameState(ticketsDeck, cardState.withMoreDiscardedCards(cards), currentPlayerId(), newPlayerStates, lastPlayer());
     }
 
     /*
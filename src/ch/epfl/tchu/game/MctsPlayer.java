@@ -0,0 +1,412 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static ch.epfl.tchu.game.Constants.*;
+
+/**
+ * Player (bot) choosing the action of each turn by a Monte Carlo tree search (information set MCTS): each iteration
+ * guesses the cards and tickets it does not know (determinization), goes down the tree of the actions (see
+ * <code>Playouts</code>) of both players with UCB1, adds a node (for one of the untried actions of the highest
+ * priority, see <code>Playouts.priority</code>) and finishes the game with a random playout, whose reward grows with
+ * the margin of points of the player.
+ * <p>
+ * The search runs on several threads, each one with its own tree (root parallelization), until the time budget or the
+ * number of iterations is exhausted, and the action the most visited by all the trees is played. The threads come
+ * from a pool shared by all the players, whose idle threads terminate by themselves: a player needs no closing. The
+ * trees are kept from one turn to the next: the subtree of the actions played since (known through the events of the
+ * game) becomes the new root. The other choices (cards, slots, tickets) are made by the heuristics of
+ * <code>Playouts</code>.
+ * <p>
+ * With a single thread and no time budget, the choices of the player only depend on its seed.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class MctsPlayer implements Player {
+
+    private final static double EXPLORATION = 0.7;
+    private final static int UNKNOWN_ACTION = -1;
+    //margin of points from which a playout is a sure win (or loss)
+    private final static double REWARD_SCALE = 100;
+    //threads searching for all the players, created when needed and terminated after one minute without a search
+    private final static ExecutorService SEARCHERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "tchu-mcts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long timeBudgetNanos;
+    private final int maxIterations;
+    private final Worker[] workers;
+
+    private PlayerId ownId;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTickets;
+    private Route routeToClaim;
+
+    //actions played since the last search (first ours, then the one of the opponent), UNKNOWN_ACTION if one is unknown
+    private final List<Integer> playedActions = new ArrayList<>();
+    private boolean turnStarted;
+
+    /**
+     * Constructor of MctsPlayer
+     * @param seed          seed of the random generators of the player
+     * @param timeBudget    time budget of each search, in milliseconds (0 for none)
+     * @param maxIterations maximal number of iterations of each search, over all threads (0 for no limit)
+     * @param threads       number of threads searching in parallel
+     * @throws IllegalArgumentException if the budgets are negative, both 0, or if the number of threads is not positive
+     */
+    public MctsPlayer(long seed, long timeBudget, int maxIterations, int threads) {
+        Preconditions.checkArgument(timeBudget >= 0 && maxIterations >= 0 && (timeBudget > 0 || maxIterations > 0)
+                                    && threads > 0);
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudget);
+        this.maxIterations = maxIterations;
+
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) workers[i] = new Worker(new Random(seed + i + 1));
+    }
+
+    /**
+     * Constructor of MctsPlayer searching during the given time on all the processors
+     * @param seed       seed of the random generators of the player
+     * @param timeBudget time budget of each search, in milliseconds
+     */
+    public MctsPlayer(long seed, long timeBudget) {
+        this(seed, timeBudget, 0, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames, Boolean rematch) {
+        this.ownId = ownId;
+        for (Worker worker : workers) worker.root = null;
+        playedActions.clear();
+        turnStarted = false;
+    }
+
+    @Override
+    public boolean receivesInfo() {
+        return false;
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    /**
+     * Records the action of each turn (the first action event after the player was told it can play)
+     */
+    @Override
+    public void receiveEvent(GameEvent event) {
+        switch (event.kind()) {
+            case CAN_PLAY:
+                if (turnStarted) playedActions.add(UNKNOWN_ACTION);
+                turnStarted = true;
+                break;
+            case CLAIMED_ROUTE:
+            case ATTEMPTS_TUNNEL_CLAIM:
+                recordAction(Playouts.indexOf(event.route()));
+                break;
+            case DREW_BLIND_CARD:
+            case DREW_VISIBLE_CARD:
+                recordAction(Playouts.DRAW_CARDS);
+                break;
+            case DREW_TICKETS:
+                recordAction(Playouts.DRAW_TICKETS);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void recordAction(int action) {
+        if (!turnStarted) return;
+        playedActions.add(action);
+        turnStarted = false;
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return Playouts.chooseTickets(ownState, initialTickets, IN_GAME_TICKETS_COUNT);
+    }
+
+    /**
+     * Searches the best action of this turn
+     * @return the TurnKind of the action chosen
+     * @throws IllegalStateException if there is nothing the player can do
+     */
+    @Override
+    public TurnKind nextTurn() {
+        int action = search();
+        //the actions played from now on are known from the events, ours being the first one (our turn has started)
+        playedActions.clear();
+
+        if (action == Playouts.DRAW_CARDS) return TurnKind.DRAW_CARDS;
+        if (action == Playouts.DRAW_TICKETS) return TurnKind.DRAW_TICKETS;
+        if (action == Playouts.PASS) throw new IllegalStateException("no possible action");
+        routeToClaim = ChMap.routes().get(action);
+        return TurnKind.CLAIM_ROUTE;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return Playouts.chooseTickets(ownState, options, 1);
+    }
+
+    @Override
+    public int drawSlot() {
+        return Playouts.drawSlot(gameState, ownState);
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return routeToClaim;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return Playouts.claimCards(ownState, routeToClaim);
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return options.get(0);
+    }
+
+    @Override
+    public void askForRematch() {
+    }
+
+    @Override
+    public Boolean rematchResponse() {
+        return false;
+    }
+
+    /**
+     * Runs the search of all the workers and gives the legal action the most visited by their trees (the subtrees
+     * kept from the previous turns may contain actions the player could only play with the cards guessed then)
+     */
+    private int search() {
+        //the legal actions only depend on what the player knows, not on the guess (which uses no generator of a worker)
+        int[] legalActions = Playouts.actions(determinize(gameState, ownState, new Random(0)));
+        long deadline = timeBudgetNanos == 0 ? Long.MAX_VALUE : System.nanoTime() + timeBudgetNanos;
+        int iterations = maxIterations == 0 ? Integer.MAX_VALUE : Math.max(1, maxIterations / workers.length);
+
+        for (Worker worker : workers) worker.reuseTree(playedActions);
+        if (workers.length == 1) workers[0].search(gameState, ownState, deadline, iterations);
+        else {
+            List<Future<?>> searches = new ArrayList<>(workers.length);
+            for (Worker worker : workers) {
+                searches.add(SEARCHERS.submit(() -> worker.search(gameState, ownState, deadline, iterations)));
+            }
+            try {
+                for (Future<?> search : searches) search.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        //visits and rewards of each action over all the trees, the rewards breaking the ties between the visits
+        Map<Integer, double[]> totals = new TreeMap<>();
+        for (Worker worker : workers) {
+            for (Node child : worker.root.children) {
+                if (Arrays.stream(legalActions).noneMatch(action -> action == child.action)) continue;
+                double[] total = totals.computeIfAbsent(child.action, action -> new double[2]);
+                total[0] += child.visits;
+                total[1] += child.wins;
+            }
+        }
+        int bestAction = Playouts.PASS;
+        double[] best = {-1, -1};
+        for (Map.Entry<Integer, double[]> entry : totals.entrySet()) {
+            double[] total = entry.getValue();
+            if (total[0] > best[0] || (total[0] == best[0] && total[1] > best[1])) {
+                bestAction = entry.getKey();
+                best = total;
+            }
+        }
+        return bestAction;
+    }
+
+    /**
+     * Node of a search tree: the state reached by playing <code>action</code>, chosen by <code>mover</code>
+     */
+    private static final class Node {
+        private final int action;
+        private final PlayerId mover;
+        private final List<Node> children = new ArrayList<>();
+        private int visits, availability;
+        private double wins; //sum of the rewards of the mover
+
+        private Node(int action, PlayerId mover) {
+            this.action = action;
+            this.mover = mover;
+        }
+
+        private Node child(int action) {
+            for (Node child : children) {
+                if (child.action == action) return child;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Searches with its own tree and random generator (a worker is only used by one thread at a time). Its
+     * simulation and buffers are reused from one iteration to the next, so that an iteration only allocates the
+     * states of the game it goes through and the node it adds.
+     */
+    private final class Worker {
+        private final Random rng;
+        private Node root;
+
+        private final Playouts.Simulation simulation = new Playouts.Simulation();
+        private final List<Node> path = new ArrayList<>();
+        //the actions being at most PASS
+        private final int[] untried = new int[Playouts.PASS + 1];
+
+        private Worker(Random rng) {
+            this.rng = rng;
+        }
+
+        /**
+         * Makes the subtree of the given actions the new root, or drops the tree if it does not contain them
+         */
+        private void reuseTree(List<Integer> actions) {
+            for (int action : actions) {
+                if (root == null) return;
+                root = action == UNKNOWN_ACTION ? null : root.child(action);
+            }
+        }
+
+        private void search(PublicGameState gameState, PlayerState ownState, long deadline, int iterations) {
+            if (root == null) root = new Node(UNKNOWN_ACTION, null);
+            //at least one iteration, which visits a legal action of the root, whatever the time left
+            for (int i = 0; i < iterations && (i == 0 || System.nanoTime() < deadline); i++) {
+                iterate(determinize(gameState, ownState, rng));
+            }
+        }
+
+        private void iterate(GameState state) {
+            path.clear();
+            simulation.start(state);
+            Node node = root;
+            boolean over = false;
+
+            while (!over) {
+                int[] actions = simulation.actions();
+                int actionCount = simulation.actions(state);
+                Node next = select(node, actions, actionCount);
+                boolean expanded = next == null;
+                if (expanded) {
+                    //adds a child for one of the most promising untried actions, chosen at random
+                    int untriedCount = 0;
+                    int bestPriority = Integer.MIN_VALUE;
+                    for (int i = 0; i < actionCount; i++) {
+                        if (node.child(actions[i]) != null) continue;
+                        int priority = Playouts.priority(actions[i]);
+                        if (priority > bestPriority) {
+                            untriedCount = 0;
+                            bestPriority = priority;
+                        }
+                        if (priority == bestPriority) untried[untriedCount++] = actions[i];
+                    }
+                    next = new Node(untried[rng.nextInt(untriedCount)], state.currentPlayerId());
+                    node.children.add(next);
+                }
+                path.add(next);
+                state = simulation.play(state, next.action, rng);
+                over = Playouts.isOver(state);
+                if (!over) state = state.forNextTurn();
+                node = next;
+                if (expanded) break;
+            }
+
+            int[] points = over ? Playouts.finalPoints(state) : simulation.playout(state, rng);
+            for (Node visited : path) {
+                ++visited.visits;
+                int own = points[visited.mover.ordinal()], other = points[visited.mover.next().ordinal()];
+                visited.wins += Math.max(0, Math.min(1, 0.5 + (own - other) / REWARD_SCALE));
+            }
+        }
+
+        /**
+         * Gives the child of the given node chosen by UCB1 among the given (legal) actions (the first
+         * <code>actionCount</code> ones of the array), or null if one of them has not been tried yet. The availability
+         * of the legal children is incremented.
+         */
+        private Node select(Node node, int[] actions, int actionCount) {
+            for (int i = 0; i < actionCount; i++) {
+                if (node.child(actions[i]) == null) return null;
+            }
+
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < actionCount; i++) {
+                Node child = node.child(actions[i]);
+                ++child.availability;
+                double value = child.wins / child.visits
+                               + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                if (value > bestValue) {
+                    best = child;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Builds a state of the game compatible with what the player knows: the cards it does not see (the ones of the
+     * opponent, of the draw deck and of the discards) and the tickets it does not see (the ones of the opponent and
+     * of the tickets deck) are drawn at random among the ones which are not known to be elsewhere
+     */
+    private GameState determinize(PublicGameState gameState, PlayerState ownState, Random rng) {
+        PlayerId otherId = ownId.next();
+        PublicPlayerState other = gameState.playerState(otherId);
+        PublicCardState cardState = gameState.cardState();
+
+        List<Card> unknownCards = ALL_CARDS.difference(ownState.cards())
+                                           .difference(SortedBag.of(cardState.faceUpCards()))
+                                           .toList();
+        Collections.shuffle(unknownCards, rng);
+        int otherCards = Math.min(other.cardCount(), unknownCards.size());
+        int deckCards = Math.min(cardState.deckSize(), unknownCards.size() - otherCards);
+
+        List<Ticket> unknownTickets = SortedBag.of(ChMap.tickets()).difference(ownState.tickets()).toList();
+        Collections.shuffle(unknownTickets, rng);
+        int otherTickets = Math.min(other.ticketCount(), unknownTickets.size());
+        int deckTickets = Math.min(gameState.ticketsCount(), unknownTickets.size() - otherTickets);
+
+        PlayerState[] playerStates = new PlayerState[PlayerId.COUNT];
+        playerStates[ownId.ordinal()] = ownState;
+        playerStates[otherId.ordinal()] = new PlayerState(SortedBag.of(unknownTickets.subList(0, otherTickets)),
+                                                          SortedBag.of(unknownCards.subList(0, otherCards)),
+                                                          other.routes());
+
+        CardState cards = CardState.of(cardState.faceUpCards(),
+                                       Deck.of(SortedBag.of(unknownCards.subList(otherCards, otherCards + deckCards)), rng),
+                                       SortedBag.of(unknownCards.subList(otherCards + deckCards, unknownCards.size())));
+        Deck<Ticket> tickets = Deck.of(SortedBag.of(unknownTickets.subList(otherTickets, otherTickets + deckTickets)), rng);
+
+        return GameState.of(tickets, cards, gameState.currentPlayerId(), playerStates, gameState.lastPlayer());
+    }
+}
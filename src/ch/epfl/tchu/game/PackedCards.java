@@ -0,0 +1,148 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.Map;
+
+/**
+ * Methods to manipulate multisets of cards packed in a <code>long</code>: the number of cards of each type is stored
+ * on 6 bits (at bits 6 * card.ordinal() to 6 * card.ordinal() + 5), and the size of the multiset on the 10 highest
+ * bits. Unlike a <code>SortedBag&lt;Card&gt;</code>, none of these operations allocate anything, and the size is
+ * not computed again each time it is asked for.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class PackedCards {
+
+    /**
+     * The empty multiset of cards
+     */
+    public final static long EMPTY = 0L;
+
+    /**
+     * Maximal number of cards of a same type a packed multiset can contain
+     */
+    public final static int MAX_COUNT = (1 << 6) - 1;
+
+    private final static int COUNT_BITS = 6, SIZE_SHIFT = COUNT_BITS * Card.COUNT;
+
+    /**
+     * Private constructor to remove the default one and make PackedCards not instantiable
+     */
+    private PackedCards() {throw new UnsupportedOperationException();}
+
+    /**
+     * Gives the packed multiset containing the given number of cards of the given type
+     * @param count the number of cards
+     * @param card  the type of the cards
+     * @return the packed multiset containing <code>count</code> times <code>card</code>
+     * @throws IllegalArgumentException if count is not between 0 and <code>MAX_COUNT</code>
+     */
+    public static long of(int count, Card card) {
+        Preconditions.checkArgument(0 <= count && count <= MAX_COUNT);
+        return (long) count << shift(card) | (long) count << SIZE_SHIFT;
+    }
+
+    /**
+     * Packs the given multiset of cards
+     * @param cards the multiset of cards
+     * @return the packed multiset containing the same cards
+     * @throws IllegalArgumentException if there are more than <code>MAX_COUNT</code> cards of a same type
+     */
+    public static long pack(SortedBag<Card> cards) {
+        long packed = EMPTY;
+        for (Map.Entry<Card, Integer> entry : cards.toMap().entrySet()) {
+            packed = union(packed, of(entry.getValue(), entry.getKey()));
+        }
+        return packed;
+    }
+
+    /**
+     * Gives the multiset of cards corresponding to the given packed one
+     * @param packed the packed multiset
+     * @return a SortedBag containing the same cards as <code>packed</code>
+     */
+    public static SortedBag<Card> unpack(long packed) {
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        for (Card card : Card.ALL) builder.add(countOf(packed, card), card);
+        return builder.build();
+    }
+
+    /**
+     * Gives the number of cards of the given packed multiset
+     * @param packed the packed multiset
+     * @return its size
+     */
+    public static int size(long packed) {
+        return (int) (packed >>> SIZE_SHIFT);
+    }
+
+    /**
+     * Gives the number of cards of the given type in the given packed multiset
+     * @param packed the packed multiset
+     * @param card   the type of card
+     * @return the multiplicity of <code>card</code> in <code>packed</code>
+     */
+    public static int countOf(long packed, Card card) {
+        return (int) (packed >>> shift(card)) & MAX_COUNT;
+    }
+
+    /**
+     * Tells whether the given packed multiset contains at least one card of the given type
+     * @param packed the packed multiset
+     * @param card   the type of card
+     * @return true if and only if <code>card</code> belongs to <code>packed</code>
+     */
+    public static boolean contains(long packed, Card card) {
+        return countOf(packed, card) > 0;
+    }
+
+    /**
+     * Tells whether the second packed multiset is included in the first one
+     * @param packed the packed multiset
+     * @param that   the packed multiset which may be included in <code>packed</code>
+     * @return true if and only if every card of <code>that</code> belongs (as many times) to <code>packed</code>
+     */
+    public static boolean contains(long packed, long that) {
+        for (Card card : Card.ALL) {
+            if (countOf(that, card) > countOf(packed, card)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gives the union of the two given packed multisets
+     * @param packed1 the first packed multiset
+     * @param packed2 the second packed multiset
+     * @return the packed multiset containing the cards of both multisets
+     * @throws IllegalArgumentException if the union contains more than <code>MAX_COUNT</code> cards of a same type
+     */
+    public static long union(long packed1, long packed2) {
+        for (Card card : Card.ALL) {
+            Preconditions.checkArgument(countOf(packed1, card) + countOf(packed2, card) <= MAX_COUNT);
+        }
+        //no count overflows on the next one, hence the counts and the sizes can be added all at once
+        return packed1 + packed2;
+    }
+
+    /**
+     * Gives the difference of the two given packed multisets, i.e. the cards of the first one minus those of the
+     * second one (there are no cards of a type of which the second one contains more cards than the first one)
+     * @param packed1 the packed multiset the cards are removed from
+     * @param packed2 the packed multiset of the cards to remove
+     * @return the packed difference of the two multisets
+     */
+    public static long difference(long packed1, long packed2) {
+        long difference = EMPTY;
+        for (Card card : Card.ALL) {
+            int count = countOf(packed1, card) - countOf(packed2, card);
+            if (count > 0) difference += (long) count << shift(card) | (long) count << SIZE_SHIFT;
+        }
+        return difference;
+    }
+
+    private static int shift(Card card) {
+        return COUNT_BITS * card.ordinal();
+    }
+}
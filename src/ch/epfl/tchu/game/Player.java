@@ -41,6 +41,27 @@ public interface Player {
      */
     void receiveInfo(String info);
 
+    /**
+     * Tells whether the player wants to receive the texts describing the events of the game (through
+     * <code>receiveInfo</code>). The texts are only generated for the players which want them.
+     *
+     * @return true (by default) if <code>receiveInfo</code> must be called, false if it can be skipped
+     */
+    default boolean receivesInfo() {
+        return true;
+    }
+
+    /**
+     * Method called each time an event of the game must be communicated to the player. By default, the text
+     * describing the event is given to <code>receiveInfo</code> if the player wants it, players interested in the
+     * data of the events override this method instead.
+     *
+     * @param event the event to communicate to the player
+     */
+    default void receiveEvent(GameEvent event) {
+        if (receivesInfo()) receiveInfo(event.text());
+    }
+
     /**
      * Informs the player of the public component of a new state of the game, as well as of his own state
      *
@@ -17,10 +17,16 @@ import static ch.epfl.tchu.gui.StringsFr.plural;
 public final class PlayerState extends PublicPlayerState {
 
     private final SortedBag<Ticket> tickets;
-    private final SortedBag<Card> cards;
+    private final long packedCards; //see PackedCards
+    private SortedBag<Card> cards; //unpacked the first time it is asked for
+
+    //scoring data, derived from the routes and the tickets and kept up to date by the with* methods
+    private final StationPartition partition;
+    private final int ticketPoints;
+    private Trail longestTrail; //computed the first time it is asked for, then shared by the states with same routes
 
     /**
-     * Unique constructor of instances of the Class PlayerState
+     * Public constructor of instances of the Class PlayerState
      * i.e. immutable representation of the complete state of a Player
      * @param tickets SortedBag of Tickets owned by the player at current state
      * @param cards   SortedBag of cards owned by the player at current state
@@ -30,6 +36,23 @@ public final class PlayerState extends PublicPlayerState {
         super(tickets.size(), cards.size(), routes);
         this.tickets = tickets;
         this.cards = cards;
+        this.packedCards = PackedCards.pack(cards);
+        this.partition = createStationPartition();
+        this.ticketPoints = ticketPoints(tickets, partition);
+    }
+
+    /**
+     * Constructor used by the with* methods, which give the scoring data of the new state instead of computing it
+     * from scratch
+     */
+    private PlayerState(SortedBag<Ticket> tickets, long packedCards, List<Route> routes,
+                        StationPartition partition, int ticketPoints, Trail longestTrail) {
+        super(tickets.size(), PackedCards.size(packedCards), routes);
+        this.tickets = tickets;
+        this.packedCards = packedCards;
+        this.partition = partition;
+        this.ticketPoints = ticketPoints;
+        this.longestTrail = longestTrail;
     }
 
     /**
@@ -52,7 +75,8 @@ public final class PlayerState extends PublicPlayerState {
      * @return new state of {@code this} with the given card added to it
      */
     public PlayerState withAddedCard(Card card) {
-        return new PlayerState(tickets, cards.union(SortedBag.of(card)), routes());
+        return new PlayerState(tickets, PackedCards.union(packedCards, PackedCards.of(1, card)), routes(),
+                               partition, ticketPoints, longestTrail);
     }
 
     /**
@@ -62,8 +86,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return true whether the player can take possession of the given route
      */
     public boolean canClaimRoute(Route route) {
-        return hasEnoughCarsToClaim(route) && possibleClaimCards(route).stream()
-                .anyMatch(cards::contains);
+        return hasEnoughCarsToClaim(route) && route.isClaimableWith(packedCards);
     }
 
     /**
@@ -77,11 +100,15 @@ public final class PlayerState extends PublicPlayerState {
     public List<SortedBag<Card>> possibleClaimCards(Route route) {
         Preconditions.checkArgument(hasEnoughCarsToClaim(route));
 
-        final List<SortedBag<Card>> allCombinations = new ArrayList<>(route.possibleClaimCards());
-        allCombinations.removeIf(sortedBag -> !cards.contains(sortedBag));
-        //removes all the sortedBag that have cards that the player does not possess. i.e. not included in cards
+        final List<SortedBag<Card>> allCombinations = route.possibleClaimCards();
+        final long[] packedCombinations = route.packedClaimCards();
+        final List<SortedBag<Card>> possibleCombinations = new ArrayList<>();
+        //keeps only the sortedBag whose cards the player possesses. i.e. included in cards
+        for (int i = 0; i < packedCombinations.length; i++) {
+            if (PackedCards.contains(packedCards, packedCombinations[i])) possibleCombinations.add(allCombinations.get(i));
+        }
 
-        return List.copyOf(allCombinations);
+        return List.copyOf(possibleCombinations);
     }
 
     /**
@@ -103,7 +130,7 @@ public final class PlayerState extends PublicPlayerState {
                 initialCards.stream().map(Card::color).distinct().count() <= 2);
 
         //Actual computation of what we want
-        List<Card> typesOfCardToAdd = cards.difference(initialCards).stream()
+        List<Card> typesOfCardToAdd = cards().difference(initialCards).stream()
                 .filter(card -> initialCards.contains(card) || card == LOCOMOTIVE)
                 .collect(Collectors.toUnmodifiableList());
 
@@ -129,7 +156,12 @@ public final class PlayerState extends PublicPlayerState {
     public PlayerState withClaimedRoute(Route route, SortedBag<Card> claimCards) {
         List<Route> newList = new ArrayList<>(routes());
         newList.add(route);
-        return new PlayerState(tickets, cards.difference(claimCards), newList);
+
+        //the points of the tickets can only change if the route joined two parts of the network
+        StationPartition newPartition = partition.withConnected(route.station1(), route.station2());
+        int newTicketPoints = newPartition == partition ? ticketPoints : ticketPoints(tickets, newPartition);
+        return new PlayerState(tickets, PackedCards.difference(packedCards, PackedCards.pack(claimCards)), newList,
+                               newPartition, newTicketPoints, null);
     }
 
     /**
@@ -139,7 +171,8 @@ public final class PlayerState extends PublicPlayerState {
      * @return the new updated state
      */
     public PlayerState withAddedTickets(SortedBag<Ticket> newTickets) {
-        return new PlayerState(tickets.union(newTickets), cards, routes());
+        return new PlayerState(tickets.union(newTickets), packedCards, routes(),
+                               partition, ticketPoints + ticketPoints(newTickets, partition), longestTrail);
     }
 
     /**
@@ -155,27 +188,60 @@ public final class PlayerState extends PublicPlayerState {
      * @return SortedBag of cars/locomotives of the player
      */
     public SortedBag<Card> cards() {
+        if (cards == null) cards = PackedCards.unpack(packedCards);
         return cards;
     }
 
+    /**
+     * Gives the cards of the player, packed (see <code>PackedCards</code>)
+     * @return the packed hand of the player
+     */
+    long packedCards() {
+        return packedCards;
+    }
+
     /**
      * returns the number of points (may be negative) obtained by the player thanks to its ticket
+     * (kept up to date when routes are claimed, hence not computed again)
      * @return the number of points (may be negative) obtained by the player thanks to its ticket
      */
     public int ticketPoints() {
-        StationPartition partition = createStationPartition();
-        return tickets.stream().mapToInt(ticket -> ticket.points(partition)).sum();
+        return ticketPoints;
     }
 
-    public List<String> ticketsValue() {
-        StationPartition partition = createStationPartition();
+    /**
+     * Gives the connectivity of the network of the player
+     * @return the partition of the stations according to the routes of the player
+     */
+    public StationConnectivity connectivity() {
+        return partition;
+    }
+
+    /**
+     * Gives the longest trail of the network of the player. It is computed the first time it is asked for, then kept
+     * by this state and by the states obtained from it without claiming a route.
+     * @return the longest trail made of the routes of the player, see <code>Trail.longest</code>
+     */
+    public Trail longestTrail() {
+        if (longestTrail == null) longestTrail = Trail.longest(routes());
+        return longestTrail;
+    }
 
+    /**
+     * Gives the text of each ticket of the player followed by the points it currently gives
+     * @return a list containing the description of each ticket
+     */
+    public List<String> ticketsValue() {
         return tickets.stream().map(ticket -> {
             int value = ticket.points(partition);
             return ticket.text() + " : " + value + " point" + plural(value) + (value > 0 ? " ✅" : " ❌");
         }).collect(Collectors.toUnmodifiableList());
     }
 
+    private static int ticketPoints(SortedBag<Ticket> tickets, StationConnectivity connectivity) {
+        return tickets.stream().mapToInt(ticket -> ticket.points(connectivity)).sum();
+    }
+
     private StationPartition createStationPartition() {
         int stationCount = routes().isEmpty() ? 1 : routes().stream()
                 .mapToInt(r -> Math.max(r.station1().id(), r.station2().id()))
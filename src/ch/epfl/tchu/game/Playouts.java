@@ -0,0 +1,336 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.*;
+
+import static ch.epfl.tchu.game.Constants.*;
+
+/**
+ * Plays whole turns directly on game states, without players, for the players which simulate games (see
+ * <code>MctsPlayer</code>). A turn is given by an action encoded in an <code>int</code>: the index (in
+ * <code>ChMap.routes()</code>) of the route to claim, <code>DRAW_CARDS</code>, <code>DRAW_TICKETS</code> or
+ * <code>PASS</code> (when nothing can be done). The other choices of the turn (cards used, slots, tickets kept,
+ * additional cards) are made by simple heuristics, the same as the ones used by <code>MctsPlayer</code> in real games.
+ * <p>
+ * A thread simulating many turns does it through a <code>Simulation</code>, which keeps the routes that cannot be
+ * claimed anymore in a mask updated at each claim, and gives the actions in a reused buffer: choosing the action of a
+ * turn then allocates nothing (only the new states of the game are allocated).
+ *
+ * @author Noah Munz (310779)
+ */
+final class Playouts {
+
+    private final static List<Route> ROUTES = ChMap.routes();
+    private final static ClaimIndex CLAIM_INDEX = ChMap.claimIndex();
+    private final static int MASK_LENGTH = CLAIM_INDEX.maskLength();
+    private final static Map<Route, Integer> ROUTE_INDICES = new IdentityHashMap<>();
+    //index of the other route between the same stations, -1 if there is none
+    private final static int[] SIBLINGS = new int[ROUTES.size()];
+    static {
+        for (int i = 0; i < ROUTES.size(); i++) ROUTE_INDICES.put(ROUTES.get(i), i);
+        Arrays.fill(SIBLINGS, -1);
+        for (int i = 0; i < ROUTES.size(); i++) {
+            for (int j = 0; j < ROUTES.size(); j++) {
+                if (i != j && ROUTES.get(i).stations().equals(ROUTES.get(j).stations())) SIBLINGS[i] = j;
+            }
+        }
+    }
+
+    static final int DRAW_CARDS = ROUTES.size(), DRAW_TICKETS = DRAW_CARDS + 1, PASS = DRAW_TICKETS + 1;
+
+    //maximal number of turns of a playout (random players may otherwise draw cards forever)
+    private final static int MAX_PLAYOUT_TURNS = 300;
+
+    /**
+     * Private constructor to remove the default one and make Playouts not instantiable
+     */
+    private Playouts() {throw new UnsupportedOperationException();}
+
+    /**
+     * Gives the index of the given route
+     * @param route a route of ChMap
+     * @return its index in <code>ChMap.routes()</code>, i.e. the action of claiming it
+     */
+    static int indexOf(Route route) {
+        return ROUTE_INDICES.get(route);
+    }
+
+    /**
+     * Gives the actions the current player can choose in the given state (see <code>Simulation.actions</code> for
+     * the version allocating nothing)
+     * @param state the state of the game
+     * @return the actions the current player can choose, <code>PASS</code> alone if there are none
+     */
+    static int[] actions(GameState state) {
+        Simulation simulation = new Simulation();
+        simulation.start(state);
+        int count = simulation.actions(state);
+        return Arrays.copyOf(simulation.actions(), count);
+    }
+
+    /**
+     * Gives the priority of the given action, the actions of higher priority being tried first by the search: the
+     * claim of a route (the longer, the more points), then the draw of cards, then the draw of tickets
+     * @param action an action
+     * @return the priority of the action
+     */
+    static int priority(int action) {
+        if (action < DRAW_CARDS) return ROUTES.get(action).length();
+        return action == DRAW_CARDS ? 0 : -1;
+    }
+
+    /**
+     * Plays a turn of the current player
+     * @param state  the state of the game at the beginning of the turn
+     * @param action the action of the player
+     * @param rng    the random generator used to shuffle the discards when the draw deck is empty
+     * @return the state at the end of the turn (before <code>forNextTurn</code>)
+     */
+    static GameState play(GameState state, int action, Random rng) {
+        if (action == DRAW_CARDS) {
+            for (int i = 0; i < 2; i++) {
+                state = state.withCardsDeckRecreatedIfNeeded(rng);
+                int slot = drawSlot(state, state.currentPlayerState());
+                state = slot == DECK_SLOT ? state.withBlindlyDrawnCard() : state.withDrawnFaceUpCard(slot);
+            }
+            return state;
+        }
+        if (action == DRAW_TICKETS) {
+            SortedBag<Ticket> drawn = state.topTickets(Math.min(IN_GAME_TICKETS_COUNT, state.ticketsCount()));
+            return state.withChosenAdditionalTickets(drawn, chooseTickets(state.currentPlayerState(), drawn, 1));
+        }
+        if (action == PASS) return state;
+
+        Route route = ROUTES.get(action);
+        PlayerState playerState = state.currentPlayerState();
+        SortedBag<Card> claimCards = claimCards(playerState, route);
+        if (route.level() == Route.Level.OVERGROUND) return state.withClaimedRoute(route, claimCards);
+
+        //tunnel: draws the three additional cards (if there are enough cards left), then pays if possible
+        if (state.cardState().deckSize() + state.cardState().discardsSize() < ADDITIONAL_TUNNEL_CARDS) {
+            return state.withClaimedRoute(route, claimCards);
+        }
+        SortedBag.Builder<Card> drawnCards = new SortedBag.Builder<>();
+        for (int i = 0; i < ADDITIONAL_TUNNEL_CARDS; i++) {
+            state = state.withCardsDeckRecreatedIfNeeded(rng);
+            drawnCards.add(state.topCard());
+            state = state.withoutTopCard();
+        }
+        SortedBag<Card> drawn = drawnCards.build();
+        state = state.withMoreDiscardedCards(drawn);
+
+        int additionalCount = route.additionalClaimCardsCount(claimCards, drawn);
+        if (additionalCount == 0) return state.withClaimedRoute(route, claimCards);
+
+        List<SortedBag<Card>> options = playerState.possibleAdditionalCards(additionalCount, claimCards);
+        return options.isEmpty() ? state : state.withClaimedRoute(route, claimCards.union(options.get(0)));
+    }
+
+    /**
+     * Tells whether the game is over once the given turn has been played
+     * @param endOfTurn the state at the end of a turn (before <code>forNextTurn</code>)
+     * @return true if and only if the player who just played was the last one
+     */
+    static boolean isOver(GameState endOfTurn) {
+        return endOfTurn.currentPlayerId() == endOfTurn.lastPlayer();
+    }
+
+    /**
+     * Finishes the game from the given state (at the beginning of a turn) as <code>Simulation.playout</code> does
+     * @param state the state of the game
+     * @param rng   the random generator used for the choices and the shuffles
+     * @return the final points of the players (bonus of the longest trail included), indexed by ordinal
+     */
+    static int[] playout(GameState state, Random rng) {
+        Simulation simulation = new Simulation();
+        simulation.start(state);
+        return simulation.playout(state, rng);
+    }
+
+    /**
+     * Gives the final points of the players in the given state
+     * @param state the state of the game
+     * @return the final points of the players (bonus of the longest trail included), indexed by ordinal
+     */
+    static int[] finalPoints(GameState state) {
+        int[] points = new int[PlayerId.COUNT];
+        int[] trailLengths = new int[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            points[id.ordinal()] = state.playerState(id).finalPoints();
+            trailLengths[id.ordinal()] = state.playerState(id).longestTrail().length();
+        }
+        int longest = Math.max(trailLengths[0], trailLengths[1]);
+        for (int i = 0; i < PlayerId.COUNT; i++) {
+            if (trailLengths[i] == longest) points[i] += LONGEST_TRAIL_BONUS_POINTS;
+        }
+        return points;
+    }
+
+    /**
+     * Simulation of turns by a single thread, following the routes which cannot be claimed anymore (the claimed ones
+     * and the other routes between the same stations) from one turn to the next instead of recomputing them, and
+     * giving the actions in a buffer reused from one call to the next. A simulation is started from a state
+     * (<code>start</code>), and must then be given all the turns played from it (<code>play</code>).
+     */
+    static final class Simulation {
+        private final long[] blocked = new long[MASK_LENGTH], claimable = new long[MASK_LENGTH];
+        private final int[] actions = new int[ROUTES.size() + 2];
+
+        /**
+         * Starts the simulation from the given state, i.e. blocks the routes claimed in it
+         * @param state the state of the game
+         */
+        void start(PublicGameState state) {
+            Arrays.fill(blocked, 0);
+            for (PlayerId id : PlayerId.ALL) {
+                for (Route route : state.playerState(id).routes()) block(ROUTE_INDICES.get(route));
+            }
+        }
+
+        /**
+         * Gives the actions the current player can choose in the given state (reached by the simulation), in the
+         * buffer given by <code>actions()</code>
+         * @param state the state of the game
+         * @return the number of actions, at the beginning of the buffer (<code>PASS</code> alone if there are none)
+         */
+        int actions(GameState state) {
+            int count = claimableRoutes(state);
+            if (state.canDrawCards()) actions[count++] = DRAW_CARDS;
+            if (state.canDrawTickets()) actions[count++] = DRAW_TICKETS;
+            if (count == 0) actions[count++] = PASS;
+            return count;
+        }
+
+        /**
+         * Gives the buffer of the actions, overwritten by each call to <code>actions</code>
+         * @return the buffer of the actions
+         */
+        int[] actions() {
+            return actions;
+        }
+
+        /**
+         * Plays a turn of the current player as <code>Playouts.play</code> does, blocking the route claimed (if any)
+         * @param state  the state of the game at the beginning of the turn
+         * @param action the action of the player
+         * @param rng    the random generator used to shuffle the discards when the draw deck is empty
+         * @return the state at the end of the turn (before <code>forNextTurn</code>)
+         */
+        GameState play(GameState state, int action, Random rng) {
+            GameState next = Playouts.play(state, action, rng);
+            //a tunnel whose additional cards the player could not pay for is not claimed
+            if (action < DRAW_CARDS
+                && next.currentPlayerState().routes().size() > state.currentPlayerState().routes().size()) {
+                block(action);
+            }
+            return next;
+        }
+
+        /**
+         * Finishes the game from the given state (at the beginning of a turn, reached by the simulation) with a fast
+         * random policy: the current player claims a route three times out of four if it can (the longest of two
+         * random ones), otherwise draws cards
+         * @param state the state of the game
+         * @param rng   the random generator used for the choices and the shuffles
+         * @return the final points of the players (bonus of the longest trail included), indexed by ordinal
+         */
+        int[] playout(GameState state, Random rng) {
+            for (int turn = 0; turn < MAX_PLAYOUT_TURNS; turn++) {
+                state = play(state, playoutAction(state, rng), rng);
+                if (isOver(state)) break;
+                state = state.forNextTurn();
+            }
+            return finalPoints(state);
+        }
+
+        private int playoutAction(GameState state, Random rng) {
+            int count = claimableRoutes(state);
+            if (count > 0 && (rng.nextInt(4) != 0 || !state.canDrawCards())) {
+                int route1 = actions[rng.nextInt(count)], route2 = actions[rng.nextInt(count)];
+                return ROUTES.get(route1).length() >= ROUTES.get(route2).length() ? route1 : route2;
+            }
+            if (state.canDrawCards()) return DRAW_CARDS;
+            return state.canDrawTickets() ? DRAW_TICKETS : PASS;
+        }
+
+        /**
+         * Puts the indices of the routes the current player can claim at the beginning of the buffer of the actions
+         * (in the order of <code>ChMap.routes()</code>), and gives their number
+         */
+        private int claimableRoutes(GameState state) {
+            CLAIM_INDEX.claimableRoutes(state.currentPlayerState(), claimable);
+            int count = 0;
+            for (int word = 0; word < MASK_LENGTH; word++) {
+                for (long bits = claimable[word] & ~blocked[word]; bits != 0; bits &= bits - 1) {
+                    actions[count++] = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                }
+            }
+            return count;
+        }
+
+        private void block(int route) {
+            blocked[route / Long.SIZE] |= 1L << route;
+            int sibling = SIBLINGS[route];
+            if (sibling >= 0) blocked[sibling / Long.SIZE] |= 1L << sibling;
+        }
+    }
+
+    /*
+    =================================================================
+    Heuristics used for the choices which are not part of the actions
+    =================================================================
+     */
+
+    /**
+     * Chooses the cards used to claim the given route: the ones with the fewest locomotives, then of the color the
+     * player has the most of
+     */
+    static SortedBag<Card> claimCards(PlayerState playerState, Route route) {
+        SortedBag<Card> best = null;
+        int bestScore = Integer.MAX_VALUE;
+        for (SortedBag<Card> option : playerState.possibleClaimCards(route)) {
+            int locomotives = option.countOf(Card.LOCOMOTIVE);
+            Card car = locomotives == option.size() ? Card.LOCOMOTIVE : option.get(0);
+            int score = locomotives * (LOCOMOTIVE_CARDS_COUNT + 1) - playerState.cards().countOf(car);
+            if (score < bestScore) {
+                best = option;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Chooses where to draw a card from: a face up locomotive, or a face up card of the color the player has the most
+     * of (if it has at least one), otherwise the draw deck
+     */
+    static int drawSlot(PublicGameState state, PlayerState playerState) {
+        List<Card> faceUpCards = state.cardState().faceUpCards();
+        int bestSlot = DECK_SLOT, bestCount = 0;
+        for (int slot = 0; slot < faceUpCards.size(); slot++) {
+            Card card = faceUpCards.get(slot);
+            int count = card == Card.LOCOMOTIVE ? LOCOMOTIVE_CARDS_COUNT : playerState.cards().countOf(card);
+            if (count > bestCount) {
+                bestSlot = slot;
+                bestCount = count;
+            }
+        }
+        return bestSlot;
+    }
+
+    /**
+     * Chooses the tickets to keep: the ones already connected by the routes of the player, or the least valuable
+     * ones (the easiest to connect) if there are not enough of them
+     */
+    static SortedBag<Ticket> chooseTickets(PlayerState playerState, SortedBag<Ticket> options, int minCount) {
+        StationConnectivity connectivity = playerState.connectivity();
+        List<Ticket> tickets = new ArrayList<>(options.toList());
+        //connected tickets first (the most valuable first), then the others (the least valuable first)
+        tickets.sort(Comparator.comparingInt(ticket -> -ticket.points(connectivity)));
+
+        int count = 0;
+        while (count < tickets.size() && tickets.get(count).points(connectivity) > 0) ++count;
+        return SortedBag.of(tickets.subList(0, Math.max(count, Math.min(minCount, tickets.size()))));
+    }
+}
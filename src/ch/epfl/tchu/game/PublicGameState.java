@@ -17,7 +17,7 @@ public class PublicGameState {
     private final int ticketsCount;
     private final PublicCardState cardState;
     private final PlayerId currentPlayerId, lastPlayer;
-    private final Map<PlayerId, PublicPlayerState> playerState;
+    private final PublicPlayerState[] playerState; //indexed by the ordinal of the identities of the players
 
     /**
      * Unique public constructor of PublicGameState
@@ -32,13 +32,31 @@ public class PublicGameState {
      * @throws NullPointerException     if cardState or currentPlayerId is null
      */
     public PublicGameState(int ticketsCount, PublicCardState cardState, PlayerId currentPlayerId, Map<PlayerId, PublicPlayerState> playerState, PlayerId lastPlayer) {
-        Preconditions.checkArgument(ticketsCount >= 0 && playerState.size() == PlayerId.COUNT);
+        this(toArray(playerState), ticketsCount, cardState, currentPlayerId, lastPlayer);
+    }
+
+    /**
+     * Constructor used by GameState, which gives the states of the players in an array indexed by the ordinal of their
+     * identities. The array is not copied (it must not be modified afterwards), hence it can be shared by states
+     * whose players have not changed.
+     */
+    PublicGameState(PublicPlayerState[] playerState, int ticketsCount, PublicCardState cardState,
+                    PlayerId currentPlayerId, PlayerId lastPlayer) {
+        Preconditions.checkArgument(ticketsCount >= 0);
 
         this.ticketsCount = ticketsCount;
         this.cardState = Objects.requireNonNull(cardState);
         this.currentPlayerId = Objects.requireNonNull(currentPlayerId);
         this.lastPlayer = lastPlayer;
-        this.playerState = Map.copyOf(playerState);
+        this.playerState = playerState;
+    }
+
+    private static PublicPlayerState[] toArray(Map<PlayerId, PublicPlayerState> playerState) {
+        Preconditions.checkArgument(playerState.size() == PlayerId.COUNT);
+
+        PublicPlayerState[] states = new PublicPlayerState[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) states[id.ordinal()] = Objects.requireNonNull(playerState.get(id));
+        return states;
     }
 
     /**
@@ -93,7 +111,7 @@ public class PublicGameState {
      * @return the state of the given player
      */
     public PublicPlayerState playerState(PlayerId playerId) {
-        return playerState.get(playerId);
+        return playerState[playerId.ordinal()];
     }
 
     /**
@@ -102,7 +120,7 @@ public class PublicGameState {
      * @return the state of the active player
      */
     public PublicPlayerState currentPlayerState() {
-        return playerState.get(currentPlayerId);
+        return playerState[currentPlayerId.ordinal()];
     }
 
     /**
@@ -112,7 +130,7 @@ public class PublicGameState {
      */
     public List<Route> claimedRoutes() {
         List<Route> claimedRoutes = new ArrayList<>();
-        playerState.forEach((id, state) -> claimedRoutes.addAll(state.routes()));
+        for (PublicPlayerState state : playerState) claimedRoutes.addAll(state.routes());
         return claimedRoutes;
     }
 
@@ -0,0 +1,137 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static ch.epfl.tchu.game.Constants.*;
+
+/**
+ * Player (bot) choosing at random among the actions it is allowed to perform. Its choices only depend on the seed it
+ * is given and on the states it receives, hence a game between two RandomPlayers is reproducible.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class RandomPlayer implements Player {
+
+    private static final int TURN_LIMIT = 1000;
+
+    private final Random rng;
+
+    private int turnCounter;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTickets;
+    private Route routeToClaim;
+
+    /**
+     * Constructor of RandomPlayer
+     * @param seed seed of the random generator used to make all of this player's choices
+     */
+    public RandomPlayer(long seed) {
+        this.rng = new Random(seed);
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames, Boolean rematch) {
+        turnCounter = 0;
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public boolean receivesInfo() {
+        return false;
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return randomSubset(initialTickets, IN_GAME_TICKETS_COUNT);
+    }
+
+    /**
+     * Claims a random claimable route one time out of two (or always if it cannot draw cards),
+     * otherwise draws cards or, if it is not possible, tickets
+     * @return the TurnKind chosen
+     * @throws IllegalStateException if the player played an unreasonable number of turns
+     * @throws IllegalStateException if there is nothing the player can do
+     */
+    @Override
+    public TurnKind nextTurn() {
+        if (++turnCounter > TURN_LIMIT) throw new IllegalStateException("Trop de tours joués !");
+
+        List<Route> claimableRoutes = claimableRoutes();
+        if (!claimableRoutes.isEmpty() && (rng.nextBoolean() || !gameState.canDrawCards())) {
+            routeToClaim = claimableRoutes.get(rng.nextInt(claimableRoutes.size()));
+            return TurnKind.CLAIM_ROUTE;
+        }
+        if (gameState.canDrawCards()) return TurnKind.DRAW_CARDS;
+        if (gameState.canDrawTickets()) return TurnKind.DRAW_TICKETS;
+        throw new IllegalStateException("no possible action");
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return randomSubset(options, 1);
+    }
+
+    @Override
+    public int drawSlot() {
+        return rng.nextInt(FACE_UP_CARDS_COUNT + 1) - 1;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return routeToClaim;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        List<SortedBag<Card>> options = ownState.possibleClaimCards(routeToClaim);
+        return options.get(rng.nextInt(options.size()));
+    }
+
+    /**
+     * Gives up the tunnel one time out of four, otherwise chooses one of the given options at random
+     */
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return rng.nextInt(4) == 0 ? SortedBag.of() : options.get(rng.nextInt(options.size()));
+    }
+
+    @Override
+    public void askForRematch() {
+    }
+
+    @Override
+    public Boolean rematchResponse() {
+        return false;
+    }
+
+    private List<Route> claimableRoutes() {
+        List<Route> claimedRoutes = gameState.claimedRoutes();
+        return ChMap.claimIndex().claimableRoutes(ownState).stream()
+                    .filter(route -> !claimedRoutes.contains(route))
+                    .collect(Collectors.toUnmodifiableList());
+    }
+
+    private <E extends Comparable<E>> SortedBag<E> randomSubset(SortedBag<E> options, int minSize) {
+        List<E> shuffled = options.toList();
+        Collections.shuffle(shuffled, rng);
+        return SortedBag.of(shuffled.subList(0, minSize + rng.nextInt(shuffled.size() - minSize + 1)));
+    }
+}
@@ -0,0 +1,59 @@
+package ch.epfl.tchu.game;
+
+import java.util.Random;
+
+/**
+ * Random generator giving exactly the same numbers as <code>java.util.Random</code> (same linear congruential
+ * generator), but whose internal state can be read and restored, so that a game can be saved and resumed with the
+ * same random draws (see <code>GameSnapshot</code>). Unlike <code>java.util.Random</code>, it must not be shared
+ * between threads.
+ *
+ * @author Noah Munz (310779)
+ */
+final class ResumableRandom extends Random {
+
+    private final static long serialVersionUID = 1L;
+
+    private final static long MULTIPLIER = 0x5DEECE66DL, ADDEND = 0xBL, MASK = (1L << 48) - 1;
+
+    private long state; //set by setSeed, which is called by the constructor of Random
+
+    /**
+     * Constructor of ResumableRandom
+     * @param seed the seed of the generator, giving the same numbers as <code>new Random(seed)</code>
+     */
+    ResumableRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Gives the generator in the given state
+     * @param state the state of a generator, given by <code>state</code>
+     * @return a generator giving the same numbers as the one whose state it was
+     */
+    static ResumableRandom ofState(long state) {
+        ResumableRandom rng = new ResumableRandom(0);
+        rng.state = state & MASK;
+        return rng;
+    }
+
+    /**
+     * Gives the internal state of the generator
+     * @return the 48 bits of the state of the generator
+     */
+    long state() {
+        return state;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+}
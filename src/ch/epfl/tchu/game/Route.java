@@ -30,6 +30,11 @@ public final class Route {
 
     private final Color color;
 
+    //the combinations of cards that can be played to claim the route, computed once (i.e. when ChMap is loaded)
+    private final List<SortedBag<Card>> possibleClaimCards;
+    private final long[] packedClaimCards; //the same combinations, packed (see PackedCards)
+    private final Card car; //the card of the color of the route, null if it is neutral
+
     /**
      * Enum representing the two levels at which a road can be situated
      */
@@ -65,6 +70,10 @@ public final class Route {
         this.level = Objects.requireNonNull(level);
 
         this.color = color;
+        this.car = color == null ? null : Card.of(color);
+
+        this.possibleClaimCards = level == OVERGROUND ? overgroundPossibilities() : undergroundPossibilities();
+        this.packedClaimCards = possibleClaimCards.stream().mapToLong(PackedCards::pack).toArray();
     }
 
     /**
@@ -85,7 +94,34 @@ public final class Route {
      *         sorted in ascending order of colors and then by the number of locomotive
      */
     public List<SortedBag<Card>> possibleClaimCards() {
-        return level == OVERGROUND ? overgroundPossibilities() : undergroundPossibilities();
+        return possibleClaimCards;
+    }
+
+    /**
+     * Gives the combinations of cards of <code>possibleClaimCards</code>, packed (see <code>PackedCards</code>).
+     * The array returned must not be modified.
+     * @return the packed combinations of cards that could be played to attempt to take over the route, in the same
+     *         order as <code>possibleClaimCards</code>
+     */
+    long[] packedClaimCards() {
+        return packedClaimCards;
+    }
+
+    /**
+     * Tells whether one of the combinations of <code>possibleClaimCards</code> is included in the given cards, by only
+     * looking at the number of cards of the color of the route (or of the most frequent color if it is neutral) and
+     * at the number of locomotives if it is a tunnel
+     * @param cards the packed cards of the player (see <code>PackedCards</code>)
+     * @return true if and only if the given cards are enough to attempt to take over the route (the number of cars of
+     *         the player is not checked)
+     */
+    boolean isClaimableWith(long cards) {
+        int carsCount = 0;
+        if (car != null) carsCount = PackedCards.countOf(cards, car);
+        else for (Card car : CARS) carsCount = Math.max(carsCount, PackedCards.countOf(cards, car));
+
+        if (level == UNDERGROUND) carsCount += PackedCards.countOf(cards, LOCOMOTIVE);
+        return carsCount >= length;
     }
 
     private List<SortedBag<Card>> overgroundPossibilities() {
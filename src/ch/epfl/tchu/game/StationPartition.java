@@ -2,35 +2,57 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
 
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Arrays;
 
 /**
- * This class represents a flattened partition of stations in a player's road network
+ * This class represents a flattened partition of stations in a player's road network.
+ * It is immutable: the representative of each station is stored in an array that is never modified once built.
  * @author Mehdi Bouguerra Ezzina (314857)
  */
 public final class StationPartition implements StationConnectivity {
 
-    private final List<Integer> listOfReps;
+    private final int[] reps;
 
-    private StationPartition(List<Integer> listOfLinks) {
-        listOfReps = List.copyOf(listOfLinks);
+    private StationPartition(int[] reps) {
+        this.reps = reps;
     }
 
     @Override
     public boolean connected(Station s1, Station s2) {
-        return (Math.max(s1.id(), s2.id()) >= listOfReps.size()) ? s1.id() == s2.id()
-                                                                 : listOfReps.get(s1.id()).equals(listOfReps.get(s2.id()));
+        return (Math.max(s1.id(), s2.id()) >= reps.length) ? s1.id() == s2.id()
+                                                           : reps[s1.id()] == reps[s2.id()];
     }
 
     /**
-     * StationPartition Builder (constructs a deep partition of stations in a player's road network)
+     * Gives the partition obtained by joining the subsets of the two given stations, without rebuilding it
+     * (used to update the partition of a player when it claims a route). <code>this</code> is not modified, only
+     * its array of representatives is copied, hence it costs one pass over the stations.
+     * @param s1 the first station to connect
+     * @param s2 the second station to connect
+     * @return <code>this</code> if the stations were already connected, a new flattened partition otherwise
+     */
+    StationPartition withConnected(Station s1, Station s2) {
+        if (connected(s1, s2)) return this;
+
+        int[] newReps = Arrays.copyOf(reps, Math.max(reps.length, Math.max(s1.id(), s2.id()) + 1));
+        for (int id = reps.length; id < newReps.length; id++) newReps[id] = id;
+
+        int rep1 = newReps[s1.id()], rep2 = newReps[s2.id()];
+        for (int id = 0; id < newReps.length; id++) {
+            if (newReps[id] == rep2) newReps[id] = rep1;
+        }
+        return new StationPartition(newReps);
+    }
+
+    /**
+     * StationPartition Builder (constructs a deep partition of stations in a player's road network), i.e. a
+     * union-find on arrays, with path halving and union by size
      * @author Mehdi Bouguerra Ezzina (314857)
      */
     public static final class Builder {
 
-        private final List<Integer> listOfReps;
+        private final int[] parents;
+        private final int[] sizes; //size of the subset of each representative
 
         /**
          * Constructor of a StationPartition builder
@@ -38,38 +60,67 @@ public final class StationPartition implements StationConnectivity {
          * @throws IllegalArgumentException if stationCount if strictly lower than 0
          */
         public Builder(int stationCount) {
-
             Preconditions.checkArgument(stationCount >= 0);
-            listOfReps = IntStream.range(0, stationCount)
-                                  .boxed()
-                                  .collect(Collectors.toList());
+            parents = new int[stationCount];
+            sizes = new int[stationCount];
+            clear();
         }
 
         /**
-         * Joins the subsets containing the two stations passed in argument, choosing the representative of the first station
-         * as representative of the joined subset
-         * @param s1 the station from which we keep the representative
+         * Puts back each station in its own subset, so that the builder can be reused for another network without
+         * allocating new arrays
+         * @return the builder
+         */
+        public Builder clear() {
+            for (int id = 0; id < parents.length; id++) {
+                parents[id] = id;
+                sizes[id] = 1;
+            }
+            return this;
+        }
+
+        /**
+         * Joins the subsets containing the two stations passed in argument, choosing the representative of the
+         * largest one as representative of the joined subset
+         * @param s1 the first station we want to connect
          * @param s2 the second station we want to connect
          * @return the builder
          */
         public Builder connect(Station s1, Station s2) {
-            listOfReps.set(representative(s2.id()), representative(s1.id()));
+            int rep1 = representative(s1.id()), rep2 = representative(s2.id());
+            if (rep1 == rep2) return this;
+
+            if (sizes[rep1] < sizes[rep2]) {
+                int rep = rep1;
+                rep1 = rep2;
+                rep2 = rep;
+            }
+            parents[rep2] = rep1;
+            sizes[rep1] += sizes[rep2];
             return this;
         }
 
         /**
          * Returns the flattened partition of the stations corresponding to the deep partition of this builder
+         * (the builder can still be used afterwards)
          * @return a StationPartition of the stations corresponding to the deep partition of this builder
          */
         public StationPartition build() {
-            for (int i = 0; i < listOfReps.size(); ++i) {
-                listOfReps.set(i, representative(i));
-            }
-            return new StationPartition(listOfReps);
+            int[] reps = new int[parents.length];
+            for (int id = 0; id < parents.length; ++id) reps[id] = representative(id);
+            return new StationPartition(reps);
         }
 
+        /**
+         * Finds the representative of a station, making each station of the path point to its grandparent
+         * (path halving) on the way
+         */
         private int representative(int id) {
-            return listOfReps.get(id) == id ? id : representative(listOfReps.get(id));
+            while (parents[id] != id) {
+                parents[id] = parents[parents[id]];
+                id = parents[id];
+            }
+            return id;
         }
     }
 }
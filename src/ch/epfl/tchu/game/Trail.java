@@ -1,7 +1,7 @@
 package ch.epfl.tchu.game;
 
-import java.util.*;
-import java.util.function.Predicate;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Sequence of station and road forming a track
@@ -15,75 +15,32 @@ public final class Trail {
     private final Station station1, station2;
     private final List<Route> routes;
 
-    private Trail(List<Route> routes, Station station1, Station station2, int length) {
+    /**
+     * Constructor of Trail, used by <code>TrailSolver</code>
+     * @param routes   the routes of the trail, in the order they are followed from station1
+     * @param station1 the departure station (null if there are no routes)
+     * @param station2 the arrival station (null if there are no routes)
+     * @param length   the length of the trail
+     */
+    Trail(List<Route> routes, Station station1, Station station2, int length) {
         this.length = length;
         this.routes = routes;
         this.station1 = station1;
         this.station2 = station2;
     }
 
-    private Trail(Trail toExtend, Route extension) {
-        this(add(toExtend.routes, extension), toExtend.station1, extension.stationOpposite(toExtend.station2),
-                toExtend.length + extension.length());
-    }
-
-    private static <T> List<T> add(List<T> list, T addition) {
-        List<T> extended = new ArrayList<>(list);
-        extended.add(addition);
-        return extended;
-    }
-
     /**
      * Gives the longest path composed of the given routes
      *
      * @param routes list of routes owned by the player
-     * @return the longest path composed of the given routes. If there is more than one, returns one of them
-     * (or a trail of length 0 and of stations equal to null, if the list of routes is empty)
+     * @return the longest path composed of the given routes. If there is more than one, returns the one made of
+     * the fewest routes, see <code>TrailSolver</code> (or a trail of length 0 and of stations equal to null,
+     * if the list of routes is empty)
      */
     public static Trail longest(List<Route> routes) {
-        if (routes == null) return null;
-
-        if (routes.isEmpty()) return new Trail(List.of(), null, null, 0);
-
-        Collection<Trail> initialTrails = new HashSet<>();
-        for (Route r : routes) {
-            initialTrails.add(new Trail(List.of(r), r.station1(), r.station2(), r.length()));
-            initialTrails.add(new Trail(List.of(r), r.station2(), r.station1(), r.length()));
-        }
-
-        return longestRec(initialTrails, routes, new Trail(List.of(), null, null, 0));
-    }
-
-    /**
-     * Recursive call for longest() only stops when pointsSet is empty
-     *
-     * @param trails Collection of trails, initialized in longest
-     * @param routes extensions to check & add to the given trails
-     */
-    private static Trail longestRec(Collection<Trail> trails, List<Route> routes, Trail currentLongest) {
-
-        Collection<Trail> pointsSet = new HashSet<>();
-        Trail nextLongest = currentLongest;
-
-        for (Trail currentTrail : trails) {
-
-            Predicate<Route> isExtendable = route ->
-                    !currentTrail.routes.contains(route) && route.stations().contains(currentTrail.station2);
-
-            routes.forEach(route -> {
-                if (isExtendable.test(route)) pointsSet.add(new Trail(currentTrail, route));
-            });
-
-            if (currentTrail.length > nextLongest.length) {
-                nextLongest = currentTrail;
-            }
-
-        }
-        return pointsSet.isEmpty() ? nextLongest
-                : longestRec(pointsSet, routes, nextLongest);
+        return new TrailSolver().longest(routes);
     }
 
-
     /**
      * Getter of the trail length
      *
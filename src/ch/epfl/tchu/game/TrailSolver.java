@@ -0,0 +1,157 @@
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the longest trail of a list of routes by a depth-first search with backtracking. The routes leaving each
+ * station are stored in an adjacency list (indices in arrays), the routes already used by the current trail in a
+ * bitmask, so that extending or shortening the trail does not allocate anything.
+ * <p>
+ * The trail found is the same as the one of the breadth-first search <code>Trail.longest</code> used to do: the
+ * longest one, then the one made of the fewest routes, then the first one when the trails are ordered by their
+ * routes (in the order of the given list) and starting with <code>station1</code> before <code>station2</code>.
+ * <p>
+ * A solver keeps its arrays from one call to the next, hence it is cheaper to reuse one, but it must not be used
+ * by several threads at once. The stations are told apart by their identification number.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class TrailSolver {
+
+    private int[] localStation = new int[0]; //local index of each station, by identification number
+    private Station[] stations = new Station[0]; //station of each local index
+
+    //the routes, with their stations given as local indices
+    private int[] routeStation1 = new int[0], routeStation2 = new int[0], routeLength = new int[0];
+    //indices of the routes leaving the station s: adjacentRoutes[adjacencyStart[s]..adjacencyStart[s + 1]]
+    private int[] adjacencyStart = new int[0], adjacentRoutes = new int[0];
+    private long[] usedRoutes = new long[0];
+
+    private int[] path = new int[0], bestPath = new int[0];
+    private int bestLength, bestRoutesCount, bestStart, start;
+
+    /**
+     * Gives the longest trail composed of the given routes
+     * @param routes list of routes owned by the player
+     * @return the longest trail composed of the given routes, as described in the class documentation
+     * (or a trail of length 0 and of stations equal to null, if the list of routes is empty, null if it is null)
+     */
+    public Trail longest(List<Route> routes) {
+        if (routes == null) return null;
+        if (routes.isEmpty()) return new Trail(List.of(), null, null, 0);
+
+        int stationsCount = index(routes);
+        buildAdjacency(routes.size(), stationsCount);
+
+        bestLength = 0;
+        bestRoutesCount = 0;
+        for (int r = 0; r < routes.size(); r++) {
+            usedRoutes[r >>> 6] |= 1L << r;
+            path[0] = r;
+            start = routeStation1[r];
+            extend(routeStation2[r], 1, routeLength[r]);
+            start = routeStation2[r];
+            extend(routeStation1[r], 1, routeLength[r]);
+            usedRoutes[r >>> 6] &= ~(1L << r);
+        }
+
+        List<Route> trailRoutes = new ArrayList<>(bestRoutesCount);
+        int end = bestStart;
+        for (int i = 0; i < bestRoutesCount; i++) {
+            int r = bestPath[i];
+            trailRoutes.add(routes.get(r));
+            end = opposite(r, end);
+        }
+        return new Trail(trailRoutes, stations[bestStart], stations[end], bestLength);
+    }
+
+    /**
+     * Keeps the current trail if it is better than the best one found so far, then tries each of its extensions
+     * @param station     the station the current trail ends at
+     * @param routesCount the number of routes of the current trail
+     * @param length      the length of the current trail
+     */
+    private void extend(int station, int routesCount, int length) {
+        if (length > bestLength || (length == bestLength && routesCount < bestRoutesCount)) {
+            bestLength = length;
+            bestRoutesCount = routesCount;
+            bestStart = start;
+            System.arraycopy(path, 0, bestPath, 0, routesCount);
+        }
+
+        for (int i = adjacencyStart[station]; i < adjacencyStart[station + 1]; i++) {
+            int r = adjacentRoutes[i];
+            long bit = 1L << r;
+            if ((usedRoutes[r >>> 6] & bit) != 0) continue;
+
+            usedRoutes[r >>> 6] |= bit;
+            path[routesCount] = r;
+            extend(opposite(r, station), routesCount + 1, length + routeLength[r]);
+            usedRoutes[r >>> 6] &= ~bit;
+        }
+    }
+
+    private int opposite(int route, int station) {
+        return routeStation1[route] == station ? routeStation2[route] : routeStation1[route];
+    }
+
+    /**
+     * Gives a local index to each station of the given routes and stores the routes with these indices
+     * @return the number of distinct stations
+     */
+    private int index(List<Route> routes) {
+        int routesCount = routes.size(), maxId = 0;
+        for (Route route : routes) maxId = Math.max(maxId, Math.max(route.station1().id(), route.station2().id()));
+
+        if (localStation.length <= maxId) localStation = new int[maxId + 1];
+        Arrays.fill(localStation, 0, maxId + 1, -1);
+        if (routeLength.length < routesCount) {
+            routeStation1 = new int[routesCount];
+            routeStation2 = new int[routesCount];
+            routeLength = new int[routesCount];
+            path = new int[routesCount];
+            bestPath = new int[routesCount];
+            stations = new Station[2 * routesCount];
+            adjacentRoutes = new int[2 * routesCount];
+            adjacencyStart = new int[2 * routesCount + 1];
+            usedRoutes = new long[(routesCount + Long.SIZE - 1) / Long.SIZE];
+        }
+
+        int stationsCount = 0;
+        for (int r = 0; r < routesCount; r++) {
+            Route route = routes.get(r);
+            for (Station station : route.stations()) {
+                if (localStation[station.id()] < 0) {
+                    localStation[station.id()] = stationsCount;
+                    stations[stationsCount++] = station;
+                }
+            }
+            routeStation1[r] = localStation[route.station1().id()];
+            routeStation2[r] = localStation[route.station2().id()];
+            routeLength[r] = route.length();
+        }
+        return stationsCount;
+    }
+
+    /**
+     * Fills the adjacency list, the routes leaving each station being sorted by index
+     */
+    private void buildAdjacency(int routesCount, int stationsCount) {
+        Arrays.fill(adjacencyStart, 0, stationsCount + 1, 0);
+        for (int r = 0; r < routesCount; r++) {
+            ++adjacencyStart[routeStation1[r] + 1];
+            ++adjacencyStart[routeStation2[r] + 1];
+        }
+        for (int s = 0; s < stationsCount; s++) adjacencyStart[s + 1] += adjacencyStart[s];
+
+        //adjacencyStart[s] is used as the insertion point of s, then shifted back
+        for (int r = 0; r < routesCount; r++) {
+            adjacentRoutes[adjacencyStart[routeStation1[r]]++] = r;
+            adjacentRoutes[adjacencyStart[routeStation2[r]]++] = r;
+        }
+        for (int s = stationsCount; s > 0; s--) adjacencyStart[s] = adjacencyStart[s - 1];
+        adjacencyStart[0] = 0;
+    }
+}
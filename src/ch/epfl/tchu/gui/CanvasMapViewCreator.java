@@ -0,0 +1,251 @@
+package ch.epfl.tchu.gui;
+
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.gui.ActionHandlers.*;
+import ch.epfl.tchu.gui.MapViewCreator.*;
+import ch.epfl.tchu.gui.RouteGeometry.*;
+import javafx.application.*;
+import javafx.beans.property.*;
+import javafx.scene.canvas.*;
+import javafx.scene.image.*;
+import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.*;
+
+import java.util.*;
+
+import static ch.epfl.tchu.gui.ConstantsGUI.*;
+import static ch.epfl.tchu.gui.RouteGeometry.*;
+
+/**
+ * Alternative to <code>MapViewCreator</code> drawing the routes of the map on a single <code>Canvas</code> above the
+ * image of the map, instead of having a group of nodes per route and per cell (with their bindings and their style):
+ * the route under the mouse is found with the precomputed <code>RouteGeometry</code>, and when the owner of routes
+ * change (or the route under the mouse), only the part of the canvas covered by these routes is drawn again, once per
+ * pulse. The colors and strokes are those of <code>map.css</code> and <code>colors.css</code>.
+ * <p>
+ * It is used instead of <code>MapViewCreator</code> when the system property <code>tchu.map</code> is
+ * <code>canvas</code>.
+ *
+ * @author Noah Munz (310779)
+ */
+final class CanvasMapViewCreator {
+
+    /**
+     * Name of the system property choosing how the map is drawn (<code>canvas</code> to use this class)
+     */
+    public final static String PROPERTY = "tchu.map";
+
+    /**
+     * Value of the system property <code>tchu.map</code> selecting this class
+     */
+    public final static String CANVAS = "canvas";
+
+    //size of the image of the map
+    private final static double MAP_WIDTH = 1120, MAP_HEIGHT = 730;
+
+    private final static Map<String, Color> FILLS = Map.of("BLACK", Color.web("#7f7f7f"),
+                                                           "VIOLET", Color.web("#eb93db"),
+                                                           "BLUE", Color.web("#86aaff"),
+                                                           "GREEN", Color.web("#92db98"),
+                                                           "YELLOW", Color.web("#eae853"),
+                                                           "ORANGE", Color.web("#e1a84f"),
+                                                           "RED", Color.web("#e9787d"),
+                                                           "WHITE", Color.web("#f5f5f5"),
+                                                           NEUTRAL, Color.web("#d3d3d3"));
+    private final static Map<PlayerId, Color> PLAYER_FILLS = Map.of(PlayerId.PLAYER_1, Color.LIGHTBLUE,
+                                                                    PlayerId.PLAYER_2, Color.LIGHTPINK);
+
+    private final static Color TRACK_STROKE = Color.DIMGRAY, BLACK_TRACK_STROKE = Color.GREY;
+    private final static double TRACK_STROKE_WIDTH = 1, CAR_STROKE_WIDTH = 2, WHEEL_STROKE_WIDTH = 1;
+    private final static double[] UNDERGROUND_DASHES = {8, 4};
+    private final static double UNDERGROUND_DASH_OFFSET = 4;
+
+    /**
+     * Private constructor to remove the default one and make CanvasMapViewCreator not instantiable
+     */
+    private CanvasMapViewCreator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Tells whether the map must be drawn on a canvas, i.e. whether the system property <code>tchu.map</code> is
+     * <code>canvas</code>
+     * @return true if the map must be created by this class rather than by <code>MapViewCreator</code>
+     */
+    static boolean isSelected() {
+        return CANVAS.equalsIgnoreCase(System.getProperty(PROPERTY, "").trim());
+    }
+
+    /**
+     * Creates a view of the Swiss Map on which the game unfolds, whose routes are drawn on a canvas
+     * @param gameState         observable State of the game
+     * @param claimRouteHandler property containing the action handler corresponding to all actions regarding the claim of a Route
+     * @param cardChooser       instance of interface called when player has to choose which card to use to claim a Route
+     */
+    public static Pane createMapView(ObservableGameState gameState, ReadOnlyObjectProperty<ClaimRouteHandler> claimRouteHandler,
+                                     CardChooser cardChooser) {
+        Pane map = new Pane(new ImageView());
+        //the stylesheet of the map gives the image of the map
+        map.getStylesheets().add(MAP_CSS);
+        map.getStyleClass().add("map");
+
+        RouteCanvas canvas = new RouteCanvas(RouteGeometry.load(), gameState, claimRouteHandler);
+        canvas.setOnMouseClicked(mouseEvent -> {
+            Route route = canvas.claimableRouteAt(mouseEvent.getX(), mouseEvent.getY());
+            if (route != null) MapViewCreator.claimRoute(route, gameState, claimRouteHandler, cardChooser);
+        });
+
+        map.getChildren().add(canvas);
+        return map;
+    }
+
+    /**
+     * Canvas on which the routes are drawn, which keeps the routes to draw again until the next pulse
+     */
+    private static final class RouteCanvas extends Canvas {
+        private final RouteGeometry geometry;
+        private final ReadOnlyObjectProperty<ClaimRouteHandler> claimRouteHandler;
+        private final List<ReadOnlyObjectProperty<PlayerId>> owners = new ArrayList<>();
+        private final List<ReadOnlyBooleanProperty> claimable = new ArrayList<>();
+
+        private final BitSet dirtyRoutes = new BitSet();
+        private boolean redrawScheduled;
+        private int hoveredRoute = -1;
+
+        private RouteCanvas(RouteGeometry geometry, ObservableGameState gameState,
+                            ReadOnlyObjectProperty<ClaimRouteHandler> claimRouteHandler) {
+            super(MAP_WIDTH, MAP_HEIGHT);
+            this.geometry = geometry;
+            this.claimRouteHandler = claimRouteHandler;
+
+            List<Route> routes = geometry.routes();
+            for (int i = 0; i < routes.size(); i++) {
+                int route = i;
+                owners.add(gameState.routeOwnerProperty(routes.get(i)));
+                claimable.add(gameState.isRouteClaimableProperty(routes.get(i)));
+                owners.get(i).addListener((property, oldValue, newValue) -> markDirty(route));
+                //the route is only drawn differently when it can be claimed if it is under the mouse
+                claimable.get(i).addListener((property, oldValue, newValue) -> {
+                    if (route == hoveredRoute) markDirty(route);
+                });
+            }
+            claimRouteHandler.addListener((property, oldValue, newValue) -> {
+                if (hoveredRoute >= 0) markDirty(hoveredRoute);
+            });
+
+            setOnMouseMoved(mouseEvent -> hover(geometry.routeAt(mouseEvent.getX(), mouseEvent.getY())));
+            setOnMouseExited(mouseEvent -> hover(-1));
+
+            GraphicsContext context = getGraphicsContext2D();
+            for (int i = 0; i < routes.size(); i++) drawRoute(context, i);
+        }
+
+        /**
+         * Gives the route at the given point if it can be claimed now
+         */
+        private Route claimableRouteAt(double x, double y) {
+            int route = geometry.routeAt(x, y);
+            return route >= 0 && isEnabled(route) ? geometry.routes().get(route) : null;
+        }
+
+        private boolean isEnabled(int route) {
+            return claimRouteHandler.get() != null && claimable.get(route).get();
+        }
+
+        private void hover(int route) {
+            if (route == hoveredRoute) return;
+            if (hoveredRoute >= 0) markDirty(hoveredRoute);
+            if (route >= 0) markDirty(route);
+            hoveredRoute = route;
+        }
+
+        private void markDirty(int route) {
+            dirtyRoutes.set(route);
+            if (redrawScheduled) return;
+            redrawScheduled = true;
+            //the routes changed by a whole new state are drawn again at once
+            Platform.runLater(this::redraw);
+        }
+
+        /**
+         * Draws again the parts of the canvas covered by the dirty routes, i.e. these routes and the parts of the
+         * routes overlapping them
+         */
+        private void redraw() {
+            redrawScheduled = false;
+            GraphicsContext context = getGraphicsContext2D();
+            for (int dirty = dirtyRoutes.nextSetBit(0); dirty >= 0; dirty = dirtyRoutes.nextSetBit(dirty + 1)) {
+                Bounds bounds = geometry.bounds(dirty);
+                context.save();
+                context.beginPath();
+                context.rect(bounds.minX(), bounds.minY(), bounds.width(), bounds.height());
+                context.clip();
+                context.clearRect(bounds.minX(), bounds.minY(), bounds.width(), bounds.height());
+                BitSet overlapping = geometry.overlapping(dirty);
+                for (int route = overlapping.nextSetBit(0); route >= 0; route = overlapping.nextSetBit(route + 1)) {
+                    drawRoute(context, route);
+                }
+                context.restore();
+            }
+            dirtyRoutes.clear();
+        }
+
+        private void drawRoute(GraphicsContext context, int index) {
+            Route route = geometry.routes().get(index);
+            PlayerId owner = owners.get(index).get();
+            double trackScale = index == hoveredRoute && isEnabled(index) ? HOVER_SCALE : 1;
+
+            for (Cell cell : geometry.cells(index)) {
+                context.save();
+                context.translate(cell.centerX(), cell.centerY());
+                context.rotate(cell.rotate());
+                drawTrack(context, route, trackScale);
+                if (owner != null) drawCar(context, owner);
+                context.restore();
+            }
+        }
+
+        /**
+         * Draws the track of a cell, centered on the origin
+         */
+        private static void drawTrack(GraphicsContext context, Route route, double scale) {
+            double width = CELL_WIDTH * scale, height = CELL_HEIGHT * scale;
+            context.setFill(FILLS.get(colorClass(route.color())));
+            context.fillRect(-width / 2, -height / 2, width, height);
+
+            //the stroke is outside of the track
+            context.setStroke(route.color() == ch.epfl.tchu.game.Color.BLACK ? BLACK_TRACK_STROKE : TRACK_STROKE);
+            context.setLineWidth(TRACK_STROKE_WIDTH);
+            if (route.level() == Route.Level.UNDERGROUND) {
+                context.setLineDashes(UNDERGROUND_DASHES);
+                context.setLineDashOffset(UNDERGROUND_DASH_OFFSET);
+                context.setLineCap(StrokeLineCap.BUTT);
+            }
+            else context.setLineDashes();
+            context.strokeRect(-(width + TRACK_STROKE_WIDTH) / 2, -(height + TRACK_STROKE_WIDTH) / 2,
+                               width + TRACK_STROKE_WIDTH, height + TRACK_STROKE_WIDTH);
+        }
+
+        /**
+         * Draws the car of a cell owned by the given player, centered on the origin
+         */
+        private static void drawCar(GraphicsContext context, PlayerId owner) {
+            context.setLineDashes();
+            context.setFill(PLAYER_FILLS.get(owner));
+            context.fillRect(-CELL_WIDTH / 2, -CELL_HEIGHT / 2, CELL_WIDTH, CELL_HEIGHT);
+            context.setStroke(TRACK_STROKE);
+            context.setLineWidth(CAR_STROKE_WIDTH);
+            context.strokeRect(-CELL_WIDTH / 2, -CELL_HEIGHT / 2, CELL_WIDTH, CELL_HEIGHT);
+
+            context.setFill(Color.WHITE);
+            context.setLineWidth(WHEEL_STROKE_WIDTH);
+            for (double wheelX : new double[]{FIRST_WAGON_CIRCLE_WIDTH, SECOND_WAGON_CIRCLE_WIDTH}) {
+                double x = wheelX - CELL_WIDTH / 2 - WAGON_CIRCLE_RADIUS;
+                double y = WAGON_CIRCLE_HEIGHT - CELL_HEIGHT / 2 - WAGON_CIRCLE_RADIUS;
+                context.fillOval(x, y, 2 * WAGON_CIRCLE_RADIUS, 2 * WAGON_CIRCLE_RADIUS);
+                context.strokeOval(x, y, 2 * WAGON_CIRCLE_RADIUS, 2 * WAGON_CIRCLE_RADIUS);
+            }
+        }
+    }
+}
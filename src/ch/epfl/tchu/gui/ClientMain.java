@@ -15,6 +15,8 @@ public final class ClientMain extends Application {
 
     private final static String DEFAULT_PROXY_NAME = "localhost";
     final static int LOCALHOST_PORT = 5108;
+    //number of failed attempts in a row after which the client stops trying to come back to its table
+    private final static int RECONNECTION_ATTEMPTS = 10;
     private final String proxyName;
     private final int port;
 
@@ -42,8 +44,9 @@ public final class ClientMain extends Application {
     public void start(Stage primaryStage) throws Exception {
         if (proxyName == null || port == 0) new ClientMain().start(primaryStage);
 
+        StartupTimer.process().mark("launch of the client");
         GraphicalPlayerAdapter gpa = new GraphicalPlayerAdapter();
         RemotePlayerClient client = new RemotePlayerClient(gpa.setStage(primaryStage), proxyName, port);
-        new Thread(client::run).start();
+        ExecutionMode.fromSystemProperty().start("tchu-client", () -> client.runReconnecting(RECONNECTION_ATTEMPTS));
     }
 }
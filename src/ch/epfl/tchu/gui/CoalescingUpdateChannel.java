@@ -0,0 +1,167 @@
+package ch.epfl.tchu.gui;
+
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Channel through which the game thread sends the states and the infos of the game to the graphical interface,
+ * coalescing them: only the latest state not applied yet is kept (the previous ones being stale, they are dropped),
+ * and the infos are applied in batches, with it. They are applied by <code>apply</code>, which the interface calls at
+ * most once per pulse once asked to (see the constructor), and before any other action of the game on the interface
+ * (so that the interface always acts on the latest state).
+ * <p>
+ * Counters tell how many states were posted, applied and dropped, and how many infos were applied in how many batches.
+ * They are printed at the end of each game if the system property <code>tchu.updates</code> is <code>true</code>.
+ *
+ * @author Noah Munz (310779)
+ */
+final class CoalescingUpdateChannel {
+
+    /**
+     * Name of the system property asking for the counters to be printed
+     */
+    public final static String PROPERTY = "tchu.updates";
+
+    private final Runnable applyRequest;
+    private final BiConsumer<PublicGameState, PlayerState> stateSink;
+    private final Consumer<List<String>> infosSink;
+
+    //updates not applied yet, and whether apply was requested for them (guarded by the channel)
+    private PublicGameState pendingGameState;
+    private PlayerState pendingPlayerState;
+    private List<String> pendingInfos = new ArrayList<>();
+    private boolean applyRequested;
+
+    private long postedStates, appliedStates, droppedStates, appliedInfos, infoBatches;
+
+    /**
+     * Constructor of CoalescingUpdateChannel
+     * @param applyRequest called (on the game thread) when there are updates to apply and <code>apply</code> was not
+     *                     requested yet, it must make the interface call <code>apply</code> at its next pulse
+     * @param stateSink    applies a state to the interface
+     * @param infosSink    applies a batch of infos to the interface, in the order they were posted
+     */
+    CoalescingUpdateChannel(Runnable applyRequest, BiConsumer<PublicGameState, PlayerState> stateSink,
+                            Consumer<List<String>> infosSink) {
+        this.applyRequest = applyRequest;
+        this.stateSink = stateSink;
+        this.infosSink = infosSink;
+    }
+
+    /**
+     * Posts a new state of the game, replacing the one not applied yet, if any
+     * @param gameState   the public part of the game
+     * @param playerState the complete state of the player
+     */
+    void postState(PublicGameState gameState, PlayerState playerState) {
+        synchronized (this) {
+            ++postedStates;
+            if (pendingGameState != null) ++droppedStates;
+            pendingGameState = gameState;
+            pendingPlayerState = playerState;
+        }
+        requestApply();
+    }
+
+    /**
+     * Posts an info about the game, to be applied with the next batch
+     * @param info the info
+     */
+    void postInfo(String info) {
+        synchronized (this) {
+            pendingInfos.add(info);
+        }
+        requestApply();
+    }
+
+    /**
+     * Applies the infos and the latest state posted since the last call, if any (on the thread of the interface)
+     */
+    void apply() {
+        PublicGameState gameState;
+        PlayerState playerState;
+        List<String> infos;
+        synchronized (this) {
+            applyRequested = false;
+            gameState = pendingGameState;
+            playerState = pendingPlayerState;
+            infos = pendingInfos;
+            pendingGameState = null;
+            pendingPlayerState = null;
+            if (!infos.isEmpty()) pendingInfos = new ArrayList<>();
+            if (gameState != null) ++appliedStates;
+            if (!infos.isEmpty()) {
+                appliedInfos += infos.size();
+                ++infoBatches;
+            }
+        }
+        if (!infos.isEmpty()) infosSink.accept(infos);
+        if (gameState != null) stateSink.accept(gameState, playerState);
+    }
+
+    /**
+     * Gives the number of states posted
+     * @return the number of states posted since the channel was created
+     */
+    synchronized long postedStates() {
+        return postedStates;
+    }
+
+    /**
+     * Gives the number of states applied
+     * @return the number of states applied since the channel was created
+     */
+    synchronized long appliedStates() {
+        return appliedStates;
+    }
+
+    /**
+     * Gives the number of states dropped because a newer one was posted before they were applied
+     * @return the number of states dropped since the channel was created
+     */
+    synchronized long droppedStates() {
+        return droppedStates;
+    }
+
+    /**
+     * Gives the number of infos applied
+     * @return the number of infos applied since the channel was created
+     */
+    synchronized long appliedInfos() {
+        return appliedInfos;
+    }
+
+    /**
+     * Gives the number of batches the infos were applied in
+     * @return the number of batches of infos applied since the channel was created
+     */
+    synchronized long infoBatches() {
+        return infoBatches;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("states: %d posted, %d applied, %d dropped; infos: %d applied in %d batches",
+                             postedStates, appliedStates, droppedStates, appliedInfos, infoBatches);
+    }
+
+    /**
+     * Prints the counters on the standard output if the system property <code>tchu.updates</code> is <code>true</code>
+     */
+    void logIfRequested() {
+        if (Boolean.getBoolean(PROPERTY)) System.out.println("updates of the game: " + this);
+    }
+
+    private void requestApply() {
+        synchronized (this) {
+            if (applyRequested) return;
+            applyRequested = true;
+        }
+        applyRequest.run();
+    }
+}
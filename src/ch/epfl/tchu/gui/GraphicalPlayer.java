@@ -47,10 +47,10 @@ public final class GraphicalPlayer {
     private final ObjectProperty<DrawCardHandler> drawCardHandler = new SimpleObjectProperty<>(null);
     private final ObjectProperty<ClaimRouteHandler> claimRouteHandler = new SimpleObjectProperty<>(null);
 
-    private final ObservableList<Text> gameInfos = FXCollections.observableArrayList();
+    private final ObservableInfoLog gameInfos = new ObservableInfoLog(InfoLog.capacityFromSystemProperty());
 
     private final Stage primaryStage;
-    private final Stage modalStage;
+    private Stage modalStage; //created the first time a choice is asked, see modalStage()
     private final Scene modalScene = new Scene(new Region());
     private final BorderPane root;
 
@@ -75,26 +75,31 @@ public final class GraphicalPlayer {
 
         gameState = new ObservableGameState(id);
 
-        Pane mapView = createMapView(gameState, claimRouteHandler, this::chooseClaimCards);
-        HBox handView = createHandView(gameState);
-        VBox cardsView = createCardsView(gameState, drawTicketsHandler, drawCardHandler);
-        VBox infoView = createInfoView(id, playerNames, gameState, gameInfos, primaryStage);
+        StartupTimer timer = StartupTimer.process();
+        Pane mapView = timer.time("map view", () -> CanvasMapViewCreator.isSelected()
+                ? CanvasMapViewCreator.createMapView(gameState, claimRouteHandler, this::chooseClaimCards)
+                : createMapView(gameState, claimRouteHandler, this::chooseClaimCards));
+        HBox handView = timer.time("hand view", () -> createHandView(gameState));
+        VBox cardsView = timer.time("decks view", () -> createCardsView(gameState, drawTicketsHandler, drawCardHandler));
+        VBox infoView = timer.time("info view", () -> createInfoView(id, playerNames, gameState, gameInfos, primaryStage));
 
         root = new BorderPane(mapView, null, cardsView, handView, infoView);
         Scene scene = new Scene(root);
 
 
         this.primaryStage.setTitle("tCHu" + LONG_DASH_SEPARATOR + playerNames.get(id));
-        this.modalStage = initModalStage(primaryStage);
         this.primaryStage.setFullScreenExitHint("");
         primaryStage.setOnCloseRequest(event -> {
             primaryStage.close();
-            if (modalStage.isShowing()) modalStage.close();
+            if (modalStage != null && modalStage.isShowing()) modalStage.close();
             Platform.exit();
         });
 
-        resize(scene, root, mapView, cardsView);
-        Nodes.setShowCenter(primaryStage, scene, true);
+        timer.time("scene", () -> {
+            resize(scene, root, mapView, cardsView);
+            Nodes.setShowCenter(primaryStage, scene, true);
+            return scene;
+        });
     }
 
     public void resetForRematch() {
@@ -145,82 +150,7 @@ public final class GraphicalPlayer {
      */
     public void receiveInfo(String info) {
         assert isFxApplicationThread();
-        styleInfo(new Text(info), info);
-    }
-
-    private void styleInfo(Text text, String info) {
-        List<Card> foundCards = findCardsInInfo(info);
-        if (foundCards.isEmpty()) {
-            if (info.contains("victoire") || info.contains("ex æqo")) {
-                text = newTxt(info, text.getFont().getName(), GREEN, (int) text.getFont().getSize(), FontWeight.BOLD);
-                text.setStroke(GREEN);
-                text.setStrokeWidth(0.2);
-            }
-            if (info.contains("ex æqo")) {
-                text.setStroke(SANDYBROWN);
-                text.setFill(SANDYBROWN);
-            }
-            gameInfos.add(text);
-        }
-        else {
-            List<Text> texts = new ArrayList<>();
-            for (Card foundCard : foundCards) {
-                Color textColor = foundCard == LOCOMOTIVE ? CYAN :
-                                  foundCard == Card.BLACK ? rgb(77, 77, 77)
-                                                          : Color.valueOf(foundCard.name());
-
-                List<String> infoWords = Arrays.asList(info.split(Pattern.quote(" ")));
-                int colorStart = getIndexOf(infoWords.stream()
-                                                     .map(String::strip)
-                                                     .collect(Collectors.toUnmodifiableList()), foundCard.french());
-                try {
-                    Text text1 = new Text(String.join(" ", infoWords.subList(0, colorStart - 1)) + " ");
-                    Text text2 = new Text(String.join(" ", infoWords.subList(colorStart - 1, colorStart + 1)) + " ");
-                    Text text3 = null;
-                    if (colorStart + 1 <= infoWords.size())
-                        text3 = new Text(String.join(" ", infoWords.subList(colorStart + 1, infoWords.size())));
-
-                    text2.setStrokeWidth(0.3);
-                    if (textColor == WHITE) {
-                        text2.setStroke(BLACK);
-                        text2.setFill(WHITE);
-                    }
-                    else text2.setStroke(textColor);
-
-                    if (texts.size() == 0) texts.add(text1);
-                    texts.add(text2);
-
-                    if (texts.size() >= foundCards.size() + 1) {
-                        texts.add(text3);
-                    }
-                }
-                catch (Exception e) {
-                    gameInfos.add(text);
-                }
-            }
-            gameInfos.addAll(texts);
-        }
-    }
-
-    private List<Card> findCardsInInfo(String info) {
-        List<Card> foundCards = new ArrayList<>();
-        for (Card card : Card.ALL) {
-            if (info.contains(card.french())) foundCards.add(card);
-        }
-        return foundCards;
-    }
-
-
-    private int getIndexOf(List<String> infoWords, String cardFrench) {
-        int colorStart;
-        List<String> casesToCheck = List.of(cardFrench,
-                                            cardFrench + ".", cardFrench + ",", cardFrench + "s", cardFrench + "s.", cardFrench + "s,");
-        Iterator<String> it = casesToCheck.listIterator();
-        do {
-            String s = it.next();
-            colorStart = infoWords.indexOf(s);
-        } while (colorStart == -1 && it.hasNext());
-        return colorStart;
+        gameInfos.append(info);
     }
 
     /**
@@ -290,7 +220,7 @@ public final class GraphicalPlayer {
                         .greaterThanOrEqualTo(SIZE - DISCARDABLE_TICKETS_COUNT).not());
 
         button.setOnAction(action -> {
-            modalStage.hide();
+            modalStage().hide();
             handler.onChooseTickets(
                     SortedBag.of(selectionList.getSelectionModel().getSelectedItems()));
         });
@@ -337,7 +267,7 @@ public final class GraphicalPlayer {
                         .greaterThanOrEqualTo(1).not());
 
         button.setOnAction(action -> {
-            modalStage.hide();
+            modalStage().hide();
             handler.onChooseCards(SortedBag.of(selectionList.getSelectionModel().getSelectedItem()));
         });
 
@@ -357,7 +287,7 @@ public final class GraphicalPlayer {
 
         Button button = new Button(CHOOSE);
         button.setOnAction(action -> {
-            modalStage.hide();
+            modalStage().hide();
             if (selectionList.getSelectionModel().getSelectedItem() != null) {
                 handler.onChooseCards(
                         SortedBag.of(selectionList.getSelectionModel().getSelectedItem()));
@@ -376,7 +306,7 @@ public final class GraphicalPlayer {
     }
 
     private <E> void setModalWindow(String title, String text, ListView<E> selectionList, Button button) {
-        modalStage.setTitle(title);
+        modalStage().setTitle(title);
 
         VBox root = withChildren(new VBox(), withChildren(new TextFlow(), new Text(text)), selectionList, button);
 
@@ -392,7 +322,12 @@ public final class GraphicalPlayer {
             }
         });
 
-        setShowCenter(modalStage, modalScene);
+        setShowCenter(modalStage(), modalScene);
+    }
+
+    private Stage modalStage() {
+        if (modalStage == null) modalStage = initModalStage(primaryStage);
+        return modalStage;
     }
 
     static Stage initModalStage(Stage primaryStage) {
@@ -406,19 +341,19 @@ public final class GraphicalPlayer {
     public void forRematch(AskHandler handler) {
         assert isFxApplicationThread();
 
-        modalStage.setTitle("Rematch");
+        modalStage().setTitle("Rematch");
 
         Text text = new Text("Voulez-vous une revanche ?");
 
         Button yesButton = new Button("Oui");
         yesButton.setOnAction(action -> {
-            modalStage.hide();
+            modalStage().hide();
             handler.ask(true);
         });
 
         Button noButton = new Button("Non");
         noButton.setOnAction(action -> {
-            modalStage.hide();
+            modalStage().hide();
             handler.ask(false);
         });
 
@@ -426,6 +361,6 @@ public final class GraphicalPlayer {
 
         modalScene.setRoot(root);
 
-        setShowCenter(modalStage, modalScene);
+        setShowCenter(modalStage(), modalScene);
     }
 }
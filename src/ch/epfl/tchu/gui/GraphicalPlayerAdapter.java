@@ -3,6 +3,7 @@ package ch.epfl.tchu.gui;
 import ch.epfl.tchu.*;
 import ch.epfl.tchu.game.*;
 import ch.epfl.tchu.gui.ActionHandlers.*;
+import javafx.animation.*;
 import javafx.stage.*;
 
 import java.util.*;
@@ -13,6 +14,10 @@ import static javafx.application.Platform.*;
 
 /**
  * This class adapts the class GraphicalPlayer into a Player value
+ * <p>
+ * The states and infos are not applied by a <code>runLater</code> each, but sent through a
+ * <code>CoalescingUpdateChannel</code>: a burst of states (e.g. during a tunnel attempt or when two cards are drawn)
+ * only applies the latest one, once per pulse, and the other actions on the interface apply the pending updates first.
  * @author Mehdi Bouguerra Ezzina (314857)
  */
 public final class GraphicalPlayerAdapter implements Player {
@@ -27,6 +32,28 @@ public final class GraphicalPlayerAdapter implements Player {
     private GraphicalPlayer graphicalPlayer;
     private Stage stage;
 
+    //applies the pending updates at the next pulse, then stops until there are new ones
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            updates.apply();
+        }
+    };
+    //records the first frame showing the game and logs the report of the startup, if asked to
+    private final AnimationTimer firstFrame = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            StartupTimer.process().mark("first frame of the game");
+            StartupTimer.process().logIfRequested();
+        }
+    };
+    private final CoalescingUpdateChannel updates =
+            new CoalescingUpdateChannel(() -> runLater(pulse::start),
+                                        (newState, ownState) -> graphicalPlayer.setState(newState, ownState),
+                                        infos -> infos.forEach(graphicalPlayer::receiveInfo));
+
     GraphicalPlayerAdapter setStage(Stage stage) {
         if (this.stage == null) this.stage = stage;
         return this;
@@ -36,21 +63,26 @@ public final class GraphicalPlayerAdapter implements Player {
     public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames, Boolean rematch) {
         System.out.println("init players and creates graphical players");
         if(!rematch) {
-            runLater(() -> graphicalPlayer = stage == null ? new GraphicalPlayer(ownId, playerNames)
-                                                           : new GraphicalPlayer(ownId, playerNames, stage));
+            //the interface of the game is only built now, when the players are known
+            StartupTimer.process().mark("waiting for initPlayers");
+            runLater(() -> {
+                graphicalPlayer = stage == null ? new GraphicalPlayer(ownId, playerNames)
+                                                : new GraphicalPlayer(ownId, playerNames, stage);
+                firstFrame.start();
+            });
         } else {
-            runLater(() -> graphicalPlayer.resetForRematch());
+            runAction(() -> graphicalPlayer.resetForRematch());
         }
     }
 
     @Override
     public void receiveInfo(String info) {
-        runLater(() -> graphicalPlayer.receiveInfo(info));
+        updates.postInfo(info);
     }
 
     @Override
     public void updateState(PublicGameState newState, PlayerState ownState) {
-        runLater(() -> graphicalPlayer.setState(newState, ownState));
+        updates.postState(newState, ownState);
     }
 
     @Override
@@ -64,7 +96,7 @@ public final class GraphicalPlayerAdapter implements Player {
             }
         };
 
-        runLater(() -> graphicalPlayer.chooseTickets(tickets, handler));
+        runAction(() -> graphicalPlayer.chooseTickets(tickets, handler));
     }
 
     @Override
@@ -109,7 +141,7 @@ public final class GraphicalPlayerAdapter implements Player {
             }
         };
 
-        runLater(() -> graphicalPlayer.startTurn(ticketsHandler, cardHandler, claimHandler));
+        runAction(() -> graphicalPlayer.startTurn(ticketsHandler, cardHandler, claimHandler));
 
         try {
             return turnKindQueue.take();
@@ -130,7 +162,7 @@ public final class GraphicalPlayerAdapter implements Player {
             }
         };
 
-        runLater(() -> graphicalPlayer.chooseTickets(options, handler));
+        runAction(() -> graphicalPlayer.chooseTickets(options, handler));
 
         try {
             return ticketsQueue.take();
@@ -153,7 +185,7 @@ public final class GraphicalPlayerAdapter implements Player {
                 }
             };
 
-            runLater(() -> graphicalPlayer.drawCard(cardHandler));
+            runAction(() -> graphicalPlayer.drawCard(cardHandler));
 
             try {
                 return drawSlotQueue.take();
@@ -195,7 +227,7 @@ public final class GraphicalPlayerAdapter implements Player {
             }
         };
 
-        runLater(() -> graphicalPlayer.chooseAdditionalCards(options, handler));
+        runAction(() -> graphicalPlayer.chooseAdditionalCards(options, handler));
 
         try {
             return claimCardsQueue.take();
@@ -215,7 +247,8 @@ public final class GraphicalPlayerAdapter implements Player {
             }
         };
 
-        runLater(() -> graphicalPlayer.forRematch(handler));
+        updates.logIfRequested();
+        runAction(() -> graphicalPlayer.forRematch(handler));
     }
 
     @Override
@@ -227,4 +260,15 @@ public final class GraphicalPlayerAdapter implements Player {
             throw new Error();
         }
     }
+
+    /**
+     * Runs the given action on the thread of the interface, once the pending updates are applied
+     * @param action the action on the graphical player
+     */
+    private void runAction(Runnable action) {
+        runLater(() -> {
+            updates.apply();
+            action.run();
+        });
+    }
 }
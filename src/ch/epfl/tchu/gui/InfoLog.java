@@ -0,0 +1,122 @@
+package ch.epfl.tchu.gui;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.util.Objects;
+
+/**
+ * Bounded log of the infos about the progress of the game, kept in a ring buffer: once it holds as many infos as its
+ * capacity, adding an info evicts the oldest one, so that the memory used by the log stays the same however long the
+ * session (and however many rematches) lasts.
+ * <p>
+ * The capacity of the logs of the interface is chosen at startup with the system property <code>tchu.infos</code>
+ * (see <code>capacityFromSystemProperty</code>).
+ *
+ * @author Noah Munz (310779)
+ */
+final class InfoLog {
+
+    /**
+     * Name of the system property giving the number of infos kept by the logs of the interface
+     */
+    public final static String PROPERTY = "tchu.infos";
+
+    /**
+     * Number of infos kept when the system property <code>tchu.infos</code> is not set (a few games)
+     */
+    public final static int DEFAULT_CAPACITY = 500;
+
+    private final String[] infos;
+    private int first, size;
+    private long evicted;
+
+    /**
+     * Constructor of InfoLog
+     * @param capacity the maximal number of infos kept
+     * @throws IllegalArgumentException if the capacity is not strictly positive
+     */
+    InfoLog(int capacity) {
+        Preconditions.checkArgument(capacity > 0);
+        this.infos = new String[capacity];
+    }
+
+    /**
+     * Gives the capacity chosen with the system property <code>tchu.infos</code>, <code>DEFAULT_CAPACITY</code> if it
+     * is not set
+     * @return the number of infos the logs of the interface must keep
+     * @throws IllegalArgumentException if the property is not a strictly positive integer
+     */
+    static int capacityFromSystemProperty() {
+        String property = System.getProperty(PROPERTY);
+        if (property == null) return DEFAULT_CAPACITY;
+        try {
+            int capacity = Integer.parseInt(property.trim());
+            Preconditions.checkArgument(capacity > 0);
+            return capacity;
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException(PROPERTY + " must be an integer: " + property, e);
+        }
+    }
+
+    /**
+     * Adds the given info after the others, evicting the oldest one if the log is full
+     * @param info the info
+     * @return the info evicted, or null if the log was not full
+     * @throws NullPointerException if the info is null
+     */
+    String add(String info) {
+        Objects.requireNonNull(info);
+        if (size < infos.length) {
+            infos[(first + size++) % infos.length] = info;
+            return null;
+        }
+        String oldest = infos[first];
+        infos[first] = info;
+        first = (first + 1) % infos.length;
+        ++evicted;
+        return oldest;
+    }
+
+    /**
+     * Gives the info of the given index
+     * @param index the index of the info, 0 being the oldest info kept
+     * @return the info
+     * @throws IndexOutOfBoundsException if the index is not in [0, size[
+     */
+    String get(int index) {
+        Objects.checkIndex(index, size);
+        return infos[(first + index) % infos.length];
+    }
+
+    /**
+     * @return the number of infos kept
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the maximal number of infos kept
+     */
+    int capacity() {
+        return infos.length;
+    }
+
+    /**
+     * @return the number of infos evicted since the log was created
+     */
+    long evicted() {
+        return evicted;
+    }
+
+    /**
+     * Removes all the infos (the number of infos evicted is not reset)
+     */
+    void clear() {
+        //the references are removed, so that the infos can be collected
+        for (int i = 0; i < size; i++) infos[(first + i) % infos.length] = null;
+        first = 0;
+        size = 0;
+    }
+}
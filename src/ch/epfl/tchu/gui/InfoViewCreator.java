@@ -6,16 +6,20 @@ import javafx.collections.*;
 import javafx.scene.control.*;
 import javafx.scene.control.ScrollPane.*;
 import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
 import javafx.scene.shape.*;
 import javafx.scene.text.*;
 import javafx.stage.*;
 
 import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static ch.epfl.tchu.gui.ConstantsGUI.*;
 import static ch.epfl.tchu.gui.Nodes.*;
 import static ch.epfl.tchu.gui.StringsFr.*;
+import static javafx.scene.paint.Color.*;
 
 /**
  * Class used to initialize & implements all the JavaFx graphical components regarding the information window of the game
@@ -23,6 +27,9 @@ import static ch.epfl.tchu.gui.StringsFr.*;
  */
 final class InfoViewCreator {
 
+    //horizontal space of a row of the view of the infos not used by its text
+    private final static double INFO_CELL_PADDING = 16;
+
     /**
      * Private constructor to remove the default one and make InfoViewCreator not instantiable
      */
@@ -37,11 +44,12 @@ final class InfoViewCreator {
      * @param id          the identity of the player to whom the interface corresponds
      * @param playerNames a Map containing the names of the players (as values) linked to their identities (as keys)
      * @param gameState   the observable state of the game
-     * @param gameInfos   an ObservableList containing information about the progress of the game, in the form of Text instances
+     * @param gameInfos   an ObservableList containing information about the progress of the game (only the rows that
+     *                    are visible are created)
      * @return an VBox representing a view of the informations concerning the game
      */
     public static ScrollPane createInfoViewAndWrap(PlayerId id, Map<PlayerId, String> playerNames, ObservableGameState gameState,
-                                                   ObservableList<Text> gameInfos, Stage primaryStage) {
+                                                   ObservableList<String> gameInfos, Stage primaryStage) {
 
         VBox infoView = createInfoView(id, playerNames, gameState, gameInfos, primaryStage);
         ScrollPane infoViewRoot = new ScrollPane(infoView);
@@ -55,11 +63,12 @@ final class InfoViewCreator {
      * @param id          the identity of the player to whom the interface corresponds
      * @param playerNames a Map containing the names of the players (as values) linked to their identities (as keys)
      * @param gameState   the observable state of the game
-     * @param gameInfos   an ObservableList containing information about the progress of the game, in the form of Text instances
+     * @param gameInfos   an ObservableList containing information about the progress of the game (only the rows that
+     *                    are visible are created)
      * @return an VBox representing a view of the informations concerning the game
      */
     public static VBox createInfoView(PlayerId id, Map<PlayerId, String> playerNames, ObservableGameState gameState,
-                                      ObservableList<Text> gameInfos, Stage primaryStage) {
+                                      ObservableList<String> gameInfos, Stage primaryStage) {
 
         VBox infoView = new VBox();
         infoView.getStylesheets().addAll(INFO_CSS, COLORS_CSS);
@@ -84,16 +93,125 @@ final class InfoViewCreator {
                     withChildren(infoView, playerStats);
                 });
 
-        TextFlow gameInfo = new TextFlow();
-        Bindings.bindContent(gameInfo.getChildren(), gameInfos);
+        ListView<String> gameInfo = new ListView<>(gameInfos);
+        gameInfo.setId("game-info");
+        gameInfo.setFocusTraversable(false);
+        gameInfo.setCellFactory(listView -> new InfoCell());
+        //the last info is always visible
+        gameInfos.addListener((ListChangeListener<String>) change -> {
+            if (!gameInfos.isEmpty()) gameInfo.scrollTo(gameInfos.size() - 1);
+        });
+
+        gameInfo.prefWidthProperty().bind(primaryStage.widthProperty().multiply(0.14));
+        VBox.setVgrow(gameInfo, Priority.ALWAYS);
+        return withChildren(infoView, new Separator(), gameInfo);
+    }
+
+    /**
+     * Gives the texts displaying the given info, the names of the cards it mentions being written in their color
+     * @param info an information about the game progress
+     * @return the texts of the info, in order
+     */
+    static List<Text> styleInfo(String info) {
+        List<Text> styled = new ArrayList<>();
+        Text text = new Text(info);
+        List<Card> foundCards = findCardsInInfo(info);
+        if (foundCards.isEmpty()) {
+            if (info.contains("victoire") || info.contains("ex æqo")) {
+                text = newTxt(info, text.getFont().getName(), GREEN, (int) text.getFont().getSize(), FontWeight.BOLD);
+                text.setStroke(GREEN);
+                text.setStrokeWidth(0.2);
+            }
+            if (info.contains("ex æqo")) {
+                text.setStroke(SANDYBROWN);
+                text.setFill(SANDYBROWN);
+            }
+            styled.add(text);
+        }
+        else {
+            List<Text> texts = new ArrayList<>();
+            for (Card foundCard : foundCards) {
+                Color textColor = foundCard == Card.LOCOMOTIVE ? CYAN :
+                                  foundCard == Card.BLACK ? rgb(77, 77, 77)
+                                                          : Color.valueOf(foundCard.name());
+
+                List<String> infoWords = Arrays.asList(info.split(Pattern.quote(" ")));
+                int colorStart = getIndexOf(infoWords.stream()
+                                                     .map(String::strip)
+                                                     .collect(Collectors.toUnmodifiableList()), foundCard.french());
+                try {
+                    Text text1 = new Text(String.join(" ", infoWords.subList(0, colorStart - 1)) + " ");
+                    Text text2 = new Text(String.join(" ", infoWords.subList(colorStart - 1, colorStart + 1)) + " ");
+                    Text text3 = null;
+                    if (colorStart + 1 <= infoWords.size())
+                        text3 = new Text(String.join(" ", infoWords.subList(colorStart + 1, infoWords.size())));
+
+                    text2.setStrokeWidth(0.3);
+                    if (textColor == WHITE) {
+                        text2.setStroke(BLACK);
+                        text2.setFill(WHITE);
+                    }
+                    else text2.setStroke(textColor);
+
+                    if (texts.size() == 0) texts.add(text1);
+                    texts.add(text2);
+
+                    if (texts.size() >= foundCards.size() + 1) {
+                        if (text3 != null) texts.add(text3);
+                    }
+                }
+                catch (Exception e) {
+                    styled.add(text);
+                }
+            }
+            styled.addAll(texts);
+        }
+        return styled;
+    }
+
+    private static List<Card> findCardsInInfo(String info) {
+        List<Card> foundCards = new ArrayList<>();
+        for (Card card : Card.ALL) {
+            if (info.contains(card.french())) foundCards.add(card);
+        }
+        return foundCards;
+    }
+
 
-        ScrollPane gameInfoWrapper = new ScrollPane(gameInfo);
-        gameInfoWrapper.setId("game-info");
-        gameInfoWrapper.setHbarPolicy(ScrollBarPolicy.AS_NEEDED);
-        gameInfoWrapper.setVbarPolicy(ScrollBarPolicy.AS_NEEDED);
-        gameInfoWrapper.vvalueProperty().bind(gameInfo.heightProperty());
+    private static int getIndexOf(List<String> infoWords, String cardFrench) {
+        int colorStart;
+        List<String> casesToCheck = List.of(cardFrench,
+                                            cardFrench + ".", cardFrench + ",", cardFrench + "s", cardFrench + "s.", cardFrench + "s,");
+        Iterator<String> it = casesToCheck.listIterator();
+        do {
+            String s = it.next();
+            colorStart = infoWords.indexOf(s);
+        } while (colorStart == -1 && it.hasNext());
+        return colorStart;
+    }
 
-        gameInfo.maxWidthProperty().bind(primaryStage.widthProperty().multiply(0.14));
-        return withChildren(infoView, new Separator(), gameInfoWrapper);
+    /**
+     * Row of the view of the infos, displaying an info with <code>styleInfo</code>
+     */
+    private static final class InfoCell extends ListCell<String> {
+        private final TextFlow flow = new TextFlow();
+
+        private InfoCell() {
+            flow.maxWidthProperty().bind(widthProperty().subtract(INFO_CELL_PADDING));
+            setText(null);
+        }
+
+        @Override
+        protected void updateItem(String info, boolean empty) {
+            super.updateItem(info, empty);
+            if (empty || info == null) {
+                flow.getChildren().clear();
+                setGraphic(null);
+            }
+            else {
+                flow.getChildren().setAll(styleInfo(info.strip()));
+                setGraphic(flow);
+            }
+        }
     }
 }
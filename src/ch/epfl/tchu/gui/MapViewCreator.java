@@ -73,20 +73,31 @@ final class MapViewCreator {
 
         withChildren(routeGroup, caseNodes);
 
-        routeGroup.setOnMouseClicked(mouseEvent -> {
-            List<SortedBag<Card>> possibleClaimCards = gameState.possibleClaimCards(route);
-
-            if (possibleClaimCards.size() == 1) claimRouteHandler.getValue().onClaimRoute(route, possibleClaimCards.get(0));
-            else {
-                ChooseCardsHandler choiceHandler = chosenCard -> claimRouteHandler.getValue().onClaimRoute(route, chosenCard);
-                cardChooser.chooseCards(possibleClaimCards, choiceHandler);
-            }
-        });
+        routeGroup.setOnMouseClicked(mouseEvent -> claimRoute(route, gameState, claimRouteHandler, cardChooser));
         //if we want to resize the map we have to make sure that the relative (to the imageView) position of the routesView stay the same
         Resizer.bindScaleProperty(mapView, routeGroup);
         return routeGroup;
     }
 
+    /**
+     * Claims the given route with the cards the player can use to do so, letting him choose them with the given
+     * card chooser if there are several options
+     * @param route             the route clicked on
+     * @param gameState         observable State of the game
+     * @param claimRouteHandler property containing the action handler corresponding to all actions regarding the claim of a Route
+     * @param cardChooser       instance of interface called when player has to choose which card to use to claim a Route
+     */
+    static void claimRoute(Route route, ObservableGameState gameState,
+                           ReadOnlyObjectProperty<ClaimRouteHandler> claimRouteHandler, CardChooser cardChooser) {
+        List<SortedBag<Card>> possibleClaimCards = gameState.possibleClaimCards(route);
+
+        if (possibleClaimCards.size() == 1) claimRouteHandler.getValue().onClaimRoute(route, possibleClaimCards.get(0));
+        else {
+            ChooseCardsHandler choiceHandler = chosenCard -> claimRouteHandler.getValue().onClaimRoute(route, chosenCard);
+            cardChooser.chooseCards(possibleClaimCards, choiceHandler);
+        }
+    }
+
     private static Group makeCaseNode(Route route, int emplacement, ReadOnlyObjectProperty<PlayerId> routePossessor) {
         Group cell = new Group();
         cell.setId(route.id() + UNDERSCORE_SEPARATOR + emplacement);
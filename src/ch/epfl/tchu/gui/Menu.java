@@ -37,7 +37,8 @@ public class Menu extends Application {
             List.of("GameMenu.css", "debug.css",
                     "https://fonts.googleapis.com/css2?family=Fondamento&family=Niconne&display=swap");
 
-    private final static GameMenu gameMenu = new GameMenu();
+    //the menu of the game (with its cards and their animations) is only built once "Play" is pressed
+    private static GameMenu gameMenu;
 
     private static Clip clip;
 
@@ -48,7 +49,8 @@ public class Menu extends Application {
         primaryStage.setFullScreenExitHint("Press ' f ' to exit/enter fullScreen");
 
         Rectangle background = new Rectangle(SCENE_W, SCENE_H, new ImagePattern(new Image(BACKGROUND_PATH)));
-        StackPane fakeBtn = setUpBtnImage(primaryStage, "Play", stage -> setShowCenter(stage, gameMenu.scene(stage)));
+        StartupTimer.process().mark("launch of the menu");
+        StackPane fakeBtn = setUpBtnImage(primaryStage, "Play", stage -> setShowCenter(stage, gameMenu().scene(stage)));
         StackPane quitBtn = setUpBtnImage(primaryStage, "Quit", stage -> Platform.exit());
         setScale(1.5, 1.5, fakeBtn, quitBtn);
 
@@ -79,10 +81,16 @@ public class Menu extends Application {
         });
         setShowCenter(primaryStage, scene, true);
         primaryStage.setFullScreen(true);
+        StartupTimer.process().mark("menu shown");
         clip.start();
         clip.loop(Clip.LOOP_CONTINUOUSLY);
     }
 
+    private static GameMenu gameMenu() {
+        if (gameMenu == null) gameMenu = new GameMenu();
+        return gameMenu;
+    }
+
     private StackPane setUpBtnImage(Stage stage, String buttonText, Consumer<Stage> btnFunction) {
         StackPane stackPane = styleFantasyBtnImage(buttonText);
 
@@ -12,12 +12,36 @@ import static ch.epfl.tchu.game.PlayerId.*;
 
 /**
  * Represents the observable state of a tCHu game
+ * <p>
+ * <code>setState</code> compares the new state with the previous one and only computes again the properties whose
+ * values may have changed: the routes of the players are kept as bitsets of the indices of the routes in
+ * <code>ChMap.routes()</code>, so that only the routes newly claimed are looked at, and the claimable routes are only
+ * computed again when the cards of the player or the claimed routes change (or when its turn begins or ends).
  *
  * @author Mehdi Bouguerra Ezzina (314857)
  * @author Noah Munz (310779)
  */
 public final class ObservableGameState {
 
+    private final static List<Route> ROUTES = ChMap.routes();
+    private final static Map<Route, Integer> ROUTE_INDICES = new HashMap<>();
+    //indices of the routes linking the same stations as each route (itself included), which cannot be claimed once
+    //one of them is
+    private final static BitSet[] SAME_STATIONS_ROUTES = new BitSet[ROUTES.size()];
+    static {
+        for (int i = 0; i < ROUTES.size(); i++) {
+            Route route = ROUTES.get(i);
+            ROUTE_INDICES.put(route, i);
+            SAME_STATIONS_ROUTES[i] = new BitSet(ROUTES.size());
+            for (int j = 0; j < ROUTES.size(); j++) {
+                Route other = ROUTES.get(j);
+                if (route.station1() == other.station1() && route.station2() == other.station2()) {
+                    SAME_STATIONS_ROUTES[i].set(j);
+                }
+            }
+        }
+    }
+
     private final PlayerId playerId;
     private PublicGameState gameState;
     private PlayerState playerState;
@@ -31,7 +55,11 @@ public final class ObservableGameState {
     private final IntegerProperty cardsPercentage = new SimpleIntegerProperty();
 
     private final List<ObjectProperty<Card>> faceUpCards = new ArrayList<>();
-    private final Map<Route, ObjectProperty<PlayerId>> routeOwner = new HashMap<>();
+    private final List<ObjectProperty<PlayerId>> routeOwner = new ArrayList<>(); //indexed like ChMap.routes()
+
+    //indices of the routes of each player, and of the routes claimed or linking the same stations as a claimed one
+    private final BitSet[] ownedRoutes = new BitSet[PlayerId.COUNT];
+    private final BitSet blockedRoutes = new BitSet(ROUTES.size());
 
     /*
     =====================================================
@@ -52,7 +80,8 @@ public final class ObservableGameState {
     private final ObservableList<String> ticketsValues = FXCollections.observableArrayList();
 
     private final Map<Card, IntegerProperty> colorCardCount = new HashMap<>();
-    private final Map<Route, BooleanProperty> isRouteClaimable = new HashMap<>();
+    private final List<BooleanProperty> isRouteClaimable = new ArrayList<>(); //indexed like ChMap.routes()
+    private final BitSet claimableRoutes = new BitSet(ROUTES.size());
 
     /**
      * ObservableGameState unique constructor
@@ -69,12 +98,13 @@ public final class ObservableGameState {
         for (int i : FACE_UP_CARD_SLOTS) faceUpCards.add(new SimpleObjectProperty<>(null));
         for (Card card : Card.ALL) colorCardCount.put(card, new SimpleIntegerProperty(0));
 
-        for (Route route : ChMap.routes()) {
-            routeOwner.put(route, new SimpleObjectProperty<>(null));
-            isRouteClaimable.put(route, new SimpleBooleanProperty(false));
+        for (int i = 0; i < ROUTES.size(); i++) {
+            routeOwner.add(new SimpleObjectProperty<>(null));
+            isRouteClaimable.add(new SimpleBooleanProperty(false));
         }
 
         for (int i = 0 ; i < PlayerId.COUNT ; i++) {
+            ownedRoutes[i] = new BitSet(ROUTES.size());
             ticketCounts.add(new SimpleIntegerProperty(0));
             cardCounts.add(new SimpleIntegerProperty(0));
             carCounts.add(new SimpleIntegerProperty(0));
@@ -91,12 +121,15 @@ public final class ObservableGameState {
 
         for (Card card : Card.ALL) colorCardCount.get(card).set(0);
 
-        for (Route route : ChMap.routes()) {
-            routeOwner.get(route).set(null);
-            isRouteClaimable.get(route).set(false);
+        for (int i = 0; i < ROUTES.size(); i++) {
+            routeOwner.get(i).set(null);
+            isRouteClaimable.get(i).set(false);
         }
+        blockedRoutes.clear();
+        claimableRoutes.clear();
 
         for (int i = 0 ; i < PlayerId.COUNT ; i++) {
+            ownedRoutes[i].clear();
             ticketCounts.get(i).set(0);
             cardCounts.get(i).set(0);
             carCounts.get(i).set(0);
@@ -105,15 +138,18 @@ public final class ObservableGameState {
     }
 
     /**
-     * Updates all the properties representing the game.
+     * Updates the properties representing the game whose values changed since the previous state.
      * @param newGameState the public part of the game
      * @param newPlayerState the complete state of the player to whom this is corresponding to
      */
     public void setState(PublicGameState newGameState, PlayerState newPlayerState) {
+        PublicGameState oldGameState = gameState;
+        PlayerState oldPlayerState = playerState;
         PublicCardState newCardState = newGameState.cardState();
         gameState = newGameState;
         playerState = newPlayerState;
 
+        //the properties only notify their listeners if their value changes
         ticketsPercentage.set(newGameState.ticketsCount() * 100 / ChMap.tickets().size());
         cardsPercentage.set(newCardState.deckSize() * 100 / TOTAL_CARDS_COUNT);
 
@@ -122,14 +158,7 @@ public final class ObservableGameState {
             faceUpCards.get(slot).set(newCard);
         }
 
-        routeOwner.forEach((route, property) -> {
-            if (newGameState.playerState(PLAYER_1).routes().contains(route))
-                property.set(PLAYER_1);
-
-            else if (newGameState.playerState(PLAYER_2).routes().contains(route))
-                property.set(PLAYER_2);
-        });
-
+        boolean routesChanged = false, ownRoutesChanged = false;
         for (PlayerId id : PlayerId.ALL) {
             PublicPlayerState playerState = newGameState.playerState(id);
 
@@ -144,23 +173,76 @@ public final class ObservableGameState {
 
             claimPoints.get(id.ordinal())
                     .set(playerState.claimPoints());
-        }
 
-        tickets.setAll(newPlayerState.tickets().toList());
-        ticketsValues.setAll(newPlayerState.ticketsValue());
+            //the routes of a player only change when it claims one, i.e. when their number changes
+            if (playerState.routes().size() != ownedRoutes[id.ordinal()].cardinality()) {
+                updateRouteOwners(id, playerState.routes());
+                routesChanged = true;
+                ownRoutesChanged |= id == playerId;
+            }
+        }
+        if (routesChanged) {
+            blockedRoutes.clear();
+            for (BitSet routes : ownedRoutes) {
+                for (int i = routes.nextSetBit(0); i >= 0; i = routes.nextSetBit(i + 1)) {
+                    blockedRoutes.or(SAME_STATIONS_ROUTES[i]);
+                }
+            }
+        }
 
-        colorCardCount.forEach((card, property) -> property.set(newPlayerState.cards().countOf(card)));
+        boolean ticketsChanged = oldPlayerState == null || !oldPlayerState.tickets().equals(newPlayerState.tickets());
+        if (ticketsChanged) tickets.setAll(newPlayerState.tickets().toList());
+        //the values of the tickets also depend on the routes of the player
+        if (ticketsChanged || ownRoutesChanged) ticketsValues.setAll(newPlayerState.ticketsValue());
+
+        boolean cardsChanged = oldPlayerState == null || !oldPlayerState.cards().equals(newPlayerState.cards());
+        if (cardsChanged) colorCardCount.forEach((card, property) -> property.set(newPlayerState.cards().countOf(card)));
+
+        boolean isCurrentPlayer = playerId.equals(newGameState.currentPlayerId());
+        boolean wasCurrentPlayer = oldGameState != null && playerId.equals(oldGameState.currentPlayerId());
+        if (isCurrentPlayer != wasCurrentPlayer || isCurrentPlayer && (cardsChanged || routesChanged)) {
+            BitSet newClaimableRoutes = new BitSet(ROUTES.size());
+            if (isCurrentPlayer) {
+                for (Route route : ChMap.claimIndex().claimableRoutes(newPlayerState)) {
+                    newClaimableRoutes.set(ROUTE_INDICES.get(route));
+                }
+                newClaimableRoutes.andNot(blockedRoutes);
+            }
+            updateClaimableRoutes(newClaimableRoutes);
+        }
+    }
 
-        isRouteClaimable.forEach((route, property) -> {
-            final boolean isRouteClaimed = newGameState.claimedRoutes()
-                    .stream()
-                    .anyMatch(claimedRoute -> route.station1() == claimedRoute.station1() &&
-                            route.station2() == claimedRoute.station2());
+    /**
+     * Updates the owners of the routes the given player claimed, or no longer owns, since the previous state
+     * @param id     the identity of the player
+     * @param routes the routes it owns in the new state
+     */
+    private void updateRouteOwners(PlayerId id, List<Route> routes) {
+        BitSet newRoutes = new BitSet(ROUTES.size());
+        for (Route route : routes) newRoutes.set(ROUTE_INDICES.get(route));
+
+        BitSet changedRoutes = (BitSet) newRoutes.clone();
+        changedRoutes.xor(ownedRoutes[id.ordinal()]);
+        for (int i = changedRoutes.nextSetBit(0); i >= 0; i = changedRoutes.nextSetBit(i + 1)) {
+            ObjectProperty<PlayerId> owner = routeOwner.get(i);
+            if (newRoutes.get(i)) owner.set(id);
+            else if (owner.get() == id) owner.set(null);
+        }
+        ownedRoutes[id.ordinal()] = newRoutes;
+    }
 
-            property.set(!isRouteClaimed &&
-                    playerId.equals(newGameState.currentPlayerId()) &&
-                    newPlayerState.canClaimRoute(route));
-        });
+    /**
+     * Updates the properties of the routes whose claimability changed since the previous state
+     * @param newClaimableRoutes the indices of the routes the player can claim in the new state
+     */
+    private void updateClaimableRoutes(BitSet newClaimableRoutes) {
+        BitSet changedRoutes = (BitSet) newClaimableRoutes.clone();
+        changedRoutes.xor(claimableRoutes);
+        for (int i = changedRoutes.nextSetBit(0); i >= 0; i = changedRoutes.nextSetBit(i + 1)) {
+            isRouteClaimable.get(i).set(newClaimableRoutes.get(i));
+        }
+        claimableRoutes.clear();
+        claimableRoutes.or(newClaimableRoutes);
     }
 
     /**
@@ -195,7 +277,7 @@ public final class ObservableGameState {
      * @return the property containing the PlayerId of the player possessing the given road
      */
     public ReadOnlyObjectProperty<PlayerId> routeOwnerProperty(Route route) {
-        return routeOwner.get(route);
+        return routeOwner.get(ROUTE_INDICES.get(route));
     }
 
     /**
@@ -266,7 +348,7 @@ public final class ObservableGameState {
      * @return the property containing a boolean value stating if the player can claim the road
      */
     public ReadOnlyBooleanProperty isRouteClaimableProperty(Route route) {
-        return isRouteClaimable.get(route);
+        return isRouteClaimable.get(ROUTE_INDICES.get(route));
     }
 
 
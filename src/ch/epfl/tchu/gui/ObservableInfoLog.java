@@ -0,0 +1,65 @@
+package ch.epfl.tchu.gui;
+
+import javafx.collections.*;
+
+import java.util.*;
+
+/**
+ * Observable (read-only) list of the infos of an <code>InfoLog</code>, in the order they were added, to be displayed by
+ * a <code>ListView</code>: as it only creates nodes for the rows that are visible, neither the log nor its view grow
+ * over a long session.
+ *
+ * @author Noah Munz (310779)
+ */
+final class ObservableInfoLog extends ObservableListBase<String> {
+
+    private final InfoLog log;
+
+    /**
+     * Constructor of ObservableInfoLog
+     * @param capacity the maximal number of infos kept
+     * @throws IllegalArgumentException if the capacity is not strictly positive
+     */
+    ObservableInfoLog(int capacity) {
+        this.log = new InfoLog(capacity);
+    }
+
+    /**
+     * Adds the given info after the others, removing the oldest one if the log is full
+     * @param info the info
+     */
+    void append(String info) {
+        beginChange();
+        String evicted = log.add(info);
+        if (evicted != null) nextRemove(0, evicted);
+        nextAdd(log.size() - 1, log.size());
+        endChange();
+    }
+
+    /**
+     * @return the number of infos removed because the log was full, since it was created
+     */
+    long evicted() {
+        return log.evicted();
+    }
+
+    @Override
+    public String get(int index) {
+        return log.get(index);
+    }
+
+    @Override
+    public int size() {
+        return log.size();
+    }
+
+    @Override
+    public void clear() {
+        if (log.size() == 0) return;
+        List<String> removed = new ArrayList<>(this);
+        beginChange();
+        log.clear();
+        nextRemove(0, removed);
+        endChange();
+    }
+}
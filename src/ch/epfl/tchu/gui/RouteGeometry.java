@@ -0,0 +1,283 @@
+package ch.epfl.tchu.gui;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Route;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static ch.epfl.tchu.gui.ConstantsGUI.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Precomputed geometry of the routes of the map: the position of each cell (a track, or the wagon on it) of each route,
+ * as given by the stylesheet of the map (a translation, then a rotation around the center of the cell), the bounds of
+ * each route and the routes whose bounds overlap. It is used to draw the routes on a single canvas and to find the route
+ * under the mouse, instead of having a node per cell.
+ * <p>
+ * The routes are identified by their index in <code>ChMap.routes()</code>.
+ *
+ * @author Noah Munz (310779)
+ */
+final class RouteGeometry {
+
+    /**
+     * Width of a cell, in the coordinates of the map
+     */
+    public final static double CELL_WIDTH = ROUTE_RECT_WIDTH;
+
+    /**
+     * Height of a cell, in the coordinates of the map
+     */
+    public final static double CELL_HEIGHT = ROUTE_RECT_HEIGHT;
+
+    /**
+     * Scale of the track of a route under the mouse
+     */
+    public final static double HOVER_SCALE = 1.1;
+
+    //the bounds of a route include the strokes of its cells (their growth under the mouse is added to the cells)
+    private final static double MARGIN = 2;
+
+    private final static Pattern CELL_POSITION = Pattern.compile(
+            "#(\\w+)_(\\d+)\\s*\\{\\s*-fx-translate-x:\\s*(-?[\\d.]+);\\s*-fx-translate-y:\\s*(-?[\\d.]+);"
+            + "\\s*-fx-rotate:\\s*(-?[\\d.]+);?\\s*}");
+
+    private final List<Route> routes;
+    private final List<List<Cell>> cells;
+    private final List<Bounds> bounds;
+    private final BitSet[] overlapping;
+
+    private RouteGeometry(List<Route> routes, List<List<Cell>> cells) {
+        this.routes = routes;
+        this.cells = cells;
+        this.bounds = new ArrayList<>(routes.size());
+        for (List<Cell> routeCells : cells) bounds.add(Bounds.of(routeCells));
+
+        this.overlapping = new BitSet[routes.size()];
+        for (int i = 0; i < routes.size(); i++) {
+            overlapping[i] = new BitSet(routes.size());
+            for (int j = 0; j < routes.size(); j++) {
+                if (bounds.get(i).intersects(bounds.get(j))) overlapping[i].set(j);
+            }
+        }
+    }
+
+    /**
+     * Loads the geometry of the routes of <code>ChMap</code> from the stylesheet of the map (found in the classpath)
+     * @return the geometry of the routes of the map
+     * @throws UncheckedIOException     if the stylesheet could not be read
+     * @throws IllegalArgumentException if the stylesheet does not give the position of every cell
+     */
+    static RouteGeometry load() {
+        InputStream stylesheet = RouteGeometry.class.getClassLoader().getResourceAsStream(MAP_CSS);
+        if (stylesheet == null) throw new UncheckedIOException(new FileNotFoundException(MAP_CSS));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stylesheet, UTF_8))) {
+            return parse(ChMap.routes(), reader);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the geometry of the given routes from a stylesheet giving the position of each of their cells, with rules
+     * such as <code>#AT1_STG_1_1 { -fx-translate-x: 950; -fx-translate-y: 222; -fx-rotate: 180 }</code> (the id of
+     * the route, then the number of the cell, starting at 1)
+     * @param routes the routes
+     * @param reader reader of the stylesheet
+     * @return the geometry of the given routes
+     * @throws IOException              if the stylesheet could not be read
+     * @throws IllegalArgumentException if the stylesheet does not give the position of every cell
+     */
+    static RouteGeometry parse(List<Route> routes, BufferedReader reader) throws IOException {
+        Map<String, Cell> positions = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Matcher matcher = CELL_POSITION.matcher(line);
+            while (matcher.find()) {
+                positions.put(matcher.group(1) + UNDERSCORE_SEPARATOR + matcher.group(2),
+                              new Cell(Double.parseDouble(matcher.group(3)), Double.parseDouble(matcher.group(4)),
+                                       Double.parseDouble(matcher.group(5))));
+            }
+        }
+
+        List<List<Cell>> cells = new ArrayList<>(routes.size());
+        for (Route route : routes) {
+            List<Cell> routeCells = new ArrayList<>(route.length());
+            for (int i = 1; i <= route.length(); i++) {
+                Cell cell = positions.get(route.id() + UNDERSCORE_SEPARATOR + i);
+                Preconditions.checkArgument(cell != null);
+                routeCells.add(cell);
+            }
+            cells.add(Collections.unmodifiableList(routeCells));
+        }
+        return new RouteGeometry(List.copyOf(routes), Collections.unmodifiableList(cells));
+    }
+
+    /**
+     * Gives the routes of this geometry
+     * @return the routes, in the order of their indices
+     */
+    List<Route> routes() {
+        return routes;
+    }
+
+    /**
+     * Gives the cells of the route of the given index
+     * @param route the index of the route
+     * @return the cells of the route, in order
+     */
+    List<Cell> cells(int route) {
+        return cells.get(route);
+    }
+
+    /**
+     * Gives the bounds of the route of the given index, which contain everything drawn for it
+     * @param route the index of the route
+     * @return the bounds of the route
+     */
+    Bounds bounds(int route) {
+        return bounds.get(route);
+    }
+
+    /**
+     * Gives the routes whose bounds intersect the bounds of the route of the given index (itself included), i.e. those
+     * that must be drawn again when the route is
+     * @param route the index of the route
+     * @return a new set of the indices of the overlapping routes
+     */
+    BitSet overlapping(int route) {
+        return (BitSet) overlapping[route].clone();
+    }
+
+    /**
+     * Gives the route with a cell containing the given point. If several do, the last one (drawn above the others) is
+     * given.
+     * @param x abscissa of the point, in the coordinates of the map
+     * @param y ordinate of the point, in the coordinates of the map
+     * @return the index of the route, or -1 if there is no route at the given point
+     */
+    int routeAt(double x, double y) {
+        for (int i = routes.size() - 1; i >= 0; i--) {
+            if (!bounds.get(i).contains(x, y)) continue;
+            for (Cell cell : cells.get(i)) {
+                if (cell.contains(x, y)) return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Position of a cell on the map: the rectangle <code>(0, 0, CELL_WIDTH, CELL_HEIGHT)</code> translated, then
+     * rotated around its center
+     */
+    static final class Cell {
+        private final double translateX, translateY, rotate;
+        private final double cos, sin;
+
+        private Cell(double translateX, double translateY, double rotate) {
+            this.translateX = translateX;
+            this.translateY = translateY;
+            this.rotate = rotate;
+            this.cos = Math.cos(Math.toRadians(rotate));
+            this.sin = Math.sin(Math.toRadians(rotate));
+        }
+
+        /**
+         * @return the abscissa of the center of the cell, in the coordinates of the map
+         */
+        double centerX() {
+            return translateX + CELL_WIDTH / 2;
+        }
+
+        /**
+         * @return the ordinate of the center of the cell, in the coordinates of the map
+         */
+        double centerY() {
+            return translateY + CELL_HEIGHT / 2;
+        }
+
+        /**
+         * @return the angle of the cell, in degrees, clockwise
+         */
+        double rotate() {
+            return rotate;
+        }
+
+        /**
+         * Tells whether the cell contains the given point
+         * @param x abscissa of the point, in the coordinates of the map
+         * @param y ordinate of the point, in the coordinates of the map
+         * @return true if the point is in the cell (its edges included)
+         */
+        boolean contains(double x, double y) {
+            //rotates the point back around the center, in the frame of the cell
+            double dx = x - centerX(), dy = y - centerY();
+            double localX = dx * cos + dy * sin, localY = -dx * sin + dy * cos;
+            return Math.abs(localX) <= CELL_WIDTH / 2 && Math.abs(localY) <= CELL_HEIGHT / 2;
+        }
+
+        private double extentX() {
+            return (Math.abs(cos) * CELL_WIDTH + Math.abs(sin) * CELL_HEIGHT) / 2;
+        }
+
+        private double extentY() {
+            return (Math.abs(sin) * CELL_WIDTH + Math.abs(cos) * CELL_HEIGHT) / 2;
+        }
+    }
+
+    /**
+     * Rectangle, aligned with the axes, containing everything drawn for a route
+     */
+    static final class Bounds {
+        private final double minX, minY, maxX, maxY;
+
+        private Bounds(double minX, double minY, double maxX, double maxY) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        private static Bounds of(List<Cell> cells) {
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (Cell cell : cells) {
+                double extentX = cell.extentX() * HOVER_SCALE + MARGIN, extentY = cell.extentY() * HOVER_SCALE + MARGIN;
+                minX = Math.min(minX, cell.centerX() - extentX);
+                minY = Math.min(minY, cell.centerY() - extentY);
+                maxX = Math.max(maxX, cell.centerX() + extentX);
+                maxY = Math.max(maxY, cell.centerY() + extentY);
+            }
+            return new Bounds(minX, minY, maxX, maxY);
+        }
+
+        double minX() {
+            return minX;
+        }
+
+        double minY() {
+            return minY;
+        }
+
+        double width() {
+            return maxX - minX;
+        }
+
+        double height() {
+            return maxY - minY;
+        }
+
+        boolean contains(double x, double y) {
+            return minX <= x && x <= maxX && minY <= y && y <= maxY;
+        }
+
+        boolean intersects(Bounds that) {
+            return minX < that.maxX && that.minX < maxX && minY < that.maxY && that.minY < maxY;
+        }
+    }
+}
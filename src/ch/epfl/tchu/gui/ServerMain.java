@@ -48,14 +48,17 @@ public final class ServerMain extends Application {
             return;
         }
 
+        StartupTimer.process().mark("launch of the server");
         RemotePlayerProxy remotePlayer = new RemotePlayerProxy(new ServerSocket(LOCALHOST_PORT).accept());
+        StartupTimer.process().mark("connection of the client");
 
         //By convention PLAYER_1 is hostPlayer and PLAYER_2 is remotePlayer
-        new Thread(() -> {
+        //the thread of the game parks while waiting for the host player, see ExecutionMode
+        ExecutionMode.fromSystemProperty().start("tchu-game", () -> {
             Game.play(Map.of(PLAYER_1, new GraphicalPlayerAdapter().setStage(primaryStage), PLAYER_2, remotePlayer),
                       Map.of(PLAYER_1, args[0], PLAYER_2, args[1]),
                       SortedBag.of(ChMap.tickets()), new Random());
-        }).start();
+        });
 
     }
 
@@ -0,0 +1,129 @@
+package ch.epfl.tchu.gui;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures the phases of the startup of the client (or of the server): the launch of the application, the connection,
+ * the construction of each part of the interface once <code>initPlayers</code> arrives, up to the first frame of the
+ * game. The phases are either marked when they end (their duration being the time elapsed since the end of the
+ * previous one) or timed around the code they consist of.
+ * <p>
+ * The report is printed when the first frame of the game is shown if the system property <code>tchu.startup</code> is
+ * <code>true</code>, so that the time to the first frame can be compared between versions.
+ *
+ * @author Noah Munz (310779)
+ */
+final class StartupTimer {
+
+    /**
+     * Name of the system property asking for the report of the startup to be printed
+     */
+    public final static String PROPERTY = "tchu.startup";
+
+    private final static StartupTimer PROCESS = new StartupTimer(processStartNanos());
+
+    private final long originNanos;
+    private final List<Phase> phases = new ArrayList<>();
+    private long lastEndNanos;
+    private boolean logged;
+
+    /**
+     * Constructor of StartupTimer
+     * @param originNanos the instant the startup began, as given by <code>System.nanoTime</code>
+     */
+    StartupTimer(long originNanos) {
+        this.originNanos = originNanos;
+        this.lastEndNanos = originNanos;
+    }
+
+    /**
+     * Gives the timer of the startup of this process, whose origin is the start of the virtual machine
+     * @return the timer of the process
+     */
+    static StartupTimer process() {
+        return PROCESS;
+    }
+
+    /**
+     * Records a phase ending now, which began when the previous phase ended (or at the origin)
+     * @param phase the name of the phase
+     */
+    synchronized void mark(String phase) {
+        record(phase, lastEndNanos, System.nanoTime());
+    }
+
+    /**
+     * Runs the given phase and records it
+     * @param phase the name of the phase
+     * @param code  the code of the phase
+     * @param <T>   the type of the result of the phase
+     * @return the result of the phase
+     */
+    <T> T time(String phase, Supplier<T> code) {
+        long start = System.nanoTime();
+        T result = code.get();
+        long end = System.nanoTime();
+        synchronized (this) {
+            record(phase, start, end);
+        }
+        return result;
+    }
+
+    /**
+     * Gives the report of the phases recorded, one line per phase, in the order they ended
+     * @return the report, giving the duration of each phase and the instant (since the origin) it ended at
+     */
+    synchronized String report() {
+        StringBuilder report = new StringBuilder("startup:");
+        for (Phase phase : phases) {
+            report.append(String.format("%n  %-32s %9.1f ms  (at %9.1f ms)", phase.name,
+                                        millis(phase.endNanos - phase.startNanos), millis(phase.endNanos - originNanos)));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Prints the report on the standard output if the system property <code>tchu.startup</code> is <code>true</code>
+     * and it was not printed yet
+     */
+    void logIfRequested() {
+        if (!Boolean.getBoolean(PROPERTY)) return;
+        synchronized (this) {
+            if (logged) return;
+            logged = true;
+        }
+        System.out.println(report());
+    }
+
+    private void record(String phase, long start, long end) {
+        phases.add(new Phase(phase, start, end));
+        lastEndNanos = Math.max(lastEndNanos, end);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Gives the instant the virtual machine started at, in the time base of <code>System.nanoTime</code>
+     */
+    private static long processStartNanos() {
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        return System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(uptimeMillis);
+    }
+
+    private static final class Phase {
+        private final String name;
+        private final long startNanos, endNanos;
+
+        private Phase(String name, long startNanos, long endNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+        }
+    }
+}
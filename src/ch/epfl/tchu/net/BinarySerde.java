@@ -0,0 +1,204 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Represents a binary serializer-deserializer, i.e. an object capable of writing values of a given type into a
+ * ByteBuffer and of reading them back. It is the compact counterpart of <code>Serde</code>: integers are written as
+ * varints, sets of values as bitsets and multisets of a few values as counts.
+ *
+ * @author Noah Munz (310779)
+ */
+public interface BinarySerde<E> {
+
+    /**
+     * Writes the given element at the current position of the buffer
+     * @param element the element to be written
+     * @param buffer  the buffer to write into
+     * @throws IllegalArgumentException if the element is null
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    void write(E element, ByteBuffer buffer);
+
+    /**
+     * Reads an element from the current position of the buffer
+     * @param buffer the buffer to read from
+     * @return the element read
+     * @throws java.nio.BufferUnderflowException if the buffer does not contain a whole element
+     */
+    E read(ByteBuffer buffer);
+
+    /**
+     * Gives a BinarySerde corresponding to the two functions passed in argument
+     * @param writer the function writing an element into a buffer
+     * @param reader the function reading an element from a buffer
+     * @return a BinarySerde corresponding to the two functions passed in argument
+     */
+    static <T> BinarySerde<T> of(BiConsumer<T, ByteBuffer> writer, Function<ByteBuffer, T> reader) {
+        return new BinarySerde<T>() {
+            @Override
+            public void write(T element, ByteBuffer buffer) {
+                Preconditions.checkArgument(element != null);
+                writer.accept(element, buffer);
+            }
+
+            @Override
+            public T read(ByteBuffer buffer) {
+                return reader.apply(buffer);
+            }
+        };
+    }
+
+    /**
+     * Writes a positive integer as a varint, i.e. 7 bits per byte, the highest bit indicating whether another byte follows
+     * @param buffer the buffer to write into
+     * @param value  the integer to write
+     * @throws IllegalArgumentException if the value is negative
+     */
+    static void writeVarInt(ByteBuffer buffer, int value) {
+        Preconditions.checkArgument(value >= 0);
+        while (value >= 0x80) {
+            buffer.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a varint written by <code>writeVarInt</code>
+     * @param buffer the buffer to read from
+     * @return the integer read
+     */
+    static int readVarInt(ByteBuffer buffer) {
+        int value = 0, shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Gives a BinarySerde writing a value of the given list as its index (varint)
+     * @param values List of a finite group of values
+     * @return the BinarySerde corresponding to the given list
+     */
+    static <T> BinarySerde<T> oneOf(List<T> values) {
+        Map<T, Integer> indices = indicesOf(values);
+        return of((element, buffer) -> writeVarInt(buffer, indices.get(element)),
+                  buffer -> values.get(readVarInt(buffer)));
+    }
+
+    /**
+     * Gives a BinarySerde writing a list of distinct values taken from the given list as a bitset of values.size() bits
+     * (the bit i is set if and only if values.get(i) belongs to the list). The values are read back in the order of
+     * the given list.
+     * @param values List of a finite group of values
+     * @return the BinarySerde corresponding to the given list
+     */
+    static <T> BinarySerde<List<T>> maskOf(List<T> values) {
+        Map<T, Integer> indices = indicesOf(values);
+        int byteCount = (values.size() + Byte.SIZE - 1) / Byte.SIZE;
+        return of((elements, buffer) -> {
+                      int start = buffer.position();
+                      for (int i = 0; i < byteCount; i++) buffer.put((byte) 0);
+                      for (T e : elements) {
+                          int index = indices.get(e), at = start + index / Byte.SIZE;
+                          buffer.put(at, (byte) (buffer.get(at) | 1 << index % Byte.SIZE));
+                      }
+                  },
+
+                  buffer -> {
+                      List<T> elements = new ArrayList<>();
+                      for (int i = 0; i < byteCount; i++) {
+                          int b = buffer.get() & 0xFF;
+                          for (int bit = 0; b != 0; bit++, b >>>= 1) {
+                              if ((b & 1) != 0) elements.add(values.get(i * Byte.SIZE + bit));
+                          }
+                      }
+                      return elements;
+                  });
+    }
+
+    /**
+     * Gives a BinarySerde writing a sorted multiset as the multiplicity (varint) of each of the given values
+     * @param values List of all the values the multisets can contain
+     * @return the BinarySerde corresponding to the given list
+     */
+    static <T extends Comparable<T>> BinarySerde<SortedBag<T>> countsOf(List<T> values) {
+        return of((elements, buffer) -> {
+                      for (T value : values) writeVarInt(buffer, elements.countOf(value));
+                  },
+
+                  buffer -> {
+                      SortedBag.Builder<T> builder = new SortedBag.Builder<>();
+                      for (T value : values) builder.add(readVarInt(buffer), value);
+                      return builder.build();
+                  });
+    }
+
+    /**
+     * Gives a BinarySerde writing a sorted multiset as its size (varint) followed by its elements
+     * @param serde the serde used for the elements
+     * @return a BinarySerde capable of (de)serializing sorted multisets of values (de)serialized by the given serde
+     */
+    static <T extends Comparable<T>> BinarySerde<SortedBag<T>> bagOf(BinarySerde<T> serde) {
+        return of((elements, buffer) -> {
+                      writeVarInt(buffer, elements.size());
+                      for (T e : elements) serde.write(e, buffer);
+                  },
+
+                  buffer -> {
+                      SortedBag.Builder<T> builder = new SortedBag.Builder<>();
+                      for (int i = readVarInt(buffer); i > 0; i--) builder.add(serde.read(buffer));
+                      return builder.build();
+                  });
+    }
+
+    /**
+     * Gives a (text) Serde writing the element in binary, then encoding the bytes in Base64 so that it can be sent
+     * in the same messages as the other Serdes
+     * @param maxSize the maximum number of bytes an element can take once written
+     * @return a Serde encoding in Base64 the bytes written by <code>this</code>
+     */
+    default Serde<E> inBase64(int maxSize) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        Base64.Decoder decoder = Base64.getDecoder();
+        //one buffer per thread, because the Serdes are shared by all the games played by a server
+        ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(maxSize));
+
+        return Serde.of(element -> {
+                            ByteBuffer buffer = buffers.get().clear();
+                            write(element, buffer);
+                            return encoder.encodeToString(Arrays.copyOf(buffer.array(), buffer.position()));
+                        },
+
+                        message -> {
+                            ByteBuffer buffer = buffers.get().clear();
+                            int length = decoder.decode(message.getBytes(US_ASCII),
+                                                        buffer.array());
+                            return read(buffer.limit(length));
+                        });
+    }
+
+    /**
+     * Gives the index of each of the given values (the first one if a value appears several times)
+     * @param values List of a finite group of values
+     * @return a Map associating each value to its index
+     */
+    private static <T> Map<T, Integer> indicesOf(List<T> values) {
+        Map<T, Integer> indices = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) indices.putIfAbsent(values.get(i), i);
+        return indices;
+    }
+}
@@ -0,0 +1,133 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.game.Constants.FACE_UP_CARDS_COUNT;
+import static ch.epfl.tchu.game.PlayerId.*;
+import static ch.epfl.tchu.net.BinarySerde.*;
+
+/**
+ * Class containing the binary serdes used to send the states of the game in the <code>BINARY</code> wire format
+ *
+ * @author Noah Munz (310779)
+ */
+public final class BinarySerdes {
+
+    //generous bound on the number of bytes of a state (a PlayerState holding all the tickets takes less than 100 bytes)
+    private final static int MAX_STATE_SIZE = 1 << 10;
+
+    //bits of the byte holding the current and the last player of a PublicGameState (also used by DeltaSerde)
+    final static int CURRENT_PLAYER_BITS = 0b11, LAST_PLAYER_SHIFT = 2;
+
+    /**
+     * Represents a Card binary serializer-deserializer (index on 1 byte)
+     */
+    public final static BinarySerde<Card> CARD = oneOf(Card.ALL);
+
+    /**
+     * Represents a Ticket binary serializer-deserializer (index on 1 byte)
+     */
+    public final static BinarySerde<Ticket> TICKET = oneOf(ChMap.tickets());
+
+    /**
+     * Represents a SortedBag of cards binary serializer-deserializer (multiplicity of each of the 9 types of cards)
+     */
+    public final static BinarySerde<SortedBag<Card>> CARDS = countsOf(Card.ALL);
+
+    /**
+     * Represents a SortedBag of tickets binary serializer-deserializer
+     */
+    public final static BinarySerde<SortedBag<Ticket>> TICKETS = bagOf(TICKET);
+
+    /**
+     * Represents a List of routes binary serializer-deserializer (bitset of the 88 routes of the map, on 11 bytes).
+     * The routes are read back in the order of <code>ChMap.routes()</code>.
+     */
+    public final static BinarySerde<List<Route>> ROUTES = maskOf(ChMap.routes());
+
+    /**
+     * Represents a PublicCardState binary serializer-deserializer
+     */
+    public final static BinarySerde<PublicCardState> PUBLIC_CARD_STATE = BinarySerde.of(
+            (cs, buffer) -> {
+                for (Card card : cs.faceUpCards()) CARD.write(card, buffer);
+                writeVarInt(buffer, cs.deckSize());
+                writeVarInt(buffer, cs.discardsSize());
+            },
+
+            buffer -> {
+                List<Card> faceUpCards = new ArrayList<>(FACE_UP_CARDS_COUNT);
+                for (int i = 0; i < FACE_UP_CARDS_COUNT; i++) faceUpCards.add(CARD.read(buffer));
+                return new PublicCardState(faceUpCards, readVarInt(buffer), readVarInt(buffer));
+            });
+
+    /**
+     * Represents a PublicPlayerState binary serializer-deserializer
+     */
+    public final static BinarySerde<PublicPlayerState> PUBLIC_PLAYER_STATE = BinarySerde.of(
+            (pps, buffer) -> {
+                writeVarInt(buffer, pps.ticketCount());
+                writeVarInt(buffer, pps.cardCount());
+                ROUTES.write(pps.routes(), buffer);
+            },
+
+            buffer -> new PublicPlayerState(readVarInt(buffer), readVarInt(buffer), ROUTES.read(buffer)));
+
+    /**
+     * Represents a PlayerState binary serializer-deserializer
+     */
+    public final static BinarySerde<PlayerState> PLAYER_STATE = BinarySerde.of(
+            (ps, buffer) -> {
+                TICKETS.write(ps.tickets(), buffer);
+                CARDS.write(ps.cards(), buffer);
+                ROUTES.write(ps.routes(), buffer);
+            },
+
+            buffer -> new PlayerState(TICKETS.read(buffer), CARDS.read(buffer), ROUTES.read(buffer)));
+
+    /**
+     * Represents a PublicGameState binary serializer-deserializer
+     */
+    public final static BinarySerde<PublicGameState> PUBLIC_GAME_STATE = BinarySerde.of(
+            (pgs, buffer) -> {
+                writeVarInt(buffer, pgs.ticketsCount());
+                PUBLIC_CARD_STATE.write(pgs.cardState(), buffer);
+                //the last player is stored as its ordinal + 1, 0 meaning that there is none
+                int lastPlayer = pgs.lastPlayer() == null ? 0 : pgs.lastPlayer().ordinal() + 1;
+                buffer.put((byte) (pgs.currentPlayerId().ordinal() | lastPlayer << LAST_PLAYER_SHIFT));
+                PUBLIC_PLAYER_STATE.write(pgs.playerState(PLAYER_1), buffer);
+                PUBLIC_PLAYER_STATE.write(pgs.playerState(PLAYER_2), buffer);
+            },
+
+            buffer -> {
+                int ticketsCount = readVarInt(buffer);
+                PublicCardState cardState = PUBLIC_CARD_STATE.read(buffer);
+                int players = buffer.get();
+                int lastPlayer = players >>> LAST_PLAYER_SHIFT;
+                Map<PlayerId, PublicPlayerState> playerStates = Map.of(PLAYER_1, PUBLIC_PLAYER_STATE.read(buffer),
+                                                                       PLAYER_2, PUBLIC_PLAYER_STATE.read(buffer));
+
+                return new PublicGameState(ticketsCount, cardState, ALL.get(players & CURRENT_PLAYER_BITS), playerStates,
+                                           lastPlayer == 0 ? null : ALL.get(lastPlayer - 1));
+            });
+
+    /**
+     * Represents a PublicGameState serializer-deserializer, written in binary then encoded in Base64
+     */
+    public final static Serde<PublicGameState> PUBLIC_GAME_STATE_SERDE = PUBLIC_GAME_STATE.inBase64(MAX_STATE_SIZE);
+
+    /**
+     * Represents a PlayerState serializer-deserializer, written in binary then encoded in Base64
+     */
+    public final static Serde<PlayerState> PLAYER_STATE_SERDE = PLAYER_STATE.inBase64(MAX_STATE_SIZE);
+
+    /**
+     * Private constructor to remove the default one and make BinarySerdes not instantiable
+     */
+    private BinarySerdes() {throw new UnsupportedOperationException();}
+}
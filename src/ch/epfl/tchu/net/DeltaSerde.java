@@ -0,0 +1,281 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static ch.epfl.tchu.game.Constants.FACE_UP_CARDS_COUNT;
+import static ch.epfl.tchu.game.PlayerId.*;
+import static ch.epfl.tchu.net.BinarySerde.*;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Stateful serializer-deserializer of the states sent in the <code>DELTA</code> wire format. One instance is used by
+ * each end of a connection: it remembers the last states sent (or received) and only writes what changed since then,
+ * i.e. the new routes, the face-up slots that changed, the counters that changed and the added or removed cards.
+ * A full (binary) snapshot is written for the first states, every <code>SNAPSHOT_PERIOD</code> messages, when it is
+ * requested, or when the change cannot be written as a delta (e.g. the states of a new game).
+ *
+ * @author Noah Munz (310779)
+ */
+public final class DeltaSerde {
+
+    /**
+     * Maximal number of deltas written between two full snapshots
+     */
+    public final static int SNAPSHOT_PERIOD = 32;
+
+    //a delta is always smaller than the states of the game, which take less than 200 bytes
+    private final static int MAX_MESSAGE_SIZE = 1 << 10;
+
+    private final static byte SNAPSHOT = 0, DELTA = 1;
+
+    //bits of the mask telling which fields are written in a delta
+    private final static int TICKETS_COUNT = 1, FACE_UP_CARDS = 1 << 1, DECK_SIZE = 1 << 2, DISCARDS_SIZE = 1 << 3,
+            PLAYERS = 1 << 4, OWN_TICKETS = 1 << 5, OWN_CARDS = 1 << 6, OWN_ROUTES = 1 << 7;
+    //fields of each public player state, shifted by PLAYER_FIELDS_SHIFT + ordinal * PLAYER_FIELDS_COUNT
+    private final static int TICKET_COUNT = 1, CARD_COUNT = 1 << 1, ROUTES = 1 << 2;
+    private final static int PLAYER_FIELDS_SHIFT = 8, PLAYER_FIELDS_COUNT = 3;
+
+    private final static BinarySerde<Route> ROUTE = oneOf(ChMap.routes());
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(MAX_MESSAGE_SIZE);
+    private final Base64.Encoder encoder = Base64.getEncoder();
+    private final Base64.Decoder decoder = Base64.getDecoder();
+
+    private PublicGameState gameState;
+    private PlayerState playerState;
+    private int deltasSinceSnapshot;
+    private boolean snapshotRequested = true;
+
+    /**
+     * Makes the next message written by <code>serialize</code> a full snapshot of the states
+     */
+    public void requestSnapshot() {
+        snapshotRequested = true;
+    }
+
+    /**
+     * Serializes the given states, as a delta to the last ones serialized by <code>this</code> if possible,
+     * and remembers them
+     * @param newGameState the public state of the game
+     * @param ownState     the state of the player the message is sent to
+     * @return the serialized states (in Base64)
+     */
+    public String serialize(PublicGameState newGameState, PlayerState ownState) {
+        buffer.clear();
+        if (snapshotRequested || deltasSinceSnapshot >= SNAPSHOT_PERIOD || !isDelta(newGameState, ownState)) {
+            buffer.put(SNAPSHOT);
+            BinarySerdes.PUBLIC_GAME_STATE.write(newGameState, buffer);
+            BinarySerdes.PLAYER_STATE.write(ownState, buffer);
+            deltasSinceSnapshot = 0;
+            snapshotRequested = false;
+        }
+        else {
+            buffer.put(DELTA);
+            writeDelta(newGameState, ownState);
+            ++deltasSinceSnapshot;
+        }
+
+        gameState = newGameState;
+        playerState = ownState;
+        return encoder.encodeToString(Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    /**
+     * Deserializes a message written by <code>serialize</code>, applying it to the last states deserialized by
+     * <code>this</code>. The full states rebuilt are then given by <code>gameState()</code> and <code>playerState()</code>.
+     * @param message the serialized states
+     * @throws IllegalStateException if the message is a delta but no states were deserialized before
+     */
+    public void deserialize(String message) {
+        buffer.clear();
+        buffer.limit(decoder.decode(message.getBytes(US_ASCII), buffer.array()));
+
+        if (buffer.get() == SNAPSHOT) {
+            gameState = BinarySerdes.PUBLIC_GAME_STATE.read(buffer);
+            playerState = BinarySerdes.PLAYER_STATE.read(buffer);
+        }
+        else {
+            if (gameState == null) throw new IllegalStateException("delta received before any snapshot");
+            readDelta();
+        }
+    }
+
+    /**
+     * Gives the public state of the game last serialized or deserialized
+     * @return the last public state of the game
+     */
+    public PublicGameState gameState() {
+        return gameState;
+    }
+
+    /**
+     * Gives the state of the player last serialized or deserialized
+     * @return the last state of the player
+     */
+    public PlayerState playerState() {
+        return playerState;
+    }
+
+    /**
+     * Checks whether the given states can be written as a delta, i.e. whether the last states are known and nothing
+     * was removed from the routes and tickets since then (which only happens when a new game starts)
+     */
+    private boolean isDelta(PublicGameState newGameState, PlayerState ownState) {
+        if (gameState == null) return false;
+        for (PlayerId id : ALL) {
+            if (!newGameState.playerState(id).routes().containsAll(gameState.playerState(id).routes())) return false;
+        }
+        return ownState.routes().containsAll(playerState.routes())
+               && ownState.tickets().contains(playerState.tickets());
+    }
+
+    private void writeDelta(PublicGameState newGameState, PlayerState ownState) {
+        PublicCardState oldCards = gameState.cardState(), newCards = newGameState.cardState();
+        int fields = 0;
+        if (newGameState.ticketsCount() != gameState.ticketsCount()) fields |= TICKETS_COUNT;
+        if (!newCards.faceUpCards().equals(oldCards.faceUpCards())) fields |= FACE_UP_CARDS;
+        if (newCards.deckSize() != oldCards.deckSize()) fields |= DECK_SIZE;
+        if (newCards.discardsSize() != oldCards.discardsSize()) fields |= DISCARDS_SIZE;
+        if (playersByte(newGameState) != playersByte(gameState)) fields |= PLAYERS;
+        if (ownState.tickets().size() != playerState.tickets().size()) fields |= OWN_TICKETS;
+        if (!ownState.cards().equals(playerState.cards())) fields |= OWN_CARDS;
+        if (ownState.routes().size() != playerState.routes().size()) fields |= OWN_ROUTES;
+        for (PlayerId id : ALL) {
+            PublicPlayerState oldState = gameState.playerState(id), newState = newGameState.playerState(id);
+            int playerFields = 0;
+            if (newState.ticketCount() != oldState.ticketCount()) playerFields |= TICKET_COUNT;
+            if (newState.cardCount() != oldState.cardCount()) playerFields |= CARD_COUNT;
+            if (newState.routes().size() != oldState.routes().size()) playerFields |= ROUTES;
+            fields |= playerFields << playerFieldsShift(id);
+        }
+        writeVarInt(buffer, fields);
+
+        if ((fields & TICKETS_COUNT) != 0) writeVarInt(buffer, newGameState.ticketsCount());
+        if ((fields & FACE_UP_CARDS) != 0) {
+            int slots = 0;
+            for (int slot = 0; slot < FACE_UP_CARDS_COUNT; slot++) {
+                if (newCards.faceUpCard(slot) != oldCards.faceUpCard(slot)) slots |= 1 << slot;
+            }
+            buffer.put((byte) slots);
+            for (int slot = 0; slot < FACE_UP_CARDS_COUNT; slot++) {
+                if ((slots & 1 << slot) != 0) BinarySerdes.CARD.write(newCards.faceUpCard(slot), buffer);
+            }
+        }
+        if ((fields & DECK_SIZE) != 0) writeVarInt(buffer, newCards.deckSize());
+        if ((fields & DISCARDS_SIZE) != 0) writeVarInt(buffer, newCards.discardsSize());
+        if ((fields & PLAYERS) != 0) buffer.put((byte) playersByte(newGameState));
+
+        for (PlayerId id : ALL) {
+            int playerFields = fields >>> playerFieldsShift(id);
+            PublicPlayerState oldState = gameState.playerState(id), newState = newGameState.playerState(id);
+            if ((playerFields & TICKET_COUNT) != 0) writeVarInt(buffer, newState.ticketCount());
+            if ((playerFields & CARD_COUNT) != 0) writeVarInt(buffer, newState.cardCount());
+            if ((playerFields & ROUTES) != 0) writeAddedRoutes(oldState.routes(), newState.routes());
+        }
+
+        if ((fields & OWN_TICKETS) != 0) {
+            BinarySerdes.TICKETS.write(ownState.tickets().difference(playerState.tickets()), buffer);
+        }
+        if ((fields & OWN_CARDS) != 0) {
+            //one bit per type of card whose count changed, followed by the (zigzag encoded) changes
+            int changedCards = 0;
+            for (Card card : Card.ALL) {
+                if (ownState.cards().countOf(card) != playerState.cards().countOf(card)) changedCards |= 1 << card.ordinal();
+            }
+            writeVarInt(buffer, changedCards);
+            for (Card card : Card.ALL) {
+                if ((changedCards & 1 << card.ordinal()) != 0) {
+                    writeVarInt(buffer, zigzag(ownState.cards().countOf(card) - playerState.cards().countOf(card)));
+                }
+            }
+        }
+        if ((fields & OWN_ROUTES) != 0) writeAddedRoutes(playerState.routes(), ownState.routes());
+    }
+
+    private void readDelta() {
+        int fields = readVarInt(buffer);
+        PublicCardState cards = gameState.cardState();
+
+        int ticketsCount = (fields & TICKETS_COUNT) != 0 ? readVarInt(buffer) : gameState.ticketsCount();
+        List<Card> faceUpCards = cards.faceUpCards();
+        if ((fields & FACE_UP_CARDS) != 0) {
+            int slots = buffer.get();
+            faceUpCards = new ArrayList<>(faceUpCards);
+            for (int slot = 0; slot < FACE_UP_CARDS_COUNT; slot++) {
+                if ((slots & 1 << slot) != 0) faceUpCards.set(slot, BinarySerdes.CARD.read(buffer));
+            }
+        }
+        int deckSize = (fields & DECK_SIZE) != 0 ? readVarInt(buffer) : cards.deckSize();
+        int discardsSize = (fields & DISCARDS_SIZE) != 0 ? readVarInt(buffer) : cards.discardsSize();
+        int players = (fields & PLAYERS) != 0 ? buffer.get() : playersByte(gameState);
+
+        Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        for (PlayerId id : ALL) {
+            int playerFields = fields >>> playerFieldsShift(id);
+            PublicPlayerState oldState = gameState.playerState(id);
+            playerStates.put(id, new PublicPlayerState(
+                    (playerFields & TICKET_COUNT) != 0 ? readVarInt(buffer) : oldState.ticketCount(),
+                    (playerFields & CARD_COUNT) != 0 ? readVarInt(buffer) : oldState.cardCount(),
+                    (playerFields & ROUTES) != 0 ? readAddedRoutes(oldState.routes()) : oldState.routes()));
+        }
+
+        SortedBag<Ticket> tickets = playerState.tickets();
+        if ((fields & OWN_TICKETS) != 0) tickets = tickets.union(BinarySerdes.TICKETS.read(buffer));
+        SortedBag<Card> ownCards = playerState.cards();
+        if ((fields & OWN_CARDS) != 0) {
+            int changedCards = readVarInt(buffer);
+            SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+            for (Card card : Card.ALL) {
+                int count = ownCards.countOf(card);
+                if ((changedCards & 1 << card.ordinal()) != 0) count += unzigzag(readVarInt(buffer));
+                builder.add(count, card);
+            }
+            ownCards = builder.build();
+        }
+        List<Route> ownRoutes = (fields & OWN_ROUTES) != 0 ? readAddedRoutes(playerState.routes()) : playerState.routes();
+
+        int lastPlayer = players >>> BinarySerdes.LAST_PLAYER_SHIFT;
+        gameState = new PublicGameState(ticketsCount, new PublicCardState(faceUpCards, deckSize, discardsSize),
+                                        ALL.get(players & BinarySerdes.CURRENT_PLAYER_BITS), playerStates,
+                                        lastPlayer == 0 ? null : ALL.get(lastPlayer - 1));
+        playerState = new PlayerState(tickets, ownCards, ownRoutes);
+    }
+
+    private void writeAddedRoutes(List<Route> oldRoutes, List<Route> newRoutes) {
+        writeVarInt(buffer, newRoutes.size() - oldRoutes.size());
+        for (Route route : newRoutes) {
+            if (!oldRoutes.contains(route)) ROUTE.write(route, buffer);
+        }
+    }
+
+    private List<Route> readAddedRoutes(List<Route> oldRoutes) {
+        List<Route> routes = new ArrayList<>(oldRoutes);
+        for (int i = readVarInt(buffer); i > 0; i--) routes.add(ROUTE.read(buffer));
+        return routes;
+    }
+
+    /**
+     * Gives the byte holding the current player and the last player (its ordinal + 1, 0 if there is none) of a state,
+     * as written by <code>BinarySerdes.PUBLIC_GAME_STATE</code>
+     */
+    private static int playersByte(PublicGameState state) {
+        int lastPlayer = state.lastPlayer() == null ? 0 : state.lastPlayer().ordinal() + 1;
+        return state.currentPlayerId().ordinal() | lastPlayer << BinarySerdes.LAST_PLAYER_SHIFT;
+    }
+
+    private static int playerFieldsShift(PlayerId id) {
+        return PLAYER_FIELDS_SHIFT + id.ordinal() * PLAYER_FIELDS_COUNT;
+    }
+
+    private static int zigzag(int value) {
+        return value << 1 ^ value >> 31;
+    }
+
+    private static int unzigzag(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
@@ -0,0 +1,144 @@
+package ch.epfl.tchu.net;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enumerates the kinds of threads the game sessions (the loop of a <code>Game</code>, or the loop of a
+ * <code>RemotePlayerClient</code> reading the messages of the server) are run on. The mode is chosen at startup with
+ * the system property <code>tchu.threads</code> (<code>platform</code> or <code>virtual</code>, see
+ * <code>fromSystemProperty</code>).
+ * <p>
+ * Virtual threads only exist from Java 21 on, while this program is compiled for Java 17: they are thus created by
+ * reflection, and <code>VIRTUAL</code> is only supported (see <code>isSupported</code>) when the program runs on a JDK
+ * that has them.
+ *
+ * @author Noah Munz (310779)
+ */
+public enum ExecutionMode {
+    /**
+     * One platform (operating system) thread per session, parked while the session waits for a player
+     */
+    PLATFORM,
+    /**
+     * One virtual thread per session: a session waiting for a player (in <code>ArrayBlockingQueue.take</code>, or for
+     * the answer of a client of a <code>NioTransport</code>) does not hold any platform thread
+     */
+    VIRTUAL;
+
+    /**
+     * Returns an immutable list containing the constants of this enum type, in the order they're declared
+     */
+    public final static List<ExecutionMode> ALL = List.of(values());
+
+    /**
+     * Name of the system property giving the mode to use
+     */
+    public final static String PROPERTY = "tchu.threads";
+
+    private final static boolean VIRTUAL_THREADS_SUPPORTED = virtualThreadsSupported();
+
+    /**
+     * Gives the mode chosen with the system property <code>tchu.threads</code>, <code>PLATFORM</code> if it is not
+     * set. If <code>VIRTUAL</code> is chosen but not supported by the JDK, <code>PLATFORM</code> is used instead
+     * (and a warning is printed).
+     * @return the mode to use
+     * @throws IllegalArgumentException if the property is not the name of a mode
+     */
+    public static ExecutionMode fromSystemProperty() {
+        String property = System.getProperty(PROPERTY);
+        ExecutionMode mode = property == null ? PLATFORM : valueOf(property.trim().toUpperCase(Locale.ROOT));
+        if (mode.isSupported()) return mode;
+
+        System.err.println("tCHu: virtual threads are not supported by Java " + Runtime.version().feature()
+                           + ", platform threads are used instead");
+        return PLATFORM;
+    }
+
+    /**
+     * Tells whether the threads of this mode can be created by the running JDK
+     * @return true for <code>PLATFORM</code>, and for <code>VIRTUAL</code> if the JDK supports virtual threads
+     */
+    public boolean isSupported() {
+        return this == PLATFORM || VIRTUAL_THREADS_SUPPORTED;
+    }
+
+    /**
+     * Gives a factory creating the threads of this mode, named after the given prefix
+     * @param name the prefix of the names of the threads
+     * @return the thread factory
+     * @throws UnsupportedOperationException if this mode is not supported
+     */
+    public ThreadFactory threadFactory(String name) {
+        if (this == VIRTUAL) return virtualThreadFactory(name);
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> new Thread(runnable, name + "-" + count.getAndIncrement());
+    }
+
+    /**
+     * Starts the given session on a new thread of this mode
+     * @param name    the name of the thread
+     * @param session the session to run
+     * @return the thread, started
+     * @throws UnsupportedOperationException if this mode is not supported
+     */
+    public Thread start(String name, Runnable session) {
+        Thread thread = this == VIRTUAL ? virtualThreadFactory(name).newThread(session) : new Thread(session, name);
+        thread.setName(name);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Gives an executor running sessions on threads of this mode: a pool of the given number of platform threads,
+     * or a new virtual thread per session (in which case the number of sessions run at once is not limited)
+     * @param name            the prefix of the names of the threads
+     * @param platformThreads the number of threads of the pool, in <code>PLATFORM</code> mode
+     * @return the executor
+     * @throws UnsupportedOperationException if this mode is not supported
+     */
+    public ExecutorService newSessionExecutor(String name, int platformThreads) {
+        if (this == PLATFORM) return Executors.newFixedThreadPool(platformThreads, threadFactory(name));
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                                                    .invoke(null, virtualThreadFactory(name));
+        }
+        catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("virtual threads are not supported", e);
+        }
+    }
+
+    /**
+     * Gives a factory of virtual threads, i.e. <code>Thread.ofVirtual().name(name + "-", 0).factory()</code>
+     */
+    private static ThreadFactory virtualThreadFactory(String name) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        }
+        catch (InvocationTargetException e) {
+            //virtual threads are a preview feature of Java 19 and 20, disabled by default
+            throw new UnsupportedOperationException("virtual threads are not enabled", e.getCause());
+        }
+        catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("virtual threads are not supported", e);
+        }
+    }
+
+    private static boolean virtualThreadsSupported() {
+        try {
+            virtualThreadFactory("probe");
+            return true;
+        }
+        catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ch.epfl.tchu.game.PlayerId.*;
+
+/**
+ * Headless server accepting any number of remote players, pairing them (in the order they connected) through a lobby
+ * and making each pair play a game of tCHu. At most a given number of games (tables) are played at once, the players
+ * paired after that wait in the lobby until a table is freed. The server uses the <code>DELTA</code> wire format with
+ * the clients asking for it in their hello, and the <code>TEXT</code> format with the others.
+ * <p>
+ * Given a store of snapshots, the server saves the state of each game every given number of turns and, when it is
+ * started again after a crash, resumes the saved games: each new client is admitted by a doorman thread, which reads
+ * from its hello whether it was playing at one of these tables (see <code>RemotePlayerProxy.resumedTable</code>) and,
+ * once both players of a table are back, resumes its game right away (even if all the tables are busy). The hellos
+ * are waited for without blocking the doorman, so that the clients saying nothing do not delay the others. The other
+ * clients go to the lobby as usual, and so do the players still waiting for their opponent when the saved games
+ * expire (a given time after the server started), the snapshots of these games being deleted.
+ * <p>
+ * If asked to (see <code>seatBots</code>), the server makes a player left alone in the lobby for too long play against
+ * an <code>MctsPlayer</code>, searching on the thread of the table. The games against a bot are not saved, as the bot
+ * could not come back to its table.
+ * <p>
+ * All the sockets are handled by a single <code>NioTransport</code>: the players waiting in the lobby or thinking
+ * about their moves cost no thread, only the games being played have one (waiting for the answers of their players).
+ * These are platform threads of a pool, or one virtual thread per game (see <code>ExecutionMode</code>), in which case
+ * the games waiting for their players do not hold any platform thread either.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class GameServer implements AutoCloseable {
+
+    /**
+     * Port used by default by the server
+     */
+    public final static int DEFAULT_PORT = 5108;
+
+    private final static int STATS_PERIOD_MS = 1000;
+    private final static int DEFAULT_RESUME_DEADLINE_MS = 120_000;
+    private final static int DEFAULT_SNAPSHOT_INTERVAL = 1;
+    private final static int DEFAULT_BOT_TIME_BUDGET_MS = 500;
+    private final static SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    private final ServerSocketChannel serverChannel;
+    private final NioTransport transport = new NioTransport();
+    //clients connected and not admitted yet (and the number of them whose hello is waited for), then new players
+    //waiting for a table
+    private final BlockingQueue<Seat> arrivals = new LinkedBlockingQueue<>();
+    private final AtomicInteger awaitedHellos = new AtomicInteger();
+    private final BlockingQueue<Seat> lobby = new LinkedBlockingQueue<>();
+    private final Set<NioTransport.Connection> connections = ConcurrentHashMap.newKeySet();
+    private final Semaphore freeTables;
+    private final ExecutorService tables;
+    private final Thread doormanThread, matchmakerThread;
+
+    private final AtomicInteger activeTables = new AtomicInteger();
+    private final AtomicLong finishedGames = new AtomicLong(), resumedGames = new AtomicLong(),
+            botGames = new AtomicLong();
+    private final long startTime;
+
+    private final GameSnapshotStore snapshotStore;
+    private final int snapshotInterval;
+    //seats of the saved tables whose players have not all come back yet, until they expire (only used by the doorman)
+    private final Map<String, Seat[]> resumableTables = new HashMap<>();
+    private final long resumeDeadline;
+
+    //time a player waits for an opponent in the lobby before playing against a bot (negative for no bot), and time
+    //the bot thinks about each turn
+    private volatile int botWait = -1, botTimeBudget;
+
+    /**
+     * Creates a server listening on the given port, and starts accepting connections
+     * @param port             the port to listen to (0 to let the system choose one)
+     * @param maxTables        the maximum number of games played at the same time
+     * @param snapshotStore    the store the games are saved to and resumed from, null for none
+     * @param snapshotInterval the number of turns between two snapshots of a game
+     * @param resumeDeadline   the time (in milliseconds) the players of the games saved in the store have to come
+     *                         back once the server is started
+     * @param executionMode    the kind of threads the games are played on
+     * @throws IllegalArgumentException if maxTables, snapshotInterval or resumeDeadline is not strictly positive, or
+     * if the execution mode is not supported by the JDK
+     * @throws UncheckedIOException if the server socket could not be opened
+     */
+    public GameServer(int port, int maxTables, GameSnapshotStore snapshotStore, int snapshotInterval,
+                      int resumeDeadline, ExecutionMode executionMode) {
+        Preconditions.checkArgument(maxTables > 0 && snapshotInterval > 0 && resumeDeadline > 0
+                                    && executionMode.isSupported());
+        this.snapshotStore = snapshotStore;
+        this.snapshotInterval = snapshotInterval;
+        if (snapshotStore != null) {
+            for (String tableId : snapshotStore.tableIds()) resumableTables.put(tableId, new Seat[PlayerId.COUNT]);
+        }
+
+        try {
+            serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress(port));
+        }
+        catch (IOException e) {
+            transport.close();
+            throw new UncheckedIOException(e);
+        }
+
+        freeTables = new Semaphore(maxTables);
+        //the saved tables are resumed on threads of their own, without waiting for the new ones to end
+        tables = executionMode.newSessionExecutor("tchu-table", maxTables + resumableTables.size());
+        startTime = System.nanoTime();
+        this.resumeDeadline = startTime + TimeUnit.MILLISECONDS.toNanos(resumeDeadline);
+
+        doormanThread = new Thread(this::doormanLoop, "tchu-doorman");
+        matchmakerThread = new Thread(this::matchmakerLoop, "tchu-matchmaker");
+        new Thread(this::acceptLoop, "tchu-accept").start();
+        doormanThread.start();
+        matchmakerThread.start();
+    }
+
+    /**
+     * Creates a server listening on the given port, whose saved games expire two minutes after it is started, and
+     * starts accepting connections
+     * @param port             the port to listen to (0 to let the system choose one)
+     * @param maxTables        the maximum number of games played at the same time
+     * @param snapshotStore    the store the games are saved to and resumed from, null for none
+     * @param snapshotInterval the number of turns between two snapshots of a game
+     * @param executionMode    the kind of threads the games are played on
+     * @throws IllegalArgumentException if maxTables or snapshotInterval is not strictly positive, or if the execution
+     * mode is not supported by the JDK
+     * @throws UncheckedIOException if the server socket could not be opened
+     */
+    public GameServer(int port, int maxTables, GameSnapshotStore snapshotStore, int snapshotInterval,
+                      ExecutionMode executionMode) {
+        this(port, maxTables, snapshotStore, snapshotInterval, DEFAULT_RESUME_DEADLINE_MS, executionMode);
+    }
+
+    /**
+     * Creates a server listening on the given port, playing its games on a pool of platform threads, and starts
+     * accepting connections
+     * @param port             the port to listen to (0 to let the system choose one)
+     * @param maxTables        the maximum number of games played at the same time
+     * @param snapshotStore    the store the games are saved to and resumed from, null for none
+     * @param snapshotInterval the number of turns between two snapshots of a game
+     * @throws IllegalArgumentException if maxTables or snapshotInterval is not strictly positive
+     * @throws UncheckedIOException if the server socket could not be opened
+     */
+    public GameServer(int port, int maxTables, GameSnapshotStore snapshotStore, int snapshotInterval) {
+        this(port, maxTables, snapshotStore, snapshotInterval, ExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Creates a server listening on the given port, which does not save its games, and starts accepting connections
+     * @param port      the port to listen to (0 to let the system choose one)
+     * @param maxTables the maximum number of games played at the same time
+     * @throws IllegalArgumentException if maxTables is not strictly positive
+     * @throws UncheckedIOException if the server socket could not be opened
+     */
+    public GameServer(int port, int maxTables) {
+        this(port, maxTables, null, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Starts a server and prints its counters every second
+     * @param args optionally the port, the maximum number of tables, the directory of the snapshots, the number
+     *             of turns between two snapshots and the time (in milliseconds) after which a player alone in the
+     *             lobby plays against a bot (the kind of threads is given by the system property
+     *             <code>tchu.threads</code>, see <code>ExecutionMode</code>)
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int maxTables = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors() * 16;
+        GameSnapshotStore store = args.length > 2 ? new GameSnapshotStore(Path.of(args[2]), TICKETS) : null;
+        int snapshotInterval = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_SNAPSHOT_INTERVAL;
+
+        GameServer server = new GameServer(port, maxTables, store, snapshotInterval,
+                                           ExecutionMode.fromSystemProperty());
+        if (args.length > 4) server.seatBots(Integer.parseInt(args[4]), DEFAULT_BOT_TIME_BUDGET_MS);
+        System.out.println("tCHu server listening on port " + server.port());
+        while (true) {
+            Thread.sleep(STATS_PERIOD_MS);
+            System.out.println(server.stats());
+        }
+    }
+
+    /**
+     * Accepts connections and hands them to the doorman. Nothing is read from the clients here so that a slow client
+     * cannot prevent the others from connecting.
+     */
+    private void acceptLoop() {
+        while (serverChannel.isOpen()) {
+            SocketChannel channel = null;
+            try {
+                channel = serverChannel.accept();
+                NioTransport.Connection connection = transport.register(channel);
+                connections.add(connection);
+                arrivals.add(new Seat(connection));
+                //the client accepted while the server was being closed is not left connected
+                if (!serverChannel.isOpen()) connection.close();
+            }
+            catch (IOException | UncheckedIOException | ClosedSelectorException e) {
+                if (serverChannel.isOpen()) System.err.println("tCHu server: accept failed: " + e);
+                if (channel != null) {
+                    try {
+                        channel.close();
+                    }
+                    catch (IOException ignored) {
+                        //the client is disconnected anyway
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Admits the clients which connected: seats the ones coming back to a saved table at it (resuming its game once
+     * both are back), and sends the others to the lobby. Expires the saved tables once their deadline has passed.
+     * The players coming back do not wait for a free table.
+     */
+    private void doormanLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Seat seat = resumableTables.isEmpty()
+                            ? arrivals.take()
+                            : arrivals.poll(resumeDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (!resumableTables.isEmpty() && System.nanoTime() - resumeDeadline >= 0) expireResumableTables();
+                if (seat != null) admit(seat);
+            }
+        }
+        catch (InterruptedException e) {
+            //the server is being closed
+        }
+    }
+
+    /**
+     * Seats the given player back at the saved table it was playing at, or sends it to the lobby. If its hello was
+     * not read yet, it is waited for (at most <code>RemotePlayerProxy.HELLO_TIMEOUT_MS</code>) without blocking, and
+     * the player is admitted again once it is read.
+     */
+    private void admit(Seat seat) {
+        if (resumableTables.isEmpty()) {
+            lobby.add(seat);
+            return;
+        }
+        if (!seat.greeted) {
+            awaitHello(seat);
+            return;
+        }
+
+        Map.Entry<String, PlayerId> resumedTable;
+        try {
+            resumedTable = seat.proxy.resumedTable();
+        }
+        catch (RuntimeException e) {
+            //the client disconnected or misbehaved: it is not let in
+            closeSeat(seat);
+            return;
+        }
+
+        Seat[] seats = resumedTable == null ? null : resumableTables.get(resumedTable.getKey());
+        if (seats == null) {
+            lobby.add(seat);
+            return;
+        }
+
+        Seat previous = seats[resumedTable.getValue().ordinal()];
+        if (previous != null) closeSeat(previous);
+        seats[resumedTable.getValue().ordinal()] = seat;
+        if (seats[PLAYER_1.ordinal()] != null && seats[PLAYER_2.ordinal()] != null) {
+            String tableId = resumedTable.getKey();
+            resumableTables.remove(tableId);
+            GameSnapshot snapshot = snapshotStore.load(tableId);
+            if (snapshot == null) {
+                lobby.addAll(List.of(seats));
+                return;
+            }
+            activeTables.incrementAndGet();
+            resumedGames.incrementAndGet();
+            //resumed tables do not take a free table, they are the ones that were being played
+            tables.execute(() -> playTable(seats[PLAYER_1.ordinal()], seats[PLAYER_2.ordinal()], tableId, snapshot));
+        }
+    }
+
+    /**
+     * Reads the hello of the given player as soon as it is received, and hands the player back to the doorman
+     */
+    private void awaitHello(Seat seat) {
+        awaitedHellos.incrementAndGet();
+        seat.connection.nextLine(RemotePlayerProxy.HELLO_TIMEOUT_MS).whenComplete((message, e) -> {
+            try {
+                //a client saying nothing in time is not coming back to a table
+                if (e == null || e.getCause() instanceof SocketTimeoutException) {
+                    seat.proxy.helloReceived(message);
+                    seat.greeted = true;
+                    arrivals.add(seat);
+                }
+                else closeSeat(seat);
+            }
+            catch (RuntimeException notHello) {
+                //the client misbehaved: it is not let in
+                closeSeat(seat);
+            }
+            finally {
+                awaitedHellos.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Sends the players waiting for their opponent at a saved table to the lobby, and deletes the saved games
+     */
+    private void expireResumableTables() {
+        for (Map.Entry<String, Seat[]> table : resumableTables.entrySet()) {
+            for (Seat seat : table.getValue()) {
+                if (seat != null) lobby.add(seat);
+            }
+            snapshotStore.delete(table.getKey());
+        }
+        resumableTables.clear();
+    }
+
+    /**
+     * Makes the players waiting alone in the lobby for the given time play against a bot from now on
+     * @param wait       the time (in milliseconds) a player waits for an opponent before playing against a bot
+     * @param timeBudget the time (in milliseconds) the bot thinks about each turn
+     * @throws IllegalArgumentException if the wait is negative or if the time budget is not strictly positive
+     */
+    public void seatBots(int wait, int timeBudget) {
+        Preconditions.checkArgument(wait >= 0 && timeBudget > 0);
+        botTimeBudget = timeBudget;
+        botWait = wait;
+    }
+
+    /**
+     * Waits for a free table, then for two new players (or for one and a bot), and make them play on that table
+     */
+    private void matchmakerLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                freeTables.acquire();
+                Seat seat1 = lobby.take();
+                int wait = botWait;
+                //null if the player plays against a bot
+                Seat seat2 = wait < 0 ? lobby.take() : lobby.poll(wait, TimeUnit.MILLISECONDS);
+
+                activeTables.incrementAndGet();
+                tables.execute(() -> playTable(seat1, seat2, UUID.randomUUID().toString(), null));
+            }
+        }
+        catch (InterruptedException e) {
+            //the server is being closed
+        }
+    }
+
+    /**
+     * Plays the game of the given table, resuming it from the given snapshot if it is not null, against a bot if the
+     * second seat is null
+     */
+    private void playTable(Seat seat1, Seat seat2, String tableId, GameSnapshot snapshot) {
+        try {
+            Player player2 = seat2 == null
+                             ? new MctsPlayer(ThreadLocalRandom.current().nextLong(), botTimeBudget, 0, 1)
+                             : seat2.proxy;
+            if (seat2 == null) botGames.incrementAndGet();
+            Map<PlayerId, Player> players = Map.of(PLAYER_1, seat1.proxy, PLAYER_2, player2);
+            Map<PlayerId, String> playerNames = Map.of(PLAYER_1, "Joueur 1", PLAYER_2, "Joueur 2");
+            Game game = snapshot == null ? new Game(players, playerNames, TICKETS, new Random())
+                                         : Game.resume(players, playerNames, TICKETS, snapshot);
+            if (snapshotStore != null && seat2 != null) {
+                game.saveSnapshots(snapshotStore, tableId, snapshotInterval);
+                seat1.proxy.joinTable(tableId);
+                seat2.proxy.joinTable(tableId);
+            }
+            game.run();
+            finishedGames.incrementAndGet();
+        }
+        catch (RuntimeException e) {
+            //a client disconnected or misbehaved: the table is abandoned (it can be resumed from its last snapshot
+            //when the server is started again), but the server keeps running
+            System.err.println("tCHu server: table aborted: " + e);
+        }
+        finally {
+            closeSeat(seat1);
+            if (seat2 != null) closeSeat(seat2);
+            activeTables.decrementAndGet();
+            if (snapshot == null) freeTables.release();
+        }
+    }
+
+    /**
+     * Closes the connection of the given player
+     */
+    private void closeSeat(Seat seat) {
+        seat.connection.close();
+        connections.remove(seat.connection);
+    }
+
+    /**
+     * Gives the port the server listens to
+     * @return the local port of the server socket
+     */
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gives the number of games currently played
+     * @return the number of active tables
+     */
+    public int activeTables() {
+        return activeTables.get();
+    }
+
+    /**
+     * Gives the number of connected players waiting to be given a table
+     * @return the number of players in the lobby (or waiting to be admitted to it)
+     */
+    public int queuedPlayers() {
+        return arrivals.size() + awaitedHellos.get() + lobby.size();
+    }
+
+    /**
+     * Gives the number of games that were played until the end
+     * @return the number of finished games
+     */
+    public long finishedGames() {
+        return finishedGames.get();
+    }
+
+    /**
+     * Gives the number of saved games resumed since the server was started
+     * @return the number of games whose players both came back
+     */
+    public long resumedGames() {
+        return resumedGames.get();
+    }
+
+    /**
+     * Gives the number of games played against a bot since the server was started
+     * @return the number of games given to a player alone in the lobby
+     */
+    public long botGames() {
+        return botGames.get();
+    }
+
+    /**
+     * Gives the average number of games finished per second since the server was started
+     * @return the number of finished games per second
+     */
+    public double gamesPerSecond() {
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+        return finishedGames.get() / elapsedSeconds;
+    }
+
+    /**
+     * Gives a one line summary of the counters of the server
+     * @return a String containing the counters of the server
+     */
+    public String stats() {
+        return String.format("tables: %d, queued players: %d, finished games: %d (%.2f games/s), resumed games: %d, "
+                             + "bot games: %d", activeTables(), queuedPlayers(), finishedGames(), gamesPerSecond(),
+                             resumedGames(), botGames());
+    }
+
+    /**
+     * Stops accepting connections and aborts all the games in progress (by closing their connections)
+     */
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            doormanThread.interrupt();
+            matchmakerThread.interrupt();
+            tables.shutdownNow();
+            connections.forEach(NioTransport.Connection::close);
+            transport.close();
+        }
+    }
+
+    /**
+     * Connection of a player, with the proxy used to communicate with it
+     */
+    private static final class Seat {
+        private final NioTransport.Connection connection;
+        private final RemotePlayerProxy proxy;
+        //whether the hello of the player was read by the doorman (which is handed the seat again after that)
+        private boolean greeted;
+
+        private Seat(NioTransport.Connection connection) {
+            this.connection = connection;
+            this.proxy = new RemotePlayerProxy(connection, WireFormat.DELTA);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local load generator: connects a given number of bots (RandomPlayers behind RemotePlayerClients) to a server
+ * and waits until all their games are over. The kind of threads the bots are run on is given by the system property
+ * <code>tchu.threads</code> (see <code>ExecutionMode</code>).
+ *
+ * @author Noah Munz (310779)
+ */
+public final class LoadGenerator {
+
+    private final static String DEFAULT_HOST = "localhost";
+    private final static int DEFAULT_BOTS_COUNT = 100;
+
+    /**
+     * Private constructor to remove the default one and make LoadGenerator not instantiable
+     */
+    private LoadGenerator() {throw new UnsupportedOperationException();}
+
+    /**
+     * Connects the bots to the server
+     * @param args optionally the number of bots, the name of the server and its port
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int botsCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BOTS_COUNT;
+        String host = args.length > 1 ? args[1] : DEFAULT_HOST;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : GameServer.DEFAULT_PORT;
+
+        long start = System.nanoTime();
+        run(botsCount, host, port, ExecutionMode.fromSystemProperty());
+        System.out.printf("%d bots played in %.2f s%n", botsCount, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Connects the given number of bots to the server, each on its own thread, and waits until they are all disconnected
+     * @param botsCount     the number of bots to connect
+     * @param host          the name of the server
+     * @param port          the port of the server
+     * @param executionMode the kind of threads the bots are run on
+     * @throws UnsupportedOperationException if the execution mode is not supported by the JDK
+     */
+    public static void run(int botsCount, String host, int port, ExecutionMode executionMode)
+            throws InterruptedException {
+        List<Thread> bots = new ArrayList<>(botsCount);
+        for (int i = 0; i < botsCount; i++) {
+            RemotePlayerClient client = new RemotePlayerClient(new RandomPlayer(i), host, port);
+            bots.add(executionMode.start("tchu-bot-" + i, client::run));
+        }
+        for (Thread bot : bots) bot.join();
+    }
+
+    /**
+     * Connects the given number of bots to the server, each on its own platform thread, and waits until they are all
+     * disconnected
+     * @param botsCount the number of bots to connect
+     * @param host      the name of the server
+     * @param port      the port of the server
+     */
+    public static void run(int botsCount, String host, int port) throws InterruptedException {
+        run(botsCount, host, port, ExecutionMode.PLATFORM);
+    }
+}
@@ -0,0 +1,37 @@
+package ch.epfl.tchu.net;
+
+/**
+ * Channel through which a <code>RemotePlayerProxy</code> exchanges its messages (lines of ASCII text) with its client
+ *
+ * @author Noah Munz (310779)
+ */
+interface MessageChannel {
+
+    /**
+     * Sends the given message to the client, at the latest when the channel is flushed (it may be buffered until then)
+     * @param message the message, without its terminating new line
+     * @throws java.io.UncheckedIOException if the message could not be sent
+     */
+    void send(String message);
+
+    /**
+     * Writes the buffered messages to the client
+     * @throws java.io.UncheckedIOException if the messages could not be sent
+     */
+    void flush();
+
+    /**
+     * Waits for the next message of the client
+     * @return the message, without its terminating new line
+     * @throws java.io.UncheckedIOException if the client disconnected or the message could not be read
+     */
+    String receive();
+
+    /**
+     * Sets the time <code>receive</code> waits for a message before failing with a <code>SocketTimeoutException</code>
+     * (wrapped in an <code>UncheckedIOException</code>)
+     * @param timeoutMs the timeout in milliseconds, 0 to wait as long as needed
+     * @throws java.io.UncheckedIOException if the timeout could not be set
+     */
+    void setTimeout(int timeoutMs);
+}
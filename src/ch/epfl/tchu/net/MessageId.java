@@ -18,5 +18,6 @@ public enum MessageId {
     CARDS,
     CHOOSE_ADDITIONAL_CARDS,
     ASK_REMATCH,
-    REMATCH_ANSWER;
+    REMATCH_ANSWER,
+    TABLE;
 }
\ No newline at end of file
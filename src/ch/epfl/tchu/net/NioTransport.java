@@ -0,0 +1,360 @@
+package ch.epfl.tchu.net;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.*;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Non-blocking transport of the messages of any number of clients, all their sockets being read and written by a
+ * single thread waiting on a <code>Selector</code>. A connected client (see <code>register</code>) thus costs no thread
+ * of its own, whether it is waiting in the lobby or thinking about its next move: the lines it sends are queued until
+ * a proxy asks for them, and a proxy waiting for an answer only holds a <code>CompletableFuture</code>
+ * (see <code>Connection.nextLine</code>). A client sending more lines than a proxy could ask for (a proxy only waits
+ * for the answer of its last question), or a line longer than any message, is disconnected rather than letting its
+ * lines fill the memory.
+ * <p>
+ * The messages are buffered until they are flushed, and then written directly by the thread of the proxy as long as
+ * the socket accepts them, the selector thread only writing what remains when the socket buffer is full.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class NioTransport implements AutoCloseable {
+
+    //the reads of all the connections are done by the selector thread in this buffer
+    private final static int READ_BUFFER_SIZE = 1 << 16;
+    //lines of a connection which can be received before they are asked for, after which the client is disconnected
+    final static int MAX_QUEUED_LINES = 64;
+    //length of the longest line a client can send (far more than the longest message), after which it is disconnected
+    final static int MAX_LINE_LENGTH = 1 << 14;
+
+    private final Selector selector;
+    private final Thread selectorThread;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /**
+     * Opens the selector of the transport and starts its thread
+     * @throws UncheckedIOException if the selector could not be opened
+     */
+    public NioTransport() {
+        try {
+            selector = Selector.open();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        selectorThread = new Thread(this::selectLoop, "tchu-nio");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    /**
+     * Makes the given socket channel non-blocking and handles it from now on
+     * @param channel the channel of a connected client
+     * @return the connection to the client
+     * @throws UncheckedIOException if the channel could not be registered
+     */
+    public Connection register(SocketChannel channel) {
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connections.incrementAndGet();
+            selector.wakeup();
+            return connection;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gives the number of connections handled by the transport
+     * @return the number of connections that are not closed
+     */
+    public int connections() {
+        return connections.get();
+    }
+
+    /**
+     * Closes all the connections and stops the thread of the transport
+     */
+    @Override
+    public void close() {
+        selectorThread.interrupt();
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void selectLoop() {
+        try (selector) {
+            while (!Thread.currentThread().isInterrupted()) {
+                selector.select(key -> {
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isValid() && key.isReadable()) connection.read();
+                    if (key.isValid() && key.isWritable()) connection.writeQueued();
+                });
+            }
+            for (SelectionKey key : selector.keys()) ((Connection) key.attachment()).close();
+        }
+        catch (IOException | ClosedSelectorException e) {
+            //nothing more can be done with the connections, whose channels are closed with the selector
+        }
+    }
+
+    /**
+     * Connection to a client, through which a <code>RemotePlayerProxy</code> sends its messages and receives the
+     * answers of the client
+     */
+    public final class Connection implements MessageChannel, Closeable {
+        private final SocketChannel channel;
+        private SelectionKey key;
+
+        //lines received and not asked for yet, or the answer a proxy is waiting for (guarded by the connection)
+        private final Queue<String> lines = new ArrayDeque<>(2);
+        private CompletableFuture<String> pendingLine;
+        private boolean closed;
+        private long timeoutMs;
+
+        //beginning of a line whose end was not received yet (selector thread only)
+        private StringBuilder partialLine;
+
+        //messages not flushed yet, and flushed messages the socket did not accept yet (guarded by writeQueue)
+        private final StringBuilder outgoing = new StringBuilder();
+        private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>(0);
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Sets the time <code>receive</code> waits for a message (as <code>Socket.setSoTimeout</code> does)
+         * @param timeoutMs the timeout in milliseconds, 0 to wait as long as needed
+         */
+        @Override
+        public void setTimeout(int timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        /**
+         * Gives the next line sent by the client, which may not have been received yet: no thread is blocked while it
+         * is waited for
+         * @return a future completed with the line (without its terminating new line), or completed exceptionally with
+         * an <code>UncheckedIOException</code> if the client disconnects before
+         * @throws IllegalStateException if a line is already waited for
+         */
+        public synchronized CompletableFuture<String> nextLine() {
+            if (pendingLine != null) throw new IllegalStateException("a line is already waited for");
+            if (!lines.isEmpty()) return CompletableFuture.completedFuture(lines.poll());
+            if (closed) return CompletableFuture.failedFuture(new UncheckedIOException(new EOFException()));
+            pendingLine = new CompletableFuture<>();
+            return pendingLine;
+        }
+
+        /**
+         * Gives the next line sent by the client as <code>nextLine()</code> does, giving up the wait after the given
+         * time: no thread is blocked while it is waited for either
+         * @param timeoutMs the time to wait for the line, in milliseconds
+         * @return a future completed as the one of <code>nextLine()</code>, or exceptionally with an
+         * <code>UncheckedIOException</code> caused by a <code>SocketTimeoutException</code> if no line was received in
+         * time (the next line then being kept for the next call)
+         * @throws IllegalStateException if a line is already waited for
+         */
+        public CompletableFuture<String> nextLine(long timeoutMs) {
+            CompletableFuture<String> line = nextLine();
+            if (line.isDone()) return line;
+            CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+                synchronized (this) {
+                    //the line was received (or the connection closed) in time
+                    if (pendingLine != line) return;
+                    pendingLine = null;
+                }
+                line.completeExceptionally(new UncheckedIOException(new SocketTimeoutException("no message received")));
+            });
+            return line;
+        }
+
+        @Override
+        public String receive() {
+            CompletableFuture<String> line = nextLine();
+            try {
+                try {
+                    return timeoutMs == 0 ? line.get() : line.get(timeoutMs, TimeUnit.MILLISECONDS);
+                }
+                catch (TimeoutException e) {
+                    synchronized (this) {
+                        if (pendingLine == line) {
+                            pendingLine = null;
+                            throw new UncheckedIOException(new SocketTimeoutException("no message received"));
+                        }
+                    }
+                    //the line was received (or the connection closed) as the wait timed out: it is about to be
+                    //completed, and must not be lost
+                    return line.get();
+                }
+            }
+            catch (ExecutionException e) {
+                throw e.getCause() instanceof UncheckedIOException
+                      ? (UncheckedIOException) e.getCause()
+                      : new UncheckedIOException(new IOException(e.getCause()));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException());
+            }
+        }
+
+        @Override
+        public void send(String message) {
+            synchronized (writeQueue) {
+                outgoing.append(message).append('\n');
+            }
+        }
+
+        @Override
+        public void flush() {
+            synchronized (writeQueue) {
+                if (outgoing.length() == 0) return;
+                ByteBuffer bytes = US_ASCII.encode(CharBuffer.wrap(outgoing));
+                outgoing.setLength(0);
+                try {
+                    //the message is written right away unless older ones are still waiting for the socket
+                    if (writeQueue.isEmpty()) channel.write(bytes);
+                    if (!bytes.hasRemaining()) return;
+                    writeQueue.add(bytes);
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+                catch (IOException | CancelledKeyException e) {
+                    close();
+                    throw new UncheckedIOException(e instanceof IOException ? (IOException) e : new EOFException());
+                }
+            }
+            selector.wakeup();
+        }
+
+        /**
+         * Closes the connection, a proxy waiting for a line being told the client disconnected
+         */
+        @Override
+        public void close() {
+            CompletableFuture<String> waiting;
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                waiting = pendingLine;
+                pendingLine = null;
+            }
+            connections.decrementAndGet();
+            key.cancel();
+            try {
+                channel.close();
+            }
+            catch (IOException ignored) {
+                //the connection is closed anyway
+            }
+            if (waiting != null) waiting.completeExceptionally(new UncheckedIOException(new EOFException()));
+        }
+
+        /**
+         * Reads what the client sent, splitting it in lines, and closes the connection if a line is too long (selector
+         * thread only)
+         */
+        private void read() {
+            try {
+                int read;
+                while ((read = channel.read(readBuffer.clear())) > 0) {
+                    byte[] bytes = readBuffer.array();
+                    int lineStart = 0;
+                    int partialLength = partialLine == null ? 0 : partialLine.length();
+                    for (int i = 0; i < read; i++) {
+                        if (bytes[i] != '\n') continue;
+                        if (partialLength + i - lineStart > MAX_LINE_LENGTH) {
+                            partialLine = null;
+                            close();
+                            return;
+                        }
+                        String line = new String(bytes, lineStart, i - lineStart, US_ASCII);
+                        if (partialLine != null) {
+                            line = partialLine.append(line).toString();
+                            partialLine = null;
+                            partialLength = 0;
+                        }
+                        received(line);
+                        lineStart = i + 1;
+                    }
+                    if (lineStart < read) {
+                        if (partialLength + read - lineStart > MAX_LINE_LENGTH) {
+                            partialLine = null;
+                            close();
+                            return;
+                        }
+                        if (partialLine == null) partialLine = new StringBuilder();
+                        partialLine.append(new String(bytes, lineStart, read - lineStart, US_ASCII));
+                    }
+                }
+                if (read < 0) close();
+            }
+            catch (IOException e) {
+                close();
+            }
+        }
+
+        private void received(String line) {
+            CompletableFuture<String> waiting;
+            boolean overflowed = false;
+            synchronized (this) {
+                //the rest of what a disconnected client sent is ignored
+                if (closed) return;
+                waiting = pendingLine;
+                pendingLine = null;
+                if (waiting == null) {
+                    overflowed = lines.size() >= MAX_QUEUED_LINES;
+                    if (overflowed) lines.clear();
+                    else lines.add(line);
+                }
+            }
+            //completed out of the lock, the proxy may go on on this thread
+            if (waiting != null) waiting.complete(line);
+            if (overflowed) close();
+        }
+
+        /**
+         * Writes the messages the socket did not accept before (selector thread only)
+         */
+        private void writeQueued() {
+            synchronized (writeQueue) {
+                try {
+                    while (!writeQueue.isEmpty()) {
+                        ByteBuffer bytes = writeQueue.peek();
+                        channel.write(bytes);
+                        if (bytes.hasRemaining()) return;
+                        writeQueue.poll();
+                    }
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+                catch (IOException e) {
+                    close();
+                }
+            }
+        }
+    }
+}
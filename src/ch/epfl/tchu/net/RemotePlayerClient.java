@@ -1,5 +1,6 @@
 package ch.epfl.tchu.net;
 
+import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
@@ -20,112 +21,236 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
  */
 public final class RemotePlayerClient {
 
+    //delays before connecting again after the connection was lost, doubled at each failed attempt
+    private final static long FIRST_RECONNECTION_DELAY_MS = 250, MAX_RECONNECTION_DELAY_MS = 8_000;
+
     private final Player player;
     private final String proxyName;
     private final int PROXY_PORT;
+    private final WireFormat preferredFormat;
+    private WireFormat wireFormat = WireFormat.TEXT;
+    private final DeltaSerde deltaSerde = new DeltaSerde();
+
+    //table the player plays at and its identity there (told by the server), used to come back to it after a crash,
+    //and whether a game is being played there (from its INIT_PLAYERS to its ASK_REMATCH)
+    private String tableId;
+    private PlayerId ownId;
+    private boolean playing;
+    //whether the server sent a message through the current connection
+    private boolean messageReceived;
 
     /**
-     * RemotePlayerClient unique constructor
+     * RemotePlayerClient primary constructor
+     * @param player          the player to whom it must provide remote access
+     * @param proxyName       a String of the name of the proxy
+     * @param proxyPort       an int representing the port of the proxy
+     * @param preferredFormat the format in which the client wants to receive the states of the game: unless it is
+     *                        <code>TEXT</code>, the client announces it to the proxy as soon as it is connected, and it
+     *                        is used if the proxy offers it (otherwise the <code>TEXT</code> format is used)
+     */
+    public RemotePlayerClient(Player player, String proxyName, int proxyPort, WireFormat preferredFormat) {
+        this.player = player;
+        this.proxyName = proxyName;
+        PROXY_PORT = proxyPort;
+        this.preferredFormat = preferredFormat;
+    }
+
+    /**
+     * RemotePlayerClient secondary constructor, asking for the <code>DELTA</code> format
      * @param player    the player to whom it must provide remote access
      * @param proxyName a String of the name of the proxy
      * @param proxyPort an int representing the port of the proxy
      */
     public RemotePlayerClient(Player player, String proxyName, int proxyPort) {
-        this.player = player;
-        this.proxyName = proxyName;
-        PROXY_PORT = proxyPort;
+        this(player, proxyName, proxyPort, WireFormat.DELTA);
     }
 
     /**
      * Waits for a message from the proxy and, depending on the type of this message, will deserialize its arguments
      * and call the corresponding method of the player. If this method returns a result, it will serialize it and send
      * it back to the proxy in response.
+     * <p>
+     * If the connection is lost, this method can be called again (see <code>runReconnecting</code>): if the server
+     * saved the game, the player is then put back at its table, which the client tells the server in its hello.
      */
     public void run() {
-        try {
-            Socket socket = new Socket(proxyName, PROXY_PORT);
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(
-                            socket.getInputStream(), US_ASCII));
-            BufferedWriter writer = new BufferedWriter(
-                    new OutputStreamWriter(
-                            socket.getOutputStream(), US_ASCII));
-            String message;
-            String[] infos;
-
-            while ((message = reader.readLine()) != null) {
-                infos = message.split(Pattern.quote(" "), -1);
-                switch (MessageId.valueOf(infos[0])) {
-                    case INIT_PLAYERS:
-                        PlayerId id = ID_SERDE.deserialize(infos[1]);
-                        List<String> namesList = STRINGS_SERDE.deserialize(infos[2]);
-
-                        Map<PlayerId, String> playerNames = PlayerId.ALL.stream()
-                                                                        .collect(Collectors.toUnmodifiableMap(
-                                                                                playerId -> playerId,
-                                                                                playerId -> namesList.get(playerId.ordinal())));
-
-                        Boolean rematch = BOOLEAN_SERDE.deserialize(infos[3]);
-
-                        player.initPlayers(id, playerNames, rematch);
-                        break;
+        try (Socket socket = new Socket(proxyName, PROXY_PORT)) {
+            play(socket);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-                    case RECEIVE_INFO:
-                        player.receiveInfo(STRING_SERDE.deserialize(infos[1]));
-                        break;
+    /**
+     * Runs the client as <code>run</code> does but, when the connection is lost while a game is being played at a
+     * table of the server (see <code>MessageId.TABLE</code>), connects again so that a server restarted after a crash
+     * can put the player back at its table. The client connects again right away if the connection lost had
+     * delivered messages. Otherwise (the server could not be reached, or closed the connection before sending
+     * anything) the attempt failed, and the client connects again after a delay doubling at each failed attempt, from
+     * 250 ms up to 8 s.
+     *
+     * @param maxAttempts the maximal number of failed connection attempts in a row
+     * @throws IllegalArgumentException if the number of attempts is not strictly positive
+     * @throws UncheckedIOException if the client could not connect after the given number of attempts
+     */
+    public void runReconnecting(int maxAttempts) {
+        Preconditions.checkArgument(maxAttempts > 0);
+        int failedAttempts = 0;
+        long delay = FIRST_RECONNECTION_DELAY_MS;
+        while (true) {
+            UncheckedIOException failure;
+            messageReceived = false;
+            try (Socket socket = new Socket(proxyName, PROXY_PORT)) {
+                play(socket);
+                if (!atTable()) return;
+                failure = new UncheckedIOException(new EOFException("connection closed by the server"));
+            }
+            catch (IOException e) {
+                failure = new UncheckedIOException(e);
+            }
+            catch (UncheckedIOException e) {
+                failure = e;
+            }
+            if (!atTable()) throw failure;
 
-                    case UPDATE_STATE:
-                        PublicGameState publicGameState = PUBLIC_GAME_STATE_SERDE.deserialize(infos[1]);
-                        PlayerState playerState = PLAYER_STATE_SERDE.deserialize(infos[2]);
-                        player.updateState(publicGameState, playerState);
-                        break;
+            //the backoff only starts over once a connection worked (a server accepting and closing the connections
+            //right away must not be connected to again and again)
+            if (messageReceived) {
+                failedAttempts = 0;
+                delay = FIRST_RECONNECTION_DELAY_MS;
+                continue;
+            }
+            if (++failedAttempts >= maxAttempts) throw failure;
+            try {
+                Thread.sleep(delay);
+            }
+            catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException());
+            }
+            delay = Math.min(2 * delay, MAX_RECONNECTION_DELAY_MS);
+        }
+    }
 
-                    case SET_INITIAL_TICKETS:
-                        player.setInitialTicketChoice(TICKET_SB_SERDE.deserialize(infos[1]));
-                        break;
+    /**
+     * Tells whether the player is playing a game at a table the server can seat it back at
+     */
+    private boolean atTable() {
+        return playing && tableId != null;
+    }
 
-                    case CHOOSE_INITIAL_TICKETS:
-                        sendMessage(writer, TICKET_SB_SERDE.serialize(player.chooseInitialTickets()));
-                        break;
+    /**
+     * Plays through the given socket until the server closes it
+     */
+    private void play(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(
+                        socket.getInputStream(), US_ASCII));
+        BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(
+                        socket.getOutputStream(), US_ASCII));
+        String message;
+        String[] infos;
 
-                    case NEXT_TURN:
-                        sendMessage(writer, TURNKIND_SERDE.serialize(player.nextTurn()));
-                        break;
+        //a client wanting another format than TEXT, or coming back to its table, says hello before anything else
+        if (atTable()) {
+            sendMessage(writer, RemotePlayerProxy.HELLO, WIRE_FORMAT_SERDE.serialize(preferredFormat),
+                        BOOLEAN_SERDE.serialize(player.receivesInfo()),
+                        STRING_SERDE.serialize(tableId), ID_SERDE.serialize(ownId));
+        }
+        else if (preferredFormat != WireFormat.TEXT) {
+            sendMessage(writer, RemotePlayerProxy.HELLO, WIRE_FORMAT_SERDE.serialize(preferredFormat),
+                        BOOLEAN_SERDE.serialize(player.receivesInfo()));
+        }
 
-                    case CHOOSE_TICKETS:
-                        SortedBag<Ticket> options = TICKET_SB_SERDE.deserialize(infos[1]);
-                        sendMessage(writer, TICKET_SB_SERDE.serialize(player.chooseTickets(options)));
-                        break;
+        while ((message = reader.readLine()) != null) {
+            messageReceived = true;
+            infos = message.split(Pattern.quote(" "), -1);
+            switch (MessageId.valueOf(infos[0])) {
+                case INIT_PLAYERS:
+                    PlayerId id = ID_SERDE.deserialize(infos[1]);
+                    List<String> namesList = STRINGS_SERDE.deserialize(infos[2]);
 
-                    case DRAW_SLOT:
-                        sendMessage(writer, INT_SERDE.serialize(player.drawSlot()));
-                        break;
+                    Map<PlayerId, String> playerNames = PlayerId.ALL.stream()
+                                                                    .collect(Collectors.toUnmodifiableMap(
+                                                                            playerId -> playerId,
+                                                                            playerId -> namesList.get(playerId.ordinal())));
 
-                    case ROUTE:
-                        sendMessage(writer, ROUTE_SERDE.serialize(player.claimedRoute()));
-                        break;
+                    Boolean rematch = BOOLEAN_SERDE.deserialize(infos[3]);
+                    ownId = id;
+                    playing = true;
 
-                    case CARDS:
-                        sendMessage(writer, CARDS_SB_SERDE.serialize(player.initialClaimCards()));
-                        break;
+                    //the proxy only tells the format it chose if it read the hello of the client in time
+                    wireFormat = infos.length > 4 ? WIRE_FORMAT_SERDE.deserialize(infos[4]) : WireFormat.TEXT;
 
-                    case CHOOSE_ADDITIONAL_CARDS:
-                        List<SortedBag<Card>> sortedBags = CARD_LISTOF_SB_SERDE.deserialize(infos[1]);
-                        sendMessage(writer, CARDS_SB_SERDE.serialize(player.chooseAdditionalCards(sortedBags)));
-                        break;
+                    player.initPlayers(id, playerNames, rematch);
+                    break;
+
+                case RECEIVE_INFO:
+                    player.receiveInfo(STRING_SERDE.deserialize(infos[1]));
+                    break;
 
-                    case ASK_REMATCH:
-                        player.askForRematch();
+                case UPDATE_STATE:
+                    if (wireFormat == WireFormat.DELTA) {
+                        deltaSerde.deserialize(infos[1]);
+                        player.updateState(deltaSerde.gameState(), deltaSerde.playerState());
                         break;
+                    }
+                    PublicGameState publicGameState = wireFormat.publicGameStateSerde().deserialize(infos[1]);
+                    PlayerState playerState = wireFormat.playerStateSerde().deserialize(infos[2]);
+                    player.updateState(publicGameState, playerState);
+                    break;
+
+                case SET_INITIAL_TICKETS:
+                    player.setInitialTicketChoice(TICKET_SB_SERDE.deserialize(infos[1]));
+                    break;
+
+                case CHOOSE_INITIAL_TICKETS:
+                    sendMessage(writer, TICKET_SB_SERDE.serialize(player.chooseInitialTickets()));
+                    break;
+
+                case NEXT_TURN:
+                    sendMessage(writer, TURNKIND_SERDE.serialize(player.nextTurn()));
+                    break;
+
+                case CHOOSE_TICKETS:
+                    SortedBag<Ticket> options = TICKET_SB_SERDE.deserialize(infos[1]);
+                    sendMessage(writer, TICKET_SB_SERDE.serialize(player.chooseTickets(options)));
+                    break;
+
+                case DRAW_SLOT:
+                    sendMessage(writer, INT_SERDE.serialize(player.drawSlot()));
+                    break;
+
+                case ROUTE:
+                    sendMessage(writer, ROUTE_SERDE.serialize(player.claimedRoute()));
+                    break;
 
-                    case REMATCH_ANSWER:
-                        sendMessage(writer, BOOLEAN_SERDE.serialize(player.rematchResponse()));
-                }
+                case CARDS:
+                    sendMessage(writer, CARDS_SB_SERDE.serialize(player.initialClaimCards()));
+                    break;
+
+                case CHOOSE_ADDITIONAL_CARDS:
+                    List<SortedBag<Card>> sortedBags = CARD_LISTOF_SB_SERDE.deserialize(infos[1]);
+                    sendMessage(writer, CARDS_SB_SERDE.serialize(player.chooseAdditionalCards(sortedBags)));
+                    break;
+
+                case ASK_REMATCH:
+                    //the game is over, it is not resumed if the connection is lost before the rematch (if any)
+                    playing = false;
+                    player.askForRematch();
+                    break;
+
+                case REMATCH_ANSWER:
+                    sendMessage(writer, BOOLEAN_SERDE.serialize(player.rematchResponse()));
+                    break;
+
+                case TABLE:
+                    tableId = STRING_SERDE.deserialize(infos[1]);
+                    break;
             }
         }
-        catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
     }
 
     /**
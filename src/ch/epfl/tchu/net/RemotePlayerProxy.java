@@ -4,9 +4,15 @@ import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
 import java.io.*;
+import java.net.ProtocolException;
 import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -16,32 +22,101 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 
 /**
  * Represents a proxy of distant player i.e."Server" part
+ * <p>
+ * The messages needing no answer (e.g. <code>RECEIVE_INFO</code> and <code>UPDATE_STATE</code>) are not sent right
+ * away but batched: they are written to the socket together with the next message needing an answer, or once they
+ * are more than 8 KiB, or at the latest 5 ms after the first of them (so that the player whose turn it is not still
+ * sees the game going on). A turn is thus sent in one or two writes instead of one per message.
+ * <p>
+ * A format other than <code>TEXT</code> is only used with the clients opting in to it: such a client announces the
+ * format it wants as soon as it is connected (<code>HELLO format receivesInfo</code>, followed by the table and the
+ * identity it had there if it comes back to a game of a server, see <code>resumedTable</code>), and the proxy then
+ * tells it the format chosen in the INIT_PLAYERS message. A client which says nothing (e.g. one written before the
+ * other formats existed) is waited for at most 2 seconds, and then spoken to in the <code>TEXT</code> format, exactly
+ * as before.
  *
  * @author Mehdi Bouguerra Ezzina (314857)
  * author Noah Munz (30779)
  */
 public final class RemotePlayerProxy implements Player {
 
-    private final BufferedReader reader;
-    private final BufferedWriter writer;
+    private final static int MAX_BATCH_CHARS = 1 << 13;
+    private final static long MAX_BATCH_DELAY_MS = 5;
+    //time a proxy offering a format waits for the hello of its client before using the TEXT format
+    final static int HELLO_TIMEOUT_MS = 2_000;
+
+    /**
+     * First word of the message by which a client opts in to the negotiation of the wire format
+     */
+    final static String HELLO = "HELLO";
+
+    //thread flushing the batches that were not flushed in time by their proxies
+    private final static ScheduledThreadPoolExecutor FLUSHER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "tchu-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    static {
+        FLUSHER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final MessageChannel channel;
+    //number of chars of the messages batched, and the flush scheduled for them (guarded by the proxy)
+    private int batchedChars;
+    private ScheduledFuture<?> scheduledFlush;
+
+    private final WireFormat offeredFormat;
+    private WireFormat wireFormat = WireFormat.TEXT;
+    private boolean receivesInfo = true;
+    //hello of the client (null if it did not say it), and whether the proxy stopped waiting for it
+    private String[] hello;
+    private boolean helloRead;
+    private final DeltaSerde deltaSerde = new DeltaSerde();
 
     /**
      * Primary constructor of RemotePlayerProxy
      *
+     * @param socket        Socket used by the distant player's proxy to communicate with the server
+     * @param offeredFormat the format in which the proxy offers the client to receive the states of the game.
+     *                      Unless it is <code>TEXT</code>, it is used if the client announced it in its hello, in which
+     *                      case the INIT_PLAYERS message tells the client the format chosen.
+     */
+    public RemotePlayerProxy(Socket socket, WireFormat offeredFormat) {
+        this(new SocketMessageChannel(socket), offeredFormat);
+    }
+
+    /**
+     * Constructor of RemotePlayerProxy communicating through a connection of a <code>NioTransport</code>, so that
+     * no thread is dedicated to reading the socket of the distant player
+     *
+     * @param connection    the connection to the distant player
+     * @param offeredFormat the format in which the proxy offers the client to receive the states of the game
+     *                      (see the primary constructor)
+     */
+    public RemotePlayerProxy(NioTransport.Connection connection, WireFormat offeredFormat) {
+        this((MessageChannel) connection, offeredFormat);
+    }
+
+    /**
+     * Constructor of RemotePlayerProxy communicating through the given channel
+     *
+     * @param channel       the channel to the distant player
+     * @param offeredFormat the format in which the proxy offers the client to receive the states of the game
+     *                      (see the primary constructor)
+     */
+    RemotePlayerProxy(MessageChannel channel, WireFormat offeredFormat) {
+        this.channel = channel;
+        this.offeredFormat = offeredFormat;
+    }
+
+    /**
+     * Secondary constructor of RemotePlayerProxy, sending the states of the game in the <code>TEXT</code> format
+     * (without any negotiation, as it was before other formats existed)
+     *
      * @param socket Socket used by the distant player's proxy to communicate with the server
      */
     public RemotePlayerProxy(Socket socket) {
-        try {
-            reader = new BufferedReader(
-                    new InputStreamReader(
-                            socket.getInputStream(), US_ASCII));
-
-            writer = new BufferedWriter(
-                    new OutputStreamWriter(
-                            socket.getOutputStream(), US_ASCII));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        this(socket, WireFormat.TEXT);
     }
 
     @Override
@@ -51,110 +126,317 @@ public final class RemotePlayerProxy implements Player {
                                           .collect(Collectors.toUnmodifiableList());
         /* does this before, because call playerNames.values() does not always returns the values in the right order
         i.e. we want value for key PLAYER_I to be at the I-th position */
-        sendMessage(INIT_PLAYERS.name(),
-                    ID_SERDE.serialize(ownId),
-                    STRINGS_SERDE.serialize(values),
-                    BOOLEAN_SERDE.serialize(rematch));
+        if (offeredFormat == WireFormat.TEXT || !saidHello()) {
+            postMessage(INIT_PLAYERS.name(),
+                        ID_SERDE.serialize(ownId),
+                        STRINGS_SERDE.serialize(values),
+                        BOOLEAN_SERDE.serialize(rematch));
+        }
+        else {
+            //only a client which said hello is told the format chosen, and it does not answer
+            WireFormat announced = WIRE_FORMAT_SERDE.deserialize(hello[1]);
+            wireFormat = announced == offeredFormat ? offeredFormat : WireFormat.TEXT;
+            receivesInfo = hello.length < 3 || BOOLEAN_SERDE.deserialize(hello[2]);
+            postMessage(INIT_PLAYERS.name(),
+                        ID_SERDE.serialize(ownId),
+                        STRINGS_SERDE.serialize(values),
+                        BOOLEAN_SERDE.serialize(rematch),
+                        WIRE_FORMAT_SERDE.serialize(wireFormat));
+        }
+        //the client of a new game does not know the last states yet
+        deltaSerde.requestSnapshot();
     }
 
     @Override
     public void receiveInfo(String info) {
-        sendMessage(RECEIVE_INFO.name(), STRING_SERDE.serialize(info));
+        postMessage(RECEIVE_INFO.name(), STRING_SERDE.serialize(info));
+    }
+
+    /**
+     * Tells whether the distant player wants the infos: if it told the proxy it does not (in its hello, when the wire
+     * format was negotiated), they are neither generated nor sent
+     * @return false if the distant player does not want the infos, true otherwise
+     */
+    @Override
+    public boolean receivesInfo() {
+        return receivesInfo;
     }
 
     @Override
     public void updateState(PublicGameState newState, PlayerState ownState) {
-        sendMessage(UPDATE_STATE.name(),
-                    PUBLIC_GAME_STATE_SERDE.serialize(newState),
-                    PLAYER_STATE_SERDE.serialize(ownState));
+        if (wireFormat == WireFormat.DELTA) {
+            postMessage(UPDATE_STATE.name(), deltaSerde.serialize(newState, ownState));
+            return;
+        }
+        postMessage(UPDATE_STATE.name(),
+                    wireFormat.publicGameStateSerde().serialize(newState),
+                    wireFormat.playerStateSerde().serialize(ownState));
     }
 
     @Override
     public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
-        sendMessage(SET_INITIAL_TICKETS.name(), TICKET_SB_SERDE.serialize(tickets));
+        postMessage(SET_INITIAL_TICKETS.name(), TICKET_SB_SERDE.serialize(tickets));
     }
 
     @Override
     public SortedBag<Ticket> chooseInitialTickets() {
         sendMessage(CHOOSE_INITIAL_TICKETS.name());
-        return TICKET_SB_SERDE.deserialize(response(reader));
+        return TICKET_SB_SERDE.deserialize(response());
     }
 
     @Override
     public TurnKind nextTurn() {
         sendMessage(NEXT_TURN.name());
-        return TURNKIND_SERDE.deserialize(response(reader));
+        return TURNKIND_SERDE.deserialize(response());
     }
 
     @Override
     public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
         sendMessage(CHOOSE_TICKETS.name(), TICKET_SB_SERDE.serialize(options));
-        return TICKET_SB_SERDE.deserialize(response(reader));
+        return TICKET_SB_SERDE.deserialize(response());
     }
 
     @Override
     public int drawSlot() {
         sendMessage(DRAW_SLOT.name());
-        return INT_SERDE.deserialize(response(reader));
+        return INT_SERDE.deserialize(response());
     }
 
     @Override
     public Route claimedRoute() {
         sendMessage(ROUTE.name());
-        return ROUTE_SERDE.deserialize(response(reader));
+        return ROUTE_SERDE.deserialize(response());
     }
 
     @Override
     public SortedBag<Card> initialClaimCards() {
         sendMessage(CARDS.name());
-        return CARDS_SB_SERDE.deserialize(response(reader));
+        return CARDS_SB_SERDE.deserialize(response());
     }
 
     @Override
     public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
         sendMessage(CHOOSE_ADDITIONAL_CARDS.name(), CARD_LISTOF_SB_SERDE.serialize(options));
-        return CARDS_SB_SERDE.deserialize(response(reader));
+        return CARDS_SB_SERDE.deserialize(response());
     }
 
     @Override
     public void askForRematch() {
+        //sent right away: the game is over, and the connection may be closed before the batch would be flushed
         sendMessage(ASK_REMATCH.name());
     }
 
     @Override
     public Boolean rematchResponse() {
         sendMessage(REMATCH_ANSWER.name());
-        return BOOLEAN_SERDE.deserialize(response(reader));
+        return BOOLEAN_SERDE.deserialize(response());
+    }
+
+    /**
+     * Tells the distant player the identifier of the table it plays at, so that it can come back to it if the game
+     * is interrupted (see <code>resumedTable</code>)
+     *
+     * @param tableId the identifier of the table
+     */
+    public void joinTable(String tableId) {
+        postMessage(TABLE.name(), STRING_SERDE.serialize(tableId));
+    }
+
+    /**
+     * Gives the table the distant player was playing at (as told by <code>joinTable</code>) before it had to
+     * reconnect, as told in its hello (which is waited for at most 2 seconds, unless it was given to the proxy, see
+     * <code>helloReceived</code>)
+     *
+     * @return the identifier of the table and the identity the player had there, null if it was not playing
+     * @throws java.io.UncheckedIOException if the client disconnected or sent another message than a hello
+     */
+    public Map.Entry<String, PlayerId> resumedTable() {
+        if (!saidHello() || hello.length < 5) return null;
+        return Map.entry(STRING_SERDE.deserialize(hello[3]), ID_SERDE.deserialize(hello[4]));
     }
 
     /**
-     * Method used by the proxy to send a message
+     * Gives the proxy the first message of its client, read by the caller without blocking (see
+     * <code>NioTransport.Connection.nextLine</code>), so that the proxy does not wait for the hello anymore
+     *
+     * @param message the first message of the client, null if it sent none in time
+     * @throws java.io.UncheckedIOException if the message is not a hello
+     */
+    void helloReceived(String message) {
+        helloRead = true;
+        if (message != null) hello = parseHello(message);
+    }
+
+    /**
+     * Tells whether the client said hello, waiting for it (at most <code>HELLO_TIMEOUT_MS</code>) the first time
+     *
+     * @return true if the client opted in to the negotiation of the wire format
+     */
+    private boolean saidHello() {
+        if (helloRead) return hello != null;
+        helloRead = true;
+        channel.setTimeout(HELLO_TIMEOUT_MS);
+        try {
+            hello = parseHello(channel.receive());
+        }
+        catch (UncheckedIOException e) {
+            //a client saying nothing does not know the negotiation, it is spoken to in the TEXT format
+            if (!(e.getCause() instanceof SocketTimeoutException)) throw e;
+        }
+        finally {
+            channel.setTimeout(0);
+        }
+        return hello != null;
+    }
+
+    private static String[] parseHello(String message) {
+        String[] hello = message.split(Pattern.quote(" "));
+        if (!hello[0].equals(HELLO)) {
+            throw new UncheckedIOException(new ProtocolException("unexpected message: " + hello[0]));
+        }
+        return hello;
+    }
+
+    /**
+     * Method used by the proxy to send a message needing an answer: it is sent right away, with the messages batched
+     * before it
+     *
+     * @param args the serialize elements we want to transmit
+     */
+    private synchronized void sendMessage(String... args) {
+        channel.send(String.join(" ", args));
+        flush();
+    }
+
+    /**
+     * Method used by the proxy to send a message needing no answer: it is batched, and sent with the next message
+     * needing an answer or when the batch is full or old enough
      *
      * @param args the serialize elements we want to transmit
      */
-    private void sendMessage(String... args) {
+    private synchronized void postMessage(String... args) {
+        String message = String.join(" ", args);
+        channel.send(message);
+        batchedChars += message.length() + 1;
+        if (batchedChars >= MAX_BATCH_CHARS) flush();
+        else if (scheduledFlush == null) {
+            scheduledFlush = FLUSHER.schedule(this::flushLateBatch, MAX_BATCH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends the messages batched
+     */
+    private synchronized void flush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        batchedChars = 0;
+        channel.flush();
+    }
+
+    /**
+     * Sends the messages batched for too long (on the thread of <code>FLUSHER</code>)
+     */
+    private synchronized void flushLateBatch() {
         try {
-            writer.write(String.join(" ", args) + '\n');
-            writer.flush();
+            flush();
         }
-        catch (IOException e) {
-            throw new UncheckedIOException(e);
+        catch (UncheckedIOException e) {
+            //the client disconnected, the game will notice it with its next message
         }
     }
 
     /**
      * Method used by the proxy to receive the response of the client
      *
-     * @param reader BufferedReader assigned to <code>this</code>
      * @return the response of the client
      */
-    private String response(BufferedReader reader) {
-        try {
-            return reader.readLine().split(Pattern.quote(" "))[0];
-        }
-        catch (IOException e) {
-            throw new UncheckedIOException(e);
+    private String response() {
+        return responses()[0];
+    }
+
+    /**
+     * Method used by the proxy to receive a response of the client made of several arguments
+     *
+     * @return the arguments of the response of the client
+     */
+    private String[] responses() {
+        while (true) {
+            String[] message = channel.receive().split(Pattern.quote(" "));
+            if (!message[0].equals(HELLO)) return message;
+            //the hello is kept if it was not waited for yet, and skipped if it came too late
+            if (!helloRead) {
+                hello = message;
+                helloRead = true;
+            }
         }
     }
 
+    /**
+     * Channel reading and writing the messages on a blocking socket, the thread of the proxy waiting for the answers
+     */
+    private static final class SocketMessageChannel implements MessageChannel {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final BufferedWriter writer;
+
+        private SocketMessageChannel(Socket socket) {
+            this.socket = socket;
+            try {
+                reader = new BufferedReader(
+                        new InputStreamReader(
+                                socket.getInputStream(), US_ASCII));
+
+                writer = new BufferedWriter(
+                        new OutputStreamWriter(
+                                socket.getOutputStream(), US_ASCII));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void send(String message) {
+            try {
+                writer.write(message + '\n');
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void flush() {
+            try {
+                writer.flush();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public String receive() {
+            try {
+                String line = reader.readLine();
+                if (line == null) throw new EOFException();
+                return line;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void setTimeout(int timeoutMs) {
+            try {
+                socket.setSoTimeout(timeoutMs);
+            }
+            catch (SocketException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
\ No newline at end of file
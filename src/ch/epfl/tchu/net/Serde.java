@@ -4,7 +4,9 @@ import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -83,7 +85,11 @@ public interface Serde<E> {
      * @return the Serde corresponding to the given list
      */
     static <T> Serde<T> oneOf(List<T> values) {
-        return of(element -> String.valueOf(values.indexOf(element)),
+        //indices computed once (values.indexOf is linear in the size of the list)
+        Map<T, Integer> indices = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) indices.putIfAbsent(values.get(i), i);
+
+        return of(element -> String.valueOf(indices.get(element)),
                   message -> values.get(parseInt(message)));
     }
 
@@ -57,6 +57,11 @@ public final class Serdes {
      */
     public final static Serde<Player.TurnKind> TURNKIND_SERDE = Serde.oneOf(Player.TurnKind.ALL);
 
+    /**
+     * Represents a WireFormat serializer-deserializer
+     */
+    public final static Serde<WireFormat> WIRE_FORMAT_SERDE = Serde.oneOf(WireFormat.ALL);
+
     /**
      * Represents a Card serializer-deserializer
      */
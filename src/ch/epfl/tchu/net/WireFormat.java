@@ -0,0 +1,50 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+
+import java.util.List;
+
+/**
+ * Enumerates the formats in which the states of the game can be sent to the clients
+ *
+ * @author Noah Munz (310779)
+ */
+public enum WireFormat {
+    /**
+     * States written with the text Serdes of <code>Serdes</code>
+     */
+    TEXT,
+    /**
+     * States written with the binary Serdes of <code>BinarySerdes</code> (encoded in Base64)
+     */
+    BINARY,
+    /**
+     * States written as binary deltas to the previous ones sent to the same client (encoded in Base64),
+     * with a full binary snapshot from time to time, see <code>DeltaSerde</code>
+     */
+    DELTA;
+
+    /**
+     * Returns an immutable list containing the constants of this enum type, in the order they're declared
+     */
+    public final static List<WireFormat> ALL = List.of(values());
+
+    /**
+     * Gives the serde used to send the public states of the game in this format
+     * (unless it is <code>DELTA</code>, whose states are written by a <code>DeltaSerde</code>)
+     * @return the PublicGameState serializer-deserializer of this format
+     */
+    public Serde<PublicGameState> publicGameStateSerde() {
+        return this != TEXT ? BinarySerdes.PUBLIC_GAME_STATE_SERDE : Serdes.PUBLIC_GAME_STATE_SERDE;
+    }
+
+    /**
+     * Gives the serde used to send the states of the players in this format
+     * (unless it is <code>DELTA</code>, whose states are written by a <code>DeltaSerde</code>)
+     * @return the PlayerState serializer-deserializer of this format
+     */
+    public Serde<PlayerState> playerStateSerde() {
+        return this != TEXT ? BinarySerdes.PLAYER_STATE_SERDE : Serdes.PLAYER_STATE_SERDE;
+    }
+}
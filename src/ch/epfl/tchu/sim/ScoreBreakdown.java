@@ -0,0 +1,99 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Trail;
+
+import java.util.List;
+import java.util.Objects;
+
+import static ch.epfl.tchu.game.Constants.LONGEST_TRAIL_BONUS_POINTS;
+
+/**
+ * Immutable detail of the final score of a game: the points of the tickets and of the routes of each player, their
+ * longest trail and who gets the bonus of the longest trail (both players in case of a tie, like in <code>Game</code>)
+ *
+ * @author Noah Munz (310779)
+ */
+public final class ScoreBreakdown {
+
+    //indexed by the ordinal of the identities of the players
+    private final int[] ticketPoints, claimPoints;
+    private final List<Trail> longestTrails;
+
+    /**
+     * Constructor of ScoreBreakdown
+     * @param ticketPoints  the points of the tickets of each player, indexed by ordinal
+     * @param claimPoints   the points of the routes of each player, indexed by ordinal
+     * @param longestTrails the longest trail of each player, indexed by ordinal
+     */
+    ScoreBreakdown(int[] ticketPoints, int[] claimPoints, List<Trail> longestTrails) {
+        this.ticketPoints = ticketPoints.clone();
+        this.claimPoints = claimPoints.clone();
+        this.longestTrails = List.copyOf(longestTrails);
+    }
+
+    /**
+     * Gives the points the given player gets (or loses) with its tickets
+     * @param playerId the identity of the player
+     * @return the points of its tickets
+     */
+    public int ticketPoints(PlayerId playerId) {
+        return ticketPoints[playerId.ordinal()];
+    }
+
+    /**
+     * Gives the points the given player gets with its routes
+     * @param playerId the identity of the player
+     * @return the points of its routes
+     */
+    public int claimPoints(PlayerId playerId) {
+        return claimPoints[playerId.ordinal()];
+    }
+
+    /**
+     * Gives the longest trail of the given player
+     * @param playerId the identity of the player
+     * @return its longest trail
+     */
+    public Trail longestTrail(PlayerId playerId) {
+        return longestTrails.get(playerId.ordinal());
+    }
+
+    /**
+     * Tells whether the given player gets the bonus of the longest trail
+     * @param playerId the identity of the player
+     * @return true if and only if no trail of its opponent is longer than its longest trail
+     */
+    public boolean getsLongestTrailBonus(PlayerId playerId) {
+        return longestTrail(playerId).length() >= longestTrail(playerId.next()).length();
+    }
+
+    /**
+     * Gives the final points of the given player
+     * @param playerId the identity of the player
+     * @return the points of its tickets and routes, plus the bonus of the longest trail if it gets it
+     */
+    public int finalPoints(PlayerId playerId) {
+        return ticketPoints(playerId) + claimPoints(playerId)
+               + (getsLongestTrailBonus(playerId) ? LONGEST_TRAIL_BONUS_POINTS : 0);
+    }
+
+    /**
+     * Gives the winner of the game
+     * @return the identity of the player with the most final points, or null if it is a draw
+     */
+    public PlayerId winner() {
+        int comparison = Integer.compare(finalPoints(PlayerId.PLAYER_1), finalPoints(PlayerId.PLAYER_2));
+        return comparison == 0 ? null : comparison > 0 ? PlayerId.PLAYER_1 : PlayerId.PLAYER_2;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(Objects.toString(winner(), "draw"));
+        for (PlayerId id : PlayerId.ALL) {
+            builder.append(String.format(" %d (%d + %d%s)", finalPoints(id), ticketPoints(id), claimPoints(id),
+                                         getsLongestTrailBonus(id) ? " + " + LONGEST_TRAIL_BONUS_POINTS : ""));
+        }
+        return builder.toString();
+    }
+}
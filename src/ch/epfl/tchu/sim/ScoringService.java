@@ -0,0 +1,165 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Service computing the final scores (see <code>ScoreBreakdown</code>) of batches of finished games in parallel, e.g.
+ * to rescore the archived games of a tournament. The games of a batch are split between the threads of a
+ * work-stealing pool (<code>ForkJoinPool</code>), each thread scoring them with its own <code>TrailSolver</code> and
+ * <code>StationPartition.Builder</code>, which are reused from one game to the next instead of being allocated again.
+ * <p>
+ * The scores are the ones <code>Game</code> computes at the end of a game, from the final states of the players. The
+ * games can also be read from a journal (see <code>GameJournal</code>), whose final states are rebuilt by a
+ * <code>GameReplayer</code> before being scored.
+ *
+ * @author Noah Munz (310779)
+ */
+public final class ScoringService implements AutoCloseable {
+
+    //minimal number of games of a task, under which it is not split anymore
+    private final static int GAMES_PER_TASK = 32;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor of ScoringService
+     * @param threads the number of threads scoring the games
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public ScoringService(int threads) {
+        Preconditions.checkArgument(threads > 0);
+        this.pool = new ForkJoinPool(threads, ScoringThread::new, null, false);
+    }
+
+    /**
+     * Constructor of ScoringService using all the processors
+     */
+    public ScoringService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Scores the given finished games
+     * @param finalStates the states of the games when they ended
+     * @return the scores of the games, in the same order
+     * @throws java.util.concurrent.RejectedExecutionException if the service is closed
+     */
+    public List<ScoreBreakdown> score(List<GameState> finalStates) {
+        List<GameState> states = List.copyOf(finalStates);
+        ScoreBreakdown[] scores = new ScoreBreakdown[states.size()];
+        pool.invoke(new ScoringTask(states, scores, 0, states.size()));
+        return Arrays.asList(scores);
+    }
+
+    /**
+     * Scores the finished games recorded in the given journal, their final states being replayed (on the calling
+     * thread) before they are scored
+     * @param journal the file of the journal
+     * @param tickets the tickets the games were played with
+     * @return the scores of the games which were played until the end, in the order of the journal
+     * @throws java.io.UncheckedIOException if the journal cannot be read
+     * @throws java.util.concurrent.RejectedExecutionException if the service is closed
+     */
+    public List<ScoreBreakdown> score(Path journal, SortedBag<Ticket> tickets) {
+        List<GameState> finalStates = new ArrayList<>();
+        try (GameReplayer replayer = new GameReplayer(journal, tickets)) {
+            while (replayer.nextGame()) {
+                while (replayer.step()) ;
+                if (replayer.isGameOver()) finalStates.add(replayer.state());
+            }
+        }
+        return score(finalStates);
+    }
+
+    /**
+     * Scores a single game on the calling thread
+     * @param finalState the state of the game when it ended
+     * @return the score of the game
+     */
+    public static ScoreBreakdown score(GameState finalState) {
+        return score(finalState, new TrailSolver(), new StationPartition.Builder(ChMap.stations().size()));
+    }
+
+    /**
+     * Stops the threads of the service (once the batches being scored are done)
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static ScoreBreakdown score(GameState finalState, TrailSolver solver, StationPartition.Builder builder) {
+        int[] ticketPoints = new int[PlayerId.COUNT], claimPoints = new int[PlayerId.COUNT];
+        List<Trail> longestTrails = new ArrayList<>(PlayerId.COUNT);
+
+        for (PlayerId id : PlayerId.ALL) {
+            PlayerState playerState = finalState.playerState(id);
+            builder.clear();
+            for (Route route : playerState.routes()) builder.connect(route.station1(), route.station2());
+            StationPartition partition = builder.build();
+
+            for (Ticket ticket : playerState.tickets()) ticketPoints[id.ordinal()] += ticket.points(partition);
+            claimPoints[id.ordinal()] = playerState.claimPoints();
+            longestTrails.add(solver.longest(playerState.routes()));
+        }
+        return new ScoreBreakdown(ticketPoints, claimPoints, longestTrails);
+    }
+
+    /**
+     * Thread of the pool, owning the solver and the builder used to score the games
+     */
+    private static final class ScoringThread extends ForkJoinWorkerThread {
+        private final TrailSolver solver = new TrailSolver();
+        private final StationPartition.Builder builder = new StationPartition.Builder(ChMap.stations().size());
+
+        private ScoringThread(ForkJoinPool pool) {
+            super(pool);
+        }
+    }
+
+    /**
+     * Task scoring the games of indices <code>from</code> (included) to <code>to</code> (excluded), by splitting
+     * them in two subtasks if there are too many of them
+     */
+    private static final class ScoringTask extends RecursiveAction {
+        private final static long serialVersionUID = 1L;
+
+        private final List<GameState> states;
+        private final ScoreBreakdown[] scores;
+        private final int from, to;
+
+        private ScoringTask(List<GameState> states, ScoreBreakdown[] scores, int from, int to) {
+            this.states = states;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GAMES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ScoringTask(states, scores, from, middle), new ScoringTask(states, scores, middle, to));
+                return;
+            }
+
+            //the thread calling invoke may run a task itself, it then has no solver of its own
+            Thread thread = Thread.currentThread();
+            TrailSolver solver = thread instanceof ScoringThread ? ((ScoringThread) thread).solver : new TrailSolver();
+            StationPartition.Builder builder = thread instanceof ScoringThread
+                                               ? ((ScoringThread) thread).builder
+                                               : new StationPartition.Builder(ChMap.stations().size());
+            for (int i = from; i < to; i++) scores[i] = score(states.get(i), solver, builder);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.GameResult;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Route;
+
+import java.util.*;
+
+/**
+ * Aggregated results of the games of a simulation: win rates, distributions of the points and of the lengths of the
+ * games, and number of times each route was claimed. Instances are not thread-safe: each worker fills its own, which
+ * are then combined (in any order, the result being the same).
+ *
+ * @author Noah Munz (310779)
+ */
+public final class SimulationStats {
+
+    private final static List<Route> ROUTES = ChMap.routes();
+    private final static Map<Route, Integer> ROUTE_INDICES = new IdentityHashMap<>();
+    static {
+        for (int i = 0; i < ROUTES.size(); i++) ROUTE_INDICES.put(ROUTES.get(i), i);
+    }
+
+    private long games, failures, draws;
+    private final long[] wins = new long[PlayerId.COUNT];
+    private final List<SortedMap<Integer, Long>> points = List.of(new TreeMap<>(), new TreeMap<>());
+    private final SortedMap<Integer, Long> turns = new TreeMap<>();
+    private final long[] routeClaims = new long[ROUTES.size()];
+
+    /**
+     * Adds the result of a game to the statistics
+     * @param result the result of a game
+     */
+    public void add(GameResult result) {
+        ++games;
+        PlayerId winner = result.winner();
+        if (winner == null) ++draws;
+        else ++wins[winner.ordinal()];
+
+        for (PlayerId id : PlayerId.ALL) {
+            points.get(id.ordinal()).merge(result.finalPoints(id), 1L, Long::sum);
+            for (Route route : result.routes(id)) ++routeClaims[ROUTE_INDICES.get(route)];
+        }
+        turns.merge(result.turnCount(), 1L, Long::sum);
+    }
+
+    /**
+     * Counts a game that could not be played until its end (e.g. because a player failed)
+     */
+    public void addFailure() {
+        ++failures;
+    }
+
+    /**
+     * Adds the statistics of <code>that</code> to these ones
+     * @param that the statistics to add (not modified)
+     * @return <code>this</code>
+     */
+    public SimulationStats combine(SimulationStats that) {
+        games += that.games;
+        failures += that.failures;
+        draws += that.draws;
+        for (int i = 0; i < wins.length; i++) wins[i] += that.wins[i];
+        for (int i = 0; i < points.size(); i++) {
+            SortedMap<Integer, Long> playerPoints = points.get(i);
+            that.points.get(i).forEach((p, n) -> playerPoints.merge(p, n, Long::sum));
+        }
+        that.turns.forEach((t, n) -> turns.merge(t, n, Long::sum));
+        for (int i = 0; i < routeClaims.length; i++) routeClaims[i] += that.routeClaims[i];
+        return this;
+    }
+
+    /**
+     * Gives the number of games played until their end
+     * @return the number of games of these statistics
+     */
+    public long games() {
+        return games;
+    }
+
+    /**
+     * Gives the number of games which could not be played until their end
+     * @return the number of failed games
+     */
+    public long failures() {
+        return failures;
+    }
+
+    /**
+     * Gives the proportion of the games won by the given player
+     * @param playerId the identity of the player
+     * @return its win rate (between 0 and 1), 0 if no game was played
+     */
+    public double winRate(PlayerId playerId) {
+        return ratio(wins[playerId.ordinal()], games);
+    }
+
+    /**
+     * Gives the proportion of draws
+     * @return the draw rate (between 0 and 1), 0 if no game was played
+     */
+    public double drawRate() {
+        return ratio(draws, games);
+    }
+
+    /**
+     * Gives the mean of the final points of the given player
+     * @param playerId the identity of the player
+     * @return its mean final points, 0 if no game was played
+     */
+    public double meanPoints(PlayerId playerId) {
+        return mean(points.get(playerId.ordinal()));
+    }
+
+    /**
+     * Gives the mean number of turns of the games
+     * @return the mean length of the games, 0 if no game was played
+     */
+    public double meanTurns() {
+        return mean(turns);
+    }
+
+    /**
+     * Gives the proportion of the games in which the given route was claimed (by any of the players)
+     * @param route a route of <code>ChMap</code>
+     * @return its claim frequency (between 0 and 1), 0 if no game was played
+     */
+    public double claimFrequency(Route route) {
+        return ratio(routeClaims[ROUTE_INDICES.get(route)], games);
+    }
+
+    /**
+     * Gives these statistics in JSON: numbers of games, win rates, distributions of the points and of the numbers of
+     * turns (as objects mapping each value to its number of occurrences) and claim frequency of each route (by id)
+     * @return a JSON object containing these statistics
+     */
+    public String toJson() {
+        StringJoiner winRates = new StringJoiner(", ", "{", "}"), meanPoints = new StringJoiner(", ", "{", "}");
+        StringJoiner pointsDistributions = new StringJoiner(", ", "{", "}");
+        for (PlayerId id : PlayerId.ALL) {
+            winRates.add(String.format(Locale.ROOT, "\"%s\": %.4f", id, winRate(id)));
+            meanPoints.add(String.format(Locale.ROOT, "\"%s\": %.2f", id, meanPoints(id)));
+            pointsDistributions.add(String.format("\"%s\": %s", id, toJson(points.get(id.ordinal()))));
+        }
+        StringJoiner claims = new StringJoiner(", ", "{", "}");
+        for (Route route : ROUTES) claims.add(String.format(Locale.ROOT, "\"%s\": %.4f", route.id(), claimFrequency(route)));
+
+        return String.format(Locale.ROOT, "{\"games\": %d, \"failures\": %d, \"winRates\": %s, \"drawRate\": %.4f, " +
+                                          "\"meanPoints\": %s, \"points\": %s, \"meanTurns\": %.2f, \"turns\": %s, " +
+                                          "\"routeClaimFrequencies\": %s}",
+                             games, failures, winRates, drawRate(), meanPoints, pointsDistributions, meanTurns(),
+                             toJson(turns), claims);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d games (%d failed): %s wins %.1f%% (%.1f points), %s wins %.1f%% " +
+                                          "(%.1f points), draws %.1f%%, %.1f turns per game",
+                             games, failures, PlayerId.PLAYER_1, 100 * winRate(PlayerId.PLAYER_1),
+                             meanPoints(PlayerId.PLAYER_1), PlayerId.PLAYER_2, 100 * winRate(PlayerId.PLAYER_2),
+                             meanPoints(PlayerId.PLAYER_2), 100 * drawRate(), meanTurns());
+    }
+
+    private static String toJson(SortedMap<Integer, Long> distribution) {
+        StringJoiner json = new StringJoiner(", ", "{", "}");
+        distribution.forEach((value, count) -> json.add(String.format("\"%d\": %d", value, count)));
+        return json.toString();
+    }
+
+    private static double mean(SortedMap<Integer, Long> distribution) {
+        long sum = 0, count = 0;
+        for (Map.Entry<Integer, Long> entry : distribution.entrySet()) {
+            sum += (long) entry.getKey() * entry.getValue();
+            count += entry.getValue();
+        }
+        return ratio(sum, count);
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator == 0 ? 0 : (double) numerator / denominator;
+    }
+}
@@ -0,0 +1,202 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * Headless simulator: plays games between two strategies (without any GUI nor network), in parallel on a fork/join
+ * pool, and aggregates their results. Each game only depends on the seed of the simulation and on its index (which
+ * give the seeds of its random generator and of its players), hence a simulation is reproducible whatever the number
+ * of threads.
+ * <p>
+ * Usage: <code>Simulator [games [strategy1 [strategy2 [seed [threads [csvFile [jsonFile]]]]]]]</code>, the strategies
+ * being named as in <code>Strategy</code> (case insensitive). The result of each game is written to the CSV file as
+ * soon as it is over (in no particular order), the aggregated statistics to the JSON file at the end ("-" to skip
+ * either of them).
+ *
+ * @author Noah Munz (310779)
+ */
+public final class Simulator {
+
+    private final static int DEFAULT_GAMES = 10_000;
+    private final static long DEFAULT_SEED = 2021;
+    private final static String NO_FILE = "-";
+    //number of games below which a task plays its games instead of splitting them
+    private final static int GAMES_PER_TASK = 16;
+    private final static SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    private final LongFunction<Player> strategy1, strategy2;
+    private final Map<PlayerId, String> playerNames;
+
+    /**
+     * Game listener, called (from the threads of the pool) each time a game of a simulation is over
+     */
+    @FunctionalInterface
+    public interface GameListener {
+        /**
+         * Called when a game is over
+         * @param game   the index of the game in the simulation
+         * @param result its result
+         */
+        void gameOver(long game, GameResult result);
+    }
+
+    /**
+     * Constructor of Simulator
+     * @param strategy1 factory of the players playing as PLAYER_1, given their seed
+     * @param name1     name of the first strategy
+     * @param strategy2 factory of the players playing as PLAYER_2, given their seed
+     * @param name2     name of the second strategy
+     */
+    public Simulator(LongFunction<Player> strategy1, String name1, LongFunction<Player> strategy2, String name2) {
+        this.strategy1 = Objects.requireNonNull(strategy1);
+        this.strategy2 = Objects.requireNonNull(strategy2);
+        this.playerNames = Map.of(PLAYER_1, name1, PLAYER_2, name2);
+    }
+
+    /**
+     * Plays the given number of games on a pool of the given number of threads
+     * @param games    the number of games to play
+     * @param seed     the seed of the simulation
+     * @param threads  the number of threads playing the games
+     * @param listener listener called after each game (it must be thread-safe), may be null
+     * @return the statistics of the games
+     * @throws IllegalArgumentException if the number of games is negative or the number of threads is not positive
+     */
+    public SimulationStats run(long games, long seed, int threads, GameListener listener) {
+        Preconditions.checkArgument(games >= 0 && threads > 0);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new GamesTask(0, games, seed, listener));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays the game of the given index
+     * @param game the index of the game in the simulation
+     * @param seed the seed of the simulation
+     * @return the result of the game
+     */
+    public GameResult play(long game, long seed) {
+        SplittableRandom seeds = new SplittableRandom(seed + game * 0x9E3779B97F4A7C15L);
+        Random rng = new Random(seeds.nextLong());
+        Map<PlayerId, Player> players = Map.of(PLAYER_1, strategy1.apply(seeds.nextLong()),
+                                               PLAYER_2, strategy2.apply(seeds.nextLong()));
+
+        Game tchu = new Game(players, playerNames, TICKETS, rng);
+        tchu.run();
+        return tchu.result();
+    }
+
+    /**
+     * Task playing the games of indices <code>from</code> (included) to <code>to</code> (excluded), by splitting
+     * them in two subtasks if there are too many of them
+     */
+    private final class GamesTask extends RecursiveTask<SimulationStats> {
+        private final static long serialVersionUID = 1L;
+
+        private final long from, to, seed;
+        private final GameListener listener;
+
+        private GamesTask(long from, long to, long seed, GameListener listener) {
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+            this.listener = listener;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from > GAMES_PER_TASK) {
+                long middle = (from + to) >>> 1;
+                GamesTask second = new GamesTask(middle, to, seed, listener);
+                second.fork();
+                return new GamesTask(from, middle, seed, listener).compute().combine(second.join());
+            }
+
+            SimulationStats stats = new SimulationStats();
+            for (long game = from; game < to; game++) {
+                GameResult result;
+                try {
+                    result = play(game, seed);
+                } catch (RuntimeException e) {
+                    //a failing player must not stop the whole simulation
+                    stats.addFailure();
+                    continue;
+                }
+                stats.add(result);
+                if (listener != null) listener.gameOver(game, result);
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Runs a simulation, see the class documentation for the arguments
+     * @param args optionally the number of games, the two strategies, the seed, the number of threads and the
+     *             names of the CSV and JSON files
+     */
+    public static void main(String[] args) throws IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_GAMES;
+        Strategy strategy1 = args.length > 1 ? Strategy.valueOf(args[1].toUpperCase()) : Strategy.RANDOM;
+        Strategy strategy2 = args.length > 2 ? Strategy.valueOf(args[2].toUpperCase()) : Strategy.RANDOM;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        String csvFile = args.length > 5 ? args[5] : NO_FILE;
+        String jsonFile = args.length > 6 ? args[6] : NO_FILE;
+
+        Simulator simulator = new Simulator(strategy1.factory(), strategy1.name(), strategy2.factory(), strategy2.name());
+        SimulationStats stats;
+        long start = System.nanoTime();
+        if (csvFile.equals(NO_FILE)) stats = simulator.run(games, seed, threads, null);
+        else {
+            try (PrintWriter csv = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(csvFile), StandardCharsets.UTF_8)))) {
+                csv.println("game,winner,points1,points2,turns,routes1,routes2");
+                stats = simulator.run(games, seed, threads, (game, result) -> {
+                    String line = csvLine(game, result);
+                    synchronized (csv) {
+                        csv.println(line);
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (!jsonFile.equals(NO_FILE)) {
+            try (Writer json = new OutputStreamWriter(new FileOutputStream(jsonFile), StandardCharsets.UTF_8)) {
+                json.write(stats.toJson());
+            }
+        }
+        System.out.println(stats);
+        System.out.printf("%.2f s (%.0f games/s)%n", seconds, stats.games() / seconds);
+    }
+
+    private static String csvLine(long game, GameResult result) {
+        return String.join(",", Long.toString(game), Objects.toString(result.winner(), "DRAW"),
+                           Integer.toString(result.finalPoints(PLAYER_1)), Integer.toString(result.finalPoints(PLAYER_2)),
+                           Integer.toString(result.turnCount()), routeIds(result, PLAYER_1), routeIds(result, PLAYER_2));
+    }
+
+    private static String routeIds(GameResult result, PlayerId playerId) {
+        return result.routes(playerId).stream().map(Route::id).collect(Collectors.joining(" "));
+    }
+}
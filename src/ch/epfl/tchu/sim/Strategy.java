@@ -0,0 +1,38 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.MctsPlayer;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.RandomPlayer;
+
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * The strategies (bots) that can be chosen by name on the command line of the simulator
+ *
+ * @author Noah Munz (310779)
+ */
+public enum Strategy {
+    RANDOM(RandomPlayer::new),
+    //iteration budget on one thread (instead of a time budget) to keep the simulations reproducible
+    MCTS(seed -> new MctsPlayer(seed, 0, 200, 1));
+
+    /**
+     * Returns an immutable list containing the constants of this enum type, in the order they're declared
+     */
+    public final static List<Strategy> ALL = List.of(values());
+
+    private final LongFunction<Player> factory;
+
+    Strategy(LongFunction<Player> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Gives the factory of the players of this strategy
+     * @return a function giving a new player of this strategy, whose choices only depend on the given seed
+     */
+    public LongFunction<Player> factory() {
+        return factory;
+    }
+}
@@ -0,0 +1,82 @@
+package ch.epfl.tchu;
+
+import ch.epfl.tchu.game.Card;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedBagSubsetsTest {
+    private static final int TRIALS = 300;
+    private static final int MAX_BAG_SIZE = 6;
+
+    @Test
+    void subsetsAreTheSameAsRecursivelyComputedOnes() {
+        Random rng = new Random(2021);
+        for (int i = 0; i < TRIALS; i++) {
+            SortedBag<Card> bag = randomBag(rng);
+            for (int size = 0; size <= bag.size(); size++) {
+                assertEquals(recursiveSubsetsOfSize(bag, size), bag.subsetsOfSize(size));
+            }
+        }
+    }
+
+    @Test
+    void subsetsAreEnumeratedOnceInLexicographicOrder() {
+        Random rng = new Random(2022);
+        for (int i = 0; i < TRIALS; i++) {
+            SortedBag<Card> bag = randomBag(rng);
+            int size = rng.nextInt(bag.size() + 1);
+
+            List<int[]> counts = new ArrayList<>();
+            Set<SortedBag<Card>> distinct = new HashSet<>();
+            for (Iterator<SortedBag<Card>> it = bag.subsetsOfSizeIterator(size); it.hasNext(); ) {
+                SortedBag<Card> subset = it.next();
+                assertEquals(size, subset.size());
+                assertTrue(bag.contains(subset));
+                assertTrue(distinct.add(subset));
+                counts.add(Card.ALL.stream().mapToInt(subset::countOf).toArray());
+            }
+            for (int j = 1; j < counts.size(); j++) assertTrue(Arrays.compare(counts.get(j - 1), counts.get(j)) < 0);
+        }
+    }
+
+    @Test
+    void subsetsOfEmptyBagAndOfSizeZeroContainTheEmptyBag() {
+        assertEquals(Set.of(SortedBag.of()), SortedBag.<Card>of().subsetsOfSize(0));
+        assertEquals(Set.of(SortedBag.of()), SortedBag.of(3, Card.RED).subsetsOfSize(0));
+        assertThrows(IllegalArgumentException.class, () -> SortedBag.of(3, Card.RED).subsetsOfSizeIterator(4));
+        assertThrows(NoSuchElementException.class, () -> {
+            Iterator<SortedBag<Card>> it = SortedBag.of(3, Card.RED).subsetsOfSizeIterator(3);
+            it.next();
+            it.next();
+        });
+    }
+
+    /**
+     * The previous implementation of subsetsOfSize
+     */
+    private static <E extends Comparable<E>> Set<SortedBag<E>> recursiveSubsetsOfSize(SortedBag<E> bag, int size) {
+        if (size == 0) return Set.of(SortedBag.of());
+
+        Set<SortedBag<E>> result = new HashSet<>();
+        for (E e1 : bag.toSet()) {
+            SortedBag<E> s1 = SortedBag.of(e1);
+            recursiveSubsetsOfSize(bag.difference(s1), size - 1).forEach(e -> result.add(s1.union(e)));
+        }
+        return result;
+    }
+
+    /**
+     * Gives a bag of at most MAX_BAG_SIZE cards (the recursive implementation is too slow on larger ones)
+     */
+    private static SortedBag<Card> randomBag(Random rng) {
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        for (Card card : Card.ALL) {
+            int count = rng.nextInt(4);
+            if (rng.nextInt(3) == 0 && builder.size() + count <= MAX_BAG_SIZE) builder.add(count, card);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,86 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimIndexTest {
+    private static final int TRIALS = 2_000;
+
+    @Test
+    void claimableRoutesAreTheOnesWithAPossibleClaimCombination() {
+        Random rng = new Random(2021);
+        for (int i = 0; i < TRIALS; i++) {
+            PlayerState state = randomState(rng);
+            List<Route> expected = ChMap.routes().stream()
+                                        .filter(route -> route.length() <= state.carCount())
+                                        .filter(route -> route.possibleClaimCards().stream()
+                                                              .anyMatch(state.cards()::contains))
+                                        .collect(Collectors.toList());
+
+            assertEquals(expected, ChMap.claimIndex().claimableRoutes(state));
+            for (Route route : ChMap.routes()) {
+                assertEquals(expected.contains(route), state.canClaimRoute(route));
+            }
+        }
+    }
+
+    @Test
+    void maskOfTheClaimableRoutesIsTheirList() {
+        Random rng = new Random(2022);
+        ClaimIndex index = ChMap.claimIndex();
+        long[] mask = new long[index.maskLength()];
+        Arrays.fill(mask, -1);
+        for (int i = 0; i < TRIALS; i++) {
+            PlayerState state = randomState(rng);
+            index.claimableRoutes(state, mask);
+            List<Route> claimable = index.claimableRoutes(state);
+            for (int r = 0; r < ChMap.routes().size(); r++) {
+                assertEquals(claimable.contains(ChMap.routes().get(r)), (mask[r / Long.SIZE] & 1L << r) != 0);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> index.claimableRoutes(randomState(rng), new long[0]));
+    }
+
+    @Test
+    void claimableRoutesOfAnEmptyHandAreEmpty() {
+        PlayerState state = new PlayerState(SortedBag.of(), SortedBag.of(), List.of());
+        assertTrue(ChMap.claimIndex().claimableRoutes(state).isEmpty());
+    }
+
+    @Test
+    void possibleClaimCardsAreCachedAndPacked() {
+        for (Route route : ChMap.routes()) {
+            assertSame(route.possibleClaimCards(), route.possibleClaimCards());
+            assertEquals(route.possibleClaimCards().size(), route.packedClaimCards().length);
+            for (int i = 0; i < route.packedClaimCards().length; i++) {
+                assertEquals(route.possibleClaimCards().get(i), PackedCards.unpack(route.packedClaimCards()[i]));
+            }
+        }
+    }
+
+    private static PlayerState randomState(Random rng) {
+        SortedBag.Builder<Card> cards = new SortedBag.Builder<>();
+        int size = rng.nextInt(15);
+        for (int i = 0; i < size; i++) cards.add(Card.ALL.get(rng.nextInt(Card.COUNT)));
+
+        List<Route> routes = new ArrayList<>(ChMap.routes());
+        Collections.shuffle(routes, rng);
+        List<Route> claimed = new ArrayList<>();
+        int cars = Constants.INITIAL_CAR_COUNT - rng.nextInt(Constants.INITIAL_CAR_COUNT + 1);
+        for (Route route : routes) {
+            if (route.length() > cars) continue;
+            claimed.add(route);
+            cars -= route.length();
+        }
+        return new PlayerState(SortedBag.of(), cards.build(), claimed);
+    }
+}
@@ -0,0 +1,147 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plays many games at once on a single thread pool and checks that each of them unfolds exactly as it does
+ * when it is played alone with the same seeds.
+ */
+class GameConcurrencyTest {
+    private static final int GAMES_COUNT = 1_000;
+
+    @Test
+    void concurrentGamesHaveSameResultsAsSingleThreadedOnes() throws Exception {
+        List<List<String>> expected = new ArrayList<>();
+        for (int i = 0; i < GAMES_COUNT; i++) expected.add(playGame(i));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < GAMES_COUNT; i++) {
+                final long seed = i;
+                results.add(executor.submit(() -> playGame(seed)));
+            }
+
+            for (int i = 0; i < GAMES_COUNT; i++) assertEquals(expected.get(i), results.get(i).get());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void gameConstructorFailsWithWrongNumberOfPlayers() {
+        Map<PlayerId, Player> players = Map.of(PlayerId.PLAYER_1, new RandomPlayer(1));
+        Map<PlayerId, String> names = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+        assertThrows(IllegalArgumentException.class,
+                     () -> new Game(players, names, SortedBag.of(ChMap.tickets()), new Random(0)));
+    }
+
+    /**
+     * Plays a whole game whose random generators are all derived from the given seed
+     * @param seed seed of the game
+     * @return every information sent to the first player, followed by the final state of both players
+     */
+    private static List<String> playGame(long seed) {
+        Random rng = new Random(seed);
+        RecordingPlayer player1 = new RecordingPlayer(rng.nextLong());
+        RecordingPlayer player2 = new RecordingPlayer(rng.nextLong());
+
+        new Game(Map.of(PlayerId.PLAYER_1, player1, PlayerId.PLAYER_2, player2),
+                 Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"),
+                 SortedBag.of(ChMap.tickets()), rng).run();
+
+        List<String> transcript = new ArrayList<>(player1.infos);
+        for (RecordingPlayer player : List.of(player1, player2)) {
+            transcript.add(player.ownState.cards().toString());
+            transcript.add(player.ownState.tickets().toString());
+            transcript.add(player.ownState.routes().stream().map(Route::id).collect(Collectors.joining(",")));
+        }
+        return transcript;
+    }
+
+    /**
+     * Plays like the <code>RandomPlayer</code> it wraps, recording the infos it receives and its last state
+     */
+    private static final class RecordingPlayer implements Player {
+        private final Player player;
+        private final List<String> infos = new ArrayList<>();
+        private PlayerState ownState;
+
+        RecordingPlayer(long seed) {
+            player = new RandomPlayer(seed);
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames, Boolean rematch) {
+            player.initPlayers(ownId, playerNames, rematch);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            infos.add(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            this.ownState = ownState;
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+
+        @Override
+        public void askForRematch() {
+        }
+
+        @Override
+        public Boolean rematchResponse() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.gui.Info;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEventTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    @Test
+    void eventTextsAreTheOnesOfInfo() {
+        GameEvent.Factory events = new GameEvent.Factory(PlayerId.PLAYER_2, NAMES);
+        Info info = new Info("Charles");
+        Route route = ChMap.routes().get(0);
+        SortedBag<Card> cards = SortedBag.of(2, Card.RED, 1, Card.LOCOMOTIVE);
+        Trail trail = Trail.longest(List.of(route));
+
+        assertEquals(info.willPlayFirst(), events.willPlayFirst().text());
+        assertEquals(info.keptTickets(3), events.keptTickets(3).text());
+        assertEquals(info.canPlay(), events.canPlay().text());
+        assertEquals(info.drewTickets(2), events.drewTickets(2).text());
+        assertEquals(info.drewBlindCard(), events.drewBlindCard().text());
+        assertEquals(info.drewVisibleCard(Card.BLUE), events.drewVisibleCard(Card.BLUE).text());
+        assertEquals(info.claimedRoute(route, cards), events.claimedRoute(route, cards).text());
+        assertEquals(info.attemptsTunnelClaim(route, cards), events.attemptsTunnelClaim(route, cards).text());
+        assertEquals(info.drewAdditionalCards(cards, 2), events.drewAdditionalCards(cards, 2).text());
+        assertEquals(info.didNotClaimRoute(route), events.didNotClaimRoute(route).text());
+        assertEquals(info.lastTurnBegins(1), events.lastTurnBegins(1).text());
+        assertEquals(info.getsLongestTrailBonus(trail), events.getsLongestTrailBonus(trail).text());
+        assertEquals(info.won(40, 12), events.won(40, 12).text());
+        assertEquals(Info.draw(List.of("Ada", "Charles"), 20), GameEvent.draw(NAMES, 20).text());
+    }
+
+    @Test
+    void eventsCarryTheirData() {
+        GameEvent.Factory events = new GameEvent.Factory(PlayerId.PLAYER_1, NAMES);
+        Route route = ChMap.routes().get(3);
+        SortedBag<Card> cards = SortedBag.of(Card.GREEN);
+
+        GameEvent claimed = events.claimedRoute(route, cards);
+        assertEquals(GameEvent.Kind.CLAIMED_ROUTE, claimed.kind());
+        assertEquals(PlayerId.PLAYER_1, claimed.playerId());
+        assertSame(route, claimed.route());
+        assertEquals(cards, claimed.cards());
+
+        GameEvent won = events.won(50, 30);
+        assertEquals(50, won.count());
+        assertEquals(30, won.loserPoints());
+        assertNull(GameEvent.draw(NAMES, 10).playerId());
+    }
+
+    @Test
+    void playersNotWantingTextOnlyReceiveEvents() {
+        EventPlayer events = new EventPlayer(1), texts = new EventPlayer(2) {
+            @Override
+            public void receiveEvent(GameEvent event) {
+                receiveInfo(event.text());
+            }
+        };
+        Game.play(Map.of(PlayerId.PLAYER_1, events, PlayerId.PLAYER_2, texts), NAMES,
+                  SortedBag.of(ChMap.tickets()), new Random(2021));
+
+        assertTrue(events.texts.isEmpty());
+        assertFalse(events.events.isEmpty());
+        assertEquals(events.events.size(), texts.texts.size());
+        assertEquals(GameEvent.Kind.WILL_PLAY_FIRST, events.events.get(0).kind());
+        for (int i = 0; i < events.events.size(); i++) assertEquals(events.events.get(i).text(), texts.texts.get(i));
+    }
+
+    private static class EventPlayer implements Player {
+        private final Player player;
+        final List<GameEvent> events = new ArrayList<>();
+        final List<String> texts = new ArrayList<>();
+
+        EventPlayer(long seed) {
+            player = new RandomPlayer(seed);
+        }
+
+        @Override
+        public boolean receivesInfo() {
+            return false;
+        }
+
+        @Override
+        public void receiveEvent(GameEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            texts.add(info);
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames, Boolean rematch) {
+            player.initPlayers(ownId, playerNames, rematch);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+
+        @Override
+        public void askForRematch() {
+        }
+
+        @Override
+        public Boolean rematchResponse() {
+            return false;
+        }
+    }
+}
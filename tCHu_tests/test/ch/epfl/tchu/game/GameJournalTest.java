@@ -0,0 +1,195 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalTest {
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    private static String describe(PublicGameState state, PlayerState ownState) {
+        PublicCardState cardState = state.cardState();
+        return String.join("|", cardState.faceUpCards().toString(), String.valueOf(cardState.deckSize()),
+                           String.valueOf(cardState.discardsSize()), String.valueOf(state.ticketsCount()),
+                           String.valueOf(state.currentPlayerId()), ownState.cards().toString(),
+                           ownState.tickets().toString(), ownState.routes().toString(),
+                           state.playerState(PLAYER_2).routes().toString());
+    }
+
+    /**
+     * Plays a game, PLAYER_1 recording the states it sees at the beginning of each of its turns
+     */
+    private static GameResult play(long seed, GameJournal journal, List<String> seenStates) {
+        RandomPlayer player = new RandomPlayer(seed);
+        Player recordingPlayer = new Player() {
+            private PublicGameState state;
+            private PlayerState ownState;
+
+            @Override
+            public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames, Boolean rematch) {
+                player.initPlayers(ownId, playerNames, rematch);
+            }
+
+            @Override
+            public void receiveInfo(String info) {}
+
+            @Override
+            public boolean receivesInfo() {return false;}
+
+            @Override
+            public void updateState(PublicGameState newState, PlayerState ownState) {
+                this.state = newState;
+                this.ownState = ownState;
+                player.updateState(newState, ownState);
+            }
+
+            @Override
+            public void setInitialTicketChoice(SortedBag<Ticket> tickets) {player.setInitialTicketChoice(tickets);}
+
+            @Override
+            public SortedBag<Ticket> chooseInitialTickets() {return player.chooseInitialTickets();}
+
+            @Override
+            public TurnKind nextTurn() {
+                seenStates.add(describe(state, ownState));
+                return player.nextTurn();
+            }
+
+            @Override
+            public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {return player.chooseTickets(options);}
+
+            @Override
+            public int drawSlot() {return player.drawSlot();}
+
+            @Override
+            public Route claimedRoute() {return player.claimedRoute();}
+
+            @Override
+            public SortedBag<Card> initialClaimCards() {return player.initialClaimCards();}
+
+            @Override
+            public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+                return player.chooseAdditionalCards(options);
+            }
+
+            @Override
+            public void askForRematch() {}
+
+            @Override
+            public Boolean rematchResponse() {return false;}
+        };
+
+        Game game = new Game(Map.of(PLAYER_1, recordingPlayer, PLAYER_2, new RandomPlayer(seed + 1)), NAMES, TICKETS,
+                             new Random(seed), journal);
+        game.run();
+        return game.result();
+    }
+
+    @Test
+    void replayRebuildsTheStatesOfTheGames() throws IOException {
+        Path file = Files.createTempFile("tchu", ".journal");
+        try {
+            List<List<String>> seenStates = new ArrayList<>();
+            List<GameResult> results = new ArrayList<>();
+            try (GameJournal journal = new GameJournal(file, 8)) {
+                for (long seed = 0; seed < 5; seed++) {
+                    seenStates.add(new ArrayList<>());
+                    results.add(play(seed, journal, seenStates.get((int) seed)));
+                }
+            }
+
+            try (GameReplayer replayer = new GameReplayer(file, TICKETS)) {
+                for (int game = 0; game < results.size(); game++) {
+                    assertTrue(replayer.nextGame());
+                    assertTrue(replayer.step());
+                    assertTrue(replayer.step());
+
+                    List<String> replayedStates = new ArrayList<>();
+                    do {
+                        GameState state = replayer.state();
+                        if (state.currentPlayerId() == PLAYER_1) replayedStates.add(describe(state, state.playerState(PLAYER_1)));
+                    } while (replayer.nextTurn());
+
+                    assertTrue(replayer.isGameOver());
+                    assertEquals(results.get(game).turnCount(), replayer.turnCount());
+                    assertEquals(seenStates.get(game), replayedStates.subList(0, seenStates.get(game).size()));
+                    for (PlayerId id : PlayerId.ALL) {
+                        assertEquals(results.get(game).routes(id), replayer.state().playerState(id).routes());
+                    }
+                }
+                assertFalse(replayer.nextGame());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void truncatedJournalIsReadUpToItsLastCompleteRecord() throws IOException {
+        Path file = Files.createTempFile("tchu", ".journal");
+        try {
+            try (GameJournal journal = new GameJournal(file)) {
+                play(2021, journal, new ArrayList<>());
+            }
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 12));
+
+            try (GameReplayer replayer = new GameReplayer(file, TICKETS)) {
+                assertTrue(replayer.nextGame());
+                while (replayer.step()) ;
+                assertFalse(replayer.isGameOver());
+                assertTrue(replayer.turnCount() > 0);
+                assertFalse(replayer.nextGame());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void journalLongerThanTheWindowOfTheReplayerIsReplayedUntilTheEnd() throws IOException {
+        Path file = Files.createTempFile("tchu", ".journal");
+        try {
+            List<GameResult> results = new ArrayList<>();
+            try (GameJournal journal = new GameJournal(file)) {
+                while (Files.size(file) < 3 * (1 << 16)) results.add(play(results.size(), journal, new ArrayList<>()));
+            }
+
+            try (GameReplayer replayer = new GameReplayer(file, TICKETS)) {
+                for (GameResult result : results) {
+                    assertTrue(replayer.nextGame());
+                    while (replayer.step()) ;
+                    assertTrue(replayer.isGameOver());
+                    assertEquals(result.turnCount(), replayer.turnCount());
+                    for (PlayerId id : PlayerId.ALL) {
+                        assertEquals(result.routes(id), replayer.state().playerState(id).routes());
+                    }
+                }
+                assertFalse(replayer.nextGame());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void ticketsMasksGiveBackTheTicketsKept() {
+        SortedBag<Ticket> options = SortedBag.of(ChMap.tickets().subList(0, 5));
+        SortedBag<Ticket> kept = SortedBag.of(List.of(options.get(1), options.get(4)));
+        assertEquals(kept, GameJournal.keptTickets(options, GameJournal.ticketsMask(options, kept)));
+        assertEquals(SortedBag.of(), GameJournal.keptTickets(options, GameJournal.ticketsMask(options, SortedBag.of())));
+    }
+}
@@ -0,0 +1,222 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSnapshotTest {
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    /**
+     * Player whose choices only depend on the state it last received (so that a new instance makes the same choices
+     * once a game is resumed), throwing an exception at its given turn to simulate a crash
+     */
+    private static final class StatelessPlayer implements Player {
+        private final int crashTurn;
+        private int turns;
+        private RandomPlayer player = new RandomPlayer(0);
+        private SortedBag<Ticket> initialTickets;
+
+        private StatelessPlayer(int crashTurn) {
+            this.crashTurn = crashTurn;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames, Boolean rematch) {}
+
+        @Override
+        public void receiveInfo(String info) {}
+
+        @Override
+        public boolean receivesInfo() {return false;}
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            PublicCardState cardState = newState.cardState();
+            player = new RandomPlayer(List.of(cardState.faceUpCards(), cardState.deckSize(), newState.ticketsCount(),
+                                              newState.claimedRoutes(), ownState.cards(), ownState.tickets())
+                                             .hashCode());
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {initialTickets = tickets;}
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            player.setInitialTicketChoice(initialTickets);
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            if (++turns == crashTurn) throw new IllegalStateException("crash");
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {return player.chooseTickets(options);}
+
+        @Override
+        public int drawSlot() {return player.drawSlot();}
+
+        @Override
+        public Route claimedRoute() {return player.claimedRoute();}
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {return player.initialClaimCards();}
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+
+        @Override
+        public void askForRematch() {}
+
+        @Override
+        public Boolean rematchResponse() {return false;}
+    }
+
+    private static Map<PlayerId, Player> players(int crashTurn) {
+        return Map.of(PLAYER_1, new StatelessPlayer(crashTurn), PLAYER_2, new StatelessPlayer(0));
+    }
+
+    private static void assertSameState(GameState expected, GameState actual) {
+        assertEquals(expected.ticketsDeck().toList(), actual.ticketsDeck().toList());
+        assertEquals(expected.completeCardState().faceUpCards(), actual.completeCardState().faceUpCards());
+        assertEquals(expected.completeCardState().drawDeck().toList(), actual.completeCardState().drawDeck().toList());
+        assertEquals(expected.completeCardState().packedDiscards(), actual.completeCardState().packedDiscards());
+        assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        for (PlayerId id : PlayerId.ALL) {
+            assertEquals(expected.playerState(id).tickets(), actual.playerState(id).tickets());
+            assertEquals(expected.playerState(id).cards(), actual.playerState(id).cards());
+            assertEquals(expected.playerState(id).routes(), actual.playerState(id).routes());
+        }
+    }
+
+    @Test
+    void resumableRandomGivesTheNumbersOfRandom() {
+        Random random = new Random(2021);
+        ResumableRandom resumable = new ResumableRandom(2021);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(random.nextInt(), resumable.nextInt());
+            assertEquals(random.nextLong(), resumable.nextLong());
+        }
+
+        ResumableRandom restored = ResumableRandom.ofState(resumable.state());
+        for (int i = 0; i < 100; i++) assertEquals(random.nextInt(50), restored.nextInt(50));
+    }
+
+    @Test
+    void bytesGiveBackTheSnapshot() {
+        Random rng = new Random(2021);
+        GameState state = GameState.initial(TICKETS, rng).withInitiallyChosenTickets(PLAYER_1, SortedBag.of())
+                                   .withInitiallyChosenTickets(PLAYER_2, SortedBag.of());
+        state = state.withoutTopTickets(3).withBlindlyDrawnCard().forNextTurn();
+        while (!state.lastTurnBegins()) {
+            PlayerState playerState = state.currentPlayerState();
+            List<Route> claimedRoutes = state.claimedRoutes();
+            Route route = ChMap.routes().stream()
+                               .filter(r -> !claimedRoutes.contains(r) && playerState.canClaimRoute(r))
+                               .findFirst()
+                               .orElse(null);
+            if (route != null) state = state.withClaimedRoute(route, playerState.possibleClaimCards(route).get(0));
+            else if (state.canDrawCards()) state = state.withCardsDeckRecreatedIfNeeded(rng).withBlindlyDrawnCard();
+            else break;
+            state = state.forNextTurn();
+        }
+        state = state.forNextTurn();
+
+        GameSnapshot snapshot = new GameSnapshot(state, new ResumableRandom(42).state(), 57);
+        GameSnapshot restored = GameSnapshot.ofBytes(snapshot.toBytes(TICKETS), TICKETS);
+        assertEquals(57, restored.turnCount());
+        assertEquals(new Random(42).nextLong(), restored.random().nextLong());
+        assertNotNull(restored.state().lastPlayer());
+        assertSameState(state, restored.state());
+    }
+
+    @Test
+    void invalidBytesAreRejected() {
+        GameSnapshot snapshot = new GameSnapshot(GameState.initial(TICKETS, new Random(1)), 0, 0);
+        byte[] bytes = snapshot.toBytes(TICKETS);
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.ofBytes(new byte[]{1, 2, 3}, TICKETS));
+        assertThrows(IllegalArgumentException.class,
+                     () -> GameSnapshot.ofBytes(Arrays.copyOf(bytes, bytes.length + 1), TICKETS));
+        bytes[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.ofBytes(bytes, TICKETS));
+    }
+
+    @Test
+    void storeSavesLoadsAndDeletesSnapshots() throws IOException {
+        Path directory = Files.createTempDirectory("tchu");
+        try {
+            GameSnapshotStore store = new GameSnapshotStore(directory, TICKETS);
+            GameState state = GameState.initial(TICKETS, new Random(7));
+            assertNull(store.load("table-1"));
+
+            store.save("table-1", new GameSnapshot(state, 3, 10));
+            store.save("table-1", new GameSnapshot(state, 4, 20));
+            store.save("table_2", new GameSnapshot(state, 5, 30));
+            assertEquals(Set.of("table-1", "table_2"), store.tableIds());
+            assertEquals(20, store.load("table-1").turnCount());
+            assertSameState(state, store.load("table_2").state());
+
+            store.delete("table-1");
+            assertNull(store.load("table-1"));
+            assertEquals(Set.of("table_2"), store.tableIds());
+            assertThrows(IllegalArgumentException.class, () -> store.save("../table", new GameSnapshot(state, 0, 0)));
+            store.delete("table_2");
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void resumedGameEndsLikeTheUninterruptedOne() throws IOException {
+        Path directory = Files.createTempDirectory("tchu");
+        try {
+            GameSnapshotStore store = new GameSnapshotStore(directory, TICKETS);
+            for (long seed = 0; seed < 5; seed++) {
+                Game uninterrupted = new Game(players(0), NAMES, TICKETS, new Random(seed));
+                uninterrupted.run();
+                GameResult expected = uninterrupted.result();
+
+                Game crashing = new Game(players(12), NAMES, TICKETS, new Random(seed));
+                crashing.saveSnapshots(store, "table", 4);
+                assertThrows(IllegalStateException.class, crashing::run);
+                GameSnapshot snapshot = store.load("table");
+                assertNotNull(snapshot);
+                assertTrue(snapshot.turnCount() > 0 && snapshot.turnCount() % 4 == 0);
+
+                Game resumed = Game.resume(players(0), NAMES, TICKETS, snapshot);
+                resumed.saveSnapshots(store, "table", 4);
+                resumed.run();
+                assertNull(store.load("table"));
+
+                GameResult result = resumed.result();
+                assertEquals(expected.turnCount(), result.turnCount());
+                for (PlayerId id : PlayerId.ALL) {
+                    assertEquals(expected.routes(id), result.routes(id));
+                    assertEquals(expected.finalPoints(id), result.finalPoints(id));
+                }
+            }
+        } finally {
+            Files.delete(directory);
+        }
+    }
+}
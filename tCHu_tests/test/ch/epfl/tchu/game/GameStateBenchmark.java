@@ -0,0 +1,81 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static ch.epfl.tchu.game.Constants.*;
+
+/**
+ * Measures the time taken by the transitions of <code>GameState</code> over whole games, played by drawing cards,
+ * drawing tickets and claiming routes at random directly on the states (without players nor information messages,
+ * and tunnels are claimed without additional cards), so that only the cost of the states is measured.
+ * Usage: <code>GameStateBenchmark [iterations]</code>
+ */
+public final class GameStateBenchmark {
+    private static final int GAMES_COUNT = 2_000;
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    private static long transitions;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        for (int i = 0; i < iterations; i++) {
+            Random rng = new Random(2021);
+            transitions = 0;
+            long start = System.nanoTime();
+            for (int g = 0; g < GAMES_COUNT; g++) playGame(rng);
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("%d games: %.1f us per game, %.1f ns per transition (%d transitions)%n", GAMES_COUNT,
+                              elapsed / 1e3 / GAMES_COUNT, (double) elapsed / transitions, transitions);
+        }
+    }
+
+    private static GameState playGame(Random rng) {
+        GameState state = GameState.initial(TICKETS, rng);
+        for (PlayerId id : PlayerId.ALL) {
+            SortedBag<Ticket> drawn = state.topTickets(INITIAL_TICKETS_COUNT);
+            state = count(state.withoutTopTickets(INITIAL_TICKETS_COUNT)
+                               .withInitiallyChosenTickets(id, SortedBag.of(drawn.toList().subList(0, 3))));
+        }
+
+        while (true) {
+            List<Route> claimable = claimableRoutes(state);
+            int action = rng.nextInt(3);
+            if (action == 0 && !claimable.isEmpty()) {
+                Route route = claimable.get(rng.nextInt(claimable.size()));
+                state = count(state.withClaimedRoute(route, state.currentPlayerState().possibleClaimCards(route).get(0)));
+            } else if (action == 1 && state.canDrawTickets()) {
+                SortedBag<Ticket> drawn = state.topTickets(Math.min(IN_GAME_TICKETS_COUNT, state.ticketsCount()));
+                state = count(state.withChosenAdditionalTickets(drawn, SortedBag.of(drawn.get(0))));
+            } else if (state.canDrawCards()) {
+                for (int i = 0; i < 2; i++) {
+                    state = count(state.withCardsDeckRecreatedIfNeeded(rng));
+                    int slot = rng.nextInt(FACE_UP_CARDS_COUNT + 1);
+                    state = count(slot == FACE_UP_CARDS_COUNT ? state.withBlindlyDrawnCard() : state.withDrawnFaceUpCard(slot));
+                }
+            } else if (claimable.isEmpty() && !state.canDrawTickets()) {
+                return state;
+            }
+
+            if (state.currentPlayerId() == state.lastPlayer()) return state;
+            state = count(state.forNextTurn());
+        }
+    }
+
+    private static List<Route> claimableRoutes(GameState state) {
+        List<Route> claimed = state.claimedRoutes();
+        return ChMap.claimIndex().claimableRoutes(state.currentPlayerState()).stream()
+                    .filter(route -> !claimed.contains(route))
+                    .collect(Collectors.toList());
+    }
+
+    private static GameState count(GameState state) {
+        ++transitions;
+        return state;
+    }
+}
@@ -0,0 +1,74 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateSharingTest {
+
+    @Test
+    void decksWithoutTopCardsKeepTheRemainingCards() {
+        SortedBag<Integer> cards = SortedBag.of(List.of(1, 2, 3, 4, 5, 6, 7, 8));
+        Deck<Integer> deck = Deck.of(cards, new Random(2021));
+        List<Integer> order = new ArrayList<>();
+        for (Deck<Integer> d = deck; !d.isEmpty(); d = d.withoutTopCard()) order.add(d.topCard());
+        assertEquals(cards, SortedBag.of(order));
+
+        Deck<Integer> rest = deck;
+        for (int i = 0; i < cards.size(); i++) {
+            assertEquals(cards.size() - i, rest.size());
+            assertEquals(order.get(i), deck.withoutTopCards(i).topCard());
+            assertEquals(SortedBag.of(order.subList(i, Math.min(i + 2, order.size()))),
+                         rest.topCards(Math.min(2, rest.size())));
+            rest = rest.withoutTopCard();
+        }
+        assertTrue(rest.isEmpty());
+        assertThrows(IllegalArgumentException.class, rest::topCard);
+        assertSame(deck, deck.withoutTopCards(0));
+    }
+
+    @Test
+    void transitionsShareTheStatesThatDoNotChange() {
+        GameState state = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(2021));
+        PlayerId current = state.currentPlayerId(), other = current.next();
+
+        GameState drawn = state.withBlindlyDrawnCard();
+        assertSame(state.playerState(other), drawn.playerState(other));
+        assertEquals(state.currentPlayerState().cardCount() + 1, drawn.currentPlayerState().cardCount());
+        assertEquals(state.cardState().deckSize() - 1, drawn.cardState().deckSize());
+
+        GameState next = drawn.forNextTurn();
+        assertSame(drawn.playerState(current), next.playerState(current));
+        assertSame(drawn.playerState(other), next.playerState(other));
+        assertSame(drawn.cardState(), next.cardState());
+
+        GameState withoutTickets = state.withoutTopTickets(3);
+        assertEquals(state.ticketsCount() - 3, withoutTickets.ticketsCount());
+        assertEquals(state.topTickets(5).difference(state.topTickets(3)),
+                     withoutTickets.topTickets(2));
+    }
+
+    @Test
+    void discardedCardsAreShuffledBackIntoTheDeck() {
+        GameState state = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(2021));
+        SortedBag<Card> discarded = SortedBag.of(3, Card.RED, 2, Card.LOCOMOTIVE);
+
+        state = state.withMoreDiscardedCards(discarded);
+        while (!state.cardState().isDeckEmpty()) state = state.withoutTopCard();
+        assertEquals(discarded.size(), state.cardState().discardsSize());
+
+        state = state.withCardsDeckRecreatedIfNeeded(new Random(2021));
+        assertEquals(0, state.cardState().discardsSize());
+        SortedBag.Builder<Card> deck = new SortedBag.Builder<>();
+        while (!state.cardState().isDeckEmpty()) {
+            deck.add(state.topCard());
+            state = state.withoutTopCard();
+        }
+        assertEquals(discarded, deck.build());
+    }
+}
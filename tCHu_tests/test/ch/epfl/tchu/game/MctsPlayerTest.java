@@ -0,0 +1,105 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsPlayerTest {
+    private static final int GAMES = 6;
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "mcts", PlayerId.PLAYER_2, "random");
+
+    private static GameResult play(long seed, int iterations) {
+        Game game = new Game(Map.of(PlayerId.PLAYER_1, new MctsPlayer(seed, 0, iterations, 1),
+                                    PlayerId.PLAYER_2, new RandomPlayer(seed)),
+                             NAMES, SortedBag.of(ChMap.tickets()), new Random(seed));
+        game.run();
+        return game.result();
+    }
+
+    @Test
+    void constructorFailsWithInvalidBudgets() {
+        assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(1, 0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(1, -1, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(1, 10, 10, 0));
+    }
+
+    @Test
+    void gamesAgainstRandomPlayerAreCompletedAndReproducible() {
+        GameResult result = play(2021, 30);
+        assertTrue(result.turnCount() > 0);
+        assertEquals(result.toString(), play(2021, 30).toString());
+    }
+
+    @Test
+    void mctsPlayerBeatsRandomPlayer() {
+        int wins = 0, points = 0;
+        for (long seed = 1; seed <= GAMES; seed++) {
+            GameResult result = play(seed, 100);
+            if (result.winner() == PlayerId.PLAYER_1) ++wins;
+            points += result.finalPoints(PlayerId.PLAYER_1) - result.finalPoints(PlayerId.PLAYER_2);
+        }
+        assertTrue(wins > GAMES / 2 && points > 0, wins + " wins out of " + GAMES);
+    }
+
+    @Test
+    void searchesOnSeveralThreadsPlayWholeGames() {
+        Game game = new Game(Map.of(PlayerId.PLAYER_1, new MctsPlayer(7, 0, 40, 2),
+                                    PlayerId.PLAYER_2, new MctsPlayer(8, 0, 40, 3)),
+                             NAMES, SortedBag.of(ChMap.tickets()), new Random(7));
+        game.run();
+        assertTrue(game.result().turnCount() > 0);
+    }
+
+    @Test
+    void playoutsEndTheGame() {
+        Random rng = new Random(3);
+        for (int i = 0; i < 20; i++) {
+            GameState state = GameState.initial(SortedBag.of(ChMap.tickets()), rng);
+            int[] points = Playouts.playout(state, rng);
+            assertEquals(PlayerId.COUNT, points.length);
+        }
+    }
+
+    @Test
+    void actionsAreTheOnesOfTheCurrentPlayer() {
+        GameState state = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(5));
+        int[] actions = Playouts.actions(state);
+        for (int action : actions) {
+            assertTrue(action == Playouts.DRAW_CARDS || action == Playouts.DRAW_TICKETS || action < Playouts.DRAW_CARDS);
+            if (action < Playouts.DRAW_CARDS) {
+                assertTrue(state.currentPlayerState().canClaimRoute(ChMap.routes().get(action)));
+            }
+        }
+        assertTrue(actions.length >= 2);
+    }
+
+    @Test
+    void actionsOfASimulationAreTheOnesRecomputedFromTheState() {
+        Random rng = new Random(11);
+        Playouts.Simulation simulation = new Playouts.Simulation();
+        for (int game = 0; game < 20; game++) {
+            GameState state = GameState.initial(SortedBag.of(ChMap.tickets()), rng);
+            simulation.start(state);
+            for (int turn = 0; turn < 300; turn++) {
+                int count = simulation.actions(state);
+                int[] actions = Arrays.copyOf(simulation.actions(), count);
+                assertArrayEquals(Playouts.actions(state), actions);
+                for (int action : actions) {
+                    if (action >= Playouts.DRAW_CARDS) continue;
+                    Route route = ChMap.routes().get(action);
+                    assertTrue(state.claimedRoutes().stream().noneMatch(claimed -> claimed.stations()
+                                                                                          .equals(route.stations())));
+                }
+
+                state = simulation.play(state, actions[rng.nextInt(count)], rng);
+                if (Playouts.isOver(state)) break;
+                state = state.forNextTurn();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedCardsTest {
+    private static final int TRIALS = 1_000;
+
+    @Test
+    void packedCardsBehaveLikeSortedBags() {
+        Random rng = new Random(2021);
+        for (int i = 0; i < TRIALS; i++) {
+            SortedBag<Card> bag1 = randomBag(rng), bag2 = randomBag(rng);
+            long packed1 = PackedCards.pack(bag1), packed2 = PackedCards.pack(bag2);
+
+            assertEquals(bag1, PackedCards.unpack(packed1));
+            assertEquals(bag1.size(), PackedCards.size(packed1));
+            for (Card card : Card.ALL) {
+                assertEquals(bag1.countOf(card), PackedCards.countOf(packed1, card));
+                assertEquals(bag1.contains(card), PackedCards.contains(packed1, card));
+            }
+            assertEquals(bag1.contains(bag2), PackedCards.contains(packed1, packed2));
+            assertEquals(bag1.union(bag2), PackedCards.unpack(PackedCards.union(packed1, packed2)));
+            assertEquals(bag1.union(bag2).size(), PackedCards.size(PackedCards.union(packed1, packed2)));
+            assertEquals(bag1.difference(bag2), PackedCards.unpack(PackedCards.difference(packed1, packed2)));
+            assertEquals(bag1.difference(bag2).size(), PackedCards.size(PackedCards.difference(packed1, packed2)));
+        }
+    }
+
+    @Test
+    void packedCardsCannotHoldTooManyCardsOfAType() {
+        long full = PackedCards.of(PackedCards.MAX_COUNT, Card.LOCOMOTIVE);
+        assertEquals(PackedCards.MAX_COUNT, PackedCards.size(full));
+        assertThrows(IllegalArgumentException.class, () -> PackedCards.of(PackedCards.MAX_COUNT + 1, Card.RED));
+        assertThrows(IllegalArgumentException.class, () -> PackedCards.union(full, PackedCards.of(1, Card.LOCOMOTIVE)));
+        assertEquals(PackedCards.MAX_COUNT + 1, PackedCards.size(PackedCards.union(full, PackedCards.of(1, Card.RED))));
+    }
+
+    @Test
+    void emptyPackedCardsAreEmpty() {
+        assertEquals(0, PackedCards.size(PackedCards.EMPTY));
+        assertEquals(SortedBag.of(), PackedCards.unpack(PackedCards.EMPTY));
+        assertEquals(PackedCards.EMPTY, PackedCards.pack(SortedBag.of()));
+    }
+
+    private static SortedBag<Card> randomBag(Random rng) {
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        for (Card card : Card.ALL) {
+            if (rng.nextBoolean()) builder.add(rng.nextInt(Constants.LOCOMOTIVE_CARDS_COUNT + 1), card);
+        }
+        return builder.build();
+    }
+}
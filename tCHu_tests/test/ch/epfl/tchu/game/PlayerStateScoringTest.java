@@ -0,0 +1,58 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerStateScoringTest {
+    private static final int TRIALS = 200;
+
+    @Test
+    void incrementalScoresAreTheSameAsRecomputedOnes() {
+        Random rng = new Random(2021);
+        for (int i = 0; i < TRIALS; i++) {
+            List<Ticket> allTickets = new ArrayList<>(ChMap.tickets());
+            List<Route> allRoutes = new ArrayList<>(ChMap.routes());
+            Collections.shuffle(allTickets, rng);
+            Collections.shuffle(allRoutes, rng);
+
+            PlayerState state = PlayerState.initial(SortedBag.of(4, Card.LOCOMOTIVE));
+            int ticketIndex = 0, carCount = Constants.INITIAL_CAR_COUNT;
+            for (Route route : allRoutes) {
+                if (route.length() > carCount) continue;
+                if (rng.nextInt(4) == 0) state = state.withAddedTickets(SortedBag.of(allTickets.get(ticketIndex++)));
+
+                state = state.withClaimedRoute(route, SortedBag.of());
+                carCount -= route.length();
+
+                PlayerState recomputed = new PlayerState(state.tickets(), state.cards(), state.routes());
+                assertEquals(recomputed.ticketPoints(), state.ticketPoints());
+                assertEquals(recomputed.finalPoints(), state.finalPoints());
+                assertEquals(Trail.longest(state.routes()).toString(), state.longestTrail().toString());
+            }
+        }
+    }
+
+    @Test
+    void longestTrailIsKeptWhenNoRouteIsClaimed() {
+        PlayerState state = new PlayerState(SortedBag.of(), SortedBag.of(), ChMap.routes().subList(0, 5));
+        Trail longest = state.longestTrail();
+
+        assertSame(longest, state.withAddedCard(Card.RED).longestTrail());
+        assertSame(longest, state.withAddedTickets(SortedBag.of(ChMap.tickets().get(0))).longestTrail());
+        assertNotSame(longest, state.withClaimedRoute(ChMap.routes().get(5), SortedBag.of()).longestTrail());
+    }
+
+    @Test
+    void connectivityFollowsClaimedRoutes() {
+        Route route = ChMap.routes().get(0);
+        PlayerState state = PlayerState.initial(SortedBag.of(4, Card.RED));
+        assertFalse(state.connectivity().connected(route.station1(), route.station2()));
+
+        state = state.withClaimedRoute(route, SortedBag.of());
+        assertTrue(state.connectivity().connected(route.station1(), route.station2()));
+    }
+}
@@ -0,0 +1,67 @@
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the time taken to build a StationPartition, to query it and to extend it route by route (as PlayerState
+ * does when a route is claimed), on the 51 stations of the map and on a synthetic map of 10000 stations.
+ * Usage: <code>StationPartitionBenchmark [iterations]</code>
+ */
+public final class StationPartitionBenchmark {
+    private static final int LARGE_STATIONS_COUNT = 10_000;
+    private static final int LARGE_ROUTES_COUNT = 20_000;
+    private static final int QUERIES_COUNT = 100_000;
+    private static final int CLAIMS_COUNT = 40;
+
+    private static int sink;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Random rng = new Random(2021);
+
+        List<Station> mapStations = ChMap.stations();
+        List<Station[]> mapRoutes = new ArrayList<>();
+        for (Route route : ChMap.routes()) mapRoutes.add(new Station[]{route.station1(), route.station2()});
+
+        List<Station> largeStations = new ArrayList<>();
+        for (int id = 0; id < LARGE_STATIONS_COUNT; id++) largeStations.add(new Station(id, "S" + id));
+        List<Station[]> largeRoutes = new ArrayList<>();
+        for (int i = 0; i < LARGE_ROUTES_COUNT; i++) {
+            largeRoutes.add(new Station[]{largeStations.get(rng.nextInt(LARGE_STATIONS_COUNT)),
+                                          largeStations.get(rng.nextInt(LARGE_STATIONS_COUNT))});
+        }
+
+        for (int i = 0; i < iterations; i++) {
+            run("51 stations", mapStations, mapRoutes, rng);
+            run("10000 stations", largeStations, largeRoutes, rng);
+        }
+    }
+
+    private static void run(String name, List<Station> stations, List<Station[]> routes, Random rng) {
+        long start = System.nanoTime();
+        StationPartition.Builder builder = new StationPartition.Builder(stations.size());
+        for (Station[] route : routes) builder.connect(route[0], route[1]);
+        StationPartition partition = builder.build();
+        double buildTime = (System.nanoTime() - start) / 1e3;
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES_COUNT; i++) {
+            Station s1 = stations.get(rng.nextInt(stations.size())), s2 = stations.get(rng.nextInt(stations.size()));
+            if (partition.connected(s1, s2)) ++sink;
+        }
+        double queryTime = (System.nanoTime() - start) / (double) QUERIES_COUNT;
+
+        start = System.nanoTime();
+        StationPartition claimed = new StationPartition.Builder(stations.size()).build();
+        for (int i = 0; i < CLAIMS_COUNT; i++) {
+            Station[] route = routes.get(rng.nextInt(routes.size()));
+            claimed = claimed.withConnected(route[0], route[1]);
+        }
+        double claimTime = (System.nanoTime() - start) / 1e3 / CLAIMS_COUNT;
+
+        System.out.printf("%s: build %.1f us, connected %.1f ns, withConnected %.2f us%n",
+                          name, buildTime, queryTime, claimTime);
+    }
+}
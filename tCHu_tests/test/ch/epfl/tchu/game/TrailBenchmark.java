@@ -0,0 +1,76 @@
+package ch.epfl.tchu.game;
+
+import java.util.*;
+
+/**
+ * Measures the time taken by <code>TrailSolver</code> and by the previous breadth-first search on random sets of
+ * routes of the map, and on connected sets of short routes (the worst case) of at most 40 cars, i.e. the largest
+ * networks a player can build.
+ * Usage: <code>TrailBenchmark [iterations]</code>
+ */
+public final class TrailBenchmark {
+    private static final int SETS_COUNT = 100;
+    private static final int RANDOM_SET_SIZE = 12;
+    private static final int MAX_CARS = Constants.INITIAL_CAR_COUNT;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Random rng = new Random(2021);
+
+        List<List<Route>> randomSets = new ArrayList<>(), worstSets = new ArrayList<>();
+        for (int i = 0; i < SETS_COUNT; i++) {
+            List<Route> routes = new ArrayList<>(ChMap.routes());
+            Collections.shuffle(routes, rng);
+            randomSets.add(routes.subList(0, RANDOM_SET_SIZE));
+            worstSets.add(connectedShortRoutes(rng));
+        }
+
+        for (int i = 0; i < iterations; i++) {
+            System.out.printf("random sets of %d routes: solver %.1f us, breadth-first %.1f us%n", RANDOM_SET_SIZE,
+                              timeSolver(randomSets), timeBreadthFirst(randomSets));
+            System.out.printf("connected sets of %d cars: solver %.1f us%n", MAX_CARS, timeSolver(worstSets));
+        }
+    }
+
+    /**
+     * Grows a set of routes from a random station, adding the shortest routes touching it first,
+     * until the cars of a player are all used
+     */
+    private static List<Route> connectedShortRoutes(Random rng) {
+        List<Route> all = new ArrayList<>(ChMap.routes());
+        Collections.shuffle(all, rng);
+        all.sort(Comparator.comparingInt(Route::length));
+
+        Set<Station> reached = new HashSet<>(List.of(ChMap.stations().get(rng.nextInt(ChMap.stations().size()))));
+        List<Route> routes = new ArrayList<>();
+        int cars = 0;
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (Route route : all) {
+                if (routes.contains(route) || cars + route.length() > MAX_CARS) continue;
+                if (reached.contains(route.station1()) || reached.contains(route.station2())) {
+                    routes.add(route);
+                    reached.addAll(route.stations());
+                    cars += route.length();
+                    added = true;
+                    break;
+                }
+            }
+        }
+        return routes;
+    }
+
+    private static double timeSolver(List<List<Route>> sets) {
+        TrailSolver solver = new TrailSolver();
+        long start = System.nanoTime();
+        for (List<Route> routes : sets) solver.longest(routes);
+        return (System.nanoTime() - start) / 1e3 / sets.size();
+    }
+
+    private static double timeBreadthFirst(List<List<Route>> sets) {
+        long start = System.nanoTime();
+        for (List<Route> routes : sets) TrailSolverTest.breadthFirstLongest(routes);
+        return (System.nanoTime() - start) / 1e3 / sets.size();
+    }
+}
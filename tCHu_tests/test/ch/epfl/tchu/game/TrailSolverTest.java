@@ -0,0 +1,107 @@
+package ch.epfl.tchu.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrailSolverTest {
+    private static final int TRIALS_PER_SIZE = 200;
+    private static final int MAX_ROUTES_COUNT = 16;
+
+    @Test
+    void solverGivesSameTrailsAsBreadthFirstSearch() {
+        Random rng = new Random(2021);
+        TrailSolver solver = new TrailSolver();
+        for (int size = 0; size <= MAX_ROUTES_COUNT; size++) {
+            for (int i = 0; i < TRIALS_PER_SIZE; i++) {
+                List<Route> routes = new ArrayList<>(ChMap.routes());
+                Collections.shuffle(routes, rng);
+                routes = routes.subList(0, size);
+
+                Trail expected = breadthFirstLongest(routes), actual = solver.longest(routes);
+                assertEquals(expected.toString(), actual.toString());
+                assertEquals(expected.length(), actual.length());
+                assertSame(expected.station1(), actual.station1());
+                assertSame(expected.station2(), actual.station2());
+            }
+        }
+    }
+
+    @Test
+    void solverGivesSameTrailsAsBreadthFirstSearchOnConnectedRoutes() {
+        //routes of a dense part of the map, where many trails of the same length exist
+        List<Route> routes = new ArrayList<>();
+        for (int id : new int[]{13, 15, 16, 17, 18, 19, 65, 66, 67, 68, 69, 70, 71, 72}) routes.add(ChMap.routes().get(id));
+
+        Trail expected = breadthFirstLongest(routes), actual = new TrailSolver().longest(routes);
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void solverWorksOnEmptyAndNullLists() {
+        TrailSolver solver = new TrailSolver();
+        assertNull(solver.longest(null));
+
+        Trail empty = solver.longest(List.of());
+        assertEquals(0, empty.length());
+        assertNull(empty.station1());
+        assertNull(empty.station2());
+    }
+
+    @Test
+    void solverCanBeReusedWithDifferentSizes() {
+        TrailSolver solver = new TrailSolver();
+        List<Route> all = ChMap.routes();
+        for (int size : new int[]{10, 2, 14, 1, 6}) {
+            List<Route> routes = all.subList(0, size);
+            assertEquals(breadthFirstLongest(routes).toString(), solver.longest(routes).toString());
+        }
+    }
+
+    /**
+     * The previous implementation of Trail.longest: extends every trail by one route per step, keeping the first
+     * longest trail found
+     */
+    static Trail breadthFirstLongest(List<Route> routes) {
+        Trail longest = new Trail(List.of(), null, null, 0);
+        List<List<Route>> trails = new ArrayList<>();
+        List<Station> starts = new ArrayList<>(), ends = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        for (Route r : routes) {
+            for (Station start : List.of(r.station1(), r.station2())) {
+                trails.add(List.of(r));
+                starts.add(start);
+                ends.add(r.stationOpposite(start));
+                lengths.add(r.length());
+            }
+        }
+
+        while (!trails.isEmpty()) {
+            List<List<Route>> nextTrails = new ArrayList<>();
+            List<Station> nextStarts = new ArrayList<>(), nextEnds = new ArrayList<>();
+            List<Integer> nextLengths = new ArrayList<>();
+            for (int i = 0; i < trails.size(); i++) {
+                for (Route route : routes) {
+                    if (!trails.get(i).contains(route) && route.stations().contains(ends.get(i))) {
+                        List<Route> extended = new ArrayList<>(trails.get(i));
+                        extended.add(route);
+                        nextTrails.add(extended);
+                        nextStarts.add(starts.get(i));
+                        nextEnds.add(route.stationOpposite(ends.get(i)));
+                        nextLengths.add(lengths.get(i) + route.length());
+                    }
+                }
+                if (lengths.get(i) > longest.length()) {
+                    longest = new Trail(trails.get(i), starts.get(i), ends.get(i), lengths.get(i));
+                }
+            }
+            trails = nextTrails;
+            starts = nextStarts;
+            ends = nextEnds;
+            lengths = nextLengths;
+        }
+        return longest;
+    }
+}
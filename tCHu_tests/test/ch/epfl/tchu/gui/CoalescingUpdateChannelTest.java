@@ -0,0 +1,68 @@
+package ch.epfl.tchu.gui;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingUpdateChannelTest {
+    private static final GameState STATE = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(2021));
+
+    private static final class Interface {
+        private int applyRequests;
+        private final List<PublicGameState> states = new ArrayList<>();
+        private final List<List<String>> infoBatches = new ArrayList<>();
+        private final CoalescingUpdateChannel channel = new CoalescingUpdateChannel(() -> ++applyRequests,
+                                                                                    (state, ownState) -> states.add(state),
+                                                                                    infoBatches::add);
+    }
+
+    @Test
+    void onlyTheLatestStateIsApplied() {
+        Interface gui = new Interface();
+        GameState state2 = STATE.withoutTopTickets(1), state3 = STATE.withoutTopTickets(2);
+        gui.channel.postState(STATE, STATE.currentPlayerState());
+        gui.channel.postState(state2, state2.currentPlayerState());
+        gui.channel.postState(state3, state3.currentPlayerState());
+        assertEquals(1, gui.applyRequests);
+
+        gui.channel.apply();
+        assertEquals(List.of(state3), gui.states);
+        assertEquals(3, gui.channel.postedStates());
+        assertEquals(1, gui.channel.appliedStates());
+        assertEquals(2, gui.channel.droppedStates());
+    }
+
+    @Test
+    void infosAreAppliedInBatchesInTheirOrder() {
+        Interface gui = new Interface();
+        gui.channel.postInfo("Ada a tiré une carte du tas.");
+        gui.channel.postInfo("Ada a tiré une carte visible.");
+        gui.channel.postState(STATE, STATE.currentPlayerState());
+        gui.channel.apply();
+        gui.channel.postInfo("C'est à Charles de jouer.");
+        gui.channel.apply();
+
+        assertEquals(2, gui.applyRequests);
+        assertEquals(List.of(List.of("Ada a tiré une carte du tas.", "Ada a tiré une carte visible."),
+                             List.of("C'est à Charles de jouer.")), gui.infoBatches);
+        assertEquals(2, gui.channel.infoBatches());
+        assertEquals(3, gui.channel.appliedInfos());
+        assertEquals(1, gui.channel.appliedStates());
+        assertEquals(0, gui.channel.droppedStates());
+    }
+
+    @Test
+    void applyWithoutUpdatesDoesNothing() {
+        Interface gui = new Interface();
+        gui.channel.apply();
+        assertTrue(gui.states.isEmpty());
+        assertTrue(gui.infoBatches.isEmpty());
+        assertEquals("states: 0 posted, 0 applied, 0 dropped; infos: 0 applied in 0 batches", gui.channel.toString());
+    }
+}
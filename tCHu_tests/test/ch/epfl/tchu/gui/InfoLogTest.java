@@ -0,0 +1,81 @@
+package ch.epfl.tchu.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InfoLogTest {
+
+    private static List<String> contents(InfoLog log) {
+        List<String> contents = new ArrayList<>();
+        for (int i = 0; i < log.size(); i++) contents.add(log.get(i));
+        return contents;
+    }
+
+    @Test
+    void constructorFailsWithNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new InfoLog(0));
+        assertThrows(IllegalArgumentException.class, () -> new InfoLog(-3));
+    }
+
+    @Test
+    void infosAreKeptInOrderUntilTheLogIsFull() {
+        InfoLog log = new InfoLog(3);
+        assertNull(log.add("a"));
+        assertNull(log.add("b"));
+        assertEquals(List.of("a", "b"), contents(log));
+        assertNull(log.add("c"));
+        assertEquals(List.of("a", "b", "c"), contents(log));
+        assertEquals(0, log.evicted());
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(3));
+    }
+
+    @Test
+    void oldestInfosAreEvictedOnceTheLogIsFull() {
+        InfoLog log = new InfoLog(3);
+        for (int i = 0; i < 3; i++) log.add("info " + i);
+        for (int i = 3; i < 1000; i++) {
+            assertEquals("info " + (i - 3), log.add("info " + i));
+            assertEquals(3, log.size());
+        }
+        assertEquals(List.of("info 997", "info 998", "info 999"), contents(log));
+        assertEquals(997, log.evicted());
+        assertEquals(3, log.capacity());
+    }
+
+    @Test
+    void clearEmptiesTheLogWhichCanBeFilledAgain() {
+        InfoLog log = new InfoLog(2);
+        for (String info : List.of("a", "b", "c")) log.add(info);
+        log.clear();
+        assertEquals(0, log.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(0));
+        assertNull(log.add("d"));
+        assertNull(log.add("e"));
+        assertEquals("d", log.add("f"));
+        assertEquals(List.of("e", "f"), contents(log));
+        assertEquals(2, log.evicted());
+    }
+
+    @Test
+    void capacityIsReadFromTheSystemProperty() {
+        String previous = System.getProperty(InfoLog.PROPERTY);
+        try {
+            System.clearProperty(InfoLog.PROPERTY);
+            assertEquals(InfoLog.DEFAULT_CAPACITY, InfoLog.capacityFromSystemProperty());
+            System.setProperty(InfoLog.PROPERTY, " 40 ");
+            assertEquals(40, InfoLog.capacityFromSystemProperty());
+            System.setProperty(InfoLog.PROPERTY, "0");
+            assertThrows(IllegalArgumentException.class, InfoLog::capacityFromSystemProperty);
+            System.setProperty(InfoLog.PROPERTY, "many");
+            assertThrows(IllegalArgumentException.class, InfoLog::capacityFromSystemProperty);
+        }
+        finally {
+            if (previous == null) System.clearProperty(InfoLog.PROPERTY);
+            else System.setProperty(InfoLog.PROPERTY, previous);
+        }
+    }
+}
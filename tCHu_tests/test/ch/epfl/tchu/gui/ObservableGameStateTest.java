@@ -0,0 +1,136 @@
+package ch.epfl.tchu.gui;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static ch.epfl.tchu.game.PlayerId.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObservableGameStateTest {
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    /**
+     * RandomPlayer whose ObservableGameState is given every state it receives, and checked against it
+     */
+    private static final class ObservingPlayer implements Player {
+        private final Player player;
+        private ObservableGameState observable;
+        private PlayerId ownId;
+        private int checkedStates;
+
+        private ObservingPlayer(long seed) {
+            this.player = new RandomPlayer(seed);
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames, Boolean rematch) {
+            //the same observable state is reset from one game to the next, as the interface does for a rematch
+            if (observable == null) observable = new ObservableGameState(ownId);
+            else observable.reset();
+            this.ownId = ownId;
+            player.initPlayers(ownId, playerNames, rematch);
+        }
+
+        @Override
+        public boolean receivesInfo() {
+            return false;
+        }
+
+        @Override
+        public void receiveInfo(String info) {}
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            observable.setState(newState, ownState);
+            assertRecomputedState(observable, ownId, newState, ownState);
+            ++checkedStates;
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {player.setInitialTicketChoice(tickets);}
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {return player.chooseInitialTickets();}
+
+        @Override
+        public TurnKind nextTurn() {return player.nextTurn();}
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {return player.chooseTickets(options);}
+
+        @Override
+        public int drawSlot() {return player.drawSlot();}
+
+        @Override
+        public Route claimedRoute() {return player.claimedRoute();}
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {return player.initialClaimCards();}
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+
+        @Override
+        public void askForRematch() {}
+
+        @Override
+        public Boolean rematchResponse() {return false;}
+    }
+
+    /**
+     * Checks the properties against the values the previous implementation of <code>setState</code> computed from
+     * scratch for each state
+     */
+    private static void assertRecomputedState(ObservableGameState observable, PlayerId ownId,
+                                              PublicGameState state, PlayerState ownState) {
+        Set<Route> claimableRoutes = new HashSet<>(ChMap.claimIndex().claimableRoutes(ownState));
+        for (Route route : ChMap.routes()) {
+            PlayerId owner = state.playerState(PLAYER_1).routes().contains(route) ? PLAYER_1
+                             : state.playerState(PLAYER_2).routes().contains(route) ? PLAYER_2 : null;
+            assertEquals(owner, observable.routeOwnerProperty(route).get(), route.id());
+
+            boolean claimed = state.claimedRoutes().stream()
+                                   .anyMatch(claimedRoute -> route.station1() == claimedRoute.station1()
+                                                             && route.station2() == claimedRoute.station2());
+            assertEquals(!claimed && ownId == state.currentPlayerId() && claimableRoutes.contains(route),
+                         observable.isRouteClaimableProperty(route).get(), route.id());
+        }
+
+        assertEquals(ownState.tickets().toList(), observable.ticketsProperty());
+        assertEquals(ownState.ticketsValue(), observable.ticketsValuesProperty());
+        for (Card card : Card.ALL) {
+            assertEquals(ownState.cards().countOf(card), observable.colorCardCountProperty(card).get());
+        }
+
+        for (PlayerId id : PlayerId.ALL) {
+            PublicPlayerState playerState = state.playerState(id);
+            assertEquals(playerState.ticketCount(), observable.ticketCountsProperty(id).get());
+            assertEquals(playerState.cardCount(), observable.cardCountsProperty(id).get());
+            assertEquals(playerState.carCount(), observable.carCountsProperty(id).get());
+            assertEquals(playerState.claimPoints(), observable.claimPointsProperty(id).get());
+        }
+        for (int slot : Constants.FACE_UP_CARD_SLOTS) {
+            assertEquals(state.cardState().faceUpCard(slot), observable.faceUpCardProperty(slot).get());
+        }
+        assertEquals(state.ticketsCount() * 100 / ChMap.tickets().size(), observable.ticketPercentageProperty().get());
+        assertEquals(state.cardState().deckSize() * 100 / Constants.TOTAL_CARDS_COUNT,
+                     observable.cardsPercentageProperty().get());
+    }
+
+    @Test
+    void incrementalStateIsTheOneRecomputedFromScratchThroughoutSeededGames() {
+        ObservingPlayer player1 = new ObservingPlayer(1), player2 = new ObservingPlayer(2);
+        for (long seed = 0; seed < 10; seed++) {
+            Game.play(Map.of(PLAYER_1, player1, PLAYER_2, player2), NAMES, TICKETS, new Random(seed));
+        }
+        assertTrue(player1.checkedStates > 1000);
+        assertTrue(player2.checkedStates > 1000);
+    }
+}
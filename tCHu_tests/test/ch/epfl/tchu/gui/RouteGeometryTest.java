@@ -0,0 +1,100 @@
+package ch.epfl.tchu.gui;
+
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Route;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteGeometryTest {
+
+    private static RouteGeometry parse(List<Route> routes, String stylesheet) throws IOException {
+        return RouteGeometry.parse(routes, new BufferedReader(new StringReader(stylesheet)));
+    }
+
+    /**
+     * Gives a stylesheet placing all the cells of the given route in a row, rotated by the given angle
+     */
+    private static String row(Route route, double x, double y, double rotate) {
+        StringBuilder stylesheet = new StringBuilder("/* Position of individual track segments */\n");
+        for (int i = 1; i <= route.length(); i++) {
+            stylesheet.append(String.format("#%s_%d { -fx-translate-x: %s; -fx-translate-y: %s; -fx-rotate: %s }%n",
+                                            route.id(), i, x + (i - 1) * 40, y, rotate));
+        }
+        return stylesheet.toString();
+    }
+
+    @Test
+    void mapStylesheetGivesTheCellsOfEveryRoute() {
+        RouteGeometry geometry = RouteGeometry.load();
+        assertEquals(ChMap.routes(), geometry.routes());
+        for (int i = 0; i < geometry.routes().size(); i++) {
+            assertEquals(geometry.routes().get(i).length(), geometry.cells(i).size());
+        }
+    }
+
+    @Test
+    void routeAtFindsTheRouteOfEveryCell() {
+        RouteGeometry geometry = RouteGeometry.load();
+        for (int i = 0; i < geometry.routes().size(); i++) {
+            for (RouteGeometry.Cell cell : geometry.cells(i)) {
+                int found = geometry.routeAt(cell.centerX(), cell.centerY());
+                //a route drawn above may cover the center of the cell
+                assertTrue(found == i || found > i && geometry.cells(found).stream()
+                                                                 .anyMatch(c -> c.contains(cell.centerX(), cell.centerY())));
+            }
+        }
+        assertEquals(-1, geometry.routeAt(1, 1));
+    }
+
+    @Test
+    void routeAtFollowsTheRotationOfTheCells() throws IOException {
+        Route route = ChMap.routes().get(0);
+        RouteGeometry geometry = parse(List.of(route), row(route, 100, 100, 90));
+        //the center of the first cell is (118, 106), and the cell is 12 wide and 36 high once rotated
+        assertEquals(0, geometry.routeAt(118, 106));
+        assertEquals(0, geometry.routeAt(118, 106 + 17));
+        assertEquals(0, geometry.routeAt(118 + 5, 106 - 17));
+        assertEquals(-1, geometry.routeAt(118 + 7, 106));
+        assertEquals(-1, geometry.routeAt(118, 106 + 19));
+
+        RouteGeometry tilted = parse(List.of(route), row(route, 100, 100, 45));
+        double d = 17 / Math.sqrt(2);
+        assertEquals(0, tilted.routeAt(118 + d, 106 + d));
+        assertEquals(-1, tilted.routeAt(118 + d, 106 - d));
+    }
+
+    @Test
+    void boundsContainTheCellsAndOverlappingRoutesAreFound() throws IOException {
+        List<Route> routes = List.of(ChMap.routes().get(0), ChMap.routes().get(1), ChMap.routes().get(2));
+        RouteGeometry geometry = parse(routes, row(routes.get(0), 100, 100, 0)
+                                               + row(routes.get(1), 100, 110, 30)
+                                               + row(routes.get(2), 600, 600, 0));
+        for (int i = 0; i < routes.size(); i++) {
+            for (RouteGeometry.Cell cell : geometry.cells(i)) {
+                assertTrue(geometry.bounds(i).contains(cell.centerX(), cell.centerY()));
+            }
+        }
+        BitSet first = new BitSet();
+        first.set(0, 2);
+        assertEquals(first, geometry.overlapping(0));
+        assertEquals(first, geometry.overlapping(1));
+        assertEquals(BitSet.valueOf(new long[]{0b100}), geometry.overlapping(2));
+        //the route drawn last is found where they overlap
+        assertEquals(1, geometry.routeAt(118, 112));
+    }
+
+    @Test
+    void parseFailsWhenACellIsMissing() {
+        Route route = ChMap.routes().get(0);
+        String stylesheet = row(route, 0, 0, 0);
+        String incomplete = stylesheet.substring(0, stylesheet.lastIndexOf('#'));
+        assertThrows(IllegalArgumentException.class, () -> parse(List.of(route), incomplete));
+    }
+}
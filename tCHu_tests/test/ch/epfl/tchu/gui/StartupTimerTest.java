@@ -0,0 +1,73 @@
+package ch.epfl.tchu.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupTimerTest {
+
+    private final static Pattern LINE = Pattern.compile("\\s+(.+?)\\s+([\\d.]+) ms\\s+\\(at\\s+([\\d.]+) ms\\)");
+
+    private static double[] durationAndEnd(String report, String phase) {
+        for (String line : report.split("\\R")) {
+            Matcher matcher = LINE.matcher(line);
+            if (matcher.matches() && matcher.group(1).equals(phase)) {
+                return new double[]{Double.parseDouble(matcher.group(2)), Double.parseDouble(matcher.group(3))};
+            }
+        }
+        throw new AssertionError(phase + " not in " + report);
+    }
+
+    @Test
+    void markedPhasesLastSinceThePreviousOne() throws InterruptedException {
+        StartupTimer timer = new StartupTimer(System.nanoTime());
+        Thread.sleep(20);
+        timer.mark("launch");
+        Thread.sleep(30);
+        timer.mark("connection");
+
+        String report = timer.report();
+        double[] launch = durationAndEnd(report, "launch"), connection = durationAndEnd(report, "connection");
+        assertTrue(launch[0] >= 20);
+        assertEquals(launch[0], launch[1], 0.2);
+        assertTrue(connection[0] >= 30 && connection[0] < connection[1]);
+        assertEquals(launch[1] + connection[0], connection[1], 0.2);
+        assertTrue(report.indexOf("launch") < report.indexOf("connection"));
+    }
+
+    @Test
+    void timedPhasesOnlyLastTheirCode() throws InterruptedException {
+        StartupTimer timer = new StartupTimer(System.nanoTime());
+        Thread.sleep(30);
+        assertEquals("map", timer.time("map view", () -> {
+            try {
+                Thread.sleep(10);
+            }
+            catch (InterruptedException e) {
+                throw new Error(e);
+            }
+            return "map";
+        }));
+        timer.mark("first frame");
+
+        String report = timer.report();
+        double[] map = durationAndEnd(report, "map view"), frame = durationAndEnd(report, "first frame");
+        assertTrue(map[0] >= 10 && map[0] < 30);
+        assertTrue(map[1] >= 40);
+        //the phase marked after a timed one begins when the timed one ends
+        assertEquals(map[1] + frame[0], frame[1], 0.2);
+    }
+
+    @Test
+    void timerOfTheProcessBeginsWhenTheVirtualMachineStarts() {
+        StartupTimer timer = StartupTimer.process();
+        assertSame(timer, StartupTimer.process());
+        StartupTimer now = new StartupTimer(System.nanoTime());
+        timer.mark("test");
+        now.mark("test");
+        assertTrue(durationAndEnd(timer.report(), "test")[1] > durationAndEnd(now.report(), "test")[1]);
+    }
+}
@@ -0,0 +1,159 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static ch.epfl.tchu.game.PlayerId.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySerdesTest {
+
+    @Test
+    void varIntsAreReadBackAndUseFewBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        int[] values = {0, 1, 127, 128, 300, 16_383, 16_384, Integer.MAX_VALUE};
+        for (int value : values) BinarySerde.writeVarInt(buffer, value);
+        buffer.flip();
+        for (int value : values) assertEquals(value, BinarySerde.readVarInt(buffer));
+
+        buffer.clear();
+        BinarySerde.writeVarInt(buffer, 127);
+        assertEquals(1, buffer.position());
+        assertThrows(IllegalArgumentException.class, () -> BinarySerde.writeVarInt(buffer, -1));
+    }
+
+    @Test
+    void routesAreWrittenAsAnElevenBytesMask() {
+        List<Route> routes = List.of(ChMap.routes().get(87), ChMap.routes().get(0), ChMap.routes().get(9));
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        BinarySerdes.ROUTES.write(routes, buffer);
+        assertEquals(11, buffer.position());
+
+        List<Route> read = BinarySerdes.ROUTES.read(buffer.flip());
+        assertEquals(List.of(ChMap.routes().get(0), ChMap.routes().get(9), ChMap.routes().get(87)), read);
+    }
+
+    @Test
+    void cardsAreWrittenAsNineCounts() {
+        SortedBag<Card> cards = SortedBag.of(3, Card.RED, 14, Card.LOCOMOTIVE);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        BinarySerdes.CARDS.write(cards, buffer);
+        assertEquals(Card.COUNT, buffer.position());
+        assertEquals(cards, BinarySerdes.CARDS.read(buffer.flip()));
+    }
+
+    @Test
+    void statesOfAWholeGameAreReadBackIdentically() {
+        List<PublicGameState> gameStates = new ArrayList<>();
+        List<PlayerState> playerStates = new ArrayList<>();
+        playRecordedGame(gameStates, playerStates);
+
+        for (PublicGameState state : gameStates) {
+            String serialized = BinarySerdes.PUBLIC_GAME_STATE_SERDE.serialize(state);
+            assertEquals(describe(state), describe(BinarySerdes.PUBLIC_GAME_STATE_SERDE.deserialize(serialized)));
+        }
+        for (PlayerState state : playerStates) {
+            String serialized = BinarySerdes.PLAYER_STATE_SERDE.serialize(state);
+            assertEquals(describe(state), describe(BinarySerdes.PLAYER_STATE_SERDE.deserialize(serialized)));
+        }
+    }
+
+    @Test
+    void binaryStatesAreSmallerThanTextOnes() {
+        List<PublicGameState> gameStates = new ArrayList<>();
+        List<PlayerState> playerStates = new ArrayList<>();
+        playRecordedGame(gameStates, playerStates);
+
+        long textSize = 0, binarySize = 0;
+        for (int i = 0; i < gameStates.size(); i++) {
+            textSize += Serdes.PUBLIC_GAME_STATE_SERDE.serialize(gameStates.get(i)).length()
+                        + Serdes.PLAYER_STATE_SERDE.serialize(playerStates.get(i)).length();
+            binarySize += BinarySerdes.PUBLIC_GAME_STATE_SERDE.serialize(gameStates.get(i)).length()
+                          + BinarySerdes.PLAYER_STATE_SERDE.serialize(playerStates.get(i)).length();
+        }
+        assertTrue(binarySize < textSize);
+    }
+
+    static void playRecordedGame(List<PublicGameState> gameStates, List<PlayerState> playerStates) {
+        RandomPlayer player = new RandomPlayer(2021);
+        Player recordingPlayer = new Player() {
+            @Override
+            public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames, Boolean rematch) {
+                player.initPlayers(ownId, playerNames, rematch);
+            }
+
+            @Override
+            public void receiveInfo(String info) {}
+
+            @Override
+            public void updateState(PublicGameState newState, PlayerState ownState) {
+                gameStates.add(newState);
+                playerStates.add(ownState);
+                player.updateState(newState, ownState);
+            }
+
+            @Override
+            public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+                player.setInitialTicketChoice(tickets);
+            }
+
+            @Override
+            public SortedBag<Ticket> chooseInitialTickets() {return player.chooseInitialTickets();}
+
+            @Override
+            public TurnKind nextTurn() {return player.nextTurn();}
+
+            @Override
+            public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {return player.chooseTickets(options);}
+
+            @Override
+            public int drawSlot() {return player.drawSlot();}
+
+            @Override
+            public Route claimedRoute() {return player.claimedRoute();}
+
+            @Override
+            public SortedBag<Card> initialClaimCards() {return player.initialClaimCards();}
+
+            @Override
+            public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+                return player.chooseAdditionalCards(options);
+            }
+
+            @Override
+            public void askForRematch() {}
+
+            @Override
+            public Boolean rematchResponse() {return false;}
+        };
+
+        Game.play(Map.of(PLAYER_1, recordingPlayer, PLAYER_2, new RandomPlayer(2022)),
+                  Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles"),
+                  SortedBag.of(ChMap.tickets()), new Random(2021));
+    }
+
+    static String describe(PublicGameState state) {
+        PublicCardState cs = state.cardState();
+        return String.join("|", String.valueOf(state.ticketsCount()), cs.faceUpCards().toString(),
+                           String.valueOf(cs.deckSize()), String.valueOf(cs.discardsSize()),
+                           String.valueOf(state.currentPlayerId()), String.valueOf(state.lastPlayer()),
+                           describePublic(state.playerState(PLAYER_1)), describePublic(state.playerState(PLAYER_2)));
+    }
+
+    private static String describePublic(PublicPlayerState state) {
+        String routes = state.routes().stream()
+                             .map(Route::id)
+                             .sorted()
+                             .collect(Collectors.joining(","));
+        return state.ticketCount() + "/" + state.cardCount() + "/" + routes;
+    }
+
+    static String describe(PlayerState state) {
+        return describePublic(state) + "/" + state.tickets() + "/" + state.cards();
+    }
+}
@@ -0,0 +1,80 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static ch.epfl.tchu.net.BinarySerdesTest.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaSerdeTest {
+
+    @Test
+    void deltasOfAWholeGameRebuildTheSameStates() {
+        List<PublicGameState> gameStates = new ArrayList<>();
+        List<PlayerState> playerStates = new ArrayList<>();
+        playRecordedGame(gameStates, playerStates);
+
+        DeltaSerde server = new DeltaSerde(), client = new DeltaSerde();
+        for (int i = 0; i < gameStates.size(); i++) {
+            client.deserialize(server.serialize(gameStates.get(i), playerStates.get(i)));
+            assertEquals(describe(gameStates.get(i)), describe(client.gameState()));
+            assertEquals(describe(playerStates.get(i)), describe(client.playerState()));
+        }
+    }
+
+    @Test
+    void deltasAreSmallerThanFullStates() {
+        List<PublicGameState> gameStates = new ArrayList<>();
+        List<PlayerState> playerStates = new ArrayList<>();
+        playRecordedGame(gameStates, playerStates);
+
+        DeltaSerde server = new DeltaSerde();
+        long fullSize = 0, deltaSize = 0;
+        for (int i = 0; i < gameStates.size(); i++) {
+            fullSize += BinarySerdes.PUBLIC_GAME_STATE_SERDE.serialize(gameStates.get(i)).length()
+                        + BinarySerdes.PLAYER_STATE_SERDE.serialize(playerStates.get(i)).length();
+            deltaSize += server.serialize(gameStates.get(i), playerStates.get(i)).length();
+        }
+        assertTrue(deltaSize * 2 < fullSize);
+    }
+
+    @Test
+    void snapshotIsSentPeriodicallyAndOnRequest() {
+        List<PublicGameState> gameStates = new ArrayList<>();
+        List<PlayerState> playerStates = new ArrayList<>();
+        playRecordedGame(gameStates, playerStates);
+
+        DeltaSerde server = new DeltaSerde();
+        String snapshot = server.serialize(gameStates.get(0), playerStates.get(0));
+        for (int i = 0; i < DeltaSerde.SNAPSHOT_PERIOD; i++) {
+            assertFalse(isSnapshot(server.serialize(gameStates.get(0), playerStates.get(0))));
+        }
+        assertTrue(isSnapshot(snapshot));
+        assertTrue(isSnapshot(server.serialize(gameStates.get(0), playerStates.get(0))));
+
+        server.serialize(gameStates.get(1), playerStates.get(1));
+        server.requestSnapshot();
+        assertTrue(isSnapshot(server.serialize(gameStates.get(2), playerStates.get(2))));
+    }
+
+    @Test
+    void deltaCannotBeReadBeforeASnapshot() {
+        List<PublicGameState> gameStates = new ArrayList<>();
+        List<PlayerState> playerStates = new ArrayList<>();
+        playRecordedGame(gameStates, playerStates);
+
+        DeltaSerde server = new DeltaSerde();
+        server.serialize(gameStates.get(0), playerStates.get(0));
+        String delta = server.serialize(gameStates.get(1), playerStates.get(1));
+        assertThrows(IllegalStateException.class, () -> new DeltaSerde().deserialize(delta));
+    }
+
+    private static boolean isSnapshot(String message) {
+        return Base64.getDecoder().decode(message)[0] == 0;
+    }
+}
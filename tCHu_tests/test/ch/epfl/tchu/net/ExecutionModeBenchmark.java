@@ -0,0 +1,92 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * Plays a given number of tables at the same time, with each execution mode supported by the JDK (see
+ * <code>ExecutionMode</code>), and measures the time taken, the peak number of platform threads and the resident
+ * memory. The players are random players thinking a few milliseconds before each of their turns, during which the
+ * thread of their game is parked, as it is when it waits for a human player.
+ * Usage: <code>ExecutionModeBenchmark [tables] [thinkMs]</code>
+ */
+public final class ExecutionModeBenchmark {
+    private static final int DEFAULT_TABLES = 10_000;
+    private static final int DEFAULT_THINK_MS = 5;
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TABLES;
+        int thinkMs = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_THINK_MS;
+
+        for (ExecutionMode mode : ExecutionMode.ALL) {
+            if (!mode.isSupported()) {
+                System.out.printf("%-8s not supported by Java %d%n", mode, Runtime.version().feature());
+                continue;
+            }
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            CountDownLatch done = new CountDownLatch(tables);
+            ExecutorService executor = mode.newSessionExecutor("tchu-table", tables);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < tables; i++) {
+                Game game = new Game(Map.of(PLAYER_1, thinkingPlayer(2 * i, thinkMs),
+                                            PLAYER_2, thinkingPlayer(2 * i + 1, thinkMs)),
+                                     NAMES, TICKETS, new Random(i));
+                executor.execute(() -> {
+                    game.run();
+                    done.countDown();
+                });
+            }
+            done.await();
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+
+            System.out.printf("%-8s %d tables: %.2f s, peak platform threads %d, rss %s%n", mode, tables,
+                              elapsed / 1e9, threads.getPeakThreadCount(), residentSetSize());
+        }
+    }
+
+    /**
+     * Gives a random player sleeping the given time before each of its turns
+     */
+    private static Player thinkingPlayer(long seed, int thinkMs) {
+        RandomPlayer player = new RandomPlayer(seed);
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                                               (proxy, method, args) -> {
+            if (method.getName().equals("nextTurn")) Thread.sleep(thinkMs);
+            try {
+                return method.invoke(player, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private static String residentSetSize() throws IOException {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.exists(status)) return "unknown";
+        return Files.readAllLines(status).stream()
+                    .filter(line -> line.startsWith("VmHWM:") || line.startsWith("VmRSS:"))
+                    .map(line -> line.replaceAll("\\s+", " "))
+                    .reduce((a, b) -> a + ", " + b)
+                    .orElse("unknown");
+    }
+}
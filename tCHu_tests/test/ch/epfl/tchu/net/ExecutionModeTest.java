@@ -0,0 +1,59 @@
+package ch.epfl.tchu.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionModeTest {
+
+    private static ExecutionMode fromProperty(String value) {
+        String previous = System.getProperty(ExecutionMode.PROPERTY);
+        try {
+            if (value == null) System.clearProperty(ExecutionMode.PROPERTY);
+            else System.setProperty(ExecutionMode.PROPERTY, value);
+            return ExecutionMode.fromSystemProperty();
+        } finally {
+            if (previous == null) System.clearProperty(ExecutionMode.PROPERTY);
+            else System.setProperty(ExecutionMode.PROPERTY, previous);
+        }
+    }
+
+    @Test
+    void modeIsChosenWithTheSystemProperty() {
+        assertEquals(ExecutionMode.PLATFORM, fromProperty(null));
+        assertEquals(ExecutionMode.PLATFORM, fromProperty("platform"));
+        assertEquals(ExecutionMode.VIRTUAL.isSupported() ? ExecutionMode.VIRTUAL : ExecutionMode.PLATFORM,
+                     fromProperty(" Virtual "));
+        assertThrows(IllegalArgumentException.class, () -> fromProperty("green"));
+    }
+
+    @Test
+    void virtualThreadsAreSupportedFromJava21() {
+        assertTrue(ExecutionMode.PLATFORM.isSupported());
+        assertEquals(Runtime.version().feature() >= 21, ExecutionMode.VIRTUAL.isSupported());
+        if (!ExecutionMode.VIRTUAL.isSupported()) {
+            assertThrows(UnsupportedOperationException.class, () -> ExecutionMode.VIRTUAL.start("session", () -> {}));
+        }
+    }
+
+    @Test
+    void sessionsAreRunOnThreadsOfTheMode() throws InterruptedException {
+        for (ExecutionMode mode : ExecutionMode.ALL) {
+            if (!mode.isSupported()) continue;
+            Thread thread = mode.start("tchu-session", () -> {});
+            assertEquals("tchu-session", thread.getName());
+            thread.join();
+
+            int sessions = 100;
+            CountDownLatch done = new CountDownLatch(sessions);
+            ExecutorService executor = mode.newSessionExecutor("tchu-table", 4);
+            for (int i = 0; i < sessions; i++) executor.execute(done::countDown);
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    /**
+     * RandomPlayer thinking for the given time before each turn, so that its games last long enough to be interrupted
+     */
+    private static final class SlowPlayer implements Player {
+        private final Player player;
+        private final long thinkingMs;
+
+        private SlowPlayer(long seed, long thinkingMs) {
+            this.player = new RandomPlayer(seed);
+            this.thinkingMs = thinkingMs;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames, Boolean rematch) {
+            player.initPlayers(ownId, playerNames, rematch);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            try {
+                Thread.sleep(thinkingMs);
+            }
+            catch (InterruptedException e) {
+                throw new Error(e);
+            }
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+
+        @Override
+        public void askForRematch() {
+            player.askForRematch();
+        }
+
+        @Override
+        public Boolean rematchResponse() {
+            return player.rematchResponse();
+        }
+    }
+
+    /**
+     * Starts a client of a slow player, coming back to its table if the connection is lost if <code>reconnecting</code>
+     */
+    private static Thread startClient(int port, long seed, long thinkingMs, boolean reconnecting,
+                                      ConcurrentLinkedQueue<Throwable> failures) {
+        RemotePlayerClient client = new RemotePlayerClient(new SlowPlayer(seed, thinkingMs), "localhost", port);
+        Thread thread = new Thread(() -> {
+            try {
+                if (reconnecting) client.runReconnecting(10);
+                else client.run();
+            }
+            catch (RuntimeException e) {
+                //the clients which do not reconnect lose their connection with the first server
+                if (reconnecting) failures.add(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Waits until the port of a closed server can be listened to again, the connections it closed holding it for a
+     * moment
+     */
+    private static void waitUntilFree(int port) throws InterruptedException {
+        waitUntil(() -> {
+            try {
+                new ServerSocket(port).close();
+                return true;
+            }
+            catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(file);
+        }
+    }
+
+    @Test
+    void serverPlaysAllGamesOfTheConnectedBots() throws InterruptedException {
+        try (GameServer server = new GameServer(0, 2)) {
+            LoadGenerator.run(8, "localhost", server.port());
+
+            assertEquals(4, server.finishedGames());
+            assertEquals(0, server.queuedPlayers());
+        }
+    }
+
+    @Test
+    void serverFailsWithoutTables() {
+        assertThrows(IllegalArgumentException.class, () -> new GameServer(0, 0));
+    }
+
+    @Test
+    void playerAloneInTheLobbyPlaysAgainstABot() throws InterruptedException {
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        try (GameServer server = new GameServer(0, 1)) {
+            server.seatBots(100, 5);
+            Thread client = startClient(server.port(), 1, 0, true, failures);
+            client.join(60_000);
+
+            assertFalse(client.isAlive());
+            assertTrue(failures.isEmpty(), failures.toString());
+            assertEquals(1, server.botGames());
+            assertEquals(1, server.finishedGames());
+        }
+    }
+
+    @Test
+    void seatBotsFailsWithInvalidTimes() {
+        try (GameServer server = new GameServer(0, 1)) {
+            assertThrows(IllegalArgumentException.class, () -> server.seatBots(-1, 5));
+            assertThrows(IllegalArgumentException.class, () -> server.seatBots(100, 0));
+        }
+    }
+
+    @Test
+    void restartedServerSeatsThePlayersBackAtTheirTableWithoutAFreeTable() throws Exception {
+        Path directory = Files.createTempDirectory("tchu-snapshots");
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        try {
+            GameSnapshotStore store = new GameSnapshotStore(directory, TICKETS);
+            int port;
+            List<Thread> returning;
+            try (GameServer server = new GameServer(0, 1, store, 1)) {
+                port = server.port();
+                returning = List.of(startClient(port, 1, 2, true, failures), startClient(port, 2, 2, true, failures));
+                waitUntil(() -> !store.tableIds().isEmpty());
+            }
+
+            waitUntilFree(port);
+            try (GameServer server = new GameServer(port, 1, store, 1, 60_000, ExecutionMode.PLATFORM)) {
+                //two new players take the only table, the returning ones must not wait for it
+                List<Thread> newPlayers = List.of(startClient(port, 3, 100, false, failures),
+                                                  startClient(port, 4, 100, false, failures));
+                for (Thread client : returning) client.join(20_000);
+
+                //the resumed game is over while the new one is still played
+                assertTrue(failures.isEmpty(), failures.toString());
+                assertEquals(1, server.resumedGames());
+                assertEquals(1, server.finishedGames());
+                assertTrue(newPlayers.stream().allMatch(Thread::isAlive));
+                for (Thread client : newPlayers) client.join(60_000);
+                assertEquals(2, server.finishedGames());
+            }
+            assertTrue(store.tableIds().isEmpty());
+        }
+        finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    void silentClientsDoNotDelayThePlayersComingBackToTheirTable() throws Exception {
+        Path directory = Files.createTempDirectory("tchu-snapshots");
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Socket> silentClients = new ArrayList<>();
+        try {
+            GameSnapshotStore store = new GameSnapshotStore(directory, TICKETS);
+            int port;
+            List<Thread> returning;
+            try (GameServer server = new GameServer(0, 1, store, 1)) {
+                port = server.port();
+                returning = List.of(startClient(port, 1, 2, true, failures), startClient(port, 2, 2, true, failures));
+                waitUntil(() -> !store.tableIds().isEmpty());
+            }
+
+            waitUntilFree(port);
+            //waiting for the hellos of the silent clients one after the other would outlast the saved table
+            try (GameServer server = new GameServer(port, 1, store, 1, 8_000, ExecutionMode.PLATFORM)) {
+                for (int i = 0; i < 8; i++) silentClients.add(new Socket("localhost", port));
+                for (Thread client : returning) client.join(20_000);
+
+                assertTrue(failures.isEmpty(), failures.toString());
+                assertEquals(1, server.resumedGames());
+                assertEquals(1, server.finishedGames());
+            }
+        }
+        finally {
+            for (Socket client : silentClients) client.close();
+            delete(directory);
+        }
+    }
+
+    @Test
+    void playerOfAnExpiredTableGoesBackToTheLobby() throws Exception {
+        Path directory = Files.createTempDirectory("tchu-snapshots");
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        try {
+            GameSnapshotStore store = new GameSnapshotStore(directory, TICKETS);
+            int port;
+            Thread returning;
+            try (GameServer server = new GameServer(0, 1, store, 1)) {
+                port = server.port();
+                returning = startClient(port, 1, 2, true, failures);
+                startClient(port, 2, 2, false, failures);
+                waitUntil(() -> !store.tableIds().isEmpty());
+            }
+
+            waitUntilFree(port);
+            try (GameServer server = new GameServer(port, 1, store, 1, 300, ExecutionMode.PLATFORM)) {
+                waitUntil(() -> store.tableIds().isEmpty());
+                Thread newPlayer = startClient(port, 3, 0, false, failures);
+                returning.join(20_000);
+                newPlayer.join(20_000);
+
+                assertTrue(failures.isEmpty(), failures.toString());
+                assertEquals(0, server.resumedGames());
+                assertEquals(1, server.finishedGames());
+            }
+        }
+        finally {
+            delete(directory);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package ch.epfl.tchu.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioTransportTest {
+
+    /**
+     * Connects a client socket to a server channel and registers the accepted channel in the transport
+     */
+    private static NioTransport.Connection connect(NioTransport transport, ServerSocketChannel server, Socket client)
+            throws IOException {
+        client.connect(server.getLocalAddress());
+        return transport.register(server.accept());
+    }
+
+    private static ServerSocketChannel openServer() throws IOException {
+        return ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+    }
+
+    private static void waitUntilDisconnected(NioTransport transport) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (transport.connections() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "client not disconnected");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void linesAreReassembledWhateverTheirSegments() throws IOException {
+        try (NioTransport transport = new NioTransport(); ServerSocketChannel server = openServer();
+             Socket client = new Socket()) {
+            NioTransport.Connection connection = connect(transport, server, client);
+            OutputStream out = client.getOutputStream();
+            out.write("a\nbc".getBytes(US_ASCII));
+            out.flush();
+            assertEquals("a", connection.receive());
+            out.write("d\ne\n".getBytes(US_ASCII));
+            out.flush();
+            assertEquals("bcd", connection.receive());
+            assertEquals("e", connection.receive());
+
+            connection.send("hello world");
+            assertEquals(0, client.getInputStream().available());
+            connection.flush();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), US_ASCII));
+            assertEquals("hello world", reader.readLine());
+        }
+    }
+
+    @Test
+    void waitedLineIsGivenWhenReceived() throws Exception {
+        try (NioTransport transport = new NioTransport(); ServerSocketChannel server = openServer();
+             Socket client = new Socket()) {
+            NioTransport.Connection connection = connect(transport, server, client);
+            CompletableFuture<String> line = connection.nextLine();
+            assertFalse(line.isDone());
+            assertThrows(IllegalStateException.class, connection::nextLine);
+
+            client.getOutputStream().write("CHOOSE_TICKETS 1,2\n".getBytes(US_ASCII));
+            assertEquals("CHOOSE_TICKETS 1,2", line.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void largeMessagesAreWrittenOnceTheSocketAcceptsThem() throws Exception {
+        try (NioTransport transport = new NioTransport(); ServerSocketChannel server = openServer();
+             Socket client = new Socket()) {
+            NioTransport.Connection connection = connect(transport, server, client);
+            String message = "x".repeat(1 << 22);
+            CompletableFuture<String> read = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new BufferedReader(new InputStreamReader(client.getInputStream(), US_ASCII)).readLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            connection.send(message);
+            connection.send("end");
+            connection.flush();
+            assertEquals(message, read.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void receiveFailsWhenTheClientDisconnects() throws Exception {
+        try (NioTransport transport = new NioTransport(); ServerSocketChannel server = openServer()) {
+            Socket client = new Socket();
+            NioTransport.Connection connection = connect(transport, server, client);
+            assertEquals(1, transport.connections());
+
+            client.getOutputStream().write("last\n".getBytes(US_ASCII));
+            client.close();
+            assertEquals("last", connection.receive());
+            UncheckedIOException e = assertThrows(UncheckedIOException.class, connection::receive);
+            assertTrue(e.getCause() instanceof EOFException);
+            assertEquals(0, transport.connections());
+        }
+    }
+
+    @Test
+    void receiveFailsAfterTheTimeout() throws IOException {
+        try (NioTransport transport = new NioTransport(); ServerSocketChannel server = openServer();
+             Socket client = new Socket()) {
+            NioTransport.Connection connection = connect(transport, server, client);
+            connection.setTimeout(50);
+            UncheckedIOException e = assertThrows(UncheckedIOException.class, connection::receive);
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+
+            client.getOutputStream().write("late\n".getBytes(US_ASCII));
+            connection.setTimeout(0);
+            assertEquals("late", connection.receive());
+        }
+    }
+
+    @Test
+    void waitedLineIsGivenUpAfterTheTimeoutAndKeptForTheNextWait() throws Exception {
+        try (NioTransport transport = new NioTransport(); ServerSocketChannel server = openServer();
+             Socket client = new Socket()) {
+            NioTransport.Connection connection = connect(transport, server, client);
+            CompletableFuture<String> line = connection.nextLine(50);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> line.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause().getCause() instanceof SocketTimeoutException);
+
+            client.getOutputStream().write("late\n".getBytes(US_ASCII));
+            assertEquals("late", connection.nextLine(5_000).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void lineReceivedAsTheWaitTimesOutIsNotLost() throws IOException {
+        try (NioTransport transport = new NioTransport(); ServerSocketChannel server = openServer();
+             Socket client = new Socket()) {
+            NioTransport.Connection connection = connect(transport, server, client);
+            OutputStream out = client.getOutputStream();
+            for (int i = 0; i < 200; i++) {
+                out.write((i + "\n").getBytes(US_ASCII));
+                out.flush();
+                connection.setTimeout(1);
+                try {
+                    assertEquals(Integer.toString(i), connection.receive());
+                }
+                catch (UncheckedIOException e) {
+                    assertTrue(e.getCause() instanceof SocketTimeoutException);
+                    connection.setTimeout(5_000);
+                    assertEquals(Integer.toString(i), connection.receive());
+                }
+            }
+        }
+    }
+
+    @Test
+    void clientSendingTooManyLinesIsDisconnected() throws Exception {
+        try (NioTransport transport = new NioTransport(); ServerSocketChannel server = openServer();
+             Socket client = new Socket()) {
+            NioTransport.Connection connection = connect(transport, server, client);
+            OutputStream out = client.getOutputStream();
+            out.write("line\n".repeat(NioTransport.MAX_QUEUED_LINES).getBytes(US_ASCII));
+            out.flush();
+            assertEquals("line", connection.receive());
+            assertEquals(1, transport.connections());
+
+            out.write("line\n".repeat(2).getBytes(US_ASCII));
+            out.flush();
+            waitUntilDisconnected(transport);
+            UncheckedIOException e = assertThrows(UncheckedIOException.class, connection::receive);
+            assertTrue(e.getCause() instanceof EOFException);
+        }
+    }
+
+    @Test
+    void clientSendingATooLongLineIsDisconnected() throws Exception {
+        try (NioTransport transport = new NioTransport(); ServerSocketChannel server = openServer();
+             Socket client = new Socket()) {
+            NioTransport.Connection connection = connect(transport, server, client);
+            OutputStream out = client.getOutputStream();
+            out.write(("x".repeat(NioTransport.MAX_LINE_LENGTH) + "\n").getBytes(US_ASCII));
+            out.flush();
+            assertEquals(NioTransport.MAX_LINE_LENGTH, connection.receive().length());
+
+            //the line is never ended, and its segments are received one after the other
+            byte[] segment = "x".repeat(1 << 10).getBytes(US_ASCII);
+            for (int i = 0; i <= NioTransport.MAX_LINE_LENGTH / segment.length; i++) {
+                out.write(segment);
+                out.flush();
+            }
+            waitUntilDisconnected(transport);
+            UncheckedIOException e = assertThrows(UncheckedIOException.class, connection::receive);
+            assertTrue(e.getCause() instanceof EOFException);
+        }
+    }
+}
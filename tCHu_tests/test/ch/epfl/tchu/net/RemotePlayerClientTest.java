@@ -0,0 +1,68 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.net.Serdes.*;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemotePlayerClientTest {
+    //connections after which the server stops accepting them, so that a client connecting again and again ends
+    private static final int MAX_CONNECTIONS = 10;
+
+    @Test
+    void connectionsClosedBeforeAnyMessageAreFailedAttempts() throws Exception {
+        ServerSocket server = new ServerSocket(0);
+        try {
+            AtomicInteger connections = new AtomicInteger();
+            Thread serverThread = new Thread(() -> {
+                try {
+                    //the first connection seats the player at a table, the next ones are closed right away
+                    try (Socket socket = server.accept()) {
+                        connections.incrementAndGet();
+                        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                                                                                         US_ASCII));
+                        Writer writer = new OutputStreamWriter(socket.getOutputStream(), US_ASCII);
+                        reader.readLine();
+                        writer.write(String.join(" ", MessageId.INIT_PLAYERS.name(), ID_SERDE.serialize(PLAYER_1),
+                                                 STRINGS_SERDE.serialize(List.of("Ada", "Charles")),
+                                                 BOOLEAN_SERDE.serialize(false)) + "\n");
+                        writer.write(String.join(" ", MessageId.TABLE.name(), STRING_SERDE.serialize("table")) + "\n");
+                        writer.flush();
+                    }
+                    while (connections.get() < MAX_CONNECTIONS) {
+                        Socket socket = server.accept();
+                        connections.incrementAndGet();
+                        socket.close();
+                    }
+                    server.close();
+                }
+                catch (IOException e) {
+                    //the server is closed
+                }
+            });
+            serverThread.start();
+
+            RemotePlayerClient client = new RemotePlayerClient(new RandomPlayer(1), "localhost", server.getLocalPort());
+            long start = System.nanoTime();
+            assertThrows(UncheckedIOException.class, () -> client.runReconnecting(3));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            //the game connection, then three failed attempts separated by 250 and 500 ms
+            assertEquals(4, connections.get());
+            assertTrue(elapsedMs >= 750, elapsedMs + " ms");
+        }
+        finally {
+            server.close();
+        }
+    }
+}
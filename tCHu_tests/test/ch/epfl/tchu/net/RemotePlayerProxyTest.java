@@ -0,0 +1,163 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.Route;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.util.*;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemotePlayerProxyTest {
+
+    /**
+     * Channel recording the batches of messages written to the client, and answering the lines given (or "0" once
+     * they are all read, unless a timeout is set, in which case the client is silent)
+     */
+    private static final class RecordingChannel implements MessageChannel {
+        private final List<String> buffered = new ArrayList<>();
+        private final List<List<String>> batches = new ArrayList<>();
+        private final Queue<String> lines = new ArrayDeque<>();
+        private int timeoutMs;
+
+        private RecordingChannel(String... lines) {
+            this.lines.addAll(List.of(lines));
+        }
+
+        @Override
+        public synchronized void send(String message) {
+            buffered.add(message);
+        }
+
+        @Override
+        public synchronized void flush() {
+            if (buffered.isEmpty()) return;
+            batches.add(List.copyOf(buffered));
+            buffered.clear();
+        }
+
+        @Override
+        public String receive() {
+            if (!lines.isEmpty()) return lines.poll();
+            if (timeoutMs != 0) throw new UncheckedIOException(new SocketTimeoutException());
+            return "0";
+        }
+
+        @Override
+        public void setTimeout(int timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        private synchronized List<List<String>> batches() {
+            return List.copyOf(batches);
+        }
+
+        private synchronized int flushedMessages() {
+            return batches.stream().mapToInt(List::size).sum();
+        }
+    }
+
+    @Test
+    void messagesNeedingNoAnswerAreSentWithTheNextQuestion() {
+        RecordingChannel channel = new RecordingChannel();
+        Player proxy = new RemotePlayerProxy(channel, WireFormat.TEXT);
+        proxy.initPlayers(PLAYER_1, Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles"), false);
+        proxy.setInitialTicketChoice(SortedBag.of(ChMap.tickets().subList(0, 5)));
+        proxy.receiveInfo("Ada jouera en premier.");
+        proxy.receiveInfo("Charles a tiré 2 billets.");
+        proxy.chooseInitialTickets();
+
+        //the messages may also have been sent by the flush of late batches, but the question sends all of them
+        List<List<String>> batches = channel.batches();
+        List<String> lastBatch = batches.get(batches.size() - 1);
+        assertEquals(5, channel.flushedMessages());
+        assertTrue(batches.get(0).get(0).startsWith("INIT_PLAYERS"));
+        assertTrue(lastBatch.get(lastBatch.size() - 1).startsWith("CHOOSE_INITIAL_TICKETS"));
+    }
+
+    @Test
+    void batchesAreSentWhenTheyAreOldEnough() throws InterruptedException {
+        RecordingChannel channel = new RecordingChannel();
+        Player proxy = new RemotePlayerProxy(channel, WireFormat.TEXT);
+        proxy.receiveInfo("Ada a tiré une carte du tas.");
+        proxy.askForRematch();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (channel.flushedMessages() < 2 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(2, channel.flushedMessages());
+    }
+
+    @Test
+    void batchesAreSentWhenTheyAreBigEnough() {
+        RecordingChannel channel = new RecordingChannel();
+        Player proxy = new RemotePlayerProxy(channel, WireFormat.TEXT);
+        for (int i = 0; i < 20; i++) proxy.receiveInfo("x".repeat(1000));
+        //at most 8 KiB of messages are still batched
+        assertTrue(channel.flushedMessages() >= 12);
+    }
+
+    private static String hello(WireFormat format, boolean receivesInfo) {
+        return String.join(" ", RemotePlayerProxy.HELLO, Serdes.WIRE_FORMAT_SERDE.serialize(format),
+                           Serdes.BOOLEAN_SERDE.serialize(receivesInfo));
+    }
+
+    private static String[] initPlayers(RecordingChannel channel, Player proxy) {
+        proxy.initPlayers(PLAYER_1, Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles"), false);
+        proxy.claimedRoute();
+        return channel.batches().get(0).get(0).split(" ");
+    }
+
+    @Test
+    void clientSayingNothingIsSpokenToInTheTextFormat() {
+        RecordingChannel channel = new RecordingChannel();
+        Player proxy = new RemotePlayerProxy(channel, WireFormat.DELTA);
+        String[] init = initPlayers(channel, proxy);
+
+        assertEquals("INIT_PLAYERS", init[0]);
+        assertEquals(4, init.length);
+        assertEquals(0, channel.timeoutMs);
+        assertTrue(proxy.receivesInfo());
+    }
+
+    @Test
+    void clientSayingHelloIsToldTheFormatChosen() {
+        RecordingChannel channel = new RecordingChannel(hello(WireFormat.DELTA, false));
+        Player proxy = new RemotePlayerProxy(channel, WireFormat.DELTA);
+        String[] init = initPlayers(channel, proxy);
+
+        assertEquals(5, init.length);
+        assertEquals(WireFormat.DELTA, Serdes.WIRE_FORMAT_SERDE.deserialize(init[4]));
+        assertFalse(proxy.receivesInfo());
+    }
+
+    @Test
+    void clientAskingForAnotherFormatIsToldToUseTheTextFormat() {
+        RecordingChannel channel = new RecordingChannel(hello(WireFormat.BINARY, true));
+        Player proxy = new RemotePlayerProxy(channel, WireFormat.DELTA);
+        String[] init = initPlayers(channel, proxy);
+
+        assertEquals(WireFormat.TEXT, Serdes.WIRE_FORMAT_SERDE.deserialize(init[4]));
+        assertTrue(proxy.receivesInfo());
+    }
+
+    @Test
+    void helloIsNeverTakenForAnAnswer() {
+        Route route = ChMap.routes().get(0);
+        //hello sent to a proxy offering the text format, and hello coming too late
+        for (WireFormat format : List.of(WireFormat.TEXT, WireFormat.DELTA)) {
+            RecordingChannel channel = new RecordingChannel();
+            Player proxy = new RemotePlayerProxy(channel, format);
+            proxy.initPlayers(PLAYER_1, Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles"), false);
+            channel.lines.addAll(List.of(hello(WireFormat.DELTA, true), Serdes.ROUTE_SERDE.serialize(route)));
+
+            assertEquals(route, proxy.claimedRoute());
+            assertEquals(4, channel.batches().get(0).get(0).split(" ").length);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ch.epfl.tchu.net;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Compares the threads and the memory used by the server side of a given number of idle connections, each waiting
+ * for a message of its client (as a proxy waits for the move of a human player): with blocking sockets, one thread per
+ * connection blocked in <code>readLine</code>, and with a <code>NioTransport</code>, one future per connection. The
+ * clients then all answer, and the time taken to receive the answers is measured as well.
+ * Usage: <code>TransportBenchmark [connections]</code> (both ends of the connections are in this process, so the
+ * limit of open files must be above twice their number)
+ */
+public final class TransportBenchmark {
+    private static final int DEFAULT_CONNECTIONS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CONNECTIONS;
+        report("baseline", 0, 0);
+        blocking(count);
+        nio(count);
+    }
+
+    private static void blocking(int count) throws Exception {
+        try (ServerSocket server = new ServerSocket(0, count)) {
+            List<Socket> clients = new ArrayList<>(count);
+            CountDownLatch answered = new CountDownLatch(count);
+            for (int i = 0; i < count; i++) {
+                clients.add(new Socket("localhost", server.getLocalPort()));
+                Socket socket = server.accept();
+                Thread reader = new Thread(() -> {
+                    try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII))) {
+                        in.readLine();
+                        answered.countDown();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                reader.start();
+            }
+            report("blocking", count, 0);
+            long elapsed = answerAll(clients, answered::await);
+            report("blocking", count, elapsed);
+        }
+    }
+
+    private static void nio(int count) throws Exception {
+        try (NioTransport transport = new NioTransport();
+             ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0), count)) {
+            List<Socket> clients = new ArrayList<>(count);
+            List<CompletableFuture<String>> lines = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                clients.add(new Socket("localhost", server.socket().getLocalPort()));
+                lines.add(transport.register(server.accept()).nextLine());
+            }
+            report("nio", count, 0);
+            long elapsed = answerAll(clients, () -> CompletableFuture.allOf(lines.toArray(CompletableFuture[]::new)).join());
+            report("nio", count, elapsed);
+        }
+    }
+
+    private interface Wait {
+        void await() throws Exception;
+    }
+
+    /**
+     * Makes all the clients send a message, waits until they are all received and closes the clients
+     */
+    private static long answerAll(List<Socket> clients, Wait received) throws Exception {
+        long start = System.nanoTime();
+        for (Socket client : clients) client.getOutputStream().write("DRAW_CARDS\n".getBytes(US_ASCII));
+        received.await();
+        long elapsed = System.nanoTime() - start;
+        for (Socket client : clients) client.close();
+        return elapsed;
+    }
+
+    private static void report(String transport, int connections, long answerNanos) throws IOException {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heap = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%-8s %6d connections: %6d threads, heap %6.1f MB, rss %s%s%n", transport, connections,
+                          ManagementFactory.getThreadMXBean().getThreadCount(), heap / 1e6, residentSetSize(),
+                          answerNanos == 0 ? "" : String.format(", all answers received in %.1f ms", answerNanos / 1e6));
+    }
+
+    /**
+     * Gives the resident memory of the process (which includes the stacks of the threads), on Linux only
+     */
+    private static String residentSetSize() throws IOException {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.exists(status)) return "unknown";
+        return Files.readAllLines(status).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> line.substring("VmRSS:".length()).trim())
+                    .findFirst()
+                    .orElse("unknown");
+    }
+}
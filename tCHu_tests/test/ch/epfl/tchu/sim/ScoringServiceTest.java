@@ -0,0 +1,110 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoringServiceTest {
+    private static final int GAMES = 200;
+
+    private static GameState finalState(Random rng) {
+        List<Ticket> tickets = new ArrayList<>(ChMap.tickets());
+        Collections.shuffle(tickets, rng);
+        GameState state = GameState.initial(SortedBag.of(tickets), rng)
+                                   .withInitiallyChosenTickets(PlayerId.PLAYER_1, SortedBag.of(tickets.subList(0, 4)))
+                                   .withInitiallyChosenTickets(PlayerId.PLAYER_2, SortedBag.of(tickets.subList(4, 7)));
+
+        List<Route> routes = new ArrayList<>(ChMap.routes());
+        Collections.shuffle(routes, rng);
+        for (Route route : routes.subList(0, 10 + rng.nextInt(20))) {
+            state = state.withClaimedRoute(route, SortedBag.of()).forNextTurn();
+        }
+        return state;
+    }
+
+    @Test
+    void scoresAreTheOnesComputedByTheGame() {
+        Random rng = new Random(2021);
+        for (int i = 0; i < GAMES; i++) {
+            GameState state = finalState(rng);
+            ScoreBreakdown score = ScoringService.score(state);
+            int length1 = state.playerState(PlayerId.PLAYER_1).longestTrail().length();
+            int length2 = state.playerState(PlayerId.PLAYER_2).longestTrail().length();
+            for (PlayerId id : PlayerId.ALL) {
+                PlayerState playerState = state.playerState(id);
+                assertEquals(playerState.ticketPoints(), score.ticketPoints(id));
+                assertEquals(playerState.claimPoints(), score.claimPoints(id));
+                assertEquals(playerState.longestTrail().length(), score.longestTrail(id).length());
+                int own = id == PlayerId.PLAYER_1 ? length1 : length2, other = id == PlayerId.PLAYER_1 ? length2 : length1;
+                assertEquals(own >= other, score.getsLongestTrailBonus(id));
+                assertEquals(playerState.finalPoints() + (own >= other ? Constants.LONGEST_TRAIL_BONUS_POINTS : 0),
+                             score.finalPoints(id));
+            }
+        }
+    }
+
+    @Test
+    void batchesAreScoredInOrder() {
+        Random rng = new Random(7);
+        List<GameState> states = new ArrayList<>();
+        for (int i = 0; i < GAMES; i++) states.add(finalState(rng));
+
+        List<ScoreBreakdown> scores;
+        try (ScoringService service = new ScoringService(4)) {
+            scores = service.score(states);
+            assertEquals(List.of(), service.score(List.of()));
+        }
+        assertEquals(GAMES, scores.size());
+        for (int i = 0; i < GAMES; i++) {
+            assertEquals(ScoringService.score(states.get(i)).toString(), scores.get(i).toString());
+        }
+    }
+
+    @Test
+    void gamesOfAJournalAreScoredAsTheGameScoredThem() throws IOException {
+        SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets());
+        Map<PlayerId, String> names = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+        Path file = Files.createTempFile("tchu", ".journal");
+        try {
+            List<GameResult> results = new ArrayList<>();
+            try (GameJournal journal = new GameJournal(file)) {
+                for (long seed = 0; seed < 10; seed++) {
+                    Game game = new Game(Map.of(PlayerId.PLAYER_1, new RandomPlayer(seed),
+                                                PlayerId.PLAYER_2, new RandomPlayer(seed + 1)),
+                                         names, tickets, new Random(seed), journal);
+                    game.run();
+                    results.add(game.result());
+                }
+            }
+
+            List<ScoreBreakdown> scores;
+            try (ScoringService service = new ScoringService(2)) {
+                scores = service.score(file, tickets);
+            }
+            assertEquals(results.size(), scores.size());
+            for (int i = 0; i < results.size(); i++) {
+                for (PlayerId id : PlayerId.ALL) {
+                    assertEquals(results.get(i).finalPoints(id), scores.get(i).finalPoints(id));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void constructorFailsWithoutThreads() {
+        assertThrows(IllegalArgumentException.class, () -> new ScoringService(0));
+    }
+}
@@ -0,0 +1,65 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.GameResult;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorTest {
+    private static final int GAMES = 40;
+
+    @Test
+    void simulationsDoNotDependOnTheNumberOfThreads() {
+        Simulator simulator = new Simulator(RandomPlayer::new, "a", RandomPlayer::new, "b");
+        Map<Long, String> results1 = new ConcurrentHashMap<>(), results4 = new ConcurrentHashMap<>();
+
+        SimulationStats stats1 = simulator.run(GAMES, 2021, 1, (game, result) -> results1.put(game, result.toString()));
+        SimulationStats stats4 = simulator.run(GAMES, 2021, 4, (game, result) -> results4.put(game, result.toString()));
+
+        assertEquals(GAMES, stats1.games() + stats1.failures());
+        assertEquals(results1, results4);
+        assertEquals(stats1.toJson(), stats4.toJson());
+        assertEquals(simulator.play(7, 2021).toString(), results1.get(7L));
+    }
+
+    @Test
+    void statsAggregateTheResultsOfTheGames() {
+        Simulator simulator = new Simulator(RandomPlayer::new, "a", RandomPlayer::new, "b");
+        SimulationStats stats = new SimulationStats();
+        long turns = 0;
+        int wins1 = 0;
+        for (int game = 0; game < GAMES; game++) {
+            GameResult result = simulator.play(game, 1);
+            stats.add(result);
+            turns += result.turnCount();
+            if (result.winner() == PlayerId.PLAYER_1) ++wins1;
+        }
+
+        assertEquals(GAMES, stats.games());
+        assertEquals((double) wins1 / GAMES, stats.winRate(PlayerId.PLAYER_1), 1e-9);
+        assertEquals(1, stats.winRate(PlayerId.PLAYER_1) + stats.winRate(PlayerId.PLAYER_2) + stats.drawRate(), 1e-9);
+        assertEquals((double) turns / GAMES, stats.meanTurns(), 1e-9);
+        assertEquals(stats.toJson(), new SimulationStats().combine(stats).toJson());
+        assertTrue(stats.toJson().startsWith("{\"games\": " + GAMES + ","));
+    }
+
+    @Test
+    void failingGamesAreCountedWithoutStoppingTheSimulation() {
+        LongFunction<Player> failing = seed -> {
+            if ((seed & 1) == 0) throw new IllegalStateException("Trop de tours joués !");
+            return new RandomPlayer(seed);
+        };
+        Simulator simulator = new Simulator(failing, "a", RandomPlayer::new, "b");
+        SimulationStats stats = simulator.run(GAMES, 2021, 2, null);
+
+        assertTrue(stats.failures() > 0 && stats.games() > 0);
+        assertEquals(GAMES, stats.games() + stats.failures());
+    }
+}